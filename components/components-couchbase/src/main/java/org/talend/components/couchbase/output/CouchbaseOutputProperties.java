@@ -33,6 +33,14 @@ public class CouchbaseOutputProperties extends CouchbaseProperties {
 
     public Property<Boolean> containsJson = PropertyFactory.newBoolean("containsJson");
 
+    // Upsert the documents by batches with the asynchronous API, instead of one by one
+    public Property<Boolean> asyncWrite = PropertyFactory.newBoolean("asyncWrite");
+
+    public Property<Integer> batchSize = PropertyFactory.newInteger("batchSize");
+
+    // The number of upserts of a batch which can be in progress at the same time
+    public Property<Integer> maxInFlight = PropertyFactory.newInteger("maxInFlight");
+
     public CouchbaseOutputProperties(String name) {
         super(name);
     }
@@ -42,6 +50,9 @@ public class CouchbaseOutputProperties extends CouchbaseProperties {
         super.setupProperties();
         idFieldName.setValue("id");
         containsJson.setValue(false);
+        asyncWrite.setValue(false);
+        batchSize.setValue(1000);
+        maxInFlight.setValue(64);
     }
 
     @Override
@@ -51,6 +62,25 @@ public class CouchbaseOutputProperties extends CouchbaseProperties {
         getForm(Form.MAIN).addRow(idFieldName);
         getForm(Form.MAIN).addRow(containsJson);
         getForm(Form.MAIN).addRow(dieOnError);
+
+        Form advancedForm = Form.create(this, Form.ADVANCED);
+        advancedForm.addRow(asyncWrite);
+        advancedForm.addRow(batchSize);
+        advancedForm.addColumn(maxInFlight);
+    }
+
+    @Override
+    public void refreshLayout(Form form) {
+        super.refreshLayout(form);
+
+        if (Form.ADVANCED.equals(form.getName())) {
+            form.getWidget(batchSize.getName()).setHidden(!asyncWrite.getValue());
+            form.getWidget(maxInFlight.getName()).setHidden(!asyncWrite.getValue());
+        }
+    }
+
+    public void afterAsyncWrite() {
+        refreshLayout(getForm(Form.ADVANCED));
     }
 
     @Override
@@ -15,14 +15,22 @@
  */
 package org.talend.components.couchbase.runtime;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.couchbase.client.java.Bucket;
 import com.couchbase.client.java.CouchbaseCluster;
+import com.couchbase.client.java.document.Document;
 import com.couchbase.client.java.document.JsonDocument;
 import com.couchbase.client.java.document.RawJsonDocument;
 import com.couchbase.client.java.document.json.JsonObject;
 import com.couchbase.client.java.env.CouchbaseEnvironment;
 import com.couchbase.client.java.env.DefaultCouchbaseEnvironment;
 
+import rx.Observable;
+import rx.functions.Func1;
+
 public class CouchbaseConnection {
 
     private final CouchbaseCluster cluster;
@@ -50,6 +58,34 @@ public class CouchbaseConnection {
         bucket.upsert(JsonDocument.create(id, jsonObject));
     }
 
+    /**
+     * Upsert the documents with the asynchronous API, with at most maxInFlight requests at the same time, and wait for
+     * all of them.
+     *
+     * @return the error of each document which was not upserted, by document.
+     */
+    public Map<Document<?>, Throwable> upsertAll(List<? extends Document<?>> documents, int maxInFlight) {
+        final Map<Document<?>, Throwable> errors = new IdentityHashMap<>();
+        Observable.from(documents).flatMap(new Func1<Document<?>, Observable<Document<?>>>() {
+
+            @Override
+            public Observable<Document<?>> call(final Document<?> document) {
+                Observable<Document<?>> upsert = bucket.async().upsert(document);
+                return upsert.onErrorResumeNext(new Func1<Throwable, Observable<Document<?>>>() {
+
+                    @Override
+                    public Observable<Document<?>> call(Throwable e) {
+                        synchronized (errors) {
+                            errors.put(document, e);
+                        }
+                        return Observable.empty();
+                    }
+                });
+            }
+        }, maxInFlight).toBlocking().lastOrDefault(null);
+        return errors;
+    }
+
     public void increment() {
         refCounter++;
     }
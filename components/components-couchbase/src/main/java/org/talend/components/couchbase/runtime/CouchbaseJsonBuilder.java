@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.talend.components.couchbase.runtime;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.avro.SchemaConstants;
+
+import com.couchbase.client.java.document.json.JsonObject;
+
+/**
+ * Build the JSON documents of the records. How to convert the values of each field is decided once from the schema:
+ * the values of the string fields which contain a JSON object are nested in the document, and the other values are
+ * written as they are when JSON supports their type.
+ */
+class CouchbaseJsonBuilder {
+
+    private enum ValueType {
+        /** A string which can contain a JSON object. */
+        TEXT,
+        /** A type of JSON: int, long, double and boolean. */
+        NATIVE,
+        FLOAT,
+        /** A type only known from the values, like the dates and the decimals of the Talend schemas. */
+        ANY
+    }
+
+    private Schema schema;
+
+    private ValueType[] valueTypes;
+
+    public JsonObject createHierarchicalJson(Schema schema, IndexedRecord record, int idPos) {
+        if (schema != this.schema) {
+            valueTypes = getValueTypes(schema);
+            this.schema = schema;
+        }
+        JsonObject jsonObject = JsonObject.create();
+        List<Schema.Field> fields = schema.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i == idPos) {
+                continue;
+            }
+            jsonObject.put(fields.get(i).name(), toJsonValue(record.get(i), valueTypes[i]));
+        }
+        return jsonObject;
+    }
+
+    private static ValueType[] getValueTypes(Schema schema) {
+        List<Schema.Field> fields = schema.getFields();
+        ValueType[] valueTypes = new ValueType[fields.size()];
+        for (int i = 0; i < valueTypes.length; i++) {
+            valueTypes[i] = getValueType(AvroUtils.unwrapIfNullable(fields.get(i).schema()));
+        }
+        return valueTypes;
+    }
+
+    private static ValueType getValueType(Schema fieldSchema) {
+        if (fieldSchema.getProp(SchemaConstants.JAVA_CLASS_FLAG) != null) {
+            return ValueType.ANY;
+        }
+        switch (fieldSchema.getType()) {
+        case STRING:
+        case ENUM:
+            return ValueType.TEXT;
+        case INT:
+        case LONG:
+        case DOUBLE:
+        case BOOLEAN:
+            return ValueType.NATIVE;
+        case FLOAT:
+            return ValueType.FLOAT;
+        default:
+            return ValueType.ANY;
+        }
+    }
+
+    private static Object toJsonValue(Object value, ValueType valueType) {
+        if (value == null) {
+            return null;
+        }
+        switch (valueType) {
+        case TEXT:
+            return toJsonText(value.toString());
+        case NATIVE:
+            return value;
+        case FLOAT:
+            return ((Number) value).doubleValue();
+        default:
+            if (value instanceof CharSequence) {
+                return toJsonText(value.toString());
+            } else if (value instanceof Float) {
+                return ((Float) value).doubleValue();
+            } else if (value instanceof Date) {
+                return ((Date) value).getTime();
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Double
+                    || value instanceof Boolean || value instanceof BigDecimal || value instanceof BigInteger) {
+                return value;
+            }
+            return value.toString();
+        }
+    }
+
+    /**
+     * @return the JSON object in the text, or the text if it doesn't contain a JSON object.
+     */
+    private static Object toJsonText(String text) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (start < text.length() && text.charAt(start) == '{') {
+            try {
+                return JsonObject.fromJson(text);
+            } catch (Exception e) {
+                // Not a JSON object after all
+            }
+        }
+        return text;
+    }
+}
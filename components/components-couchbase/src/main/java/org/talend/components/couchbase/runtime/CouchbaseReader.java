@@ -19,35 +19,27 @@ package org.talend.components.couchbase.runtime;
 import java.io.IOException;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.avro.generic.IndexedRecord;
-import org.joda.time.Instant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.talend.components.api.component.runtime.Reader;
+import org.talend.components.api.component.runtime.AbstractBoundedReader;
 import org.talend.components.api.component.runtime.Result;
-import org.talend.components.api.component.runtime.Source;
 import org.talend.components.api.container.RuntimeContainer;
 import org.talend.components.api.exception.ComponentException;
 
 import com.couchbase.client.deps.io.netty.buffer.ByteBuf;
 
-public class CouchbaseReader implements Reader<IndexedRecord> {
-    private transient static final Logger LOG = LoggerFactory.getLogger(CouchbaseStreamingConnection.class);
+public class CouchbaseReader extends AbstractBoundedReader<IndexedRecord> {
 
     private final RuntimeContainer container;
     private final CouchbaseSource source;
 
     private CouchbaseEventGenericRecordConverter converter;
     private CouchbaseStreamingConnection connection;
-    private LinkedBlockingQueue<ByteBuf> resultsQueue;
     private IndexedRecord currentRecord;
     private int recordCount;
 
     public CouchbaseReader(RuntimeContainer container, CouchbaseSource source) {
-        super();
+        super(source);
 
         this.container = container;
         this.source = source;
@@ -58,8 +50,7 @@ public class CouchbaseReader implements Reader<IndexedRecord> {
         try {
             converter = new CouchbaseEventGenericRecordConverter(source.getSchema());
             connection = source.getConnection(container);
-            resultsQueue = new LinkedBlockingQueue<>();
-            connection.startStreaming(resultsQueue);
+            connection.startStreaming(source.getFirstPartition(), source.getLastPartition());
         } catch (ClassNotFoundException e) {
             throw new ComponentException(e);
         }
@@ -68,26 +59,18 @@ public class CouchbaseReader implements Reader<IndexedRecord> {
 
     @Override
     public boolean advance() throws IOException {
-        while (true) {
-            ByteBuf event;
-            try {
-                event = resultsQueue.poll(1, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                LOG.error("Failed to poll event from the results queue", e);
-                return false;
-            }
-            if (event != null) {
-                currentRecord = converter.convertToAvro(event);
-                connection.acknowledge(event);
-                event.release();
-                recordCount++;
-                return true;
-            }
-            if (!connection.isStreaming() && resultsQueue.isEmpty()) {
-                break;
-            }
+        ByteBuf event = connection.nextEvent();
+        if (event == null) {
+            return false;
         }
-        return false;
+        try {
+            currentRecord = converter.convertToAvro(event);
+        } finally {
+            connection.acknowledge(event);
+            event.release();
+        }
+        recordCount++;
+        return true;
     }
 
     @Override
@@ -95,19 +78,11 @@ public class CouchbaseReader implements Reader<IndexedRecord> {
         return currentRecord;
     }
 
-    @Override
-    public Instant getCurrentTimestamp() throws NoSuchElementException {
-        return null;
-    }
-
     @Override
     public void close() throws IOException {
-        connection.stopStreaming();
-    }
-
-    @Override
-    public Source getCurrentSource() {
-        return source;
+        if (connection != null) {
+            connection.stopStreaming();
+        }
     }
 
     @Override
@@ -35,6 +35,12 @@ public class CouchbaseSink extends CouchbaseSourceOrSink implements Sink {
 
     private boolean containsJson;
 
+    private boolean asyncWrite;
+
+    private int batchSize;
+
+    private int maxInFlight;
+
     @Override
     public ValidationResult initialize(RuntimeContainer container, ComponentProperties properties) {
         if (properties instanceof CouchbaseOutputProperties) {
@@ -45,6 +51,9 @@ public class CouchbaseSink extends CouchbaseSourceOrSink implements Sink {
             this.idFieldName = outputProperties.idFieldName.getStringValue();
             this.dieOnError = outputProperties.dieOnError.getValue();
             this.containsJson = outputProperties.containsJson.getValue();
+            this.asyncWrite = Boolean.TRUE.equals(outputProperties.asyncWrite.getValue());
+            this.batchSize = getPositive(outputProperties.batchSize.getValue(), 1000);
+            this.maxInFlight = getPositive(outputProperties.maxInFlight.getValue(), 64);
             return ValidationResult.OK;
         }
         return new ValidationResult(Result.ERROR, "Wrong component properties, must be instanceof CouchbaseOutputProperties class");
@@ -77,6 +86,22 @@ public class CouchbaseSink extends CouchbaseSourceOrSink implements Sink {
         return containsJson;
     }
 
+    private static int getPositive(Integer value, int defaultValue) {
+        return value == null || value <= 0 ? defaultValue : value;
+    }
+
+    public boolean isAsyncWrite() {
+        return asyncWrite;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
     public CouchbaseConnection getConnection() {
         if (connection == null) {
             connection = connect();
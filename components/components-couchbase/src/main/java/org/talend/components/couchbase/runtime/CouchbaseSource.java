@@ -16,10 +16,13 @@
 
 package org.talend.components.couchbase.runtime;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.avro.Schema;
-import org.apache.avro.generic.IndexedRecord;
-import org.talend.components.api.component.runtime.Reader;
-import org.talend.components.api.component.runtime.Source;
+import org.talend.components.api.component.runtime.BoundedReader;
+import org.talend.components.api.component.runtime.BoundedSource;
 import org.talend.components.api.container.RuntimeContainer;
 import org.talend.components.api.properties.ComponentProperties;
 import org.talend.components.couchbase.ComponentConstants;
@@ -27,10 +30,16 @@ import org.talend.components.couchbase.input.CouchbaseInputProperties;
 import org.talend.daikon.properties.ValidationResult;
 import org.talend.daikon.properties.ValidationResult.Result;
 
-public class CouchbaseSource extends CouchbaseSourceOrSink implements Source {
+public class CouchbaseSource extends CouchbaseSourceOrSink implements BoundedSource {
     private static final long serialVersionUID = 3602741914997413619L;
 
+    /** The number of partitions (vbuckets) streamed by each bundle: 16 bundles for the 1024 partitions of a bucket. */
+    static final int PARTITIONS_PER_BUNDLE = 64;
+
     private Schema schema;
+    /** The partitions to stream, from firstPartition (inclusive) to lastPartition (exclusive, or all if negative). */
+    private int firstPartition = 0;
+    private int lastPartition = -1;
     private CouchbaseStreamingConnection connection;
 
     @Override
@@ -47,7 +56,51 @@ public class CouchbaseSource extends CouchbaseSourceOrSink implements Source {
     }
 
     @Override
-    public Reader<IndexedRecord> createReader(RuntimeContainer container) {
+    public List<? extends BoundedSource> splitIntoBundles(long desiredBundleSizeBytes, RuntimeContainer adaptor)
+            throws Exception {
+        CouchbaseStreamingConnection connection = new CouchbaseStreamingConnection(bootstrapNodes, bucket, password);
+        connection.connect();
+        try {
+            return splitPartitions(connection.getNumPartitions());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return the sources streaming the partitions of this source by ranges of {@link #PARTITIONS_PER_BUNDLE}.
+     */
+    List<CouchbaseSource> splitPartitions(int numPartitions) {
+        int last = lastPartition < 0 ? numPartitions : Math.min(lastPartition, numPartitions);
+        if (last - firstPartition <= PARTITIONS_PER_BUNDLE) {
+            return Collections.singletonList(this);
+        }
+        List<CouchbaseSource> bundles = new ArrayList<>();
+        for (int first = firstPartition; first < last; first += PARTITIONS_PER_BUNDLE) {
+            CouchbaseSource bundle = new CouchbaseSource();
+            bundle.bootstrapNodes = bootstrapNodes;
+            bundle.bucket = bucket;
+            bundle.password = password;
+            bundle.schema = schema;
+            bundle.firstPartition = first;
+            bundle.lastPartition = Math.min(first + PARTITIONS_PER_BUNDLE, last);
+            bundles.add(bundle);
+        }
+        return bundles;
+    }
+
+    @Override
+    public long getEstimatedSizeBytes(RuntimeContainer adaptor) {
+        return 0;
+    }
+
+    @Override
+    public boolean producesSortedKeys(RuntimeContainer adaptor) {
+        return false;
+    }
+
+    @Override
+    public BoundedReader createReader(RuntimeContainer container) {
         return new CouchbaseReader(container, this);
     }
 
@@ -55,6 +108,14 @@ public class CouchbaseSource extends CouchbaseSourceOrSink implements Source {
         return schema;
     }
 
+    public int getFirstPartition() {
+        return firstPartition;
+    }
+
+    public int getLastPartition() {
+        return lastPartition;
+    }
+
     @Override
     public ValidationResult validate(RuntimeContainer runtime) {
         try {
@@ -16,10 +16,14 @@
 
 package org.talend.components.couchbase.runtime;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,18 +34,49 @@ import com.couchbase.client.dcp.DataEventHandler;
 import com.couchbase.client.dcp.StreamFrom;
 import com.couchbase.client.dcp.StreamTo;
 import com.couchbase.client.dcp.config.DcpControl;
+import com.couchbase.client.dcp.message.DcpStreamEndMessage;
+import com.couchbase.client.dcp.message.StreamEndReason;
+import com.couchbase.client.dcp.state.PartitionState;
+import com.couchbase.client.dcp.state.SessionState;
 import com.couchbase.client.dcp.transport.netty.ChannelFlowController;
 import com.couchbase.client.deps.io.netty.buffer.ByteBuf;
 
+/**
+ * Stream the documents of a range of partitions (vbuckets) of a bucket, from the beginning to their state when the
+ * streaming starts.
+ *
+ * The events are queued by the DCP client threads in a bounded queue, and each event is acknowledged to the flow
+ * controller of its channel once it is consumed, so the nodes stop sending when the reader is behind. The end of the
+ * stream is detected from the stream end messages of the partitions.
+ *
+ * The DCP client threads never wait for the queue once the streaming is stopping: the events are then acknowledged and
+ * released at once, so the streams can be stopped while the reader doesn't consume the queue anymore.
+ */
 public class CouchbaseStreamingConnection {
     private transient static final Logger LOG = LoggerFactory.getLogger(CouchbaseStreamingConnection.class);
-    private static AtomicInteger threadId = new AtomicInteger(0);
+
+    static final int QUEUE_CAPACITY = 1024;
+
+    /** How long the DCP client threads wait for room in the queue before checking if the streaming is stopping. */
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private static final long STOP_TIMEOUT_MS = 10000;
+
+    /** Marks the end of the stream in the queue. */
+    private static final DataEvent END_OF_STREAM = new DataEvent(null, null);
 
     private final Client client;
     private volatile boolean connected;
     private volatile boolean streaming;
-    private volatile BlockingQueue<ByteBuf> resultsQueue;
-    private EventHandler dataEventHandler;
+    private volatile boolean stopping;
+    private volatile BlockingQueue<DataEvent> resultsQueue;
+    private Short[] partitions;
+    /** The partitions which didn't end yet. */
+    private Set<Short> pendingPartitions;
+    private volatile String streamError;
+    private boolean ended;
+    /** The flow controller of the channel of the last consumed event. */
+    private ChannelFlowController currentController;
 
     public CouchbaseStreamingConnection(String bootstrapNodes, String bucket, String password) {
         connected = false;
@@ -58,14 +93,25 @@ public class CouchbaseStreamingConnection {
 
             @Override
             public void onEvent(ChannelFlowController controller, ByteBuf event) {
+                if (DcpStreamEndMessage.is(event)) {
+                    streamEnded(DcpStreamEndMessage.vbucket(event), DcpStreamEndMessage.reason(event));
+                }
                 controller.ack(event);
                 event.release();
             }
         });
 
-        dataEventHandler = new EventHandler();
+        client.dataEventHandler(new DataEventHandler() {
 
-        client.dataEventHandler(dataEventHandler);
+            @Override
+            public void onEvent(ChannelFlowController controller, ByteBuf event) {
+                // Blocks the channel until the reader catches up, unless the streaming is stopping
+                if (!enqueue(new DataEvent(controller, event))) {
+                    controller.ack(event);
+                    event.release();
+                }
+            }
+        });
     }
 
     public void connect() {
@@ -88,87 +134,173 @@ public class CouchbaseStreamingConnection {
         return streaming;
     }
 
-    public void startStreaming(final BlockingQueue<ByteBuf> resultsQueue) {
+    /**
+     * @return the number of partitions of the bucket, once connected.
+     */
+    public int getNumPartitions() {
+        return client.numPartitions();
+    }
+
+    /**
+     * Start streaming the partitions from firstPartition (inclusive) to lastPartition (exclusive), or to the last
+     * partition of the bucket if lastPartition is negative. The events are then read with {@link #nextEvent()}.
+     */
+    public void startStreaming(int firstPartition, int lastPartition) {
         if (streaming) {
             LOG.warn("This connection already in streaming mode, create another one.");
             return;
         }
+        int numPartitions = client.numPartitions();
+        if (lastPartition < 0 || lastPartition > numPartitions) {
+            lastPartition = numPartitions;
+        }
         streaming = true;
-        this.resultsQueue = resultsQueue;
+        stopping = false;
+        ended = false;
+        streamError = null;
+        resultsQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
         client.initializeState(StreamFrom.BEGINNING, StreamTo.NOW).await();
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                int i = 0;
-                try {
-                    client.startStreaming(partitionsToStream()).await();
-                    while (true) {
-                        if (client.sessionState().isAtEnd()) {
-                            break;
-                        }
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            break;
-                        }
-                    }
-                } finally {
-                    streaming = false;
-                }
+
+        // The partitions which are already at their end have no stream to wait for
+        SessionState sessionState = client.sessionState();
+        Set<Short> pending = new HashSet<>();
+        for (int partition = firstPartition; partition < lastPartition; partition++) {
+            PartitionState partitionState = sessionState.get(partition);
+            if (partitionState.getStartSeqno() != partitionState.getEndSeqno()) {
+                pending.add((short) partition);
             }
-        }, "CouchbaseStreaming-" + threadId.incrementAndGet())
-                .start();
+        }
+        synchronized (this) {
+            partitions = pending.toArray(new Short[pending.size()]);
+            pendingPartitions = pending;
+        }
+        if (partitions.length == 0) {
+            endOfStream();
+        } else {
+            client.startStreaming(partitions).await();
+        }
+    }
+
+    /**
+     * Wait for the next event of the stream.
+     *
+     * @return the next event, which must be acknowledged with {@link #acknowledge(ByteBuf)} and released once
+     * consumed, or null at the end of the stream.
+     * @throws IOException if a partition stream ended before its end, or when interrupted.
+     */
+    public ByteBuf nextEvent() throws IOException {
+        BlockingQueue<DataEvent> queue = resultsQueue;
+        if (ended || queue == null) {
+            return null;
+        }
+        DataEvent event;
+        try {
+            event = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for DCP events", e);
+        }
+        if (event == END_OF_STREAM) {
+            ended = true;
+            if (streamError != null) {
+                throw new IOException(streamError);
+            }
+            return null;
+        }
+        currentController = event.controller;
+        return event.buffer;
     }
 
     public void stopStreaming() {
-        if (resultsQueue != null) {
-            client.stopStreaming(partitionsToStream()).await();
-            BlockingQueue<ByteBuf> queue = resultsQueue;
+        BlockingQueue<DataEvent> queue = resultsQueue;
+        if (queue != null) {
+            // The DCP client threads don't queue any event from now on
+            stopping = true;
             resultsQueue = null;
-            List<ByteBuf> drained = new ArrayList<ByteBuf>();
-            queue.drainTo(drained);
-            for (ByteBuf byteBuf : drained) {
-                byteBuf.release();
+            streaming = false;
+            // Release the queued events, which also lets the channels waiting for the queue go on
+            release(queue);
+            if (partitions.length > 0
+                    && !client.stopStreaming(partitions).await(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("The streams of the partitions were not stopped after {}ms, disconnecting", STOP_TIMEOUT_MS);
             }
-            client.disconnect();
+            disconnect();
+            // An event can have been queued while the queue was drained
+            release(queue);
         }
     }
 
+    /**
+     * Acknowledge the consumption of an event to the flow controller of its channel.
+     *
+     * @param event the last event returned by {@link #nextEvent()}.
+     */
     public void acknowledge(ByteBuf event) {
-        dataEventHandler.getController().ack(event);
+        if (currentController != null) {
+            currentController.ack(event);
+        }
     }
 
-    private Short[] partitionsToStream() {
-        Short[] partitions = new Short[1024];
-        for (short i = 0; i < 1024; i++) {
-            partitions[i] = i;
+    synchronized void streamEnded(short partition, StreamEndReason reason) {
+        if (pendingPartitions == null || !pendingPartitions.remove(partition)) {
+            return;
+        }
+        if (reason != StreamEndReason.OK) {
+            // The documents of the partition can't all be read, stop at once instead of waiting for the others
+            streamError = "The stream of the partition " + partition + " ended before its end: " + reason;
+            pendingPartitions.clear();
+        }
+        if (pendingPartitions.isEmpty()) {
+            endOfStream();
         }
-        return partitions;
     }
 
-    private class EventHandler implements DataEventHandler {
-
-        private ChannelFlowController classController;
+    private void endOfStream() {
+        streaming = false;
+        enqueue(END_OF_STREAM);
+    }
 
-        @Override
-        public void onEvent(ChannelFlowController controller, ByteBuf event) {
-            if (controller != null) {
-                this.classController = controller;
-            }
-            if (resultsQueue != null) {
-                try {
-                    resultsQueue.put(event);
-                } catch (InterruptedException e) {
-                    LOG.error("Unable to put DCP request into the results queue");
+    /**
+     * Wait for room in the queue to add an event, unless the streaming is stopping.
+     *
+     * @return false if the event was not queued.
+     */
+    private boolean enqueue(DataEvent event) {
+        BlockingQueue<DataEvent> queue = resultsQueue;
+        try {
+            while (queue != null && !stopping) {
+                if (queue.offer(event, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    // The queue may already be drained by stopStreaming, take the event back unless it was drained
+                    return !stopping || !queue.remove(event);
                 }
-            } else {
-                controller.ack(event);
-                event.release();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("Unable to put DCP request into the results queue");
         }
+        return false;
+    }
 
-        public ChannelFlowController getController() {
-            return this.classController;
+    private static void release(BlockingQueue<DataEvent> queue) {
+        List<DataEvent> drained = new ArrayList<DataEvent>();
+        queue.drainTo(drained);
+        for (DataEvent event : drained) {
+            if (event.buffer != null) {
+                event.controller.ack(event.buffer);
+                event.buffer.release();
+            }
         }
-    };
+    }
+
+    private static class DataEvent {
+
+        private final ChannelFlowController controller;
+
+        private final ByteBuf buffer;
+
+        DataEvent(ChannelFlowController controller, ByteBuf buffer) {
+            this.controller = controller;
+            this.buffer = buffer;
+        }
+    }
 }
@@ -16,9 +16,15 @@
 
 package org.talend.components.couchbase.runtime;
 
+import com.couchbase.client.java.document.Document;
+import com.couchbase.client.java.document.JsonDocument;
+import com.couchbase.client.java.document.RawJsonDocument;
 import com.couchbase.client.java.document.json.JsonObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
@@ -36,6 +42,12 @@ public class CouchbaseWriter implements Writer<Result> {
     private final String idFieldName;
     private final boolean dieOnError;
     private final boolean containsJson;
+    private final boolean asyncWrite;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final CouchbaseJsonBuilder jsonBuilder = new CouchbaseJsonBuilder();
+    // The documents of the current batch, when they are upserted asynchronously
+    private final List<Document<?>> batch = new ArrayList<>();
     private volatile boolean opened;
     private Result result;
     private CouchbaseConnection connection;
@@ -46,6 +58,9 @@ public class CouchbaseWriter implements Writer<Result> {
         this.idFieldName = sink.getIdFieldName();
         this.dieOnError = sink.isDieOnError();
         this.containsJson = sink.getContainsJson();
+        this.asyncWrite = sink.isAsyncWrite();
+        this.batchSize = sink.getBatchSize();
+        this.maxInFlight = sink.getMaxInFlight();
     }
 
     @Override
@@ -86,6 +101,22 @@ public class CouchbaseWriter implements Writer<Result> {
             handleException("Record is not processed. ID is null.", new IllegalArgumentException("ID field should not be null"));
             return;
         }
+        if (asyncWrite) {
+            try {
+                if (containsJson) {
+                    batch.add(JsonDocument.create(id.toString(), createHierarchicalJson(schema, record, idPos)));
+                } else {
+                    batch.add(RawJsonDocument.create(id.toString(), datum.toString()));
+                }
+            } catch (Exception e) {
+                handleException("Record is not processed. Failed to create document - " + datum.toString(), e);
+                return;
+            }
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+            return;
+        }
         try {
             if (containsJson){
                 connection.insertJsonDocument(id.toString(), createHierarchicalJson(schema, record, idPos));
@@ -99,19 +130,37 @@ public class CouchbaseWriter implements Writer<Result> {
     }
 
     public JsonObject createHierarchicalJson(Schema schema, IndexedRecord record, int idPos){
-        JsonObject jsonObject = JsonObject.create();
-        for (int i = 0; i < schema.getFields().size(); i++){
-            if (i == idPos) continue;
-            Object value = record.get(i);
-            String fieldName = schema.getFields().get(i).name();
-            try {
-                JsonObject innerJson = JsonObject.fromJson(value.toString());
-                jsonObject.put(fieldName, innerJson);
-            } catch (Exception e) {
-                jsonObject.put(fieldName, value);
+        return jsonBuilder.createHierarchicalJson(schema, record, idPos);
+    }
+
+    /**
+     * Upserts the documents of the batch, and waits for all of them.
+     */
+    private void flush() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Document<?>, Throwable> errors;
+        try {
+            errors = connection.upsertAll(batch, maxInFlight);
+        } catch (Exception e) {
+            // Not knowing which documents were upserted, the whole batch is rejected
+            int size = batch.size();
+            batch.clear();
+            if (dieOnError) {
+                throw new IOException("Failed to upsert a batch of " + size + " documents", e);
             }
+            LOGGER.warn("Failed to upsert a batch of " + size + " documents", e);
+            result.rejectCount += size;
+            return;
+        }
+        result.successCount += batch.size() - errors.size();
+        batch.clear();
+        for (Map.Entry<Document<?>, Throwable> error : errors.entrySet()) {
+            Throwable cause = error.getValue();
+            handleException("Record is not processed. Failed to upsert document - " + error.getKey().id(),
+                    cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
         }
-        return jsonObject;
     }
 
     private void handleException(String message, Exception e) throws IOException {
@@ -124,7 +173,11 @@ public class CouchbaseWriter implements Writer<Result> {
 
     @Override
     public Result close() throws IOException {
-        connection.decrement();
+        try {
+            flush();
+        } finally {
+            connection.decrement();
+        }
         return result;
     }
 
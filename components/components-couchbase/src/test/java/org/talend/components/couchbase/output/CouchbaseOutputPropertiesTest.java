@@ -38,6 +38,21 @@ public class CouchbaseOutputPropertiesTest {
         Assert.assertNotNull(mainForm.getWidget(properties.idFieldName));
     }
 
+    @Test
+    public void testAsyncWriteLayout() {
+        properties.init();
+
+        Form advancedForm = properties.getForm(Form.ADVANCED);
+        Assert.assertFalse(properties.asyncWrite.getValue());
+        Assert.assertTrue(advancedForm.getWidget(properties.batchSize.getName()).isHidden());
+        Assert.assertTrue(advancedForm.getWidget(properties.maxInFlight.getName()).isHidden());
+
+        properties.asyncWrite.setValue(true);
+        properties.afterAsyncWrite();
+        Assert.assertTrue(advancedForm.getWidget(properties.batchSize.getName()).isVisible());
+        Assert.assertTrue(advancedForm.getWidget(properties.maxInFlight.getName()).isVisible());
+    }
+
     @Test
     public void testOutputConnectorGetAllSchemaPropertiesConnectors() {
         Assert.assertTrue(properties.getAllSchemaPropertiesConnectors(true).isEmpty());
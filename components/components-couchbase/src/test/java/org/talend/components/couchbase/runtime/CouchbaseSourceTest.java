@@ -1,6 +1,7 @@
 package org.talend.components.couchbase.runtime;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -38,6 +39,21 @@ public class CouchbaseSourceTest {
         Assert.assertTrue(reader instanceof CouchbaseReader);
     }
 
+    @Test
+    public void testSplitPartitions() {
+        List<CouchbaseSource> bundles = source.splitPartitions(1024);
+        Assert.assertEquals(1024 / CouchbaseSource.PARTITIONS_PER_BUNDLE, bundles.size());
+        Assert.assertEquals(0, bundles.get(0).getFirstPartition());
+        Assert.assertEquals(CouchbaseSource.PARTITIONS_PER_BUNDLE, bundles.get(0).getLastPartition());
+        Assert.assertEquals(1024, bundles.get(bundles.size() - 1).getLastPartition());
+        Assert.assertEquals(schema, bundles.get(1).getSchema());
+
+        // A bundle of a split isn't split again
+        Assert.assertEquals(1, bundles.get(1).splitPartitions(1024).size());
+        // Nor a bucket with few partitions
+        Assert.assertEquals(1, source.splitPartitions(CouchbaseSource.PARTITIONS_PER_BUNDLE).size());
+    }
+
     @Test
     public void testGetSchema() {
         Assert.assertEquals(schema, source.getSchema());
@@ -1,12 +1,13 @@
 package org.talend.components.couchbase.runtime;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -14,10 +15,14 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.couchbase.client.dcp.Client;
 import com.couchbase.client.dcp.Client.Builder;
+import com.couchbase.client.dcp.DataEventHandler;
 import com.couchbase.client.dcp.StreamFrom;
 import com.couchbase.client.dcp.StreamTo;
 import com.couchbase.client.dcp.config.DcpControl.Names;
+import com.couchbase.client.dcp.message.StreamEndReason;
+import com.couchbase.client.dcp.state.PartitionState;
 import com.couchbase.client.dcp.state.SessionState;
+import com.couchbase.client.dcp.transport.netty.ChannelFlowController;
 import com.couchbase.client.deps.io.netty.buffer.ByteBuf;
 
 import rx.Completable;
@@ -65,47 +70,132 @@ public class CouchbaseStreamingConnectionTest {
         Assert.assertTrue(streamingConnection.isClosed());
     }
 
-    @Test
-    public void testStartStreaming() throws InterruptedException {
+    private void mockPartitions(long... endSeqnos) {
+        Mockito.when(client.numPartitions()).thenReturn(endSeqnos.length);
         Mockito.when(client.initializeState(StreamFrom.BEGINNING, StreamTo.NOW)).thenReturn(Completable.complete());
         Mockito.when(client.startStreaming(Mockito.<Short[]>anyVararg())).thenReturn(Completable.complete());
+        Mockito.when(client.stopStreaming(Mockito.<Short[]>anyVararg())).thenReturn(Completable.complete());
         SessionState sessionState = Mockito.mock(SessionState.class);
-        Mockito.when(sessionState.isAtEnd()).thenReturn(false, false, true);
+        for (int i = 0; i < endSeqnos.length; i++) {
+            PartitionState partitionState = Mockito.mock(PartitionState.class);
+            Mockito.when(partitionState.getStartSeqno()).thenReturn(0L);
+            Mockito.when(partitionState.getEndSeqno()).thenReturn(endSeqnos[i]);
+            Mockito.when(sessionState.get(i)).thenReturn(partitionState);
+        }
         Mockito.when(client.sessionState()).thenReturn(sessionState);
+    }
 
-        BlockingQueue<ByteBuf> resultsQueue = new ArrayBlockingQueue<>(3);
+    @Test
+    public void testStartStreaming() throws IOException {
+        mockPartitions(10L, 0L, 5L, 7L);
 
-        streamingConnection.startStreaming(resultsQueue);
+        streamingConnection.startStreaming(1, 3);
 
         Assert.assertTrue(streamingConnection.isStreaming());
+        // The empty partition 1 is skipped
+        Mockito.verify(client, Mockito.times(1)).startStreaming(new Short[] { 2 });
 
-        Thread.sleep(2000);
-        Mockito.verify(client, Mockito.times(3)).sessionState();
+        streamingConnection.streamEnded((short) 2, StreamEndReason.OK);
+        Assert.assertFalse(streamingConnection.isStreaming());
+        Assert.assertNull(streamingConnection.nextEvent());
+        Assert.assertNull(streamingConnection.nextEvent());
     }
 
     @Test
-    public void testStartStopStreaming() throws InterruptedException {
-        Mockito.when(client.initializeState(StreamFrom.BEGINNING, StreamTo.NOW)).thenReturn(Completable.complete());
-        Mockito.when(client.startStreaming(Mockito.<Short[]>anyVararg())).thenReturn(Completable.complete());
-        Mockito.when(client.stopStreaming(Mockito.<Short[]>anyVararg())).thenReturn(Completable.complete());
-        SessionState sessionState = Mockito.mock(SessionState.class);
-        Mockito.when(sessionState.isAtEnd()).thenReturn(false, true);
-        Mockito.when(client.sessionState()).thenReturn(sessionState);
+    public void testEndOfStream() throws IOException {
+        mockPartitions(10L, 5L);
 
-        BlockingQueue<ByteBuf> resultsQueue = new ArrayBlockingQueue<>(4);
-        resultsQueue.put(Mockito.mock(ByteBuf.class));
-        resultsQueue.put(Mockito.mock(ByteBuf.class));
-        resultsQueue.put(Mockito.mock(ByteBuf.class));
-        resultsQueue.put(Mockito.mock(ByteBuf.class));
-        Mockito.when(client.disconnect()).thenReturn(Completable.complete());
+        streamingConnection.startStreaming(0, -1);
+        Mockito.verify(client, Mockito.times(1)).startStreaming(Mockito.<Short[]>anyVararg());
+
+        streamingConnection.streamEnded((short) 1, StreamEndReason.OK);
+        // A partition which isn't streamed is ignored
+        streamingConnection.streamEnded((short) 5, StreamEndReason.OK);
+        Assert.assertTrue(streamingConnection.isStreaming());
+
+        streamingConnection.streamEnded((short) 0, StreamEndReason.OK);
+        Assert.assertFalse(streamingConnection.isStreaming());
+        Assert.assertNull(streamingConnection.nextEvent());
+    }
 
+    @Test
+    public void testEmptyPartitions() throws IOException {
+        mockPartitions(0L, 0L);
+
+        streamingConnection.startStreaming(0, -1);
+
+        Mockito.verify(client, Mockito.never()).startStreaming(Mockito.<Short[]>anyVararg());
+        Assert.assertNull(streamingConnection.nextEvent());
+    }
 
-        streamingConnection.startStreaming(resultsQueue);
+    @Test(expected = IOException.class)
+    public void testStreamEndError() throws IOException {
+        mockPartitions(10L, 5L);
+
+        streamingConnection.startStreaming(0, -1);
+        streamingConnection.streamEnded((short) 1, StreamEndReason.STATE_CHANGED);
+
+        streamingConnection.nextEvent();
+    }
+
+    @Test
+    public void testStartStopStreaming() {
+        Mockito.when(client.connect()).thenReturn(Completable.complete());
+        Mockito.when(client.disconnect()).thenReturn(Completable.complete());
+        mockPartitions(10L, 5L);
+
+        streamingConnection.connect();
+        streamingConnection.startStreaming(0, -1);
         streamingConnection.stopStreaming();
 
-        Thread.sleep(1500);
-        Mockito.verify(client, Mockito.times(2)).sessionState();
+        Assert.assertFalse(streamingConnection.isStreaming());
+        Assert.assertTrue(streamingConnection.isClosed());
+        Mockito.verify(client, Mockito.times(1)).stopStreaming(Mockito.<Short[]>anyVararg());
         Mockito.verify(client, Mockito.times(1)).disconnect();
     }
 
+    /**
+     * Checks a DCP client thread waiting for room in the queue is released when the streaming stops, and that the
+     * events are then acknowledged and released at once.
+     */
+    @Test
+    public void testStopStreamingFullQueue() throws Exception {
+        ArgumentCaptor<DataEventHandler> handlerCaptor = ArgumentCaptor.forClass(DataEventHandler.class);
+        Mockito.verify(client).dataEventHandler(handlerCaptor.capture());
+        final DataEventHandler handler = handlerCaptor.getValue();
+        Mockito.when(client.connect()).thenReturn(Completable.complete());
+        Mockito.when(client.disconnect()).thenReturn(Completable.complete());
+        mockPartitions(10L, 5L);
+
+        streamingConnection.connect();
+        streamingConnection.startStreaming(0, -1);
+        final ChannelFlowController controller = Mockito.mock(ChannelFlowController.class);
+        for (int i = 0; i < CouchbaseStreamingConnection.QUEUE_CAPACITY; i++) {
+            handler.onEvent(controller, Mockito.mock(ByteBuf.class));
+        }
+        final ByteBuf blocked = Mockito.mock(ByteBuf.class);
+        Thread dcpThread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                handler.onEvent(controller, blocked);
+            }
+        });
+        dcpThread.start();
+        dcpThread.join(500);
+        Assert.assertTrue(dcpThread.isAlive());
+
+        streamingConnection.stopStreaming();
+        dcpThread.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(dcpThread.isAlive());
+        Mockito.verify(blocked).release();
+        Mockito.verify(controller, Mockito.times(CouchbaseStreamingConnection.QUEUE_CAPACITY + 1))
+                .ack(Mockito.any(ByteBuf.class));
+
+        // The events received while stopping are not queued
+        ByteBuf event = Mockito.mock(ByteBuf.class);
+        handler.onEvent(controller, event);
+        Mockito.verify(event).release();
+    }
+
 }
@@ -1,9 +1,13 @@
 package org.talend.components.couchbase.runtime;
 
+import com.couchbase.client.java.document.Document;
 import com.couchbase.client.java.document.json.JsonArray;
 import com.couchbase.client.java.document.json.JsonObject;
 
 import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -13,6 +17,8 @@ import org.hamcrest.Matchers;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.talend.components.api.component.runtime.Result;
 
 import static org.junit.Assert.assertEquals;
@@ -130,6 +136,49 @@ public class CouchbaseWriterTest {
         Mockito.verify(connection, Mockito.times(1)).decrement();
     }
 
+    @Test
+    public void testAsyncWriter() throws IOException {
+        // Prepare objects.
+        CouchbaseConnection connection = Mockito.mock(CouchbaseConnection.class);
+        Mockito.when(sink.getConnection()).thenReturn(connection);
+        Mockito.when(sink.isAsyncWrite()).thenReturn(true);
+        Mockito.when(sink.getBatchSize()).thenReturn(2);
+        Mockito.when(sink.getMaxInFlight()).thenReturn(8);
+        writer = new CouchbaseWriter(writeOperation);
+        // The documents with the id 3 are not upserted
+        Mockito.when(connection.upsertAll(Mockito.<List<Document<?>>> any(), Mockito.eq(8)))
+                .thenAnswer(new Answer<Map<Document<?>, Throwable>>() {
+
+                    @Override
+                    public Map<Document<?>, Throwable> answer(InvocationOnMock invocation) {
+                        Map<Document<?>, Throwable> errors = new IdentityHashMap<>();
+                        for (Document<?> document : (List<Document<?>>) invocation.getArguments()[0]) {
+                            if ("3".equals(document.id())) {
+                                errors.put(document, new RuntimeException("upsert failed"));
+                            }
+                        }
+                        return errors;
+                    }
+                });
+
+        Schema schema = SchemaBuilder.builder().record("record").fields().requiredString("idFieldName").endRecord();
+
+        // Calling real methods.
+        writer.open("random");
+        for (int i = 1; i <= 5; i++) {
+            writer.write(new GenericRecordBuilder(schema).set("idFieldName", String.valueOf(i)).build());
+        }
+        Result result = writer.close();
+
+        assertEquals(5, result.totalCount);
+        assertEquals(4, result.successCount);
+        assertEquals(1, result.rejectCount);
+        // Two full batches, and the last document on close
+        Mockito.verify(connection, Mockito.times(3)).upsertAll(Mockito.<List<Document<?>>> any(), Mockito.eq(8));
+        Mockito.verify(connection, Mockito.never()).upsert(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(connection, Mockito.times(1)).decrement();
+    }
+
     @Test
     public void testJsonCreationWithFlatSchema(){
         int idPos = 0;
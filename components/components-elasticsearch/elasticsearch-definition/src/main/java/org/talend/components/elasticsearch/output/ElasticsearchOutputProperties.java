@@ -26,12 +26,26 @@ import org.talend.components.elasticsearch.ElasticsearchDatasetDefinition;
 import org.talend.components.elasticsearch.ElasticsearchDatasetProperties;
 import org.talend.daikon.properties.ReferenceProperties;
 import org.talend.daikon.properties.presentation.Form;
+import org.talend.daikon.properties.property.Property;
+import org.talend.daikon.properties.property.PropertyFactory;
 
 public class ElasticsearchOutputProperties extends FixedConnectorsComponentProperties implements IOProperties {
 
     public ReferenceProperties<ElasticsearchDatasetProperties> datasetRef = new ReferenceProperties<>("datasetRef",
             ElasticsearchDatasetDefinition.NAME);
 
+    /**
+     * The field of the records used as the id of the documents, so that writing a record again replaces its document.
+     * The documents get a generated id if it is empty.
+     */
+    public Property<String> idField = PropertyFactory.newString("idField");
+
+    /** The maximum number of documents in a bulk request. */
+    public Property<Long> maxBatchSize = PropertyFactory.newProperty(Long.class, "maxBatchSize");
+
+    /** The maximum size of the documents in a bulk request, in bytes. */
+    public Property<Long> maxBatchSizeBytes = PropertyFactory.newProperty(Long.class, "maxBatchSizeBytes");
+
     protected transient PropertyPathConnector MAIN_CONNECTOR = new PropertyPathConnector(Connector.MAIN_NAME, "dataset.main");
 
     public ElasticsearchOutputProperties(String name) {
@@ -42,6 +56,16 @@ public class ElasticsearchOutputProperties extends FixedConnectorsComponentPrope
     public void setupLayout() {
         super.setupLayout();
         Form mainForm = new Form(this, Form.MAIN);
+        mainForm.addRow(idField);
+        mainForm.addRow(maxBatchSize);
+        mainForm.addRow(maxBatchSizeBytes);
+    }
+
+    @Override
+    public void setupProperties() {
+        super.setupProperties();
+        maxBatchSize.setValue(1000L);
+        maxBatchSizeBytes.setValue(5L * 1024L * 1024L);
     }
 
     @Override
@@ -54,6 +54,9 @@ public class ElasticsearchOutputPropertiesTest {
      */
     @Test
     public void testDefaultProperties() {
+        assertNull(properties.idField.getValue());
+        assertEquals(Long.valueOf(1000L), properties.maxBatchSize.getValue());
+        assertEquals(Long.valueOf(5L * 1024L * 1024L), properties.maxBatchSizeBytes.getValue());
     }
 
     /**
@@ -64,6 +67,10 @@ public class ElasticsearchOutputPropertiesTest {
     public void testSetupLayout() {
         Form main = properties.getForm(Form.MAIN);
         Collection<Widget> mainWidgets = main.getWidgets();
+        assertThat(mainWidgets, hasSize(3));
+        assertThat(main.getWidget(properties.idField), notNullValue());
+        assertThat(main.getWidget(properties.maxBatchSize), notNullValue());
+        assertThat(main.getWidget(properties.maxBatchSizeBytes), notNullValue());
     }
 
     /**
@@ -44,6 +44,10 @@ public class ElasticsearchDatasetRuntime implements DatasetRuntime<Elasticsearch
 
     @Override
     public Schema getSchema() {
+        Schema mappingSchema = ElasticsearchInputRuntime.getMappingSchema(properties);
+        if (mappingSchema != null) {
+            return mappingSchema;
+        }
         // Simple schema container.
         final Schema[] s = new Schema[1];
         // Try to get one record and determine its schema in a callback.
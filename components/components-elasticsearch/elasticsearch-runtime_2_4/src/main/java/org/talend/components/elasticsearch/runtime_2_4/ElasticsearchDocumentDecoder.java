@@ -0,0 +1,179 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.elasticsearch.runtime_2_4;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.avro.SchemaConstants;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Decode the JSON documents in records of a fixed schema while they are parsed, without creating a JSON tree.
+ *
+ * The fields of the documents which aren't in the schema are skipped, and the fields of the schema which aren't in a
+ * document are null. A field of Elasticsearch can have several values: when the schema doesn't expect an array, the
+ * values are kept in the JSON text of the array in a string field, and a document with several values for another type
+ * of field is rejected.
+ */
+public class ElasticsearchDocumentDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Schema schema;
+
+    /** The fields of each record schema, by their name in the documents. */
+    private final Map<Schema, Map<String, Schema.Field>> documentFields = new IdentityHashMap<>();
+
+    public ElasticsearchDocumentDecoder(Schema schema) {
+        this.schema = schema;
+    }
+
+    public GenericRecord decode(String document) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(document)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The document is not a JSON object: " + document);
+            }
+            return readRecord(parser, schema);
+        }
+    }
+
+    private GenericRecord readRecord(JsonParser parser, Schema recordSchema) throws IOException {
+        GenericRecord record = new GenericData.Record(recordSchema);
+        Map<String, Schema.Field> fields = getDocumentFields(recordSchema);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Schema.Field field = fields.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (field == null) {
+                parser.skipChildren();
+            } else {
+                record.put(field.pos(), readValue(parser, token, field.schema()));
+            }
+        }
+        return record;
+    }
+
+    private Map<String, Schema.Field> getDocumentFields(Schema recordSchema) {
+        Map<String, Schema.Field> fields = documentFields.get(recordSchema);
+        if (fields == null) {
+            fields = new HashMap<>();
+            for (Schema.Field field : recordSchema.getFields()) {
+                String name = field.getProp(SchemaConstants.TALEND_COLUMN_DB_COLUMN_NAME);
+                fields.put(name == null ? field.name() : name, field);
+            }
+            documentFields.put(recordSchema, fields);
+        }
+        return fields;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token, Schema valueSchema) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        Schema type = AvroUtils.unwrapIfNullable(valueSchema);
+        if (type.getType() == Schema.Type.ARRAY) {
+            List<Object> values = new ArrayList<>();
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    values.add(readValue(parser, token, type.getElementType()));
+                }
+            } else {
+                values.add(readValue(parser, token, type.getElementType()));
+            }
+            return values;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            switch (type.getType()) {
+            case RECORD:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case BOOLEAN:
+                return readSingleValue(parser, type);
+            default:
+                return copyObject(parser);
+            }
+        }
+        switch (type.getType()) {
+        case RECORD:
+            if (token != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readRecord(parser, type);
+        case STRING:
+            if (token == JsonToken.START_OBJECT) {
+                return copyObject(parser);
+            }
+            return parser.getText();
+        case INT:
+            return token == JsonToken.START_OBJECT ? skip(parser) : parser.getValueAsInt();
+        case LONG:
+            return token == JsonToken.START_OBJECT ? skip(parser) : parser.getValueAsLong();
+        case FLOAT:
+            return token == JsonToken.START_OBJECT ? skip(parser) : (float) parser.getValueAsDouble();
+        case DOUBLE:
+            return token == JsonToken.START_OBJECT ? skip(parser) : parser.getValueAsDouble();
+        case BOOLEAN:
+            return token == JsonToken.START_OBJECT ? skip(parser) : parser.getValueAsBoolean();
+        default:
+            return token == JsonToken.START_OBJECT ? copyObject(parser) : parser.getText();
+        }
+    }
+
+    /**
+     * @return the value of an array which has at most one value, as the value of a field which isn't an array.
+     * @throws IOException if the array has several values, which can't all be kept.
+     */
+    private Object readSingleValue(JsonParser parser, Schema type) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        Object value = readValue(parser, token, type);
+        if (parser.nextToken() != JsonToken.END_ARRAY) {
+            throw new IOException("Several values can't be decoded in a field of type " + type.getType() + " at "
+                    + parser.getCurrentLocation());
+        }
+        return value;
+    }
+
+    private static Object skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * @return the JSON of the current object or array, for the values which are kept in a string.
+     */
+    private static String copyObject(JsonParser parser) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+}
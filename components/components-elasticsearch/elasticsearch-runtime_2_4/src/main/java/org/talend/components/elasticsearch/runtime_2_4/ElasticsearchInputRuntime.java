@@ -12,6 +12,8 @@
 // ============================================================================
 package org.talend.components.elasticsearch.runtime_2_4;
 
+import java.io.IOException;
+
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
@@ -22,6 +24,7 @@ import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
+import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.talend.components.adapter.beam.coders.LazyAvroCoder;
@@ -31,6 +34,7 @@ import org.talend.components.elasticsearch.ElasticsearchDatasetProperties;
 import org.talend.components.elasticsearch.input.ElasticsearchInputProperties;
 import org.talend.daikon.avro.converter.JsonGenericRecordConverter;
 import org.talend.daikon.avro.inferrer.JsonSchemaInferrer;
+import org.talend.daikon.exception.TalendRuntimeException;
 import org.talend.daikon.properties.ValidationResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -101,6 +105,12 @@ public class ElasticsearchInputRuntime extends PTransform<PBegin, PCollection<In
             esRead = esRead.withQuery("{\"from\": 0,\"size\":" + MAX_SAMPLING_SIZE + ",\"query\": { \"match_all\": {} }}");
         }
         PCollection<String> readFromElasticsearch = in.apply(esRead);
+        Schema mappingSchema = getMappingSchema(properties.getDatasetProperties());
+        if (mappingSchema != null) {
+            return readFromElasticsearch.apply("DocumentToIndexedRecord",
+                    ParDo.of(new DocumentToIndexedRecordFn(mappingSchema.toString())));
+        }
+        // Without mapping, the schema is inferred from the first document
         PCollection<IndexedRecord> elasticsearchDataAsAvro =
                 readFromElasticsearch.apply("DocumentToIndexedRecord", ParDo.of(new DoFn<String, IndexedRecord>() {
 
@@ -118,6 +128,38 @@ public class ElasticsearchInputRuntime extends PTransform<PBegin, PCollection<In
         return elasticsearchDataAsAvro;
     }
 
+    /**
+     * @return the schema of the documents from the mapping of the type, or null if it has no fields.
+     */
+    static Schema getMappingSchema(ElasticsearchDatasetProperties dataset) {
+        try (RestClient client = ElasticsearchConnection.createClient(dataset.getDatastoreProperties())) {
+            return ElasticsearchMappingSchema.getSchema(client, dataset.index.getValue(), dataset.type.getValue());
+        } catch (IOException e) {
+            throw TalendRuntimeException.createUnexpectedException(e);
+        }
+    }
+
+    public static class DocumentToIndexedRecordFn extends DoFn<String, IndexedRecord> {
+
+        private final String schemaStr;
+
+        private transient ElasticsearchDocumentDecoder decoder;
+
+        DocumentToIndexedRecordFn(String schemaStr) {
+            this.schemaStr = schemaStr;
+        }
+
+        @DoFn.Setup
+        public void setup() {
+            decoder = new ElasticsearchDocumentDecoder(new Schema.Parser().parse(schemaStr));
+        }
+
+        @DoFn.ProcessElement
+        public void processElement(ProcessContext c) throws IOException {
+            c.output(decoder.decode(c.element()));
+        }
+    }
+
     private String range(final int from, final int to) {
         final StringBuilder out = new StringBuilder();
         for (int i = from; i < to; i++) {
@@ -0,0 +1,140 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.elasticsearch.runtime_2_4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.SchemaBuilder;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.avro.NameUtil;
+import org.talend.daikon.avro.SchemaConstants;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Create the schema of the documents of a type from the mapping of its index, instead of inferring it from a document,
+ * so that it has all the fields even if the first documents don't.
+ *
+ * All the fields are nullable, the objects are nested records and the nested documents are arrays of records. The
+ * fields whose name isn't a valid avro name are renamed, and keep their name in the
+ * {@link SchemaConstants#TALEND_COLUMN_DB_COLUMN_NAME} property.
+ */
+public class ElasticsearchMappingSchema {
+
+    private ElasticsearchMappingSchema() {
+    }
+
+    /**
+     * @return the schema of the documents of the type, or null if its mapping has no fields.
+     */
+    public static Schema getSchema(RestClient client, String index, String type) throws IOException {
+        Response response = client.performRequest("GET", "/" + index + "/_mapping/" + type,
+                Collections.<String, String> emptyMap());
+        ElasticsearchResponse esResponse = new ElasticsearchResponse(response);
+        if (!esResponse.isOk()) {
+            throw new IOException("Unable to get the mapping of " + index + "/" + type + ": " + esResponse.getStatusLine());
+        }
+        return getSchema(esResponse.getEntity(), type);
+    }
+
+    /**
+     * @param mappings the response of the mapping API, with the mapping of the type for each index.
+     * @return the schema of the documents of the type in all the indices, or null if it has no fields.
+     */
+    public static Schema getSchema(JsonNode mappings, String type) {
+        // An alias or a pattern can match several indices, a field may then only exist in some of them
+        Map<String, JsonNode> properties = new LinkedHashMap<>();
+        Iterator<JsonNode> indices = mappings.elements();
+        while (indices.hasNext()) {
+            mergeProperties(properties, indices.next().path("mappings").path(type).path("properties"));
+        }
+        if (properties.isEmpty()) {
+            return null;
+        }
+        String name = NameUtil.correct(type, 0, new HashSet<String>());
+        return createRecord(name, properties);
+    }
+
+    private static void mergeProperties(Map<String, JsonNode> properties, JsonNode mapping) {
+        Iterator<Map.Entry<String, JsonNode>> fields = mapping.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!properties.containsKey(field.getKey())) {
+                properties.put(field.getKey(), field.getValue());
+            }
+        }
+    }
+
+    private static Schema createRecord(String name, Map<String, JsonNode> properties) {
+        List<Field> fields = new ArrayList<>();
+        Set<String> existNames = new HashSet<>();
+        int index = 0;
+        for (Map.Entry<String, JsonNode> property : properties.entrySet()) {
+            String validName = NameUtil.correct(property.getKey(), index++, existNames);
+            existNames.add(validName);
+            Schema schema = SchemaBuilder.builder().nullable().type(createSchema(name + "_" + validName, property.getValue()));
+            Field field = new Field(validName, schema, null, (Object) null);
+            if (!validName.equals(property.getKey())) {
+                field.addProp(SchemaConstants.TALEND_COLUMN_DB_COLUMN_NAME, property.getKey());
+            }
+            fields.add(field);
+        }
+        return Schema.createRecord(name, null, null, false, fields);
+    }
+
+    private static Schema createSchema(String name, JsonNode mapping) {
+        String type = mapping.path("type").asText("object");
+        switch (type) {
+        case "object":
+        case "nested": {
+            Map<String, JsonNode> properties = new LinkedHashMap<>();
+            mergeProperties(properties, mapping.path("properties"));
+            if (properties.isEmpty()) {
+                // An object without mapped fields, or with a disabled mapping, is kept in JSON
+                return AvroUtils._string();
+            }
+            Schema record = createRecord(name, properties);
+            return "nested".equals(type) ? Schema.createArray(record) : record;
+        }
+        case "long":
+            return AvroUtils._long();
+        case "integer":
+        case "short":
+        case "byte":
+            return AvroUtils._int();
+        case "double":
+        case "scaled_float":
+            return AvroUtils._double();
+        case "float":
+        case "half_float":
+            return AvroUtils._float();
+        case "boolean":
+            return AvroUtils._boolean();
+        default:
+            // string, text, keyword, date, binary, ip, geo_point... are kept as they are in the source
+            return AvroUtils._string();
+        }
+    }
+}
@@ -12,6 +12,8 @@
 // ============================================================================
 package org.talend.components.elasticsearch.runtime_2_4;
 
+import java.io.IOException;
+
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.beam.sdk.io.elasticsearch.ElasticsearchIO;
 import org.apache.beam.sdk.transforms.DoFn;
@@ -24,6 +26,8 @@ import org.talend.components.api.container.RuntimeContainer;
 import org.talend.components.elasticsearch.output.ElasticsearchOutputProperties;
 import org.talend.daikon.properties.ValidationResult;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 public class ElasticsearchOutputRuntime extends PTransform<PCollection<IndexedRecord>, PDone>
         implements RuntimableRuntime<ElasticsearchOutputProperties> {
 
@@ -42,15 +46,53 @@ public class ElasticsearchOutputRuntime extends PTransform<PCollection<IndexedRe
     public PDone expand(PCollection<IndexedRecord> in) {
         ElasticsearchIO.Write esWrite = ElasticsearchIO.write()
                 .withConnectionConfiguration(ElasticsearchInputRuntime.createConnectionConf(properties.getDatasetProperties()));
+        Long maxBatchSize = properties.maxBatchSize.getValue();
+        if (maxBatchSize != null && maxBatchSize > 0) {
+            esWrite = esWrite.withMaxBatchSize(maxBatchSize);
+        }
+        Long maxBatchSizeBytes = properties.maxBatchSizeBytes.getValue();
+        if (maxBatchSizeBytes != null && maxBatchSizeBytes > 0) {
+            esWrite = esWrite.withMaxBatchSizeBytes(maxBatchSizeBytes);
+        }
+        String idField = properties.idField.getValue();
+        if (idField != null && !idField.trim().isEmpty()) {
+            // Writing a document again with the same id replaces it, so the retried bulk requests create no duplicates
+            esWrite = esWrite.withIdFn(new FieldValueExtractFn(idField.trim()));
+        }
         return in.apply(ParDo.of(new IndexedRecordToDocumentFn())).apply(esWrite);
     }
 
     public static class IndexedRecordToDocumentFn extends DoFn<IndexedRecord, String> {
 
+        private transient IndexedRecordJsonEncoder encoder;
+
         @DoFn.ProcessElement
-        public void processElement(ProcessContext c) {
-            IndexedRecord in = c.element();
-            c.output(in.toString());
+        public void processElement(ProcessContext c) throws IOException {
+            if (encoder == null) {
+                encoder = new IndexedRecordJsonEncoder();
+            }
+            c.output(encoder.encode(c.element()));
+        }
+    }
+
+    /**
+     * Take the id of the documents from one of their fields.
+     */
+    public static class FieldValueExtractFn implements ElasticsearchIO.Write.FieldValueExtractFn {
+
+        private final String field;
+
+        public FieldValueExtractFn(String field) {
+            this.field = field;
+        }
+
+        @Override
+        public String apply(JsonNode document) {
+            JsonNode value = document.get(field);
+            if (value == null || value.isNull()) {
+                throw new IllegalArgumentException("The document has no value for the id field " + field);
+            }
+            return value.asText();
         }
     }
 }
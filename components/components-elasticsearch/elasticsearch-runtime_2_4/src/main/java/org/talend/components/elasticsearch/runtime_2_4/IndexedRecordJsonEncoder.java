@@ -0,0 +1,184 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.elasticsearch.runtime_2_4;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Encode the records in the JSON documents of Elasticsearch.
+ *
+ * Unlike {@link IndexedRecord#toString()}, the bytes are encoded in base64, the decimals are numbers, and the dates, the
+ * times and the timestamps logical types are formatted in ISO 8601, which Elasticsearch maps to the date type.
+ */
+public class IndexedRecordJsonEncoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final StringWriter writer = new StringWriter();
+
+    /**
+     * @return the record as a JSON object.
+     */
+    public String encode(IndexedRecord record) throws IOException {
+        writer.getBuffer().setLength(0);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            writeRecord(generator, record.getSchema(), record);
+        }
+        return writer.toString();
+    }
+
+    private static void writeRecord(JsonGenerator generator, Schema schema, IndexedRecord record) throws IOException {
+        generator.writeStartObject();
+        for (Schema.Field field : schema.getFields()) {
+            generator.writeFieldName(field.name());
+            writeValue(generator, field.schema(), record.get(field.pos()));
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Schema schema, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        LogicalType logicalType = schema.getLogicalType();
+        if (logicalType != null && writeLogicalValue(generator, logicalType, value)) {
+            return;
+        }
+        switch (schema.getType()) {
+        case UNION:
+            writeValue(generator, schema.getTypes().get(GenericData.get().resolveUnion(schema, value)), value);
+            break;
+        case RECORD:
+            writeRecord(generator, schema, (IndexedRecord) value);
+            break;
+        case ARRAY:
+            generator.writeStartArray();
+            for (Object item : (Collection<?>) value) {
+                writeValue(generator, schema.getElementType(), item);
+            }
+            generator.writeEndArray();
+            break;
+        case MAP:
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(entry.getKey().toString());
+                writeValue(generator, schema.getValueType(), entry.getValue());
+            }
+            generator.writeEndObject();
+            break;
+        case BYTES:
+            generator.writeBinary(toBytes(value));
+            break;
+        case FIXED:
+            generator.writeBinary(((GenericFixed) value).bytes());
+            break;
+        case INT:
+            generator.writeNumber(((Number) value).intValue());
+            break;
+        case LONG:
+            generator.writeNumber(((Number) value).longValue());
+            break;
+        case FLOAT:
+            generator.writeNumber(((Number) value).floatValue());
+            break;
+        case DOUBLE:
+            generator.writeNumber(((Number) value).doubleValue());
+            break;
+        case BOOLEAN:
+            generator.writeBoolean((Boolean) value);
+            break;
+        case NULL:
+            generator.writeNull();
+            break;
+        default:
+            // STRING and ENUM
+            generator.writeString(value.toString());
+            break;
+        }
+    }
+
+    /**
+     * @return false if the value isn't in the representation of the logical type, to write it like its base type.
+     */
+    private static boolean writeLogicalValue(JsonGenerator generator, LogicalType logicalType, Object value)
+            throws IOException {
+        if (logicalType instanceof LogicalTypes.Decimal) {
+            int scale = ((LogicalTypes.Decimal) logicalType).getScale();
+            if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof GenericFixed) {
+                generator.writeNumber(new BigDecimal(new BigInteger(((GenericFixed) value).bytes()), scale));
+            } else if (value instanceof ByteBuffer || value instanceof byte[]) {
+                generator.writeNumber(new BigDecimal(new BigInteger(toBytes(value)), scale));
+            } else {
+                return false;
+            }
+            return true;
+        }
+        if (!(value instanceof Number)) {
+            return false;
+        }
+        long number = ((Number) value).longValue();
+        switch (logicalType.getName()) {
+        case "date":
+            generator.writeString(LocalDate.ofEpochDay(number).toString());
+            break;
+        case "time-millis":
+            generator.writeString(LocalTime.ofNanoOfDay(number * 1000000L).toString());
+            break;
+        case "time-micros":
+            generator.writeString(LocalTime.ofNanoOfDay(number * 1000L).toString());
+            break;
+        case "timestamp-millis":
+            generator.writeString(Instant.ofEpochMilli(number).toString());
+            break;
+        case "timestamp-micros":
+            generator.writeString(Instant
+                    .ofEpochSecond(Math.floorDiv(number, 1000000L), Math.floorMod(number, 1000000L) * 1000L).toString());
+            break;
+        default:
+            return false;
+        }
+        return true;
+    }
+
+    private static byte[] toBytes(Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,101 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.elasticsearch.runtime_2_4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Test;
+import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.avro.SchemaConstants;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ElasticsearchDocumentDecoderTest {
+
+    private static final String MAPPINGS = "{"
+            + "\"index1\":{\"mappings\":{\"row\":{\"properties\":{"
+            + "\"id\":{\"type\":\"long\"},"
+            + "\"name\":{\"type\":\"string\"},"
+            + "\"@timestamp\":{\"type\":\"date\"},"
+            + "\"address\":{\"properties\":{\"city\":{\"type\":\"string\"},\"zip\":{\"type\":\"integer\"}}},"
+            + "\"contacts\":{\"type\":\"nested\",\"properties\":{\"phone\":{\"type\":\"string\"}}}}}}},"
+            + "\"index2\":{\"mappings\":{\"row\":{\"properties\":{"
+            + "\"id\":{\"type\":\"long\"},"
+            + "\"score\":{\"type\":\"double\"}}}}}}";
+
+    private Schema getSchema() throws Exception {
+        return ElasticsearchMappingSchema.getSchema(new ObjectMapper().readTree(MAPPINGS), "row");
+    }
+
+    @Test
+    public void testMappingSchema() throws Exception {
+        Schema schema = getSchema();
+        assertEquals(6, schema.getFields().size());
+        assertEquals("@timestamp", schema.getFields().get(2).getProp(SchemaConstants.TALEND_COLUMN_DB_COLUMN_NAME));
+        assertEquals(Schema.Type.LONG, AvroUtils.unwrapIfNullable(schema.getField("id").schema()).getType());
+        assertEquals(Schema.Type.STRING, AvroUtils.unwrapIfNullable(schema.getFields().get(2).schema()).getType());
+        assertEquals(Schema.Type.RECORD, AvroUtils.unwrapIfNullable(schema.getField("address").schema()).getType());
+        assertEquals(Schema.Type.ARRAY, AvroUtils.unwrapIfNullable(schema.getField("contacts").schema()).getType());
+        assertEquals(Schema.Type.DOUBLE, AvroUtils.unwrapIfNullable(schema.getField("score").schema()).getType());
+    }
+
+    @Test
+    public void testNoMapping() throws Exception {
+        assertNull(ElasticsearchMappingSchema.getSchema(new ObjectMapper().readTree(MAPPINGS), "other"));
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        Schema schema = getSchema();
+        ElasticsearchDocumentDecoder decoder = new ElasticsearchDocumentDecoder(schema);
+
+        GenericRecord record = decoder.decode("{\"id\":1,\"name\":[\"a\",\"b\"],\"@timestamp\":\"2018-01-01\","
+                + "\"unknown\":{\"x\":[1,2]},\"address\":{\"city\":\"Suresnes\",\"zip\":\"92150\"},"
+                + "\"contacts\":[{\"phone\":\"1\"},{\"phone\":\"2\"}],\"score\":1.5}");
+        assertEquals(1L, record.get("id"));
+        // All the values are kept in the JSON text of the array
+        assertEquals("[\"a\",\"b\"]", record.get("name"));
+        assertEquals("2018-01-01", record.get(2));
+        GenericRecord address = (GenericRecord) record.get("address");
+        assertEquals("Suresnes", address.get("city"));
+        assertEquals(92150, address.get("zip"));
+        List<?> contacts = (List<?>) record.get("contacts");
+        assertEquals(2, contacts.size());
+        assertEquals("2", ((GenericRecord) contacts.get(1)).get("phone"));
+        assertEquals(1.5, record.get("score"));
+
+        // A sparse document
+        record = decoder.decode("{\"score\":2}");
+        assertNull(record.get("id"));
+        assertNull(record.get("address"));
+        assertEquals(2.0, record.get("score"));
+
+        // A field of a single value in an array
+        record = decoder.decode("{\"id\":[3],\"score\":[]}");
+        assertEquals(3L, record.get("id"));
+        assertNull(record.get("score"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeSeveralValues() throws Exception {
+        ElasticsearchDocumentDecoder decoder = new ElasticsearchDocumentDecoder(getSchema());
+        // The values can't all be kept in a long field
+        decoder.decode("{\"id\":[1,2]}");
+    }
+}
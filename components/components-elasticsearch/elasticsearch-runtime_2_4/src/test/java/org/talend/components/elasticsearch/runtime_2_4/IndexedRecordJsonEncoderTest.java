@@ -0,0 +1,83 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.elasticsearch.runtime_2_4;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class IndexedRecordJsonEncoderTest {
+
+    @Test
+    public void testEncode() throws Exception {
+        Schema decimal = LogicalTypes.decimal(10, 2).addToSchema(Schema.create(Schema.Type.BYTES));
+        Schema date = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+        Schema timestamp = LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+        Schema address = SchemaBuilder.record("address").fields() //
+                .name("city").type().stringType().noDefault() //
+                .endRecord();
+        Schema schema = SchemaBuilder.record("row").fields() //
+                .name("id").type().intType().noDefault() //
+                .name("name").type().optional().stringType() //
+                .name("data").type().bytesType().noDefault() //
+                .name("amount").type(decimal).noDefault() //
+                .name("birthday").type(date).noDefault() //
+                .name("created").type().optional().type(timestamp) //
+                .name("tags").type().array().items().stringType().noDefault() //
+                .name("address").type(address).noDefault() //
+                .endRecord();
+        IndexedRecord record = new GenericRecordBuilder(schema) //
+                .set("id", 1) //
+                .set("name", null) //
+                .set("data", ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))) //
+                .set("amount", ByteBuffer.wrap(new BigDecimal("123.45").unscaledValue().toByteArray())) //
+                .set("birthday", 17532) //
+                .set("created", 1514764800000L) //
+                .set("tags", Arrays.asList("a", "b")) //
+                .set("address", new GenericRecordBuilder(address).set("city", "Suresnes").build()) //
+                .build();
+
+        IndexedRecordJsonEncoder encoder = new IndexedRecordJsonEncoder();
+        String json = encoder.encode(record);
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree("{\"id\":1,\"name\":null,\"data\":\"YWJj\",\"amount\":123.45,"
+                + "\"birthday\":\"2018-01-01\",\"created\":\"2018-01-01T00:00:00Z\",\"tags\":[\"a\",\"b\"],"
+                + "\"address\":{\"city\":\"Suresnes\"}}"), mapper.readTree(json));
+
+        // The encoder is reused for the next records
+        assertEquals(json, encoder.encode(record));
+    }
+
+    @Test
+    public void testIdFn() throws Exception {
+        ElasticsearchOutputRuntime.FieldValueExtractFn idFn = new ElasticsearchOutputRuntime.FieldValueExtractFn("id");
+        assertEquals("12", idFn.apply(new ObjectMapper().readTree("{\"id\":12,\"name\":\"a\"}")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdFnNoValue() throws Exception {
+        new ElasticsearchOutputRuntime.FieldValueExtractFn("id").apply(new ObjectMapper().readTree("{\"name\":\"a\"}"));
+    }
+}
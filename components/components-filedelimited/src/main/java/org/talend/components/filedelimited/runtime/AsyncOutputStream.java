@@ -0,0 +1,246 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.filedelimited.runtime;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An output stream which copies the bytes in a buffer, and writes the full buffers to the target stream in a background
+ * thread. The buffers are taken from a fixed ring, so that the job thread fills a buffer while the previous ones are
+ * written, and waits when all of them are being written.
+ *
+ * The target stream, with its compression, is only used by the background thread, until this stream is closed. An error
+ * of the background thread is thrown by the next call to this stream.
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    static final int BUFFER_COUNT = 4;
+
+    /** Ask the background thread to flush the target stream. */
+    private static final Buffer FLUSH = new Buffer(0);
+
+    /** Ask the background thread to close the target stream and stop. */
+    private static final Buffer CLOSE = new Buffer(0);
+
+    private final OutputStream out;
+
+    private final BlockingQueue<Buffer> free;
+
+    private final BlockingQueue<Buffer> filled;
+
+    private final Thread thread;
+
+    private Buffer current;
+
+    private final Object lock = new Object();
+
+    /** The number of buffers and commands sent to the background thread. */
+    private long submitted;
+
+    /** The number of buffers and commands done by the background thread. */
+    private long completed;
+
+    /** The first failure of the background thread, an exception or an error such as an OutOfMemoryError. */
+    private volatile Throwable error;
+
+    private boolean closed;
+
+    public AsyncOutputStream(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        // The commands can be queued with all the buffers
+        this.filled = new ArrayBlockingQueue<>(BUFFER_COUNT + 2);
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            free.add(new Buffer(bufferSize));
+        }
+        this.thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                writeBuffers();
+            }
+        }, "AsyncOutputStream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        Buffer buffer = getBuffer();
+        buffer.bytes[buffer.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            Buffer buffer = getBuffer();
+            int count = Math.min(len, buffer.bytes.length - buffer.length);
+            System.arraycopy(b, off, buffer.bytes, buffer.length, count);
+            buffer.length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * @return the current buffer, which is never full.
+     */
+    private Buffer getBuffer() throws IOException {
+        checkError();
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (current != null && current.length == current.bytes.length) {
+            submit(current);
+            current = null;
+        }
+        if (current == null) {
+            try {
+                current = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            current.length = 0;
+        }
+        return current;
+    }
+
+    private void submit(Buffer buffer) throws IOException {
+        synchronized (lock) {
+            submitted++;
+        }
+        try {
+            filled.put(buffer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Write all the bytes to the target stream and flush it.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkError();
+        if (closed) {
+            return;
+        }
+        submitCurrent();
+        submit(FLUSH);
+        await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        submitCurrent();
+        submit(CLOSE);
+        // The background thread closes the target stream and stops, even after an error
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        checkError();
+    }
+
+    private void submitCurrent() throws IOException {
+        if (current != null && current.length > 0) {
+            submit(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Wait until the background thread has done everything submitted.
+     */
+    private void await() throws IOException {
+        synchronized (lock) {
+            while (completed < submitted && error == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+        checkError();
+    }
+
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw new IOException("Failed to write in the background thread", error);
+        }
+    }
+
+    private void writeBuffers() {
+        boolean running = true;
+        while (running) {
+            Buffer buffer;
+            try {
+                buffer = filled.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (buffer == CLOSE) {
+                    // The target stream is closed even after an error
+                    out.close();
+                } else if (error == null) {
+                    if (buffer == FLUSH) {
+                        out.flush();
+                    } else {
+                        out.write(buffer.bytes, 0, buffer.length);
+                    }
+                }
+            } catch (Throwable e) {
+                // Any failure is kept, so the job thread doesn't wait forever for this thread
+                if (error == null) {
+                    error = e;
+                }
+            } finally {
+                if (buffer == CLOSE) {
+                    running = false;
+                } else if (buffer != FLUSH) {
+                    free.add(buffer);
+                }
+                synchronized (lock) {
+                    completed++;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static class Buffer {
+
+        private final byte[] bytes;
+
+        private int length;
+
+        private Buffer(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
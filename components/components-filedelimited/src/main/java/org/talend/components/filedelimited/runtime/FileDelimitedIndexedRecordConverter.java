@@ -12,6 +12,8 @@
 // ============================================================================
 package org.talend.components.filedelimited.runtime;
 
+import java.util.List;
+
 import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
 import org.talend.components.common.runtime.GenericIndexedRecordConverter;
@@ -20,7 +22,7 @@ import org.talend.daikon.avro.converter.AvroConverter;
 
 public class FileDelimitedIndexedRecordConverter extends GenericIndexedRecordConverter {
 
-    private String names[];
+    private AvroConverter[] converters;
 
     private FileDelimitedProperties properties;
 
@@ -59,19 +61,19 @@ public class FileDelimitedIndexedRecordConverter extends GenericIndexedRecordCon
         @Override
         public Object get(int i) {
             // Lazy initialization of the cached converter objects.
-            if (names == null) {
+            if (converters == null) {
                 if (properties == null) {
                     throw new IllegalArgumentException("Runtime properties for converter is not be set!");
                 }
-                names = new String[getSchema().getFields().size()];
-                fieldConverter = new AvroConverter[names.length];
-                for (int j = 0; j < names.length; j++) {
-                    Schema.Field f = getSchema().getFields().get(j);
-                    names[j] = f.name();
-                    fieldConverter[j] = FileDelimitedAvroRegistry.get().getConverter(f, properties);
+                List<Schema.Field> fields = getSchema().getFields();
+                converters = new AvroConverter[fields.size()];
+                for (int j = 0; j < converters.length; j++) {
+                    converters[j] = FileDelimitedAvroRegistry.get().getConverter(fields.get(j), properties);
                 }
+                fieldConverter = converters;
             }
-            return fieldConverter[i].convertToDatum(value.get(getSchema().getField(names[i]).pos()));
+            // The values are read in the order of the fields of the schema
+            return converters[i].convertToDatum(value.get(i));
         }
     }
 }
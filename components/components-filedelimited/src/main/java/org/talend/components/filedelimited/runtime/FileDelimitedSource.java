@@ -15,6 +15,12 @@ package org.talend.components.filedelimited.runtime;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -25,7 +31,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.talend.components.api.component.runtime.BoundedSource;
 import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.common.EncodingTypeProperties;
 import org.talend.components.filedelimited.FileDelimitedProperties;
+import org.talend.components.filedelimited.tfileinputdelimited.TFileInputDelimitedProperties;
+import org.talend.daikon.avro.AvroUtils;
 import org.talend.daikon.i18n.GlobalI18N;
 import org.talend.daikon.i18n.I18nMessages;
 import org.talend.daikon.properties.ValidationResult;
@@ -39,13 +48,25 @@ public class FileDelimitedSource extends FileSourceOrSink implements BoundedSour
 
     private static final I18nMessages messages = GlobalI18N.getI18nMessageProvider().getI18nMessages(FileDelimitedSource.class);
 
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
     private transient Schema schema;
 
+    /** The position of the first byte of the split in the file, or -1 if the whole file is read. */
+    private long startOffset = -1;
+
+    /** The position after the last byte of the split in the file. */
+    private long endOffset = -1;
+
     public FileDelimitedReader createReader(RuntimeContainer container) {
         if (((FileDelimitedProperties) properties).csvOptions.getValue()) {
             return new FileCSVReader(container, this, (FileDelimitedProperties) properties);
         } else {
-            return new DelimitedReader(container, this, (FileDelimitedProperties) properties);
+            DelimitedReader reader = new DelimitedReader(container, this, (FileDelimitedProperties) properties);
+            if (startOffset >= 0) {
+                reader.inputRuntime.setRange(startOffset, endOffset);
+            }
+            return reader;
         }
     }
 
@@ -77,15 +98,178 @@ public class FileDelimitedSource extends FileSourceOrSink implements BoundedSour
         return vr;
     }
 
+    /**
+     * Split an uncompressed file in ranges of lines of about <code>desiredBundleSizeBytes</code> bytes, which are read in
+     * parallel. The first split skips the header, and the footer is not part of the last split.
+     *
+     * The file is only split in delimited mode, when the rows are separated by a new line, which is found in the bytes of an
+     * ASCII compatible encoding. A stream, a compressed file, a CSV file whose values can be on several lines, or a file read
+     * with a limit, randomly or with a dynamic schema is read in one bundle.
+     */
     public List<? extends BoundedSource> splitIntoBundles(long desiredBundleSizeBytes, RuntimeContainer adaptor)
             throws Exception {
-        return Arrays.asList(this);
+        if (startOffset >= 0 || desiredBundleSizeBytes <= 0 || !isSplittable()) {
+            return Arrays.asList(this);
+        }
+        FileDelimitedProperties props = (FileDelimitedProperties) properties;
+        File file = new File(String.valueOf(props.fileName.getValue()));
+        if (file.length() <= desiredBundleSizeBytes) {
+            return Arrays.asList(this);
+        }
+        int header = props.header.getValue() == null ? 0 : props.header.getValue();
+        int footer = props.footer.getValue() == null ? 0 : props.footer.getValue();
+        List<long[]> ranges = getRanges(file, header, footer, desiredBundleSizeBytes);
+        if (ranges.size() < 2) {
+            return Arrays.asList(this);
+        }
+        List<BoundedSource> splits = new ArrayList<>();
+        for (long[] range : ranges) {
+            FileDelimitedSource split = new FileDelimitedSource();
+            split.initialize(adaptor, properties);
+            split.startOffset = range[0];
+            split.endOffset = range[1];
+            splits.add(split);
+        }
+        LOGGER.debug("Split " + file.getPath() + " into " + splits.size() + " bundles");
+        return splits;
     }
 
-    public long getEstimatedSizeBytes(RuntimeContainer adaptor) {
+    private boolean isSplittable() {
+        if (!(properties instanceof TFileInputDelimitedProperties)) {
+            return false;
+        }
+        TFileInputDelimitedProperties props = (TFileInputDelimitedProperties) properties;
+        Object fileOrStream = props.fileName.getValue();
+        if (fileOrStream == null || fileOrStream instanceof InputStream || !new File(String.valueOf(fileOrStream)).isFile()) {
+            return false;
+        }
+        if (props.csvOptions.getValue() || props.uncompress.getValue() || props.random.getValue()
+                || props.splitRecord.getValue() || props.limit.getValue() != null
+                || AvroUtils.isIncludeAllFields(props.main.schema.getValue())) {
+            return false;
+        }
+        String rowSeparator = props.rowSeparator.getValue();
+        // The row separator can be set as a Java string, with its escape characters
+        if (!("\\n".equals(rowSeparator) || "\\r\\n".equals(rowSeparator) || "\n".equals(rowSeparator)
+                || "\r\n".equals(rowSeparator))) {
+            return false;
+        }
+        return isAsciiCompatible(getEncoding(props));
+    }
+
+    private static String getEncoding(FileDelimitedProperties props) {
+        if (EncodingTypeProperties.ENCODING_TYPE_CUSTOM.equals(props.encoding.encodingType.getValue())) {
+            return props.encoding.customEncoding.getValue();
+        }
+        return props.encoding.encodingType.getValue();
+    }
+
+    /**
+     * @return true if a new line can be found in the bytes of the encoding, i.e. if the new line characters are encoded
+     * as in ASCII on a single byte that can't be part of another character.
+     */
+    static boolean isAsciiCompatible(String encoding) {
+        try {
+            Charset charset = Charset.forName(encoding);
+            if (!StandardCharsets.UTF_8.equals(charset) && charset.newEncoder().maxBytesPerChar() != 1) {
+                return false;
+            }
+            // i.e. not EBCDIC, whose new line is not 0x0A
+            return Arrays.equals(new byte[] { '\r', '\n' }, "\r\n".getBytes(charset));
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Split a file in ranges of whole lines.
+     *
+     * @param header the number of lines at the start of the file, which must be in the first range.
+     * @param footer the number of lines at the end of the file, which are not in any range.
+     * @return for each range, the position of its first byte and the position after its last byte.
+     */
+    static List<long[]> getRanges(File file, int header, int footer, long desiredBundleSizeBytes) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            long headerEnd = 0;
+            for (int i = 0; i < header && headerEnd < length; i++) {
+                headerEnd = nextLineStart(channel, headerEnd);
+            }
+            long footerStart = length;
+            for (int i = 0; i < footer && footerStart > headerEnd; i++) {
+                footerStart = previousLineStart(channel, footerStart);
+            }
+            footerStart = Math.max(footerStart, headerEnd);
+
+            long start = 0;
+            while (start < footerStart) {
+                long end = Math.max(start + desiredBundleSizeBytes, headerEnd);
+                end = end >= footerStart ? footerStart : nextLineStart(channel, end - 1);
+                end = Math.min(end, footerStart);
+                ranges.add(new long[] { start, end });
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * @return the position after the first new line found from <code>position</code>, or the length of the file.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long length = channel.size();
+        while (position < length) {
+            buffer.clear();
+            int count = channel.read(buffer, position);
+            if (count <= 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += count;
+        }
+        return length;
+    }
+
+    /**
+     * @return the position of the start of the line ending at <code>end</code>, the new line before <code>end</code> being
+     * part of the line.
+     */
+    private static long previousLineStart(FileChannel channel, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        // Skip the new line ending the line
+        long position = end - 1;
+        while (position > 0) {
+            long chunkStart = Math.max(0, position - SCAN_BUFFER_SIZE);
+            buffer.clear();
+            buffer.limit((int) (position - chunkStart));
+            channel.read(buffer, chunkStart);
+            for (int i = (int) (position - chunkStart) - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+            position = chunkStart;
+        }
         return 0;
     }
 
+    public long getEstimatedSizeBytes(RuntimeContainer adaptor) {
+        Object fileOrStream = ((FileDelimitedProperties) properties).fileName.getValue();
+        if (fileOrStream == null || fileOrStream instanceof InputStream) {
+            return 0;
+        }
+        if (startOffset >= 0) {
+            return endOffset - startOffset;
+        }
+        return new File(String.valueOf(fileOrStream)).length();
+    }
+
     public boolean producesSortedKeys(RuntimeContainer adaptor) {
         return false;
     }
@@ -106,11 +106,12 @@ public class FileDelimitedWriter implements Writer<Result> {
         result.totalCount++;
         if (props.csvOptions.getValue()) {
             if (!props.targetIsStream.getValue() && props.split.getValue()) {
-                if (currentRowNo != 0 && currentRowNo % props.splitEvery.getValue() == 0) {
+                if (outputRuntime.isSplitNeeded(currentRowNo)) {
                     csvWriter.close();
                     // close original outputStream
                     csvWriter = outputRuntime.getCsvWriter();
                     outputRuntime.writeHeader(csvWriter, recordSchema);
+                    currentRowNo = 0;
                 }
                 currentRowNo++;
             }
@@ -132,12 +133,13 @@ public class FileDelimitedWriter implements Writer<Result> {
 
         } else {
             if (!props.targetIsStream.getValue() && props.split.getValue()) {
-                if (!props.targetIsStream.getValue() && props.split.getValue()) {
+                if (outputRuntime.isSplitNeeded(currentRowNo)) {
                     writer.close();
                     // close original outputStream
 
                     writer = outputRuntime.getWriter();
                     outputRuntime.writeHeader(writer, recordSchema);
+                    currentRowNo = 0;
                 }
                 currentRowNo++;
             }
@@ -171,6 +173,7 @@ public class FileDelimitedWriter implements Writer<Result> {
                 if (outputRuntime.streamWriter != null) {
                     outputRuntime.streamWriter.flush();
                 }
+                outputRuntime.finishCompression();
             } else {
                 if (csvWriter != null) {
                     csvWriter.close();
@@ -12,6 +12,7 @@
 // ============================================================================
 package org.talend.components.filedelimited.runtime;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -79,6 +80,11 @@ public class FileInputDelimitedRuntime {
 
     private boolean random;
 
+    // The range of the file read by a split of the source
+    private long rangeStart = -1;
+
+    private long rangeEnd = -1;
+
     // For preview data
     protected List<String> columnNames;
 
@@ -88,6 +94,15 @@ public class FileInputDelimitedRuntime {
         this.props = props;
     }
 
+    /**
+     * Only read the lines between two positions of the file. The header is only skipped in the range starting at the
+     * beginning of the file, and the footer is not part of any range.
+     */
+    public void setRange(long start, long end) {
+        this.rangeStart = start;
+        this.rangeEnd = end;
+    }
+
     public void init() throws IOException {
         fileNameOrStream = props.fileName.getValue();
 
@@ -112,6 +127,12 @@ public class FileInputDelimitedRuntime {
         }
         footer = (props.footer.getValue() == null || uncompress) ? -1 : props.footer.getValue();
         limit = (props.limit.getValue() == null) ? -1 : props.limit.getValue();
+        if (rangeStart >= 0) {
+            if (rangeStart > 0) {
+                header = 0;
+            }
+            footer = 0;
+        }
 
         if (sourceIsStream) {
             zipInputStream = FileRuntimeHelper.getZipInputStream((InputStream) fileNameOrStream);
@@ -140,6 +161,11 @@ public class FileInputDelimitedRuntime {
                 fileInputDelimited = new FileInputDelimited((InputStream) fileNameOrStream, encoding,
                         props.fieldSeparator.getValue(), props.rowSeparator.getValue(), props.removeEmptyRow.getValue(), header,
                         footer, limit, nbRandom, splitRecord);
+            } else if (rangeStart >= 0) {
+                fileInputDelimited = new FileInputDelimited(
+                        new FileRangeInputStream(new File(String.valueOf(fileNameOrStream)), rangeStart, rangeEnd), encoding,
+                        props.fieldSeparator.getValue(), props.rowSeparator.getValue(), props.removeEmptyRow.getValue(), header,
+                        footer, limit, nbRandom, splitRecord);
             } else {
                 fileInputDelimited = new FileInputDelimited(String.valueOf(fileNameOrStream), encoding,
                         props.fieldSeparator.getValue(), props.rowSeparator.getValue(), props.removeEmptyRow.getValue(), header,
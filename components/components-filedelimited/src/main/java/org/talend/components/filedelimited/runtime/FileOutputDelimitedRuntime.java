@@ -16,12 +16,15 @@ import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -29,6 +32,7 @@ import org.apache.avro.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedProperties;
+import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedProperties.CompressionType;
 import org.talend.daikon.runtime.BufferedLineWriter;
 
 import com.talend.csv.CSVWriter;
@@ -55,7 +59,10 @@ public class FileOutputDelimitedRuntime {
 
     File zipFile;
 
-    private ZipOutputStream zipOut;
+    private DeflaterOutputStream zipOut;
+
+    // The encoded bytes written in the current file, to split the output on its size
+    private CountingOutputStream countingOut;
 
     protected String encoding;
 
@@ -75,6 +82,8 @@ public class FileOutputDelimitedRuntime {
 
     private int splitedFileNo = 0;
 
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     public FileOutputDelimitedRuntime(TFileOutputDelimitedProperties props) {
         this.props = props;
         this.useStream = props.targetIsStream.getValue();
@@ -127,39 +136,7 @@ public class FileOutputDelimitedRuntime {
     public CSVWriter getCsvWriter() throws IOException {
         com.talend.csv.CSVWriter csvWriter = null;
         if (!useStream) {
-            if (!props.split.getValue()) {
-                if (props.compress.getValue() && !props.append.getValue()) {// compress the dest file
-                    file = new File(fileName);
-                    String zipName = fullName + ".zip";
-                    zipFile = new File(zipName);
-
-                    if (zipFile.exists()) {
-                        zipFile.delete();
-                    }
-                    zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipName)));
-                    zipOut.putNextEntry(new ZipEntry(file.getName()));
-                    this.streamWriter = new OutputStreamWriter(zipOut, encoding);
-                } else {
-                    if (!props.append.getValue()) {
-                        File fileToDelete = new File(fileName);
-                        if (fileToDelete.exists()) {
-                            fileToDelete.delete();
-                        }
-                    }
-                    streamWriter = new OutputStreamWriter(new FileOutputStream(fileName, props.append.getValue()), encoding);
-                }
-            } else {
-                file = new File(fullName + splitedFileNo + extension);
-
-                if (!props.append.getValue()) {
-                    if (file.exists()) {
-                        file.delete();
-                    }
-                }
-                streamWriter = new OutputStreamWriter(
-                        new FileOutputStream(fullName + splitedFileNo + extension, props.append.getValue()), encoding);
-                splitedFileNo++;
-            }
+            this.streamWriter = openFileStreamWriter();
             if (props.rowMode.getValue()) {
                 this.writer = new BufferedLineWriter(streamWriter);
                 this.strWriter = new StringWriter();
@@ -168,15 +145,7 @@ public class FileOutputDelimitedRuntime {
                 csvWriter = new CSVWriter(new BufferedWriter(streamWriter));
             }
         } else {
-            if (props.compress.getValue()) {
-                // compress the dest output stream
-                zipOut = new ZipOutputStream(new BufferedOutputStream((OutputStream) props.fileName.getValue()));
-                zipOut.putNextEntry(new ZipEntry("TalendOutputDelimited"));
-                streamWriter = new OutputStreamWriter(zipOut, encoding);
-
-            } else {
-                streamWriter = new OutputStreamWriter((OutputStream) props.fileName.getValue(), encoding);
-            }
+            streamWriter = openTargetStreamWriter();
             if (props.rowMode.getValue()) {
                 this.writer = new BufferedLineWriter(streamWriter);
                 this.strWriter = new StringWriter();
@@ -207,54 +176,125 @@ public class FileOutputDelimitedRuntime {
 
     public Writer getWriter() throws IOException {
         if (!props.targetIsStream.getValue()) {
-            if (!props.split.getValue()) {
-                if (props.compress.getValue() && !props.append.getValue()) {// compress the dest file
-                    file = new File(fileName);
-                    String zipName = fullName + ".zip";
-                    zipFile = new File(zipName);
+            streamWriter = openFileStreamWriter();
+        } else {
+            streamWriter = openTargetStreamWriter();
+        }
+        if (props.rowMode.getValue()) {
+            writer = new BufferedLineWriter(streamWriter);
+        } else {
+            writer = new BufferedWriter(streamWriter);
+        }
+        return writer;
+    }
 
+    /**
+     * Open the output file, the compressed file or the next split file.
+     */
+    private OutputStreamWriter openFileStreamWriter() throws IOException {
+        OutputStream out;
+        if (!props.split.getValue()) {
+            if (props.compress.getValue() && !props.append.getValue()) {// compress the dest file
+                file = new File(fileName);
+                if (getCompressionType() == CompressionType.GZIP) {
+                    zipFile = new File(fileName + ".gz");
                     if (zipFile.exists()) {
                         zipFile.delete();
                     }
-                    zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipName)));
-                    zipOut.putNextEntry(new ZipEntry(file.getName()));
-                    streamWriter = new OutputStreamWriter(zipOut, encoding);
+                    zipOut = new GZIPOutputStream(new FileOutputStream(zipFile), GZIP_BUFFER_SIZE);
                 } else {
-                    if (!props.append.getValue()) {
-                        File fileToDelete = new File(fileName);
-                        if (fileToDelete.exists()) {
-                            fileToDelete.delete();
-                        }
+                    String zipName = fullName + ".zip";
+                    zipFile = new File(zipName);
+
+                    if (zipFile.exists()) {
+                        zipFile.delete();
                     }
-                    streamWriter = new OutputStreamWriter(new FileOutputStream(fileName, props.append.getValue()), encoding);
+                    ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipName)));
+                    zip.putNextEntry(new ZipEntry(file.getName()));
+                    zipOut = zip;
                 }
+                out = zipOut;
             } else {
-                file = new File(fullName + splitedFileNo + extension);
                 if (!props.append.getValue()) {
-                    if (file.exists()) {
-                        file.delete();
+                    File fileToDelete = new File(fileName);
+                    if (fileToDelete.exists()) {
+                        fileToDelete.delete();
                     }
                 }
-                streamWriter = new OutputStreamWriter(
-                        new FileOutputStream(fullName + splitedFileNo + extension, props.append.getValue()), encoding);
-                splitedFileNo++;
+                out = new FileOutputStream(fileName, props.append.getValue());
             }
         } else {
-            if (props.compress.getValue()) {
-                // compress the dest output stream
-                zipOut = new ZipOutputStream(new BufferedOutputStream((OutputStream) props.fileName.getValue()));
-                zipOut.putNextEntry(new ZipEntry("TalendOutputDelimited"));
-                streamWriter = new OutputStreamWriter(zipOut, encoding);
-            } else {
-                streamWriter = new OutputStreamWriter((OutputStream) props.fileName.getValue(), encoding);
+            file = new File(fullName + splitedFileNo + extension);
+
+            if (!props.append.getValue()) {
+                if (file.exists()) {
+                    file.delete();
+                }
             }
+            out = new FileOutputStream(fullName + splitedFileNo + extension, props.append.getValue());
+            splitedFileNo++;
         }
-        if (props.rowMode.getValue()) {
-            writer = new BufferedLineWriter(streamWriter);
+        if (props.asyncWrite.getValue()) {
+            out = new AsyncOutputStream(out, getBufferSize());
+        }
+        countingOut = new CountingOutputStream(out);
+        return new OutputStreamWriter(countingOut, encoding);
+    }
+
+    /**
+     * Wrap the target stream, which is owned by the job and is written by its thread.
+     */
+    private OutputStreamWriter openTargetStreamWriter() throws IOException {
+        OutputStream target = (OutputStream) props.fileName.getValue();
+        if (props.compress.getValue()) {
+            // compress the dest output stream
+            if (getCompressionType() == CompressionType.GZIP) {
+                zipOut = new GZIPOutputStream(target, GZIP_BUFFER_SIZE);
+            } else {
+                ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(target));
+                zip.putNextEntry(new ZipEntry("TalendOutputDelimited"));
+                zipOut = zip;
+            }
+            return new OutputStreamWriter(zipOut, encoding);
         } else {
-            writer = new BufferedWriter(streamWriter);
+            return new OutputStreamWriter(target, encoding);
+        }
+    }
+
+    /**
+     * Write the end of the compressed data to the target stream, which is not closed.
+     */
+    public void finishCompression() throws IOException {
+        if (useStream && zipOut != null) {
+            zipOut.finish();
         }
-        return writer;
+    }
+
+    /**
+     * @param rowCount the number of rows written in the current file.
+     * @return true if the next row must be written in a new file, because the current one has enough rows or is bigger than
+     * the split size.
+     */
+    public boolean isSplitNeeded(int rowCount) {
+        if (rowCount == 0) {
+            return false;
+        }
+        Integer splitEvery = props.splitEvery.getValue();
+        if (splitEvery != null && splitEvery > 0 && rowCount >= splitEvery) {
+            return true;
+        }
+        Integer splitSize = props.splitSize.getValue();
+        // The rows buffered by the writers are not counted yet
+        return splitSize != null && splitSize > 0 && countingOut != null && countingOut.count >= splitSize * 1024L * 1024L;
+    }
+
+    private CompressionType getCompressionType() {
+        return props.compressionType.getValue() == null ? CompressionType.ZIP : props.compressionType.getValue();
+    }
+
+    private int getBufferSize() {
+        Integer bufferSize = props.bufferSize.getValue();
+        return (bufferSize == null || bufferSize <= 0 ? 1024 : bufferSize) * 1024;
     }
 
     // This schema should be schema of IndexRecord
@@ -355,4 +395,28 @@ public class FileOutputDelimitedRuntime {
         }
     }
 
+    /**
+     * Count the bytes written to a stream.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
 }
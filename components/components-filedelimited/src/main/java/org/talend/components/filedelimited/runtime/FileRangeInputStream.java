@@ -0,0 +1,105 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.filedelimited.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read the bytes of a file between two positions, through a file channel and a large buffer.
+ *
+ * The buffer is a heap buffer, which is freed with the stream, since the direct buffers are only freed by the GC once
+ * their own small objects are collected.
+ */
+public class FileRangeInputStream extends InputStream {
+
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /** The position in the file of the next byte to read in the channel. */
+    private long position;
+
+    private final long end;
+
+    /**
+     * @param file the file to read.
+     * @param start the position of the first byte to read.
+     * @param end the position after the last byte to read, or -1 to read until the end of the file.
+     */
+    public FileRangeInputStream(File file, long start, long end) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.position = start;
+        this.end = end < 0 ? channel.size() : end;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Nothing has been read yet
+        buffer.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @return false if all the bytes of the range have been read.
+     */
+    private boolean fill() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (position >= end) {
+                return false;
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+            int count = channel.read(buffer, position);
+            buffer.flip();
+            if (count < 0) {
+                return false;
+            }
+            position += count;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -24,6 +24,11 @@ import org.talend.daikon.properties.property.PropertyFactory;
 
 public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
 
+    public enum CompressionType {
+        ZIP,
+        GZIP
+    }
+
     public TFileOutputDelimitedProperties(String name) {
         super(name);
     }
@@ -38,6 +43,8 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
 
     public Property<Boolean> compress = PropertyFactory.newBoolean("compress");
 
+    public Property<CompressionType> compressionType = PropertyFactory.newEnum("compressionType", CompressionType.class);
+
     // Advanced
 
     public Property<Boolean> creatDirIfNotExist = PropertyFactory.newBoolean("creatDirIfNotExist");
@@ -46,6 +53,11 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
 
     public Property<Integer> splitEvery = PropertyFactory.newInteger("splitEvery");
 
+    /**
+     * The size in MB after which a new file is started, 0 to only split on the number of rows.
+     */
+    public Property<Integer> splitSize = PropertyFactory.newInteger("splitSize");
+
     public Property<Boolean> flushOnRow = PropertyFactory.newBoolean("flushOnRow");
 
     public Property<Integer> flushOnRowNum = PropertyFactory.newInteger("flushOnRowNum");
@@ -54,12 +66,25 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
 
     public Property<Boolean> deleteEmptyFile = PropertyFactory.newBoolean("deleteEmptyFile");
 
+    /**
+     * Write and compress the encoded rows in a background thread.
+     */
+    public Property<Boolean> asyncWrite = PropertyFactory.newBoolean("asyncWrite");
+
+    /**
+     * The size in KB of the write buffers.
+     */
+    public Property<Integer> bufferSize = PropertyFactory.newInteger("bufferSize");
+
     @Override
     public void setupProperties() {
         super.setupProperties();
         useOsRowSeparator.setValue(true);
         creatDirIfNotExist.setValue(true);
         splitEvery.setValue(1000);
+        splitSize.setValue(0);
+        compressionType.setValue(CompressionType.ZIP);
+        bufferSize.setValue(1024);
         flushOnRowNum.setValue(1);
         encoding.encodingType.setPossibleValues(encoding.getDefaultEncodings());
         encoding.encodingType.setValue(EncodingTypeProperties.ENCODING_TYPE_ISO_8859_15);
@@ -79,15 +104,19 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
         mainForm.addRow(append);
         mainForm.addRow(includeHeader);
         mainForm.addRow(compress);
+        mainForm.addColumn(compressionType);
 
         Form advancedForm = getForm(Form.ADVANCED);
         advancedForm.addRow(creatDirIfNotExist);
         advancedForm.addRow(split);
         advancedForm.addColumn(splitEvery);
+        advancedForm.addColumn(splitSize);
         advancedForm.addRow(flushOnRow);
         advancedForm.addColumn(flushOnRowNum);
         advancedForm.addRow(rowMode);
         advancedForm.addRow(deleteEmptyFile);
+        advancedForm.addRow(asyncWrite);
+        advancedForm.addColumn(bufferSize);
     }
 
     public void afterCompress() {
@@ -111,6 +140,10 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
         refreshLayout(getForm(Form.ADVANCED));
     }
 
+    public void afterAsyncWrite() {
+        refreshLayout(getForm(Form.ADVANCED));
+    }
+
     @Override
     public void refreshLayout(Form form) {
         super.refreshLayout(form);
@@ -118,13 +151,17 @@ public class TFileOutputDelimitedProperties extends FileDelimitedProperties {
             if (form.getName().equals(Form.MAIN)) {
                 form.getWidget(useOsRowSeparator.getName()).setHidden(!csvOptions.getValue());
                 form.getWidget(compress.getName()).setHidden(append.getValue() || split.getValue());
+                form.getWidget(compressionType.getName())
+                        .setHidden(append.getValue() || split.getValue() || !compress.getValue());
             }
             if (form.getName().equals(Form.ADVANCED)) {
                 form.getWidget(creatDirIfNotExist.getName()).setHidden(targetIsStream.getValue());
                 form.getWidget(split.getName()).setHidden(targetIsStream.getValue());
                 form.getWidget(splitEvery.getName()).setHidden(targetIsStream.getValue() || !split.getValue());
+                form.getWidget(splitSize.getName()).setHidden(targetIsStream.getValue() || !split.getValue());
                 form.getWidget(flushOnRowNum.getName()).setHidden(!flushOnRow.getValue());
                 form.getWidget(deleteEmptyFile.getName()).setHidden(targetIsStream.getValue());
+                form.getWidget(bufferSize.getName()).setHidden(!asyncWrite.getValue());
             }
         }
     }
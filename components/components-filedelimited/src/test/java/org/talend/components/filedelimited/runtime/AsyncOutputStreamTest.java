@@ -0,0 +1,100 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.filedelimited.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Test;
+
+public class AsyncOutputStreamTest {
+
+    /**
+     * A target stream which fails once some bytes are written.
+     */
+    private static class FailingOutputStream extends OutputStream {
+
+        private final RuntimeException failure;
+
+        private boolean closed;
+
+        FailingOutputStream(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            throw failure;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            throw failure;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        // The bytes are spread on several buffers, more than the ring has
+        try (AsyncOutputStream out = new AsyncOutputStream(target, 7)) {
+            out.write(bytes[0]);
+            out.write(bytes, 1, bytes.length - 1);
+            out.flush();
+            assertArrayEquals(bytes, target.toByteArray());
+        }
+    }
+
+    @Test
+    public void testTargetFailure() throws IOException {
+        RuntimeException failure = new IllegalStateException("write failed");
+        FailingOutputStream target = new FailingOutputStream(failure);
+        AsyncOutputStream out = new AsyncOutputStream(target, 4);
+        out.write(new byte[10]);
+        try {
+            out.flush();
+            fail("The failure of the background thread should be thrown");
+        } catch (IOException e) {
+            assertSame(failure, e.getCause());
+        }
+        try {
+            out.write(1);
+            fail("The failure of the background thread should be thrown");
+        } catch (IOException e) {
+            assertSame(failure, e.getCause());
+        }
+        try {
+            out.close();
+            fail("The failure of the background thread should be thrown");
+        } catch (IOException e) {
+            assertSame(failure, e.getCause());
+        }
+        // The target stream is closed even after the failure
+        assertTrue(target.closed);
+    }
+}
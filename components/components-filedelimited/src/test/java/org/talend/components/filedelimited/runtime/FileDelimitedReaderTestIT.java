@@ -13,6 +13,7 @@
 package org.talend.components.filedelimited.runtime;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -20,6 +21,7 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +33,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.talend.components.api.component.ComponentDefinition;
+import org.talend.components.api.component.runtime.BoundedSource;
 import org.talend.components.api.component.runtime.BoundedReader;
 import org.talend.components.api.exception.DataRejectException;
 import org.talend.components.filedelimited.FileDelimitedProperties;
@@ -87,6 +90,60 @@ public class FileDelimitedReaderTestIT extends FileDelimitedTestBasic {
         testInputDelimited(false, true);
     }
 
+    // Test FileInputDelimited component read with delimited mode, the file being split in several bundles
+    @Test
+    public void testInputDelimitedSplit() throws Throwable {
+        String resources = getClass().getResource("/runtime/input").toURI().getPath();
+        String inputFile = resources + "/test_input_delimited.csv";
+        TFileInputDelimitedProperties properties = createInputProperties(inputFile, false);
+        // header=1 && footer=0
+        testInputDelimitedSplit(properties, 20);
+        // header=1 && footer=5
+        properties.footer.setValue(5);
+        testInputDelimitedSplit(properties, 15);
+    }
+
+    protected void testInputDelimitedSplit(TFileInputDelimitedProperties properties, int count) throws Throwable {
+        List<IndexedRecord> expected = readRows(properties);
+        assertEquals(count, expected.size());
+
+        FileDelimitedSource source = new FileDelimitedSource();
+        source.initialize(null, properties);
+        assertEquals(new File(properties.fileName.getStringValue()).length(), source.getEstimatedSizeBytes(null));
+        List<? extends BoundedSource> splits = source.splitIntoBundles(500, null);
+        assertTrue(splits.size() > 1);
+
+        List<IndexedRecord> records = new ArrayList<>();
+        for (BoundedSource split : splits) {
+            BoundedReader<IndexedRecord> reader = split.createReader(null);
+            boolean hasRecord = reader.start();
+            while (hasRecord) {
+                records.add(reader.getCurrent());
+                hasRecord = reader.advance();
+            }
+            reader.close();
+        }
+        assertEquals(count, records.size());
+        int fieldsCount = properties.main.schema.getValue().getFields().size();
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < fieldsCount; j++) {
+                assertEquals(expected.get(i).get(j), records.get(i).get(j));
+            }
+        }
+    }
+
+    // Test the encodings of the files which can be split
+    @Test
+    public void testSplitEncodings() throws Throwable {
+        assertTrue(FileDelimitedSource.isAsciiCompatible("UTF-8"));
+        assertTrue(FileDelimitedSource.isAsciiCompatible("ISO-8859-15"));
+        assertFalse(FileDelimitedSource.isAsciiCompatible("UTF-16"));
+        assertFalse(FileDelimitedSource.isAsciiCompatible("GBK"));
+        // EBCDIC
+        assertFalse(FileDelimitedSource.isAsciiCompatible("IBM037"));
+        assertFalse(FileDelimitedSource.isAsciiCompatible("unknown"));
+    }
+
     // Test wizard component preview data with delimited mode and source is Stream
     @Test
     @Ignore("Wizard doesn't support Stream")
@@ -17,10 +17,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -34,6 +38,7 @@ import org.talend.components.api.component.runtime.Result;
 import org.talend.components.common.runtime.FileRuntimeHelper;
 import org.talend.components.filedelimited.FileDelimitedTestBasic;
 import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedProperties;
+import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedProperties.CompressionType;
 import org.talend.daikon.avro.AvroUtils;
 import org.talend.daikon.avro.SchemaConstants;
 
@@ -126,6 +131,61 @@ public class FileDelimitedWriterTestIT extends FileDelimitedTestBasic {
 
     }
 
+    // Test FileOutputDelimited component write in a background thread to a gzip file
+    @Test
+    public void testOutputAsyncGzip() throws Throwable {
+        String resources = getResourceFolder();
+        String outputFile = resources + "/out/test_output_async.csv";
+        String gzipFile = outputFile + ".gz";
+        String uncompressedFile = resources + "/out/test_output_async_uncompressed.csv";
+        for (boolean isCsvMode : new boolean[] { false, true }) {
+            TFileOutputDelimitedProperties properties = createOutputProperties(outputFile, isCsvMode);
+            properties.compress.setValue(true);
+            properties.compressionType.setValue(CompressionType.GZIP);
+            properties.asyncWrite.setValue(true);
+            properties.bufferSize.setValue(1);
+            Result result = doWriteRows(properties, generateRecords(25));
+            assertEquals(25, result.getTotalCount());
+
+            try (InputStream in = new GZIPInputStream(new FileInputStream(gzipFile));
+                    OutputStream out = new FileOutputStream(uncompressedFile)) {
+                byte[] buffer = new byte[1024];
+                int count;
+                while ((count = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, count);
+                }
+            }
+            String refFile = resources + (isCsvMode ? "/ref_test_output_csv.csv" : "/ref_test_output_delimited.csv");
+            assertTrue(FileRuntimeHelper.compareInTextMode(uncompressedFile, refFile, getEncoding(properties.encoding)));
+            assertTrue(deleteFile(gzipFile));
+            assertTrue(deleteFile(uncompressedFile));
+        }
+    }
+
+    // Test FileOutputDelimited component split the output every 10 rows
+    @Test
+    public void testOutputSplit() throws Throwable {
+        String resources = getResourceFolder();
+        String outputFile = resources + "/out/test_output_split.csv";
+        for (boolean isCsvMode : new boolean[] { false, true }) {
+            TFileOutputDelimitedProperties properties = createOutputProperties(outputFile, isCsvMode);
+            properties.split.setValue(true);
+            properties.splitEvery.setValue(10);
+            properties.asyncWrite.setValue(true);
+            Result result = doWriteRows(properties, generateRecords(25));
+            assertEquals(25, result.getTotalCount());
+
+            // 10 + 10 + 5 rows
+            for (int i = 0; i < 3; i++) {
+                File file = new File(resources + "/out/test_output_split" + i + ".csv");
+                assertTrue(file.exists());
+                assertTrue(file.length() > 0);
+                assertTrue(file.delete());
+            }
+            assertFalse(new File(resources + "/out/test_output_split3.csv").exists());
+        }
+    }
+
     // Test FileOutputDelimited component write with CSV mode and source is compressed file
     @Test
     @Ignore("Zip file compare have some problem")
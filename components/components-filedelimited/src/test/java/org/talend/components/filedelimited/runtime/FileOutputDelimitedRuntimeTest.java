@@ -0,0 +1,72 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.filedelimited.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedDefinition;
+import org.talend.components.filedelimited.tfileoutputdelimited.TFileOutputDelimitedProperties;
+
+public class FileOutputDelimitedRuntimeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks the output rolls to the next file once the bytes written in the current one reach the split size.
+     */
+    @Test
+    public void testSplitSize() throws Exception {
+        TFileOutputDelimitedProperties properties = (TFileOutputDelimitedProperties) new TFileOutputDelimitedDefinition()
+                .createProperties().init();
+        properties.fileName.setValue(new File(folder.getRoot(), "out.csv").getAbsolutePath());
+        properties.split.setValue(true);
+        properties.splitEvery.setValue(0);
+        properties.splitSize.setValue(1);
+        properties.asyncWrite.setValue(true);
+        FileOutputDelimitedRuntime runtime = new FileOutputDelimitedRuntime(properties);
+
+        char[] row = new char[1024];
+        Arrays.fill(row, 'x');
+        row[row.length - 1] = '\n';
+        Writer writer = runtime.getWriter();
+        int rowCount = 0;
+        while (!runtime.isSplitNeeded(rowCount)) {
+            writer.write(row);
+            rowCount++;
+        }
+        writer.close();
+
+        // The rows buffered by the writers are only counted once encoded, so the file is a bit bigger than the split size
+        File first = new File(folder.getRoot(), "out0.csv");
+        assertTrue(first.length() >= 1024 * 1024);
+        assertEquals(rowCount * 1024L, first.length());
+        assertTrue(rowCount < 1024 + 32);
+
+        writer = runtime.getWriter();
+        assertFalse(runtime.isSplitNeeded(1));
+        writer.write(row);
+        writer.close();
+        assertEquals(1024, new File(folder.getRoot(), "out1.csv").length());
+        assertFalse(new File(folder.getRoot(), "out2.csv").exists());
+    }
+}
@@ -49,6 +49,8 @@ public class SimpleFileIODatasetProperties extends PropertiesImpl implements Dat
     //Excel propertiess
     public Property<ExcelFormat> excelFormat = PropertyFactory.newEnum("excelFormat", ExcelFormat.class);
     public Property<String> sheet = PropertyFactory.newString("sheet", "");
+    //read excel 2007 sheets in streaming, without loading the whole workbook in memory
+    public Property<Boolean> lowMemory = PropertyFactory.newBoolean("lowMemory", false);
     public Property<Boolean> setFooterLine = PropertyFactory.newBoolean("setFooterLine", false);
     //not set the default value, TODO check if it works like expected
     public Property<Integer> footerLine = PropertyFactory.newInteger("footerLine");
@@ -95,6 +97,7 @@ public class SimpleFileIODatasetProperties extends PropertiesImpl implements Dat
         //Excel only properties
         mainForm.addRow(excelFormat);
         mainForm.addRow(sheet);
+        mainForm.addRow(lowMemory);
         
         //CSV and Excel both properties
         mainForm.addRow(encoding);
@@ -130,6 +133,7 @@ public class SimpleFileIODatasetProperties extends PropertiesImpl implements Dat
             //html format no sheet setting
             boolean isHTML = excelFormat.getValue() == ExcelFormat.HTML;
             form.getWidget(sheet).setVisible(isExcel && (!isHTML));
+            form.getWidget(lowMemory).setVisible(isExcel && excelFormat.getValue() == ExcelFormat.EXCEL2007);
             
             boolean isCSVOrExcel = isCSV || isExcel;
             form.getWidget(encoding).setVisible(isCSV || (isExcel && isHTML));
@@ -258,6 +262,10 @@ public class SimpleFileIODatasetProperties extends PropertiesImpl implements Dat
     public ExcelFormat getExcelFormat() {
         return excelFormat.getValue();
     }
+
+    public boolean isLowMemory() {
+        return excelFormat.getValue() == ExcelFormat.EXCEL2007 && lowMemory.getValue();
+    }
   
     public String getEscapeCharacter() {
         return escapeCharacter.getValue();
@@ -72,6 +72,7 @@ public class SimpleFileIODatasetPropertiesTest {
         assertThat(properties.escapeCharacter.getValue(), is(""));
         
         assertThat(properties.sheet.getValue(), is(""));
+        assertThat(properties.lowMemory.getValue(), is(false));
         assertThat(properties.setFooterLine.getValue(), is(false));
         assertThat(properties.footerLine.getValue(), is(IsNull.nullValue()));
 
@@ -174,6 +175,7 @@ public class SimpleFileIODatasetPropertiesTest {
                 assertThat(main.getWidget("escapeCharacter").isVisible(), is(false));
                 
                 assertThat(main.getWidget("sheet").isVisible(), is(true));
+                assertThat(main.getWidget("lowMemory").isVisible(), is(true));
                 assertThat(main.getWidget("setFooterLine").isVisible(), is(true));
                 assertThat(main.getWidget("footerLine").isVisible(), is(false));
                 
@@ -186,9 +188,12 @@ public class SimpleFileIODatasetPropertiesTest {
                 assertThat(main.getWidget("footerLine").isVisible(), is(true));
                 
                 properties.excelFormat.setValue(ExcelFormat.HTML);
+                properties.lowMemory.setValue(true);
                 properties.encoding.setValue(EncodingType.OTHER);
                 properties.afterEncoding();
                 assertThat(main.getWidget("specificEncoding").isVisible(), is(true));
+                assertThat(main.getWidget("lowMemory").isVisible(), is(false));
+                assertThat(properties.isLowMemory(), is(false));
                 break;
             default:
                 throw new RuntimeException("Missing test case for " + format);
@@ -78,6 +78,7 @@ public class S3DatasetPropertiesTest {
         assertThat(properties.escapeCharacter.getValue(), is(""));
         
         assertThat(properties.sheet.getValue(), is(""));
+        assertThat(properties.lowMemory.getValue(), is(false));
         assertThat(properties.setFooterLine.getValue(), is(false));
         assertThat(properties.footerLine.getValue(), is(IsNull.nullValue()));
 
@@ -182,6 +183,7 @@ public class S3DatasetPropertiesTest {
                 assertThat(main.getWidget("escapeCharacter").isVisible(), is(false));
                 
                 assertThat(main.getWidget("sheet").isVisible(), is(true));
+                assertThat(main.getWidget("lowMemory").isVisible(), is(true));
                 assertThat(main.getWidget("setFooterLine").isVisible(), is(true));
                 assertThat(main.getWidget("footerLine").isVisible(), is(false));
                 
@@ -194,9 +196,12 @@ public class S3DatasetPropertiesTest {
                 assertThat(main.getWidget("footerLine").isVisible(), is(true));
                 
                 properties.excelFormat.setValue(ExcelFormat.HTML);
+                properties.lowMemory.setValue(true);
                 properties.encoding.setValue(EncodingType.OTHER);
                 properties.afterEncoding();
                 assertThat(main.getWidget("specificEncoding").isVisible(), is(true));
+                assertThat(main.getWidget("lowMemory").isVisible(), is(false));
+                assertThat(properties.isLowMemory(), is(false));
                 break;
             default:
                 throw new RuntimeException("Missing test case for " + format);
@@ -17,7 +17,10 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
 
+import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.io.FileIO;
@@ -48,6 +51,7 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.talend.components.simplefileio.runtime.beamcopy.Write;
+import org.talend.components.simplefileio.runtime.csv.CsvByteTokenizer;
 import org.talend.components.simplefileio.runtime.sinks.UgiFileSinkBase;
 import org.talend.components.simplefileio.runtime.sinks.UnboundedWrite;
 import org.talend.components.simplefileio.runtime.sources.CsvHdfsFileSource;
@@ -117,7 +121,7 @@ public class SimpleRecordFormatCsvIO extends SimpleRecordFormatBase {
             isGSFileSystem = true;
             pc2 = in.apply(TextIO.read().from(path));
         } else {
-            CsvHdfsFileSource source = CsvHdfsFileSource.of(doAs, path, recordDelimiter, encoding, header, textEnclosure, escapeChar);
+            CsvHdfsFileSource source = CsvHdfsFileSource.of(doAs, path, recordDelimiter, fieldDelimiter, encoding, header, textEnclosure, escapeChar);
             source.getExtraHadoopConfiguration().addFrom(getExtraHadoopConfiguration());
 
             source.setLimit(limit);
@@ -188,14 +192,20 @@ public class SimpleRecordFormatCsvIO extends SimpleRecordFormatBase {
 
         public final String fieldDelimiter;
 
+        /** The pattern is compiled once for performance. */
+        private transient Pattern pattern;
+
         ExtractCsvSplit(String fieldDelimiter) {
             this.fieldDelimiter = fieldDelimiter;
         }
 
         @ProcessElement
         public void processElement(ProcessContext c) {
+            if (pattern == null) {
+                pattern = Pattern.compile(fieldDelimiter, Pattern.LITERAL);
+            }
             String in = c.element().toString();
-            c.output(in.split("\\Q" + fieldDelimiter + "\\E"));
+            c.output(pattern.split(in));
         }
     }
 
@@ -219,6 +229,15 @@ public class SimpleRecordFormatCsvIO extends SimpleRecordFormatBase {
         /** The converter is cached for performance. */
         private transient IndexedRecordConverter<CSVRecord, ? extends IndexedRecord> converter;
 
+        /** The tokenizer is reused for all the lines, or null if the lines must be parsed with commons-csv. */
+        private transient CsvByteTokenizer tokenizer;
+
+        /** Whether the lines must be converted to UTF-8 before being tokenized. */
+        private transient boolean transcode;
+
+        /** The schema inferred from the first record. */
+        private transient Schema schema;
+
         public ExtractCsvRecord(char fieldDelimiter, boolean isGSFileSystem, String encoding, Character textEnclosure, Character escapeChar) {
             this.fieldDelimiter = fieldDelimiter;
             this.isGSFileSystem = isGSFileSystem;
@@ -227,8 +246,24 @@ public class SimpleRecordFormatCsvIO extends SimpleRecordFormatBase {
             this.escapeChar = escapeChar;
         }
 
+        @Setup
+        public void setup() {
+            // the GS file system lines are parsed with the RFC4180 quote and no escape char
+            Character te = isGSFileSystem ? Character.valueOf('"') : textEnclosure;
+            Character ec = isGSFileSystem ? null : escapeChar;
+            if (CsvByteTokenizer.isSupported(fieldDelimiter, te, ec)) {
+                tokenizer = new CsvByteTokenizer(fieldDelimiter, te, ec);
+                transcode = !isGSFileSystem && !CsvByteTokenizer.isUtf8Compatible(encoding);
+            }
+        }
+
         @ProcessElement
         public void processElement(ProcessContext c) throws IOException {
+            if (tokenizer != null) {
+                processBytes(c);
+                return;
+            }
+
             if (converter == null) {
                 converter = new SimpleFileIOAvroRegistry.CsvRecordToIndexedRecordConverter();
             }
@@ -264,6 +299,32 @@ public class SimpleRecordFormatCsvIO extends SimpleRecordFormatBase {
                 c.output(converter.convertToAvro(r));
             }
         }
+
+        /**
+         * Tokenize the bytes of the line directly, the values are only decoded when they are read from the records.
+         */
+        private void processBytes(ProcessContext c) throws IOException {
+            if (isGSFileSystem) {
+                byte[] bytes = c.element().toString().getBytes(StandardCharsets.UTF_8);
+                tokenizer.reset(bytes, 0, bytes.length);
+            } else {
+                BytesWritable bytes = (BytesWritable) c.element();
+                if (transcode) {
+                    byte[] utf8 = new String(bytes.getBytes(), 0, bytes.getLength(), encoding).getBytes(StandardCharsets.UTF_8);
+                    tokenizer.reset(utf8, 0, utf8.length);
+                } else {
+                    // the reader creates a new BytesWritable for each line, so its buffer can be shared by the records
+                    tokenizer.reset(bytes.getBytes(), 0, bytes.getLength());
+                }
+            }
+
+            while (tokenizer.nextRecord()) {
+                if (schema == null) {
+                    schema = SimpleFileIOAvroRegistry.get().inferSchema(tokenizer.getValues());
+                }
+                c.output(tokenizer.getRecord(schema));
+            }
+        }
     }
 
     public static class CsvTextOutputFormat extends TextOutputFormat<NullWritable, Text> {
@@ -36,21 +36,23 @@ public class SimpleRecordFormatExcelIO extends SimpleRecordFormatBase {
     private final long header;
     private final long footer;
     private final ExcelFormat excelFormat;
+    private final boolean lowMemory;
     
-    public SimpleRecordFormatExcelIO(UgiDoAs doAs, String path, boolean overwrite, int limit, boolean mergeOutput, String encoding, String sheetName, long header, long footer, ExcelFormat excelFormat) {
+    public SimpleRecordFormatExcelIO(UgiDoAs doAs, String path, boolean overwrite, int limit, boolean mergeOutput, String encoding, String sheetName, long header, long footer, ExcelFormat excelFormat, boolean lowMemory) {
         super(doAs, path, overwrite, limit, mergeOutput);
         this.sheetName = sheetName;
         this.encoding = encoding;
         this.header = header;
         this.footer = footer;
         this.excelFormat = excelFormat;
+        this.lowMemory = lowMemory;
     }
 
     @Override
     public PCollection<IndexedRecord> read(PBegin in) {
         LazyAvroCoder<IndexedRecord> lac = LazyAvroCoder.of();
         
-        ExcelHdfsFileSource source = ExcelHdfsFileSource.of(doAs, path, lac, limit, encoding, sheetName, header, footer, excelFormat.name());
+        ExcelHdfsFileSource source = ExcelHdfsFileSource.of(doAs, path, lac, limit, encoding, sheetName, header, footer, excelFormat.name(), lowMemory);
         source.getExtraHadoopConfiguration().addFrom(getExtraHadoopConfiguration());
         source.setLimit(limit);
         PCollection<KV<Void, IndexedRecord>> pc1 = in.apply(Read.from(source)).setCoder(source.getDefaultOutputCoder());
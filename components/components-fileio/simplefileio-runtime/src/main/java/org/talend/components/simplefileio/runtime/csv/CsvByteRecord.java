@@ -0,0 +1,120 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.Schema;
+import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.avro.converter.ComparableIndexedRecordBase;
+import org.talend.daikon.avro.converter.IndexedRecordConverter;
+
+/**
+ * A CSV record found by the {@link CsvByteTokenizer}, which keeps the bytes of the line and the position of each field.
+ *
+ * Each value is only decoded the first time it is read, to the type of the field in the schema. The fields of the
+ * inferred schemas are strings, but a string field can also be read as an int, long, float, double, boolean or bytes
+ * field when the record is used with another schema. An empty value of a field that isn't a string is read as null.
+ */
+public class CsvByteRecord extends ComparableIndexedRecordBase {
+
+    private final Schema schema;
+
+    private final byte[] bytes;
+
+    /** For each field, its start, its end and its flags. */
+    private final int[] fields;
+
+    private final int delimiter;
+
+    private final int quote;
+
+    private final int escape;
+
+    private Object[] values;
+
+    private boolean[] decoded;
+
+    CsvByteRecord(Schema schema, byte[] bytes, int[] fields, int delimiter, int quote, int escape) {
+        this.schema = schema;
+        this.bytes = bytes;
+        this.fields = fields;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.escape = escape;
+    }
+
+    /**
+     * @return the number of fields found in the line, which can be different from the number of fields of the schema.
+     */
+    public int size() {
+        return fields.length / 3;
+    }
+
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public Object get(int i) {
+        if (i >= size()) {
+            // Like CSVRecord
+            throw new ArrayIndexOutOfBoundsException(i);
+        }
+        if (values == null) {
+            values = new Object[size()];
+            decoded = new boolean[size()];
+        }
+        if (!decoded[i]) {
+            values[i] = decode(i);
+            decoded[i] = true;
+        }
+        return values[i];
+    }
+
+    private Object decode(int i) {
+        String value = CsvByteTokenizer.decode(bytes, fields[3 * i], fields[3 * i + 1], fields[3 * i + 2], delimiter, quote,
+                escape);
+        Schema.Type type = i < schema.getFields().size()
+                ? AvroUtils.unwrapIfNullable(schema.getFields().get(i).schema()).getType() : Schema.Type.STRING;
+        if (type == Schema.Type.STRING) {
+            return value;
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+        switch (type) {
+        case INT:
+            return Integer.valueOf(value);
+        case LONG:
+            return Long.valueOf(value);
+        case FLOAT:
+            return Float.valueOf(value);
+        case DOUBLE:
+            return Double.valueOf(value);
+        case BOOLEAN:
+            return Boolean.valueOf(value);
+        case BYTES:
+            return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        default:
+            return value;
+        }
+    }
+
+    @Override
+    public void put(int i, Object v) {
+        throw new IndexedRecordConverter.UnmodifiableAdapterException();
+    }
+}
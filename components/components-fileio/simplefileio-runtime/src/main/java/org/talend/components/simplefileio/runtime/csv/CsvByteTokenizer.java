@@ -0,0 +1,304 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.csv;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A CSV tokenizer working directly on the UTF-8 bytes of the lines, without creating any intermediate String.
+ *
+ * Each call to {@link #nextRecord()} finds the next record of the buffer and stores, for each field, the position of its
+ * first and last bytes and whether it needs to be unescaped. The values are only decoded when they are read from the
+ * {@link CsvByteRecord} returned by {@link #getRecord(org.apache.avro.Schema)}.
+ *
+ * The fields are split like with <code>CSVFormat.RFC4180</code> of commons-csv with the same delimiter, quote and escape
+ * characters: a field is only quoted if it starts with the quote character, two quote characters in a quoted field are
+ * one quote, and the escape character is followed by a special character (r, n, t, b, f) or by one of the delimiter,
+ * quote or escape characters. Records are separated by an unquoted CR, LF or CRLF.
+ *
+ * An instance is not thread-safe and must be reused for all the lines read by a DoFn instance.
+ */
+public class CsvByteTokenizer {
+
+    /** The field is between quotes. */
+    static final int QUOTED = 1;
+
+    /** The field contains escape characters or doubled quotes, and can't be decoded as is. */
+    static final int ESCAPED = 2;
+
+    private static final int NONE = -1;
+
+    private static final byte CR = '\r';
+
+    private static final byte LF = '\n';
+
+    private final int delimiter;
+
+    private final int quote;
+
+    private final int escape;
+
+    private byte[] buffer;
+
+    private int position;
+
+    private int end;
+
+    /** For each field of the current record, its start, its end and its flags. */
+    private int[] fields = new int[3 * 16];
+
+    private int fieldCount;
+
+    /**
+     * @param delimiter the field delimiter.
+     * @param quote the text enclosure, or null if the fields can't be quoted.
+     * @param escape the escape character, or null if the fields are not escaped.
+     * @throws IllegalArgumentException if one of the characters is not an ASCII character, see {@link #isSupported}.
+     */
+    public CsvByteTokenizer(char delimiter, Character quote, Character escape) {
+        if (!isSupported(delimiter, quote, escape)) {
+            throw new IllegalArgumentException("Only ASCII delimiter, quote and escape characters are supported");
+        }
+        this.delimiter = delimiter;
+        this.quote = quote == null ? NONE : quote;
+        // The quote escapes itself in quoted fields.
+        this.escape = escape == null || escape.equals(quote) ? NONE : escape;
+    }
+
+    /**
+     * @return true if the characters can be looked up in the UTF-8 bytes, i.e. if they are encoded on a single byte that
+     * can't be part of any other character.
+     */
+    public static boolean isSupported(char delimiter, Character quote, Character escape) {
+        return delimiter < 0x80 && (quote == null || quote < 0x80) && (escape == null || escape < 0x80);
+    }
+
+    /**
+     * @return true if the bytes in this encoding can be tokenized as is, false if they must be converted to UTF-8 first.
+     */
+    public static boolean isUtf8Compatible(String encoding) {
+        Charset charset = Charset.forName(encoding);
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    /**
+     * Start to tokenize new UTF-8 bytes. The bytes are not copied, and must not be modified while the records are used.
+     */
+    public void reset(byte[] bytes, int offset, int length) {
+        buffer = bytes;
+        position = offset;
+        end = offset + length;
+        fieldCount = 0;
+    }
+
+    /**
+     * Find the next record in the bytes.
+     *
+     * @return false if there are no more records.
+     * @throws IOException if the record is not valid CSV, i.e. if there are characters after the closing quote of a field
+     * or if the bytes end with an escape character.
+     */
+    public boolean nextRecord() throws IOException {
+        fieldCount = 0;
+        if (position >= end) {
+            return false;
+        }
+        while (true) {
+            if (quote != NONE && position < end && buffer[position] == quote) {
+                readQuotedField();
+            } else {
+                readSimpleField();
+            }
+            if (position >= end) {
+                return true;
+            }
+            byte b = buffer[position++];
+            if (b == delimiter) {
+                if (position >= end) {
+                    // A delimiter at the end of the record is followed by an empty field
+                    addField(position, position, 0);
+                    return true;
+                }
+            } else {
+                if (b == CR && position < end && buffer[position] == LF) {
+                    position++;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void readSimpleField() throws IOException {
+        int start = position;
+        int flags = 0;
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == delimiter || b == CR || b == LF) {
+                break;
+            }
+            if (b == escape) {
+                flags |= ESCAPED;
+                skipEscape();
+            } else {
+                position++;
+            }
+        }
+        addField(start, position, flags);
+    }
+
+    private void readQuotedField() throws IOException {
+        // skip the opening quote
+        int start = ++position;
+        int flags = QUOTED;
+        int fieldEnd = NONE;
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == escape) {
+                flags |= ESCAPED;
+                skipEscape();
+            } else if (b == quote) {
+                if (position + 1 < end && buffer[position + 1] == quote) {
+                    flags |= ESCAPED;
+                    position += 2;
+                } else {
+                    fieldEnd = position++;
+                    break;
+                }
+            } else {
+                position++;
+            }
+        }
+        if (fieldEnd == NONE) {
+            throw new IOException("EOF reached before encapsulated token finished");
+        }
+        // Only whitespaces are allowed between the closing quote and the delimiter.
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == delimiter || b == CR || b == LF) {
+                break;
+            }
+            if (b != ' ' && b != '\t') {
+                throw new IOException("Invalid char between encapsulated token and delimiter");
+            }
+            position++;
+        }
+        addField(start, fieldEnd, flags);
+    }
+
+    private void skipEscape() throws IOException {
+        if (position + 1 >= end) {
+            throw new IOException("EOF whilst processing escape sequence");
+        }
+        position += 2;
+    }
+
+    private void addField(int start, int fieldEnd, int flags) {
+        int index = 3 * fieldCount;
+        if (index + 3 > fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[index] = start;
+        fields[index + 1] = fieldEnd;
+        fields[index + 2] = flags;
+        fieldCount++;
+    }
+
+    /**
+     * @return the number of fields of the current record.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return the current record, whose values are decoded when they are read.
+     */
+    public CsvByteRecord getRecord(org.apache.avro.Schema schema) {
+        return new CsvByteRecord(schema, buffer, Arrays.copyOf(fields, 3 * fieldCount), delimiter, quote, escape);
+    }
+
+    /**
+     * @return the fields of the current record, decoded to Strings.
+     */
+    public String[] getValues() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = decode(buffer, fields[3 * i], fields[3 * i + 1], fields[3 * i + 2], delimiter, quote, escape);
+        }
+        return values;
+    }
+
+    /**
+     * Decode the bytes of a field, removing the escape characters and the doubled quotes if needed.
+     */
+    static String decode(byte[] bytes, int start, int fieldEnd, int flags, int delimiter, int quote, int escape) {
+        if ((flags & ESCAPED) == 0) {
+            return new String(bytes, start, fieldEnd - start, StandardCharsets.UTF_8);
+        }
+        byte[] unescaped = new byte[fieldEnd - start];
+        int length = 0;
+        for (int i = start; i < fieldEnd; i++) {
+            byte b = bytes[i];
+            if (b == escape) {
+                byte next = bytes[++i];
+                int value = unescape(next, delimiter, quote, escape);
+                if (value == NONE) {
+                    unescaped[length++] = b;
+                    unescaped[length++] = next;
+                } else {
+                    unescaped[length++] = (byte) value;
+                }
+            } else if (b == quote && (flags & QUOTED) != 0) {
+                // doubled quote
+                unescaped[length++] = b;
+                i++;
+            } else {
+                unescaped[length++] = b;
+            }
+        }
+        return new String(unescaped, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the value of the character following an escape character, or {@link #NONE} if the escape character must be
+     * kept.
+     */
+    private static int unescape(byte b, int delimiter, int quote, int escape) {
+        switch (b) {
+        case 'r':
+            return '\r';
+        case 'n':
+            return '\n';
+        case 't':
+            return '\t';
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case '\r':
+        case '\n':
+        case '\t':
+        case '\b':
+        case '\f':
+            return b;
+        default:
+            if (b == delimiter || b == quote || b == escape) {
+                return b;
+            }
+            return NONE;
+        }
+    }
+}
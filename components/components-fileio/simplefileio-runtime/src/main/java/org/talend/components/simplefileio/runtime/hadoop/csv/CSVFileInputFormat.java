@@ -1,12 +1,15 @@
 package org.talend.components.simplefileio.runtime.hadoop.csv;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -35,6 +38,8 @@ public class CSVFileInputFormat extends org.apache.hadoop.mapreduce.lib.input.Fi
   
   public static String TALEND_TEXT_ENCLOSURE = "talend_text_enclosure";
   public static String TALEND_ESCAPE = "talend_escape";
+  // only used to split the files with text enclosure
+  public static String TALEND_FIELD_DELIMITER = "talend_field_delimiter";
   // not in the design
   public static String TALEND_ROW_DELIMITED = "talend_row_delimited";
 
@@ -63,13 +68,36 @@ public class CSVFileInputFormat extends org.apache.hadoop.mapreduce.lib.input.Fi
       ec = escapeChar.charAt(0);
     }
 
-    return createRecordReader(delimiter, encoding, te, ec);
+    Character fd = null;
+    if (te != null && isMultiLineSplitable(context.getConfiguration(), te, ec)) {
+      fd = context.getConfiguration().get(TALEND_FIELD_DELIMITER).charAt(0);
+    }
+
+    return new CSVFileRecordReader(delimiter, encoding, te, ec, fd);
   }
 
   private CSVFileRecordReader createRecordReader(final String rowDelimiter, final String encoding, final Character textEnclosure, final Character escapeChar) throws IOException {
     return new CSVFileRecordReader(rowDelimiter, encoding, textEnclosure, escapeChar);
   }
 
+  /**
+   * The records of a file with text enclosure can be on several lines. The
+   * file can be split if the first record of each split can be found by
+   * looking for the quotes in the bytes, see {@link CSVSplitSynchronizer}.
+   */
+  private static boolean isMultiLineSplitable(Configuration conf, Character textEnclosure, Character escapeChar) {
+    String fieldDelimiter = conf.get(TALEND_FIELD_DELIMITER);
+    if (fieldDelimiter == null || fieldDelimiter.isEmpty()) {
+      return false;
+    }
+    if (textEnclosure > 0x7F || fieldDelimiter.charAt(0) > 0x7F || (escapeChar != null && escapeChar > 0x7F)) {
+      return false;
+    }
+    // the ASCII characters must be single bytes which can't be in other characters
+    Charset charset = Charset.forName(conf.get(TALEND_ENCODING, "UTF-8"));
+    return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset);
+  }
+
   private long caculateSkipLength(FileStatus file, JobContext job) throws IOException {
     long header = job.getConfiguration().getLong(TALEND_HEADER, 0l);
     String rowDelimiter = job.getConfiguration().get(TALEND_ROW_DELIMITED);
@@ -153,11 +181,14 @@ public class CSVFileInputFormat extends org.apache.hadoop.mapreduce.lib.input.Fi
     String text_enclosure = context.getConfiguration().get(TALEND_TEXT_ENCLOSURE);
     String talend_escape = context.getConfiguration().get(TALEND_ESCAPE);
 
-    if ((text_enclosure != null && !text_enclosure.isEmpty()) || (talend_escape != null && !talend_escape.isEmpty())) {
-      return false;
+    final CompressionCodec codec = new CompressionCodecFactory(context.getConfiguration()).getCodec(filename);
+
+    // the escape char alone doesn't change the lines, only the text enclosure does
+    if (text_enclosure != null && !text_enclosure.isEmpty()) {
+      Character ec = (talend_escape != null && !talend_escape.isEmpty()) ? talend_escape.charAt(0) : null;
+      return null == codec && isMultiLineSplitable(context.getConfiguration(), text_enclosure.charAt(0), ec);
     }
 
-    final CompressionCodec codec = new CompressionCodecFactory(context.getConfiguration()).getCodec(filename);
     if (null == codec) {
       return true;
     }
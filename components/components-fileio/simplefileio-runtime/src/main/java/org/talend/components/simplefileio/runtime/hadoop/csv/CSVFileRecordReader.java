@@ -56,6 +56,9 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
   private Character textEnclosure;
   private Character escapeChar;
 
+  // only known when the file can be split with text enclosures
+  private Character fieldDelimiter;
+
   private boolean isComplexCSV = false;
 
   public CSVFileRecordReader() {
@@ -74,6 +77,12 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
     this.isComplexCSV = (textEnclosure != null) || (escapeChar != null);
   }
 
+  public CSVFileRecordReader(String recordDelimiter, String encoding, Character textEnclosure, Character escapeChar, Character fieldDelimiter)
+      throws UnsupportedEncodingException {
+    this(recordDelimiter, encoding, textEnclosure, escapeChar);
+    this.fieldDelimiter = fieldDelimiter;
+  }
+
   public void initialize(InputSplit genericSplit, TaskAttemptContext context) throws IOException {
     FileSplit split = (FileSplit) genericSplit;
     Configuration job = context.getConfiguration();
@@ -116,11 +125,46 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
     // because we always (except the last split) read one extra line in
     // next() method.
     if (splitIndex != 0) {
-      start += in.readLine(new Text(), 0, maxBytesToConsume(start));
+      if (isMultiLineSplit()) {
+        // the first record can start on any of the next lines, the previous split reads the records starting before its end
+        start = synchronize(file, fs, job);
+        fileIn.seek(start);
+        in = new SplitLineReader(fileIn, job, this.recordDelimiterBytes);
+      } else {
+        start += in.readLine(new Text(), 0, maxBytesToConsume(start));
+      }
     }
     this.pos = start;
   }
 
+  /**
+   * @return true if the records can be on several lines and the file is split, see {@link CSVFileInputFormat#isSplitable}.
+   */
+  private boolean isMultiLineSplit() {
+    return textEnclosure != null && fieldDelimiter != null && !isCompressedInput;
+  }
+
+  private long synchronize(Path file, FileSystem fs, Configuration job) throws IOException {
+    long lookahead = job.getLong(CSVSplitSynchronizer.LOOKAHEAD, CSVSplitSynchronizer.DEFAULT_LOOKAHEAD);
+    CSVSplitSynchronizer synchronizer = new CSVSplitSynchronizer(textEnclosure, escapeChar, fieldDelimiter, lookahead);
+    long recordStart = synchronizer.findFirstRecordStart(in, start);
+    if (recordStart != CSVSplitSynchronizer.UNKNOWN) {
+      return recordStart;
+    }
+
+    LOG.info("Can't find the first record of the split at " + start + " of " + file + ", read the file from the beginning");
+    try (FSDataInputStream beginning = fs.open(file)) {
+      SplitLineReader lines = new SplitLineReader(beginning, job, this.recordDelimiterBytes);
+      long firstRecord = 0;
+      long header = job.getLong(CSVFileInputFormat.TALEND_HEADER, 0l);
+      Text line = new Text();
+      for (int i = 0; i < header; i++) {
+        firstRecord += lines.readLine(line);
+      }
+      return synchronizer.findFirstRecordStartFromBeginning(lines, firstRecord, start);
+    }
+  }
+
   private int maxBytesToConsume(long pos) {
     return isCompressedInput ? Integer.MAX_VALUE : (int) Math.max(Math.min(Integer.MAX_VALUE, end - pos), maxLineLength);
   }
@@ -170,11 +214,9 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
    * call by input format to skip the fixed number header line and get the new
    * start location
    * 
-   * FIXME the logic is the same with the studio one, but find a bug : can't
-   * work well with escape char and text enclosure when newline characters
-   * exists in one CSV column. As if the escape char and text enclosure exists,
-   * only process by one map, maybe for fixing it, in future, we should provide
-   * another input format for them, not split and more easy
+   * the header lines are skipped without considering the text enclosure, the
+   * records of a file with text enclosures are found by the quote counting of
+   * nextKeyValue() and, for the other splits, by the CSVSplitSynchronizer
    * 
    * don't support the header in multi files
    */
@@ -245,8 +287,8 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
       return hasNext;
     }
 
-    // the code below only execute in one single map, no need to consider multi
-    // split
+    // a record can be on several lines, the split only contains the records
+    // starting before its end, see initialize()
 
     String currentLine = null;
     int numberOfTextEnclosureChar = 0;
@@ -256,34 +298,38 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
     // It allow the handle schema like " 'abc\ndef' " (with "'" as
     // text enclosure character)
 
-    boolean hasNext = true;
-    do {
-      hasNext = next();
-      if (hasNext) {
-        // There is still data to process ie we are not at the
-        // end of a logical line
-        String currentSubline = new String(java.util.Arrays.copyOfRange(value.getBytes(), 0, value.getLength()), encoding);
-
-        // Get the number of escape character on the current
-        // substring,
-        // in order to check if we have or not a complete column
-        for (int index = currentSubline.indexOf(textEnclosure); index >= 0; index = currentSubline.indexOf(textEnclosure, index + 1)) {
-          if ((index == 0) || (escapeChar==null) || (currentSubline.charAt(index - 1) != escapeChar)) {
-            numberOfTextEnclosureChar++;
-          }
-
-        }
-        if (currentLine == null) {
-          currentLine = currentSubline;
-        } else {
-          currentLine += recordDelimiter + currentSubline;
+    boolean hasNext = next();
+    LongWritable recordKey = key;
+    while (hasNext) {
+      // There is still data to process ie we are not at the
+      // end of a logical line
+      String currentSubline = new String(java.util.Arrays.copyOfRange(value.getBytes(), 0, value.getLength()), encoding);
+
+      // Get the number of escape character on the current
+      // substring,
+      // in order to check if we have or not a complete column
+      for (int index = currentSubline.indexOf(textEnclosure); index >= 0; index = currentSubline.indexOf(textEnclosure, index + 1)) {
+        if ((index == 0) || (escapeChar==null) || (currentSubline.charAt(index - 1) != escapeChar)) {
+          numberOfTextEnclosureChar++;
         }
+
+      }
+      if (currentLine == null) {
+        currentLine = currentSubline;
+      } else {
+        currentLine += recordDelimiter + currentSubline;
+      }
+      if (numberOfTextEnclosureChar % 2 == 0) {
+        break;
       }
-    } while ((hasNext) && (numberOfTextEnclosureChar % 2 != 0));
+      // the end of the record is read even if it is after the end of the split
+      hasNext = nextLine(true);
+    }
 
-    hasNext = (numberOfTextEnclosureChar % 2 != 0) || hasNext;
+    hasNext = currentLine != null;
     
     if(hasNext) {
+      key = recordKey;
       byte[] bytes = currentLine.getBytes(encoding);
       bytesValue = new BytesWritable(bytes);
     }
@@ -292,17 +338,21 @@ public class CSVFileRecordReader extends RecordReader<LongWritable, BytesWritabl
   }
 
   private boolean next() throws IOException {
-    if (key == null) {
+    return nextLine(false);
+  }
+
+  private boolean nextLine(boolean continuation) throws IOException {
+    if (!continuation) {
       key = new LongWritable();
+      key.set(pos);
     }
-    key.set(pos);
     if (value == null) {
       value = new Text();
     }
     int newSize = 0;
     // We always read one extra line, which lies outside the upper
     // split limit i.e. (end - 1)
-    while (getFilePosition() <= end || in.needAdditionalRecordAfterSplit()) {
+    while (continuation || getFilePosition() <= end || in.needAdditionalRecordAfterSplit()) {
       if (pos == 0) {
         newSize = skipUtfByteOrderMark();
       } else {
@@ -0,0 +1,192 @@
+package org.talend.components.simplefileio.runtime.hadoop.csv;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.LineReader;
+
+/**
+ * Find the first record of a split of a CSV file with text enclosures, where a record can be on several lines.
+ *
+ * The state at the start of the split (inside or outside a quoted value) is unknown, so the lines following the start are
+ * scanned with both hypotheses. The quotes are counted like in {@link CSVFileRecordReader#nextKeyValue()}, and a
+ * hypothesis is rejected when a quote that would open a value doesn't follow a field delimiter, or when a quote that would
+ * close a value isn't followed by a field delimiter or the end of the line. A hypothesis that doesn't leave the quoted value
+ * in the lookahead is also rejected.
+ *
+ * When both or none of the hypotheses are still valid after the lookahead, the quotes are counted from the beginning of the
+ * file, which gives the exact result but reads the previous splits.
+ */
+class CSVSplitSynchronizer {
+
+  /** The number of bytes read after the split start to find out its state, 1 MB by default. */
+  public static final String LOOKAHEAD = "talend.csv.split.lookahead";
+
+  public static final long DEFAULT_LOOKAHEAD = 1024 * 1024;
+
+  /** The result when the state at the start of the split couldn't be found. */
+  static final long UNKNOWN = -1;
+
+  private final int textEnclosure;
+
+  private final int escapeChar;
+
+  private final int fieldDelimiter;
+
+  private final long lookahead;
+
+  CSVSplitSynchronizer(char textEnclosure, Character escapeChar, char fieldDelimiter, long lookahead) {
+    this.textEnclosure = textEnclosure;
+    this.escapeChar = escapeChar == null ? -1 : escapeChar;
+    this.fieldDelimiter = fieldDelimiter;
+    this.lookahead = lookahead;
+  }
+
+  /**
+   * @param in the lines of the file, from the start of the split.
+   * @param start the position of the start of the split in the file.
+   * @return the position of the first record starting after the split start, or {@link #UNKNOWN}.
+   */
+  long findFirstRecordStart(LineReader in, long start) throws IOException {
+    Hypothesis outside = new Hypothesis(false);
+    Hypothesis inside = new Hypothesis(true);
+    Text line = new Text();
+    long pos = start;
+    while (true) {
+      int size = in.readLine(line);
+      if (size == 0) {
+        // end of the file: the split doesn't contain any other record
+        return decide(outside, inside, pos);
+      }
+      pos += size;
+      outside.scan(line, pos);
+      inside.scan(line, pos);
+
+      if (pos - start > lookahead) {
+        // a quoted value can't be longer than the lookahead
+        outside.rejectIfNotSynchronized();
+        inside.rejectIfNotSynchronized();
+        return decide(outside, inside, UNKNOWN);
+      }
+      if (outside.valid != inside.valid) {
+        Hypothesis valid = outside.valid ? outside : inside;
+        if (valid.recordStart != UNKNOWN) {
+          return valid.recordStart;
+        }
+      } else if (!outside.valid) {
+        return UNKNOWN;
+      }
+    }
+  }
+
+  private static long decide(Hypothesis outside, Hypothesis inside, long end) {
+    if (outside.valid == inside.valid) {
+      return UNKNOWN;
+    }
+    Hypothesis valid = outside.valid ? outside : inside;
+    return valid.recordStart == UNKNOWN ? end : valid.recordStart;
+  }
+
+  /**
+   * Count the quotes from the first record of the file, and find the first record starting after the split start.
+   *
+   * @param in the lines of the file, from its first record, i.e. after the header.
+   * @param firstRecord the position of the first record of the file.
+   * @param start the position of the start of the split in the file.
+   * @return the position of the first record starting after the split start, or the end of the file.
+   */
+  long findFirstRecordStartFromBeginning(LineReader in, long firstRecord, long start) throws IOException {
+    Hypothesis exact = new Hypothesis(false);
+    Text line = new Text();
+    long pos = firstRecord;
+    while (true) {
+      int size = in.readLine(line);
+      if (size == 0) {
+        return pos;
+      }
+      pos += size;
+      exact.count(line);
+      if (!exact.inQuote && pos > start) {
+        return pos;
+      }
+    }
+  }
+
+  /**
+   * The state of the scan of the lines with a hypothesis on the state at the start of the split.
+   */
+  private class Hypothesis {
+
+    private boolean inQuote;
+
+    private boolean valid = true;
+
+    /** The position of the first line starting outside a quoted value. */
+    private long recordStart = UNKNOWN;
+
+    private Hypothesis(boolean inQuote) {
+      this.inQuote = inQuote;
+    }
+
+    private void scan(Text line, long lineEnd) {
+      if (!valid) {
+        return;
+      }
+      byte[] bytes = line.getBytes();
+      int length = line.getLength();
+      for (int i = 0; i < length; i++) {
+        if (!isCountedQuote(bytes, i)) {
+          continue;
+        }
+        if (!inQuote) {
+          // an opening quote is at the start of a field, the character before the first line is unknown
+          if (i > 0 && !isFieldStart(bytes[i - 1])) {
+            valid = false;
+            return;
+          }
+        } else {
+          // a closing quote is at the end of a field
+          if (i + 1 < length && !isFieldEnd(bytes[i + 1])) {
+            valid = false;
+            return;
+          }
+        }
+        inQuote = !inQuote;
+      }
+      if (!inQuote && recordStart == UNKNOWN) {
+        recordStart = lineEnd;
+      }
+    }
+
+    private void count(Text line) {
+      byte[] bytes = line.getBytes();
+      int length = line.getLength();
+      for (int i = 0; i < length; i++) {
+        if (isCountedQuote(bytes, i)) {
+          inQuote = !inQuote;
+        }
+      }
+    }
+
+    private void rejectIfNotSynchronized() {
+      if (recordStart == UNKNOWN) {
+        valid = false;
+      }
+    }
+  }
+
+  /**
+   * Like in {@link CSVFileRecordReader#nextKeyValue()}, a quote following the escape char is not counted.
+   */
+  private boolean isCountedQuote(byte[] bytes, int i) {
+    return bytes[i] == textEnclosure && (i == 0 || bytes[i - 1] != escapeChar);
+  }
+
+  private boolean isFieldStart(byte previous) {
+    return previous == fieldDelimiter || previous == textEnclosure || previous == ' ' || previous == '\t';
+  }
+
+  private boolean isFieldEnd(byte next) {
+    return next == fieldDelimiter || next == textEnclosure || next == ' ' || next == '\t';
+  }
+}
@@ -0,0 +1,210 @@
+package org.talend.components.simplefileio.runtime.hadoop.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.talend.components.simplefileio.runtime.hadoop.excel.streaming.StreamingReader;
+import org.talend.components.simplefileio.runtime.hadoop.excel.streaming.StreamingValuesReader;
+import org.talend.daikon.avro.NameUtil;
+
+/**
+ * Read an excel 2007 file like {@link Excel2007FileRecordReader}, but take the values of the cells directly from the
+ * sheet XML, without creating the cells, and keep the shared strings table in temporary files instead of the heap. The
+ * memory used doesn't depend on the number of rows or of distinct strings of the file.
+ */
+public class Excel2007ValuesFileRecordReader extends RecordReader<Void, IndexedRecord> {
+  private StreamingValuesReader valuesReader;
+
+  private IndexedRecord value;
+
+  private Decompressor decompressor;
+
+  private String sheetName;
+  private long header;
+  private long footer;
+  private int bufferSize;
+
+  private long currentRow;
+  private long endRow;
+
+  private long limit;
+
+  private long limitCount = 0;
+
+  private Schema schema;
+
+  public Excel2007ValuesFileRecordReader(String sheet, long header, long footer, long limit, int bufferSize) {
+    this.sheetName = sheet;
+    this.header = header;
+    this.footer = footer;
+    this.limit = limit;
+    this.limitCount = limit;
+    this.bufferSize = bufferSize;
+  }
+
+  public void initialize(InputSplit genericSplit, TaskAttemptContext context) throws IOException {
+    FileSplit split = (FileSplit) genericSplit;
+    Configuration job = context.getConfiguration();
+
+    final Path file = split.getPath();
+
+    try {
+      init(createInputStream(job, file));
+    } catch (Exception e) {
+      closeResource();
+      throw e;
+    }
+  }
+
+  private InputStream createInputStream(Configuration job, final Path file) throws IOException {
+    final FileSystem fs = file.getFileSystem(job);
+    InputStream in = fs.open(file);
+
+    CompressionCodec codec = new CompressionCodecFactory(job).getCodec(file);
+    if (null != codec) {
+      decompressor = CodecPool.getDecompressor(codec);
+      in = codec.createInputStream(in, decompressor);
+    }
+    return in;
+  }
+
+  private void init(InputStream in) throws IOException {
+    valuesReader = StreamingReader.builder()
+        .bufferSize(bufferSize)
+        .openValues(in, sheetName);
+
+    endRow = Long.MAX_VALUE;
+    if(footer > 0) {
+      //the workbook is already copied in a local file, so only the sheet is read one more time to get the end row
+      endRow = valuesReader.countRows() - footer;
+
+      //no data row, only footer, header, then exception notice
+      if(header >= endRow) {
+        throw new RuntimeException("no enough data row as header or footer value is too large, please reset them");
+      }
+    }
+
+    // skip header
+    boolean hasHeaderRow = false;
+    boolean hasNext = true;
+    while ((header--) > 0 && (hasNext = valuesReader.nextRow())) {
+      currentRow++;
+      hasHeaderRow = true;
+    }
+
+    if(!hasNext) {
+      throw new RuntimeException("no enough data row as header or footer value is too large, please reset them");
+    }
+
+    //as only one task to process the excel as no split, so we can do that like this
+    if(hasHeaderRow && !valuesReader.isEmptyRow()) {
+      schema = createSchema(valuesReader.getCellCount());
+    }
+  }
+
+  private static final String RECORD_NAME = "StringArrayRecord";
+
+  private static final String FIELD_PREFIX = "field";
+
+  private Schema createSchema(int cellNumber) {
+    SchemaBuilder.FieldAssembler<Schema> fa = SchemaBuilder.record(RECORD_NAME).fields();
+
+    Set<String> existNames = new HashSet<String>();
+    for (int i = 0; i < cellNumber; i++) {
+      String finalName = NameUtil.correct(FIELD_PREFIX + (i), i, existNames);
+      existNames.add(finalName);
+
+      fa = fa.name(finalName).type(Schema.create(Schema.Type.STRING)).noDefault();
+    }
+
+    return fa.endRecord();
+  }
+
+  public boolean nextKeyValue() throws IOException {
+    boolean hasNext = next();
+
+    if((limit > 0) && ((limitCount--) < 1)) {
+      return false;
+    }
+
+    return hasNext;
+  }
+
+  private boolean next() throws IOException {
+    while (currentRow < endRow) {
+      if (!valuesReader.nextRow()) {
+        return false;
+      }
+
+      currentRow++;
+
+      if(valuesReader.isEmptyRow()) {
+        //skip empty rows
+        continue;
+      }
+
+      //if not fill the schema before as no header or invalid header, set it here and as no valid name as no header, so set a name like this : field1,field2,field3
+      if(schema == null) {
+        schema = createSchema(valuesReader.getCellCount());
+      }
+      value = new GenericData.Record(schema);
+
+      int size = schema.getFields().size();
+      for (int i=0; i<size; i++) {
+        value.put(i, valuesReader.getValue(i));
+      }
+
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Void getCurrentKey() {
+    return null;
+  }
+
+  @Override
+  public IndexedRecord getCurrentValue() {
+    return value;
+  }
+
+  public float getProgress() throws IOException {
+    return endRow == Long.MAX_VALUE ? 0 : (float) currentRow / endRow;
+  }
+
+  public synchronized void close() throws IOException {
+    closeResource();
+  }
+
+  private void closeResource() throws IOException {
+    try {
+      if(valuesReader != null) {
+        valuesReader.close();
+        valuesReader = null;
+      }
+    } finally {
+      if (decompressor != null) {
+        CodecPool.returnDecompressor(decompressor);
+        decompressor = null;
+      }
+    }
+  }
+}
@@ -24,6 +24,11 @@ public class ExcelFileInputFormat extends org.apache.hadoop.mapreduce.lib.input.
   public static String TALEND_EXCEL_FORMAT = "talend_excel_format";
   
   public static String TALEND_EXCEL_LIMIT = "talend_excel_limit";
+  
+  /** Read the excel 2007 files without creating the cells, and with the shared strings on disk. */
+  public static String TALEND_EXCEL_LOW_MEMORY = "talend_excel_low_memory";
+  
+  public static String TALEND_EXCEL_BUFFER_SIZE = "talend_excel_buffer_size";
 
   private static final Log LOG = LogFactory.getLog(ExcelFileInputFormat.class);
 
@@ -36,7 +41,10 @@ public class ExcelFileInputFormat extends org.apache.hadoop.mapreduce.lib.input.
     String excelFormat = context.getConfiguration().get(TALEND_EXCEL_FORMAT, "EXCEL2007");
     long limit = context.getConfiguration().getLong(TALEND_EXCEL_LIMIT, -1);
     
-    if("EXCEL2007".equals(excelFormat)) {
+    if("EXCEL2007".equals(excelFormat) && context.getConfiguration().getBoolean(TALEND_EXCEL_LOW_MEMORY, false)) {
+      int bufferSize = context.getConfiguration().getInt(TALEND_EXCEL_BUFFER_SIZE, 64 * 1024);
+      return new Excel2007ValuesFileRecordReader(sheet, header, footer, limit, bufferSize);
+    } else if("EXCEL2007".equals(excelFormat)) {
       return new Excel2007FileRecordReader(sheet, header, footer, limit);
     } else if("EXCEL97".equals(excelFormat)) {
       return new Excel97FileRecordReader(sheet, header, footer, limit);
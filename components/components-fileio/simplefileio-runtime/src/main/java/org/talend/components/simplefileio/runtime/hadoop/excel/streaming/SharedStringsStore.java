@@ -0,0 +1,271 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// https://github.com/Talend/data-prep/blob/master/LICENSE
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.hadoop.excel.streaming;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The shared strings table of a workbook, stored in temporary files which are memory-mapped, instead of the
+ * {@link org.apache.poi.xssf.model.SharedStringsTable} which keeps all the strings on the heap.
+ *
+ * The data file contains, for each string, its length and its UTF-8 bytes. A string never crosses the boundary of a
+ * mapped segment of the data file. The index file contains the position of each string in the data file.
+ */
+public class SharedStringsStore implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedStringsStore.class);
+
+    private static final int SEGMENT_BITS = 30;
+
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private static final int CACHE_SIZE = 4096;
+
+    private final File dataFile;
+
+    private final File indexFile;
+
+    private final int count;
+
+    private final MappedByteBuffer index;
+
+    private final MappedByteBuffer[] segments;
+
+    // The strings which are often used, like the values of a category column, are decoded once
+    private final String[] cache = new String[CACHE_SIZE];
+
+    private final int[] cacheKeys = new int[CACHE_SIZE];
+
+    private SharedStringsStore(File dataFile, File indexFile, int count) throws IOException {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.count = count;
+        Arrays.fill(cacheKeys, -1);
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+    }
+
+    /**
+     * @return a store without any string, for a workbook without shared strings table.
+     */
+    public static SharedStringsStore empty() throws IOException {
+        return create(null, 0);
+    }
+
+    /**
+     * Read the shared strings table.
+     *
+     * @param sharedStrings the content of the sharedStrings.xml part, or null.
+     * @param bufferSize the size of the buffers used to read the table and to write the files.
+     */
+    public static SharedStringsStore create(InputStream sharedStrings, int bufferSize) throws IOException {
+        File dataFile = Files.createTempFile("sst-", ".data").toFile();
+        File indexFile = Files.createTempFile("sst-", ".index").toFile();
+        int count = 0;
+        try {
+            if (sharedStrings != null) {
+                count = write(new BufferedInputStream(sharedStrings, bufferSize), dataFile, indexFile, bufferSize);
+            }
+            return new SharedStringsStore(dataFile, indexFile, count);
+        } catch (XMLStreamException e) {
+            FilesHelper.deleteQuietly(dataFile);
+            FilesHelper.deleteQuietly(indexFile);
+            throw new IOException("Unable to read the shared strings table", e);
+        } catch (IOException | RuntimeException e) {
+            FilesHelper.deleteQuietly(dataFile);
+            FilesHelper.deleteQuietly(indexFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Parse the shared strings table and write each string in the files.
+     *
+     * @return the number of strings.
+     */
+    private static int write(InputStream in, File dataFile, File indexFile, int bufferSize)
+            throws IOException, XMLStreamException {
+        XMLStreamReader parser = createXMLInputFactory().createXMLStreamReader(in);
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile), bufferSize));
+                DataOutputStream index = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(indexFile), bufferSize))) {
+            StringBuilder text = new StringBuilder();
+            long position = 0;
+            int count = 0;
+            // A string item <si> contains a text <t>, or rich text runs <r> with their text, and phonetic runs <rPh>
+            // which are not part of the value
+            boolean inText = false;
+            boolean inPhonetic = false;
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String startName = parser.getLocalName();
+                    if ("si".equals(startName)) {
+                        text.setLength(0);
+                    } else if ("t".equals(startName)) {
+                        inText = !inPhonetic;
+                    } else if ("rPh".equals(startName)) {
+                        inPhonetic = true;
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (inText) {
+                        text.append(parser.getTextCharacters(), parser.getTextStart(), parser.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    String endName = parser.getLocalName();
+                    if ("t".equals(endName)) {
+                        inText = false;
+                    } else if ("rPh".equals(endName)) {
+                        inPhonetic = false;
+                    } else if ("si".equals(endName)) {
+                        byte[] bytes = utfDecode(text.toString()).getBytes(StandardCharsets.UTF_8);
+                        long remaining = SEGMENT_SIZE - (position & (SEGMENT_SIZE - 1));
+                        if (remaining < 4 + bytes.length) {
+                            // Start the string in the next segment
+                            for (long i = 0; i < remaining; i++) {
+                                data.write(0);
+                            }
+                            position += remaining;
+                        }
+                        index.writeLong(position);
+                        data.writeInt(bytes.length);
+                        data.write(bytes);
+                        position += 4 + bytes.length;
+                        count++;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            if ((long) count * 8 > Integer.MAX_VALUE) {
+                throw new IOException("Too many shared strings: " + count);
+            }
+            return count;
+        } finally {
+            parser.close();
+        }
+    }
+
+    static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Decode the characters escaped as <code>_xHHHH_</code>, like {@link org.apache.poi.xssf.usermodel.XSSFRichTextString}.
+     */
+    static String utfDecode(String value) {
+        if (value == null || value.indexOf("_x") < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            if (i + 7 <= value.length() && value.charAt(i) == '_' && value.charAt(i + 1) == 'x' && value.charAt(i + 6) == '_'
+                    && isHex(value, i + 2, i + 6)) {
+                sb.append((char) Integer.parseInt(value.substring(i + 2, i + 6), 16));
+                i += 7;
+            } else {
+                sb.append(value.charAt(i++));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isHex(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of strings in the table.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param idx the index of the string in the table, as found in a cell of type "s".
+     * @return the string.
+     */
+    public String get(int idx) {
+        if (idx < 0 || idx >= count) {
+            throw new IndexOutOfBoundsException("No shared string at index " + idx);
+        }
+        int slot = idx & (CACHE_SIZE - 1);
+        if (cacheKeys[slot] == idx) {
+            return cache[slot];
+        }
+        long position = index.getLong(idx * 8);
+        ByteBuffer segment = segments[(int) (position >> SEGMENT_BITS)].duplicate();
+        segment.position((int) (position & (SEGMENT_SIZE - 1)));
+        byte[] bytes = new byte[segment.getInt()];
+        segment.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        cacheKeys[slot] = idx;
+        cache[slot] = value;
+        return value;
+    }
+
+    /**
+     * Delete the temporary files. The mapped buffers are released when they are garbage collected, so the files may only
+     * be deleted later on some systems.
+     */
+    @Override
+    public void close() {
+        LOGGER.debug("Deleting shared strings files [{}] [{}]", dataFile.getAbsolutePath(), indexFile.getAbsolutePath());
+        FilesHelper.deleteQuietly(dataFile);
+        FilesHelper.deleteQuietly(indexFile);
+    }
+}
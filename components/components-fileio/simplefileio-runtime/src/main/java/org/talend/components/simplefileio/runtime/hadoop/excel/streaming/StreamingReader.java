@@ -150,6 +150,23 @@ public class StreamingReader implements Iterable<Row>, AutoCloseable {
             wBook.init(file);
             return new StreamingWorkbook(wBook);
         }
+
+        /**
+         * Reads a given {@code InputStream} and returns a reader of the values of one of its sheets, which doesn't
+         * create the cells and keeps the shared strings on disk. The buffer size specified in {@link #bufferSize(int)}
+         * is used to copy the stream, and to parse the sheet and the shared strings. Password protected files are not
+         * supported.
+         *
+         * @param is input stream to read in
+         * @param sheetName name of the sheet to read, or null for the first sheet
+         * @return A {@link StreamingValuesReader} positioned before the first row of the sheet
+         * @throws ReadException if there is an issue reading the stream
+         */
+        public StreamingValuesReader openValues(InputStream is, String sheetName) {
+            StreamingValuesReader reader = new StreamingValuesReader(bufferSize);
+            reader.init(is, sheetName);
+            return reader;
+        }
     }
 
 }
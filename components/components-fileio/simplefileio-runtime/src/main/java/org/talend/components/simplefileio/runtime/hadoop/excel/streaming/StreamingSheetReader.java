@@ -315,7 +315,7 @@ public class StreamingSheetReader implements Iterable<Row> {
     }
 
 
-    class CustomDataFormatter extends DataFormatter {
+    static class CustomDataFormatter extends DataFormatter {
 
         @Override
         public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
@@ -0,0 +1,381 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// https://github.com/Talend/data-prep/blob/master/LICENSE
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.hadoop.excel.streaming;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.monitorjbl.xlsx.exceptions.CloseException;
+import com.monitorjbl.xlsx.exceptions.OpenException;
+import com.monitorjbl.xlsx.exceptions.ReadException;
+
+/**
+ * Read the values of the rows of a sheet directly from its XML, without the POI {@link org.apache.poi.ss.usermodel.Row}
+ * and {@link org.apache.poi.ss.usermodel.Cell} objects of the {@link StreamingSheetReader}.
+ *
+ * The values are formatted like by the {@link StreamingSheetReader}, and the shared strings are kept on disk in a
+ * {@link SharedStringsStore}. Only one row is in memory at any given point.
+ */
+public class StreamingValuesReader implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingValuesReader.class);
+
+    private final int bufferSize;
+
+    private File tmp;
+
+    private OPCPackage pkg;
+
+    private XSSFReader reader;
+
+    private String sheetName;
+
+    private SharedStringsStore sharedStrings;
+
+    private StylesTable stylesTable;
+
+    private XMLStreamReader parser;
+
+    private final DataFormatter dataFormatter = new StreamingSheetReader.CustomDataFormatter();
+
+    // The numeric format of each style index, -1 for the cells without style
+    private final Map<Integer, NumericFormat> numericFormats = new HashMap<>();
+
+    private final StringBuilder contents = new StringBuilder();
+
+    private String[] values = new String[16];
+
+    private int cellCount;
+
+    private int rowIndex = -1;
+
+    StreamingValuesReader(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Copy the workbook in a temporary file, and open its sheet.
+     *
+     * @param sheetName the name of the sheet, or null for the first sheet.
+     * @throws ReadException if there is an issue reading the stream or if the sheet is not found.
+     */
+    void init(InputStream is, String sheetName) {
+        try {
+            tmp = StreamingWorkbookReader.writeInputStreamToFile(is, bufferSize);
+            LOGGER.debug("Created temp file [{}]", tmp.getAbsolutePath());
+            pkg = OPCPackage.open(tmp, PackageAccess.READ);
+            reader = new XSSFReader(pkg);
+            stylesTable = reader.getStylesTable();
+
+            List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (parts.isEmpty()) {
+                sharedStrings = SharedStringsStore.empty();
+            } else {
+                try (InputStream sst = parts.get(0).getInputStream()) {
+                    sharedStrings = SharedStringsStore.create(sst, bufferSize);
+                }
+            }
+
+            this.sheetName = sheetName;
+            parser = openSheet();
+        } catch (IOException e) {
+            close();
+            throw new OpenException("Failed to open file", e);
+        } catch (OpenXML4JException | XMLStreamException e) {
+            close();
+            throw new ReadException("Unable to read workbook", e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private XMLStreamReader openSheet() throws IOException, OpenXML4JException, XMLStreamException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            InputStream sheet = sheets.next();
+            if (StringUtils.isEmpty(sheetName) || sheetName.equals(sheets.getSheetName())) {
+                return SharedStringsStore.createXMLInputFactory()
+                        .createXMLStreamReader(new BufferedInputStream(sheet, bufferSize));
+            }
+            sheet.close();
+        }
+        throw new ReadException("can't find the sheet : " + sheetName);
+    }
+
+    /**
+     * Read the sheet a first time, to count its rows.
+     *
+     * @return the number of rows in the sheet, including the empty rows which are in the file.
+     */
+    public long countRows() {
+        try {
+            XMLStreamReader counter = openSheet();
+            try {
+                long count = 0;
+                while (counter.hasNext()) {
+                    if (counter.next() == XMLStreamConstants.START_ELEMENT && "row".equals(counter.getLocalName())) {
+                        count++;
+                    }
+                }
+                return count;
+            } finally {
+                counter.close();
+            }
+        } catch (IOException | OpenXML4JException | XMLStreamException e) {
+            throw new ReadException("Unable to read workbook", e);
+        }
+    }
+
+    /**
+     * Read the next row of the sheet.
+     *
+     * @return false if there are no more rows.
+     */
+    public boolean nextRow() {
+        try {
+            while (parser.hasNext()) {
+                if (parser.next() == XMLStreamConstants.START_ELEMENT && "row".equals(parser.getLocalName())) {
+                    readRow();
+                    return true;
+                }
+            }
+            return false;
+        } catch (XMLStreamException e) {
+            throw new ReadException("Unable to read workbook", e);
+        }
+    }
+
+    private void readRow() throws XMLStreamException {
+        String r = parser.getAttributeValue(null, "r");
+        rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+        Arrays.fill(values, 0, cellCount, null);
+        cellCount = 0;
+        int column = -1;
+        String type = null;
+        int style = -1;
+        boolean inValue = false;
+        while (parser.hasNext()) {
+            switch (parser.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                String startName = parser.getLocalName();
+                if ("c".equals(startName)) {
+                    String ref = parser.getAttributeValue(null, "r");
+                    column = ref == null ? column + 1 : getColumnIndex(ref);
+                    type = parser.getAttributeValue(null, "t");
+                    String s = parser.getAttributeValue(null, "s");
+                    style = parseStyle(s);
+                    contents.setLength(0);
+                } else if ("v".equals(startName) || "t".equals(startName)) {
+                    inValue = true;
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (inValue) {
+                    contents.append(parser.getTextCharacters(), parser.getTextStart(), parser.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                String endName = parser.getLocalName();
+                if ("v".equals(endName) || "t".equals(endName)) {
+                    inValue = false;
+                } else if ("c".equals(endName)) {
+                    setValue(column, format(type == null ? "n" : type, style, contents.toString()));
+                } else if ("row".equals(endName)) {
+                    return;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private static int getColumnIndex(String ref) {
+        int end = 0;
+        while (end < ref.length() && Character.isLetter(ref.charAt(end))) {
+            end++;
+        }
+        return CellReference.convertColStringToIndex(ref.substring(0, end));
+    }
+
+    private int parseStyle(String s) {
+        if (s == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException nfe) {
+            LOGGER.warn("Ignoring invalid style index {}", s);
+            return -1;
+        }
+    }
+
+    private void setValue(int column, String value) {
+        if (column >= values.length) {
+            values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+        }
+        values[column] = value;
+        cellCount = Math.max(cellCount, column + 1);
+    }
+
+    /**
+     * Format the contents of a cell like {@link StreamingSheetReader#formattedContents()}.
+     */
+    private String format(String type, int style, String raw) {
+        switch (type) {
+        case "s": // string stored in shared table
+            return sharedStrings.get(Integer.parseInt(raw));
+        case "inlineStr": // inline string (not in sst)
+            return SharedStringsStore.utfDecode(raw);
+        case "b":
+            return "1".equals(raw) ? Boolean.TRUE.toString() : Boolean.FALSE.toString();
+        case "e": // error type
+            return StringUtils.EMPTY;
+        case "n": // numeric type
+            NumericFormat format = getNumericFormat(style);
+            if (format.formatString != null && raw.length() > 0) {
+                return dataFormatter.formatRawCellContents(Double.parseDouble(raw), format.formatIndex, format.formatString);
+            } else {
+                return raw;
+            }
+        default:
+            return raw;
+        }
+    }
+
+    /**
+     * Read the numeric format out of the styles table, like {@link StreamingSheetReader#setFormatString}.
+     */
+    private NumericFormat getNumericFormat(int style) {
+        NumericFormat format = numericFormats.get(style);
+        if (format == null) {
+            XSSFCellStyle cellStyle = null;
+            if (style >= 0) {
+                cellStyle = stylesTable.getStyleAt(style);
+            } else if (stylesTable.getNumCellStyles() > 0) {
+                cellStyle = stylesTable.getStyleAt(0);
+            }
+            if (cellStyle != null) {
+                int formatIndex = cellStyle.getDataFormat();
+                String formatString = cellStyle.getDataFormatString();
+                format = new NumericFormat(formatIndex,
+                        formatString != null ? formatString : BuiltinFormats.getBuiltinFormat(formatIndex));
+            } else {
+                format = new NumericFormat(-1, null);
+            }
+            numericFormats.put(style, format);
+        }
+        return format;
+    }
+
+    /**
+     * @return the index of the current row in the sheet, from 0.
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * @return the number of cells of the current row, i.e. the index of its last cell + 1.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return the formatted value of a cell of the current row, or an empty string if the cell doesn't exist.
+     */
+    public String getValue(int column) {
+        String value = column < cellCount ? values[column] : null;
+        return value == null ? StringUtils.EMPTY : value;
+    }
+
+    /**
+     * @return true if all the cells of the current row are blank, like {@code ExcelUtils#isEmptyRow4Stream}.
+     */
+    public boolean isEmptyRow() {
+        for (int i = 0; i < cellCount; i++) {
+            if (StringUtils.isNotBlank(values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the sheet, and deletes the temporary files.
+     *
+     * @throws CloseException if there is an issue closing the sheet
+     */
+    @Override
+    public void close() {
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new CloseException(e);
+        } finally {
+            if (sharedStrings != null) {
+                sharedStrings.close();
+            }
+            if (pkg != null) {
+                pkg.revert();
+            }
+            if (tmp != null) {
+                LOGGER.debug("Deleting tmp file [{}]", tmp.getAbsolutePath());
+                FilesHelper.deleteQuietly(tmp);
+            }
+        }
+    }
+
+    private static class NumericFormat {
+
+        private final int formatIndex;
+
+        private final String formatString;
+
+        private NumericFormat(int formatIndex, String formatString) {
+            this.formatIndex = formatIndex;
+            this.formatString = formatString;
+        }
+    }
+}
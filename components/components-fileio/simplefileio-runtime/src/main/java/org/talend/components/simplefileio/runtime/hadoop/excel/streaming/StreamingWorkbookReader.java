@@ -68,7 +68,7 @@ public class StreamingWorkbookReader implements Iterable<Sheet>, AutoCloseable {
         this.builder = builder;
     }
 
-    private static File writeInputStreamToFile(InputStream is, int bufferSize) throws IOException {
+    static File writeInputStreamToFile(InputStream is, int bufferSize) throws IOException {
         File f = Files.createTempFile("tmp-", ".xlsx").toFile();
         try (FileOutputStream fos = new FileOutputStream(f)) {
             int read;
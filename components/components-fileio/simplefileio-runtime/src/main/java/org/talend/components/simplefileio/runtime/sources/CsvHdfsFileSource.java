@@ -32,7 +32,7 @@ public class CsvHdfsFileSource extends FileSourceBase<LongWritable, BytesWritabl
         SimpleFileIOAvroRegistry.get();
     }
 
-    private CsvHdfsFileSource(UgiDoAs doAs, String filepattern, String recordDelimiter, String encoding, long header, String textEnclosure, String escapeChar, ExtraHadoopConfiguration extraConfig,
+    private CsvHdfsFileSource(UgiDoAs doAs, String filepattern, String recordDelimiter, String fieldDelimiter, String encoding, long header, String textEnclosure, String escapeChar, ExtraHadoopConfiguration extraConfig,
             SerializableSplit serializableSplit) {
         super(doAs, filepattern, CSVFileInputFormat.class, LongWritable.class, BytesWritable.class, extraConfig, serializableSplit);
         ExtraHadoopConfiguration hadoop_config = getExtraHadoopConfiguration();
@@ -41,6 +41,9 @@ public class CsvHdfsFileSource extends FileSourceBase<LongWritable, BytesWritabl
         hadoop_config.set(CSVFileInputFormat.TALEND_ROW_DELIMITED, recordDelimiter);
         hadoop_config.set(CSVFileInputFormat.TALEND_TEXT_ENCLOSURE, textEnclosure);
         hadoop_config.set(CSVFileInputFormat.TALEND_ESCAPE, escapeChar);
+        if (fieldDelimiter != null) {
+            hadoop_config.set(CSVFileInputFormat.TALEND_FIELD_DELIMITER, fieldDelimiter);
+        }
     }
 
     private CsvHdfsFileSource(UgiDoAs doAs, String filepattern, ExtraHadoopConfiguration extraConfig,
@@ -49,7 +52,14 @@ public class CsvHdfsFileSource extends FileSourceBase<LongWritable, BytesWritabl
     }
 
     public static CsvHdfsFileSource of(UgiDoAs doAs, String filepattern, String recordDelimiter, String encoding, long header, String textEnclosure, String escapeChar) {
-        return new CsvHdfsFileSource(doAs, filepattern, recordDelimiter, encoding, header, textEnclosure, escapeChar, new ExtraHadoopConfiguration(), null);
+        return of(doAs, filepattern, recordDelimiter, null, encoding, header, textEnclosure, escapeChar);
+    }
+
+    /**
+     * @param fieldDelimiter the field delimiter, which allows to split the files with text enclosures.
+     */
+    public static CsvHdfsFileSource of(UgiDoAs doAs, String filepattern, String recordDelimiter, String fieldDelimiter, String encoding, long header, String textEnclosure, String escapeChar) {
+        return new CsvHdfsFileSource(doAs, filepattern, recordDelimiter, fieldDelimiter, encoding, header, textEnclosure, escapeChar, new ExtraHadoopConfiguration(), null);
     }
 
     @Override
@@ -497,6 +497,58 @@ public class SimpleFileIODatasetRuntimeTest {
         assertThat("TDI-T3_V1", equalTo(actual.get(0).get(7)));
     }
     
+    @Test
+    public void testGetSampleExcel2007_lowMemory() throws Exception {
+        String fileSpec = sourceFilePrepare("emptyfield.xlsx");
+
+        // Configure the component.
+        SimpleFileIODatasetProperties props = createDatasetProperties();
+        props.path.setValue(fileSpec);
+        props.format.setValue(SimpleFileIOFormat.EXCEL);
+        props.excelFormat.setValue(ExcelFormat.EXCEL2007);
+        props.lowMemory.setValue(true);
+        props.setHeaderLine.setValue(true);
+        props.headerLine.setValue(1);
+
+        final List<IndexedRecord> actual = getSample(props,100);
+
+        assertThat(actual, hasSize(3));
+
+        List<Field> fields = actual.get(0).getSchema().getFields();
+        assertThat(fields, hasSize(8));
+        assertThat("field0", equalTo(fields.get(0).name()));
+        assertThat("field7", equalTo(fields.get(7).name()));
+
+        assertThat("", equalTo(actual.get(0).get(0)));
+        assertThat("2", equalTo(actual.get(0).get(1)));
+        assertThat("false", equalTo(actual.get(0).get(2)));
+        assertThat("", equalTo(actual.get(0).get(3)));
+        assertThat("3.4", equalTo(actual.get(0).get(4)));
+        assertThat("2018-04-26", equalTo(actual.get(0).get(5)));
+        assertThat("", equalTo(actual.get(0).get(6)));
+        assertThat("TDI-T3_V1", equalTo(actual.get(0).get(7)));
+    }
+
+    @Test
+    public void testGetSampleExcel_emptyrow_lowMemory() throws Exception {
+        String fileSpec = sourceFilePrepare("emptyrowexist.xlsx");
+
+        // Configure the component.
+        SimpleFileIODatasetProperties props = createDatasetProperties();
+        props.path.setValue(fileSpec);
+        props.format.setValue(SimpleFileIOFormat.EXCEL);
+        props.excelFormat.setValue(ExcelFormat.EXCEL2007);
+        props.lowMemory.setValue(true);
+        props.setHeaderLine.setValue(true);
+        props.headerLine.setValue(1);
+
+        final List<IndexedRecord> actual = getSample(props,1000);
+
+        assertThat(actual, hasSize(199));
+        List<Field> fields = actual.get(0).getSchema().getFields();
+        assertThat(fields, hasSize(5));
+    }
+
     @Test
     public void testGetSampleExcel97_TDI_40654() throws Exception {
         String fileSpec = sourceFilePrepare("emptyfield.xls");
@@ -0,0 +1,100 @@
+package org.talend.components.simplefileio.runtime.csv;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CsvByteTokenizer}.
+ */
+public class CsvByteTokenizerTest {
+
+    private static void reset(CsvByteTokenizer tokenizer, String in) {
+        byte[] bytes = in.getBytes(StandardCharsets.UTF_8);
+        tokenizer.reset(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void testSeveralRecords() throws Exception {
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(';', '"', null);
+        reset(tokenizer, "a;\"b\r\nc\";d\r\ne;f;\ng");
+
+        assertTrue(tokenizer.nextRecord());
+        assertThat(tokenizer.getValues(), arrayContaining("a", "b\r\nc", "d"));
+        assertTrue(tokenizer.nextRecord());
+        assertThat(tokenizer.getValues(), arrayContaining("e", "f", ""));
+        assertTrue(tokenizer.nextRecord());
+        assertThat(tokenizer.getValues(), arrayContaining("g"));
+        assertFalse(tokenizer.nextRecord());
+    }
+
+    @Test
+    public void testEscape() throws Exception {
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(',', '"', '\\');
+        reset(tokenizer, "a\\,b,\"c\\\"d\\n\",e\\x");
+
+        assertTrue(tokenizer.nextRecord());
+        assertThat(tokenizer.getValues(), arrayContaining("a,b", "c\"d\n", "e\\x"));
+    }
+
+    @Test
+    public void testMultiBytesCharacters() throws Exception {
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer('|', '\'', null);
+        reset(tokenizer, "王伟|'北京|上海'|Talend");
+
+        assertTrue(tokenizer.nextRecord());
+        assertThat(tokenizer.getValues(), arrayContaining("王伟", "北京|上海", "Talend"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCharAfterClosingQuote() throws Exception {
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(';', '"', null);
+        reset(tokenizer, "\"a\"b;c");
+        tokenizer.nextRecord();
+    }
+
+    @Test
+    public void testSupported() {
+        assertTrue(CsvByteTokenizer.isSupported(';', '"', '\\'));
+        assertFalse(CsvByteTokenizer.isSupported('¤', null, null));
+        assertTrue(CsvByteTokenizer.isUtf8Compatible("utf-8"));
+        assertFalse(CsvByteTokenizer.isUtf8Compatible("GBK"));
+    }
+
+    /**
+     * The values are decoded to the type of the schema when they are read.
+     */
+    @Test
+    public void testRecordTypes() throws Exception {
+        Schema schema = SchemaBuilder.record("typed").fields() //
+                .name("s").type().stringType().noDefault() //
+                .name("i").type().nullable().intType().noDefault() //
+                .name("d").type().doubleType().noDefault() //
+                .name("b").type().booleanType().noDefault() //
+                .name("bytes").type().bytesType().noDefault() //
+                .endRecord();
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(';', null, null);
+        reset(tokenizer, "x;;1.5;true;y;z");
+
+        assertTrue(tokenizer.nextRecord());
+        CsvByteRecord record = tokenizer.getRecord(schema);
+        assertEquals(6, record.size());
+        assertEquals("x", record.get(0));
+        assertEquals(null, record.get(1));
+        assertEquals(1.5, record.get(2));
+        assertEquals(true, record.get(3));
+        assertEquals(ByteBuffer.wrap("y".getBytes(StandardCharsets.UTF_8)), record.get(4));
+        // More fields than in the schema
+        assertEquals("z", record.get(5));
+    }
+}
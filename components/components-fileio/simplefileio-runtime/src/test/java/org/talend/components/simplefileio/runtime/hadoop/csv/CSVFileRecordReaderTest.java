@@ -0,0 +1,127 @@
+package org.talend.components.simplefileio.runtime.hadoop.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link CSVFileRecordReader}, reading a file with text enclosures in several splits.
+ */
+public class CSVFileRecordReaderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Generate records with quoted values on several lines.
+     */
+    private static List<String> createRecords() {
+        Random random = new Random(1);
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int f = 0; f < 4; f++) {
+                if (f > 0) {
+                    sb.append(';');
+                }
+                switch (random.nextInt(4)) {
+                case 0:
+                    sb.append("plain").append(i);
+                    break;
+                case 1:
+                    sb.append("\"quoted;\"\"value\"");
+                    break;
+                case 2:
+                    sb.append("\"multi\nline;\nvalue\"");
+                    break;
+                default:
+                    sb.append("\"\"");
+                }
+            }
+            records.add(sb.toString());
+        }
+        return records;
+    }
+
+    private File createFile(List<String> records) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append('\n');
+        }
+        File file = folder.newFile("multiline.csv");
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Read all the splits of the file, in order.
+     */
+    private static List<String> readSplits(File file, long splitSize, long lookahead) throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(CSVFileInputFormat.TALEND_ENCODING, "UTF-8");
+        conf.set(CSVFileInputFormat.TALEND_ROW_DELIMITED, "\n");
+        conf.set(CSVFileInputFormat.TALEND_TEXT_ENCLOSURE, "\"");
+        conf.set(CSVFileInputFormat.TALEND_FIELD_DELIMITER, ";");
+        conf.setLong(CSVSplitSynchronizer.LOOKAHEAD, lookahead);
+        Job job = Job.getInstance(conf);
+        FileInputFormat.addInputPath(job, new Path(file.toURI()));
+        FileInputFormat.setMaxInputSplitSize(job, splitSize);
+
+        CSVFileInputFormat format = new CSVFileInputFormat();
+        List<InputSplit> splits = format.getSplits(job);
+        assertTrue(splits.size() > 10);
+
+        List<String> records = new ArrayList<>();
+        for (InputSplit split : splits) {
+            TaskAttemptContext context = new TaskAttemptContextImpl(job.getConfiguration(), new TaskAttemptID());
+            try (CSVFileRecordReader reader = format.createRecordReader(split, context)) {
+                reader.initialize(split, context);
+                while (reader.nextKeyValue()) {
+                    BytesWritable value = reader.getCurrentValue();
+                    records.add(new String(value.getBytes(), 0, value.getLength(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Each record is read once, by the split where it starts, even when it ends in the next splits.
+     */
+    @Test
+    public void testSplits() throws Exception {
+        List<String> records = createRecords();
+        File file = createFile(records);
+        assertEquals(records, readSplits(file, 997, CSVSplitSynchronizer.DEFAULT_LOOKAHEAD));
+        assertEquals(records, readSplits(file, 64, CSVSplitSynchronizer.DEFAULT_LOOKAHEAD));
+    }
+
+    /**
+     * With a lookahead shorter than the values, the first record of each split is found from the beginning of the file.
+     */
+    @Test
+    public void testSplitsFromBeginning() throws Exception {
+        List<String> records = createRecords();
+        File file = createFile(records);
+        assertEquals(records, readSplits(file, 997, 8));
+    }
+}
@@ -0,0 +1,99 @@
+package org.talend.components.simplefileio.runtime.hadoop.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.hadoop.util.LineReader;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CSVSplitSynchronizer}.
+ */
+public class CSVSplitSynchronizerTest {
+
+    private static LineReader lines(byte[] bytes, int start) {
+        return new LineReader(new ByteArrayInputStream(bytes, start, bytes.length - start));
+    }
+
+    /**
+     * Generate a file with quoted values on several lines.
+     */
+    private static byte[] createFile() {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            for (int f = 0; f < 4; f++) {
+                if (f > 0) {
+                    sb.append(';');
+                }
+                switch (random.nextInt(4)) {
+                case 0:
+                    sb.append("plain").append(i);
+                    break;
+                case 1:
+                    sb.append("\"quoted;\"\"value\"");
+                    break;
+                case 2:
+                    sb.append("\"multi\nline;\nvalue\"");
+                    break;
+                default:
+                    sb.append("\"\"");
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The first record found from any position must be the one found by counting the quotes from the beginning. It can
+     * only be unknown after the last value on several lines, where both hypotheses are valid up to the end of the file.
+     */
+    @Test
+    public void testSameAsFromBeginning() throws Exception {
+        byte[] bytes = createFile();
+        int lastMultiLine = new String(bytes, StandardCharsets.UTF_8).lastIndexOf("\"multi\n");
+        CSVSplitSynchronizer synchronizer = new CSVSplitSynchronizer('"', null, ';', CSVSplitSynchronizer.DEFAULT_LOOKAHEAD);
+        int unknown = 0;
+        for (int start = 1; start < bytes.length; start += 13) {
+            long expected = synchronizer.findFirstRecordStartFromBeginning(lines(bytes, 0), 0, start);
+            long actual = synchronizer.findFirstRecordStart(lines(bytes, start), start);
+            if (start <= lastMultiLine) {
+                assertEquals("start " + start, expected, actual);
+            } else if (actual == CSVSplitSynchronizer.UNKNOWN) {
+                unknown++;
+            } else {
+                assertEquals("start " + start, expected, actual);
+            }
+        }
+        assertTrue(unknown > 0);
+    }
+
+    @Test
+    public void testUnknownWithoutQuotes() throws Exception {
+        byte[] bytes = "a;b\nc;d\ne;f\n".getBytes(StandardCharsets.UTF_8);
+        CSVSplitSynchronizer synchronizer = new CSVSplitSynchronizer('"', null, ';', CSVSplitSynchronizer.DEFAULT_LOOKAHEAD);
+        // without any quote, both hypotheses are valid up to the end of the file
+        assertEquals(CSVSplitSynchronizer.UNKNOWN, synchronizer.findFirstRecordStart(lines(bytes, 5), 5));
+        assertEquals(8, synchronizer.findFirstRecordStartFromBeginning(lines(bytes, 0), 0, 5));
+    }
+
+    @Test
+    public void testStartInQuotedValue() throws Exception {
+        byte[] bytes = "a;\"b\nc;d\ne\";f\ng;h\n".getBytes(StandardCharsets.UTF_8);
+        CSVSplitSynchronizer synchronizer = new CSVSplitSynchronizer('"', null, ';', CSVSplitSynchronizer.DEFAULT_LOOKAHEAD);
+        // start in "c;d", the next record is "g;h"
+        assertEquals(14, synchronizer.findFirstRecordStart(lines(bytes, 6), 6));
+    }
+
+    @Test
+    public void testWithoutQuotes() throws Exception {
+        byte[] bytes = "a;b\nc;d\ne;f\n".getBytes(StandardCharsets.UTF_8);
+        CSVSplitSynchronizer synchronizer = new CSVSplitSynchronizer('"', null, ';', 4);
+        assertEquals(8, synchronizer.findFirstRecordStart(lines(bytes, 5), 5));
+    }
+}
@@ -0,0 +1,89 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// https://github.com/Talend/data-prep/blob/master/LICENSE
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.hadoop.excel.streaming;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SharedStringsStore}.
+ */
+public class SharedStringsStoreTest {
+
+    private static InputStream sst(String items) {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" + items + "</sst>";
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        try (SharedStringsStore store = SharedStringsStore.empty()) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() throws Exception {
+        try (SharedStringsStore store = SharedStringsStore.create(sst("<si><t>a</t></si>"), 1024)) {
+            store.get(1);
+        }
+    }
+
+    /**
+     * The rich text runs are concatenated, and the phonetic runs are not part of the value.
+     */
+    @Test
+    public void testRichTextAndPhonetic() throws Exception {
+        String items = "<si><t>plain</t></si>" //
+                + "<si><r><rPr><b/></rPr><t>bold</t></r><r><t xml:space=\"preserve\"> and normal</t></r></si>" //
+                + "<si><t>東京</t><rPh sb=\"0\" eb=\"2\"><t>トウキョウ</t></rPh></si>" //
+                + "<si><t>line_x000D_break</t></si>" //
+                + "<si><t/></si>";
+        try (SharedStringsStore store = SharedStringsStore.create(sst(items), 1024)) {
+            assertEquals(5, store.size());
+            assertEquals("plain", store.get(0));
+            assertEquals("bold and normal", store.get(1));
+            assertEquals("東京", store.get(2));
+            assertEquals("line\rbreak", store.get(3));
+            assertEquals("", store.get(4));
+        }
+    }
+
+    /**
+     * Look up more strings than the cache holds, in both orders, so that the values are read back from the files and
+     * not only from the cache.
+     */
+    @Test
+    public void testLookup() throws Exception {
+        int count = 10000;
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            items.append("<si><t>value ").append(i).append("</t></si>");
+        }
+        try (SharedStringsStore store = SharedStringsStore.create(sst(items.toString()), 16)) {
+            assertEquals(count, store.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals("value " + i, store.get(i));
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                assertEquals("value " + i, store.get(i));
+            }
+        }
+    }
+}
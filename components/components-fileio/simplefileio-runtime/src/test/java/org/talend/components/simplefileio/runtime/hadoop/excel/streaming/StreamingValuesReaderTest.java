@@ -0,0 +1,234 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// https://github.com/Talend/data-prep/blob/master/LICENSE
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.simplefileio.runtime.hadoop.excel.streaming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.monitorjbl.xlsx.exceptions.ReadException;
+
+/**
+ * Unit tests for {@link StreamingValuesReader}, on workbooks written by hand to have the cells and rows without
+ * reference that POI never writes.
+ */
+public class StreamingValuesReaderTest {
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String CONTENT_TYPE_PREFIX = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+
+    private static final String SHARED_STRINGS = "<si><t>shared</t></si><si><t>other</t></si>";
+
+    // Style 1 has a custom numeric format
+    private static final String STYLES = "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"0.00\"/></numFmts>"
+            + "<fonts count=\"1\"><font/></fonts><fills count=\"1\"><fill/></fills>"
+            + "<borders count=\"1\"><border/></borders>"
+            + "<cellXfs count=\"2\"><xf numFmtId=\"0\"/><xf numFmtId=\"164\"/></cellXfs>";
+
+    /**
+     * @param sharedStrings the items of the shared strings table, or null for a workbook without it.
+     * @param sheets the content of the sheetData of each sheet, the sheets are named sheet1, sheet2...
+     */
+    private static ByteArrayInputStream createWorkbook(String sharedStrings, String... sheets) throws IOException {
+        StringBuilder contentTypes = new StringBuilder();
+        contentTypes.append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ")
+                .append("ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append(override("/xl/workbook.xml", "sheet.main+xml"))
+                .append(override("/xl/styles.xml", "styles+xml"));
+        StringBuilder workbook = new StringBuilder();
+        workbook.append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS)
+                .append("\"><sheets>");
+        StringBuilder workbookRels = new StringBuilder();
+        workbookRels.append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">")
+                .append(relationship("rIdStyles", "styles", "styles.xml"));
+        for (int i = 1; i <= sheets.length; i++) {
+            contentTypes.append(override("/xl/worksheets/sheet" + i + ".xml", "worksheet+xml"));
+            workbook.append("<sheet name=\"sheet").append(i).append("\" sheetId=\"").append(i).append("\" r:id=\"rId")
+                    .append(i).append("\"/>");
+            workbookRels.append(relationship("rId" + i, "worksheet", "worksheets/sheet" + i + ".xml"));
+        }
+        if (sharedStrings != null) {
+            contentTypes.append(override("/xl/sharedStrings.xml", "sharedStrings+xml"));
+            workbookRels.append(relationship("rIdStrings", "sharedStrings", "sharedStrings.xml"));
+        }
+        contentTypes.append("</Types>");
+        workbook.append("</sheets></workbook>");
+        workbookRels.append("</Relationships>");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            putEntry(zip, "[Content_Types].xml", contentTypes.toString());
+            putEntry(zip, "_rels/.rels",
+                    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                            + relationship("rId1", "officeDocument", "xl/workbook.xml") + "</Relationships>");
+            putEntry(zip, "xl/workbook.xml", workbook.toString());
+            putEntry(zip, "xl/_rels/workbook.xml.rels", workbookRels.toString());
+            putEntry(zip, "xl/styles.xml", "<styleSheet xmlns=\"" + MAIN_NS + "\">" + STYLES + "</styleSheet>");
+            for (int i = 1; i <= sheets.length; i++) {
+                putEntry(zip, "xl/worksheets/sheet" + i + ".xml", "<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>"
+                        + sheets[i - 1] + "</sheetData></worksheet>");
+            }
+            if (sharedStrings != null) {
+                putEntry(zip, "xl/sharedStrings.xml", "<sst xmlns=\"" + MAIN_NS + "\">" + sharedStrings + "</sst>");
+            }
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private static String override(String partName, String contentType) {
+        return "<Override PartName=\"" + partName + "\" ContentType=\"" + CONTENT_TYPE_PREFIX + contentType + "\"/>";
+    }
+
+    private static String relationship(String id, String type, String target) {
+        return "<Relationship Id=\"" + id + "\" Type=\"" + REL_NS + "/" + type + "\" Target=\"" + target + "\"/>";
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" + content;
+        zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static StreamingValuesReader open(ByteArrayInputStream workbook, String sheetName) {
+        return StreamingReader.builder().bufferSize(1024).openValues(workbook, sheetName);
+    }
+
+    @Test
+    public void testCellTypes() throws Exception {
+        String sheet = "<row r=\"1\">" //
+                + "<c r=\"A1\" t=\"s\"><v>1</v></c>" //
+                + "<c r=\"B1\" t=\"inlineStr\"><is><t>inline_x0009_value</t></is></c>" //
+                + "<c r=\"C1\"><v>42</v></c>" //
+                + "<c r=\"D1\" s=\"1\"><v>3.4</v></c>" //
+                + "<c r=\"E1\" t=\"b\"><v>1</v></c>" //
+                + "<c r=\"F1\" t=\"e\"><v>#DIV/0!</v></c>" //
+                + "<c r=\"G1\" t=\"str\"><f>A1</f><v>formula</v></c>" //
+                + "</row>";
+        try (StreamingValuesReader reader = open(createWorkbook(SHARED_STRINGS, sheet), null)) {
+            assertTrue(reader.nextRow());
+            assertEquals(0, reader.getRowIndex());
+            assertEquals(7, reader.getCellCount());
+            assertEquals("other", reader.getValue(0));
+            assertEquals("inline\tvalue", reader.getValue(1));
+            assertEquals("42", reader.getValue(2));
+            assertEquals("3.40", reader.getValue(3));
+            assertEquals("true", reader.getValue(4));
+            assertEquals("", reader.getValue(5));
+            assertEquals("formula", reader.getValue(6));
+            assertEquals("", reader.getValue(7));
+            assertFalse(reader.nextRow());
+        }
+    }
+
+    /**
+     * The rows and cells without reference follow the previous ones, the first row is the row 0.
+     */
+    @Test
+    public void testMissingReferences() throws Exception {
+        String sheet = "<row><c t=\"inlineStr\"><is><t>a</t></is></c><c><v>1</v></c></row>" //
+                + "<row><c><v>2</v></c><c r=\"C2\"><v>3</v></c><c><v>4</v></c></row>";
+        try (StreamingValuesReader reader = open(createWorkbook(null, sheet), null)) {
+            assertTrue(reader.nextRow());
+            assertEquals(0, reader.getRowIndex());
+            assertEquals(2, reader.getCellCount());
+            assertEquals("a", reader.getValue(0));
+            assertEquals("1", reader.getValue(1));
+
+            assertTrue(reader.nextRow());
+            assertEquals(1, reader.getRowIndex());
+            assertEquals(4, reader.getCellCount());
+            assertEquals("2", reader.getValue(0));
+            assertEquals("", reader.getValue(1));
+            assertEquals("3", reader.getValue(2));
+            assertEquals("4", reader.getValue(3));
+
+            assertFalse(reader.nextRow());
+        }
+    }
+
+    /**
+     * Only the rows and cells with a value are in the file, the missing cells are empty and the values of the previous
+     * row are not kept.
+     */
+    @Test
+    public void testSparseRows() throws Exception {
+        String sheet = "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>0</v></c><c r=\"B2\" t=\"s\"><v>1</v></c></row>" //
+                + "<row r=\"5\"><c r=\"C5\"><v>7</v></c></row>" //
+                + "<row r=\"6\"/>" //
+                + "<row r=\"7\"><c r=\"A7\" t=\"inlineStr\"><is><t> </t></is></c></row>" //
+                + "<row r=\"30\"><c r=\"AB30\"><v>8</v></c></row>";
+        try (StreamingValuesReader reader = open(createWorkbook(SHARED_STRINGS, sheet), null)) {
+            assertEquals(5, reader.countRows());
+
+            assertTrue(reader.nextRow());
+            assertEquals(1, reader.getRowIndex());
+            assertEquals(2, reader.getCellCount());
+            assertEquals("shared", reader.getValue(0));
+            assertEquals("other", reader.getValue(1));
+
+            assertTrue(reader.nextRow());
+            assertEquals(4, reader.getRowIndex());
+            assertEquals(3, reader.getCellCount());
+            assertEquals("", reader.getValue(0));
+            assertEquals("", reader.getValue(1));
+            assertEquals("7", reader.getValue(2));
+            assertFalse(reader.isEmptyRow());
+
+            assertTrue(reader.nextRow());
+            assertEquals(5, reader.getRowIndex());
+            assertEquals(0, reader.getCellCount());
+            assertTrue(reader.isEmptyRow());
+
+            assertTrue(reader.nextRow());
+            assertEquals(6, reader.getRowIndex());
+            assertTrue(reader.isEmptyRow());
+
+            assertTrue(reader.nextRow());
+            assertEquals(29, reader.getRowIndex());
+            assertEquals(28, reader.getCellCount());
+            assertEquals("8", reader.getValue(27));
+
+            assertFalse(reader.nextRow());
+        }
+    }
+
+    @Test
+    public void testSheetName() throws Exception {
+        String first = "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>";
+        String second = "<row r=\"1\"><c r=\"A1\"><v>2</v></c></row>";
+        try (StreamingValuesReader reader = open(createWorkbook(null, first, second), "sheet2")) {
+            assertTrue(reader.nextRow());
+            assertEquals("2", reader.getValue(0));
+        }
+    }
+
+    @Test(expected = ReadException.class)
+    public void testUnknownSheet() throws Exception {
+        open(createWorkbook(null, "<row r=\"1\"/>"), "unknown");
+    }
+}
@@ -23,15 +23,26 @@ import org.talend.components.jdbc.RuntimeSettingProvider;
 import org.talend.components.jdbc.dataset.JDBCDatasetDefinition;
 import org.talend.components.jdbc.dataset.JDBCDatasetProperties;
 import org.talend.components.jdbc.datastore.JDBCDatastoreProperties;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.components.jdbc.runtime.setting.AllSetting;
 import org.talend.daikon.properties.ReferenceProperties;
 import org.talend.daikon.properties.presentation.Form;
+import org.talend.daikon.properties.property.Property;
+import org.talend.daikon.properties.property.PropertyFactory;
 
 public class JDBCInputProperties extends FixedConnectorsComponentProperties
         implements IOProperties<JDBCDatasetProperties>, RuntimeSettingProvider {
 
     public ReferenceProperties<JDBCDatasetProperties> dataset = new ReferenceProperties<>("dataset", JDBCDatasetDefinition.NAME);
 
+    public Property<Boolean> enablePartition = PropertyFactory.newBoolean("enablePartition");
+
+    public Property<String> partitionColumn = PropertyFactory.newString("partitionColumn");
+
+    public Property<PartitionMode> partitionMode = PropertyFactory.newEnum("partitionMode", PartitionMode.class);
+
+    public Property<Integer> numPartitions = PropertyFactory.newInteger("numPartitions");
+
     protected transient PropertyPathConnector MAIN_CONNECTOR = new PropertyPathConnector(Connector.MAIN_NAME, "dataset.main");
 
     public JDBCInputProperties(String name) {
@@ -41,13 +52,20 @@ public class JDBCInputProperties extends FixedConnectorsComponentProperties
     @Override
     public void setupProperties() {
         super.setupProperties();
+        enablePartition.setValue(false);
+        partitionMode.setValue(PartitionMode.RANGE);
+        numPartitions.setValue(4);
     }
 
     @Override
     public void setupLayout() {
         super.setupLayout();
-        // unused form, but we need to create one anyway.
+        // the dataset defines what is read, the input only defines how it is split between the workers
         Form mainForm = new Form(this, Form.MAIN);
+        mainForm.addRow(enablePartition);
+        mainForm.addRow(partitionColumn);
+        mainForm.addRow(partitionMode);
+        mainForm.addRow(numPartitions);
     }
 
     @SuppressWarnings("unchecked")
@@ -88,6 +106,11 @@ public class JDBCInputProperties extends FixedConnectorsComponentProperties
 
         setting.setSchema(datasetProperties.main.schema.getValue());
 
+        setting.setEnablePartition(enablePartition.getValue());
+        setting.setPartitionColumn(partitionColumn.getValue());
+        setting.setPartitionMode(partitionMode.getValue());
+        setting.setNumPartitions(numPartitions.getValue());
+
         return setting;
     }
 }
@@ -0,0 +1,29 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.jdbc.module;
+
+/**
+ * How the rows of a query are distributed between the partitions read in parallel.
+ */
+public enum PartitionMode {
+    /**
+     * The min and max values of the numeric or date partition column are fetched first, and each partition reads one
+     * range between them.
+     */
+    RANGE,
+    /**
+     * Each partition reads the rows whose integer partition column (or expression, for example a hash of the key)
+     * modulo the number of partitions is its index.
+     */
+    MODULO
+}
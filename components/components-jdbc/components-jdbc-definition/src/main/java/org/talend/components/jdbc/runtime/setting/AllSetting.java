@@ -21,6 +21,7 @@ import org.apache.avro.Schema;
 import org.talend.components.api.properties.ComponentProperties;
 import org.talend.components.common.avro.JDBCAvroRegistryInfluencer;
 import org.talend.components.jdbc.module.DBTypes;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.components.jdbc.tjdbcoutput.TJDBCOutputProperties.DataAction;
 
 /**
@@ -71,6 +72,8 @@ public class AllSetting implements Serializable, JDBCAvroRegistryInfluencer {
 
     private Integer batchSize;
 
+    private Boolean batchUpsert;
+
     private Boolean closeConnection;
 
     private Boolean propagateQueryResultSet;
@@ -250,6 +253,14 @@ public class AllSetting implements Serializable, JDBCAvroRegistryInfluencer {
         this.useBatch = useBatch;
     }
 
+    public boolean getBatchUpsert() {
+        return batchUpsert != null && batchUpsert;
+    }
+
+    public void setBatchUpsert(Boolean batchUpsert) {
+        this.batchUpsert = batchUpsert;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
@@ -600,4 +611,44 @@ public class AllSetting implements Serializable, JDBCAvroRegistryInfluencer {
         this.enableFieldOptions = enableFieldOptions;
     }
 
+    private Boolean enablePartition;
+
+    private String partitionColumn;
+
+    private PartitionMode partitionMode;
+
+    private Integer numPartitions;
+
+    public boolean getEnablePartition() {
+        return enablePartition != null && enablePartition;
+    }
+
+    public void setEnablePartition(Boolean enablePartition) {
+        this.enablePartition = enablePartition;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public void setPartitionColumn(String partitionColumn) {
+        this.partitionColumn = partitionColumn;
+    }
+
+    public PartitionMode getPartitionMode() {
+        return partitionMode == null ? PartitionMode.RANGE : partitionMode;
+    }
+
+    public void setPartitionMode(PartitionMode partitionMode) {
+        this.partitionMode = partitionMode;
+    }
+
+    public int getNumPartitions() {
+        return numPartitions == null ? 1 : numPartitions;
+    }
+
+    public void setNumPartitions(Integer numPartitions) {
+        this.numPartitions = numPartitions;
+    }
+
 }
@@ -20,6 +20,7 @@ import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.talend.components.jdbc.module.AdditionalColumnsTable;
+import org.talend.components.jdbc.query.EDatabaseTypeName;
 import org.talend.daikon.avro.SchemaConstants;
 
 /**
@@ -437,6 +438,210 @@ public class JDBCSQLBuilder {
         return generateQuerySQL4InsertOrUpdate(tablename, updateKeys, updateKeyExpressions);
     }
 
+    /**
+     * Generate the statement which inserts a row, or updates it when a row with the same update keys already exists,
+     * with the native upsert syntax of the database, so that it can be executed in batch.
+     *
+     * The parameters of the statement are all the columns, in the order of the column list.
+     *
+     * For MySQL and Aurora, ON DUPLICATE KEY UPDATE doesn't use the update keys: the row is updated when the insert
+     * violates any primary key or unique index of the table. The update keys must be the primary key or a unique index of
+     * the table, and the table should have no other unique index, else a row can be updated while its update keys differ.
+     *
+     * @return the statement, or null if the database has no native upsert, or if the columns are not all plain
+     * insertable parameters (additional columns, columns which are not insertable) or there is no update key.
+     */
+    public String generateSQL4Upsert(EDatabaseTypeName dbType, String tablename, List<Column> columnList) {
+        if (dbType == null) {
+            return null;
+        }
+
+        List<String> columns = new ArrayList<>();
+        List<String> updateValues = new ArrayList<>();
+        List<String> updateKeys = new ArrayList<>();
+        for (Column column : columnList) {
+            if (column.addCol || column.isReplaced() || !column.insertable || !"?".equals(column.sqlStmt)) {
+                return null;
+            }
+
+            columns.add(column.dbColumnName);
+            if (column.updateKey) {
+                updateKeys.add(column.dbColumnName);
+            } else if (column.updatable) {
+                updateValues.add(column.dbColumnName);
+            }
+        }
+
+        if (updateKeys.isEmpty()) {
+            return null;
+        }
+
+        switch (dbType) {
+        case MYSQL:
+        case AMAZON_AURORA:
+            return generateSQL4UpsertOnDuplicateKey(tablename, columns, updateKeys, updateValues);
+        case PSQL:
+        case PLUSPSQL:
+            return generateSQL4UpsertOnConflict(tablename, columns, updateKeys, updateValues);
+        case ORACLEFORSID:
+        case ORACLESN:
+        case ORACLE_OCI:
+        case ORACLE_CUSTOM:
+            return generateSQL4Merge(tablename, columns, updateKeys, updateValues, " FROM DUAL", " ", "");
+        case MSSQL:
+        case MSSQL05_08:
+            return generateSQL4Merge(tablename, columns, updateKeys, updateValues, "", " AS ", ";");
+        default:
+            return null;
+        }
+    }
+
+    private String generateSQL4UpsertOnDuplicateKey(String tablename, List<String> columns, List<String> updateKeys,
+            List<String> updateValues) {
+        StringBuilder sb = new StringBuilder(generateSQL4Insert(tablename, columns, parameters(columns.size())));
+        sb.append(" ON DUPLICATE KEY UPDATE ");
+
+        if (updateValues.isEmpty()) {
+            // nothing to update, the existing row is kept as is
+            String key = updateKeys.get(0);
+            sb.append(key).append(" = ").append(key);
+            return sb.toString();
+        }
+
+        boolean firstOne = true;
+        for (String dbColumnName : updateValues) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append(dbColumnName).append(" = VALUES(").append(dbColumnName).append(")");
+        }
+
+        return sb.toString();
+    }
+
+    private String generateSQL4UpsertOnConflict(String tablename, List<String> columns, List<String> updateKeys,
+            List<String> updateValues) {
+        StringBuilder sb = new StringBuilder(generateSQL4Insert(tablename, columns, parameters(columns.size())));
+        sb.append(" ON CONFLICT (");
+
+        boolean firstOne = true;
+        for (String dbColumnName : updateKeys) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append(dbColumnName);
+        }
+        sb.append(")");
+
+        if (updateValues.isEmpty()) {
+            sb.append(" DO NOTHING");
+            return sb.toString();
+        }
+
+        sb.append(" DO UPDATE SET ");
+
+        firstOne = true;
+        for (String dbColumnName : updateValues) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append(dbColumnName).append(" = EXCLUDED.").append(dbColumnName);
+        }
+
+        return sb.toString();
+    }
+
+    private String generateSQL4Merge(String tablename, List<String> columns, List<String> updateKeys,
+            List<String> updateValues, String fromDummyTable, String aliasKeyword, String end) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("MERGE INTO ").append(getProtectedChar()).append(tablename).append(getProtectedChar())
+                .append(aliasKeyword).append("T USING (SELECT ");
+
+        boolean firstOne = true;
+        for (String dbColumnName : columns) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append("?").append(aliasKeyword).append(dbColumnName);
+        }
+        sb.append(fromDummyTable).append(")").append(aliasKeyword).append("S ON (");
+
+        firstOne = true;
+        for (String dbColumnName : updateKeys) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(" AND ");
+            }
+
+            sb.append("T.").append(dbColumnName).append(" = S.").append(dbColumnName);
+        }
+        sb.append(")");
+
+        if (!updateValues.isEmpty()) {
+            sb.append(" WHEN MATCHED THEN UPDATE SET ");
+
+            firstOne = true;
+            for (String dbColumnName : updateValues) {
+                if (firstOne) {
+                    firstOne = false;
+                } else {
+                    sb.append(",");
+                }
+
+                sb.append("T.").append(dbColumnName).append(" = S.").append(dbColumnName);
+            }
+        }
+
+        sb.append(" WHEN NOT MATCHED THEN INSERT (");
+
+        firstOne = true;
+        for (String dbColumnName : columns) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append(dbColumnName);
+        }
+        sb.append(") VALUES (");
+
+        firstOne = true;
+        for (String dbColumnName : columns) {
+            if (firstOne) {
+                firstOne = false;
+            } else {
+                sb.append(",");
+            }
+
+            sb.append("S.").append(dbColumnName);
+        }
+        sb.append(")").append(end);
+
+        return sb.toString();
+    }
+
+    private List<String> parameters(int size) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            result.add("?");
+        }
+        return result;
+    }
+
     private List<Column> getAllColumns(List<Column> columnList) {
         List<Column> result = new ArrayList<Column>();
         for (Column column : columnList) {
@@ -37,6 +37,7 @@ import org.talend.components.jdbc.RuntimeSettingProvider;
 import org.talend.components.jdbc.module.DBTypes;
 import org.talend.components.jdbc.module.JDBCConnectionModule;
 import org.talend.components.jdbc.module.JDBCTableSelectionModule;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.components.jdbc.query.QueryUtils;
 import org.talend.components.jdbc.runtime.setting.AllSetting;
 import org.talend.components.jdbc.runtime.setting.JdbcRuntimeSourceOrSink;
@@ -106,6 +107,14 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
 
     public Property<DBTypes> dbMapping = PropertyFactory.newEnum("dbMapping", DBTypes.class);
 
+    public Property<Boolean> enablePartition = PropertyFactory.newBoolean("enablePartition").setRequired();
+
+    public Property<String> partitionColumn = PropertyFactory.newString("partitionColumn").setRequired();
+
+    public Property<PartitionMode> partitionMode = PropertyFactory.newEnum("partitionMode", PartitionMode.class);
+
+    public Property<Integer> numPartitions = PropertyFactory.newInteger("numPartitions").setRequired();
+
     @Override
     public void setupLayout() {
         super.setupLayout();
@@ -134,6 +143,10 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
         advancedForm.addRow(widget(trimTable).setWidgetType(Widget.TABLE_WIDGET_TYPE));
         advancedForm.addRow(enableDBMapping);
         advancedForm.addRow(widget(dbMapping).setWidgetType(Widget.ENUMERATION_WIDGET_TYPE));
+        advancedForm.addRow(enablePartition);
+        advancedForm.addRow(partitionColumn);
+        advancedForm.addRow(widget(partitionMode).setWidgetType(Widget.ENUMERATION_WIDGET_TYPE));
+        advancedForm.addRow(numPartitions);
     }
 
     @Override
@@ -148,6 +161,9 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
 
         dbMapping.setValue(DBTypes.MYSQL);
 
+        partitionMode.setValue(PartitionMode.RANGE);
+        numPartitions.setValue(4);
+
         // FIXME now the trigger can't work very well, so have to call the updateTrimTable method in refreshLayout method directly
         // though refreshLayout is called at some strange place
         schemaListener = new ISchemaListener() {
@@ -185,6 +201,9 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
             form.getWidget(cursor.getName()).setHidden(!useCursor.getValue());
             form.getWidget(trimTable.getName()).setHidden(trimStringOrCharColumns.getValue());
             form.getWidget(dbMapping.getName()).setVisible(enableDBMapping.getValue());
+            form.getWidget(partitionColumn.getName()).setVisible(enablePartition.getValue());
+            form.getWidget(partitionMode.getName()).setVisible(enablePartition.getValue());
+            form.getWidget(numPartitions.getName()).setVisible(enablePartition.getValue());
 
             updateTrimTable();
         }
@@ -241,6 +260,10 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
         refreshLayout(getForm(Form.ADVANCED));
     }
 
+    public void afterEnablePartition() {
+        refreshLayout(getForm(Form.ADVANCED));
+    }
+
     @Override
     protected Set<PropertyPathConnector> getAllSchemaPropertiesConnectors(boolean isOutputConnection) {
         if (isOutputConnection) {
@@ -320,6 +343,11 @@ public class TJDBCInputProperties extends FixedConnectorsComponentProperties imp
         setting.setEnableDBMapping(this.enableDBMapping.getValue());
         setting.setDbMapping(this.dbMapping.getValue());
 
+        setting.setEnablePartition(this.enablePartition.getValue());
+        setting.setPartitionColumn(this.partitionColumn.getValue());
+        setting.setPartitionMode(this.partitionMode.getValue());
+        setting.setNumPartitions(this.numPartitions.getValue());
+
         setting.setSchema(main.schema.getValue());
 
         return setting;
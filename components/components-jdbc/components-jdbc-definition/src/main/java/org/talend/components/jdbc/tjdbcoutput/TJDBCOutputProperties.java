@@ -118,6 +118,8 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
 
     public Property<Integer> batchSize = PropertyFactory.newInteger("batchSize").setRequired();
 
+    public Property<Boolean> batchUpsert = PropertyFactory.newBoolean("batchUpsert").setRequired();
+
     public void updateOutputSchemas() {
         Schema inputSchema = main.schema.getValue();
 
@@ -176,6 +178,7 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
 
         advancedForm.addRow(debug);
         advancedForm.addRow(useBatch);
+        advancedForm.addRow(batchUpsert);
         advancedForm.addRow(batchSize);
     }
 
@@ -189,6 +192,7 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
 
         useBatch.setValue(true);
         batchSize.setValue(10000);
+        batchUpsert.setValue(false);
 
         tableSelection.setConnection(this);
 
@@ -217,10 +221,12 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
             if ((dataAction.getValue() == DataAction.INSERT) || (dataAction.getValue() == DataAction.UPDATE)
                     || (dataAction.getValue() == DataAction.DELETE)) {
                 form.getWidget(useBatch.getName()).setHidden(false);
+                form.getWidget(batchUpsert.getName()).setHidden(true);
                 form.getWidget(batchSize.getName()).setHidden(!useBatch.getValue());
             } else {
                 form.getWidget(useBatch.getName()).setHidden(true);
-                form.getWidget(batchSize.getName()).setHidden(true);
+                form.getWidget(batchUpsert.getName()).setHidden(false);
+                form.getWidget(batchSize.getName()).setHidden(!batchUpsert.getValue());
             }
             form.getWidget(fieldOptions.getName()).setVisible(enableFieldOptions.getValue());
 
@@ -260,6 +266,10 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
         refreshLayout(getForm(Form.ADVANCED));
     }
 
+    public void afterBatchUpsert() {
+        refreshLayout(getForm(Form.ADVANCED));
+    }
+
     public void afterEnableFieldOptions() {
         refreshLayout(getForm(Form.ADVANCED));
     }
@@ -397,6 +407,7 @@ public class TJDBCOutputProperties extends FixedConnectorsComponentProperties im
         setting.setDebug(this.debug.getValue());
         setting.setUseBatch(this.useBatch.getValue());
         setting.setBatchSize(this.batchSize.getValue());
+        setting.setBatchUpsert(this.batchUpsert.getValue());
 
         setting.setNewDBColumnNames4AdditionalParameters(this.additionalColumns.names.getValue());
         setting.setSqlExpressions4AdditionalParameters(this.additionalColumns.sqlExpressions.getValue());
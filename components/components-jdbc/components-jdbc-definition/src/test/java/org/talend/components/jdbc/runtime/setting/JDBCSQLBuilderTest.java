@@ -7,6 +7,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.junit.Assert;
 import org.junit.Test;
+import org.talend.components.jdbc.query.EDatabaseTypeName;
 import org.talend.daikon.avro.AvroUtils;
 import org.talend.daikon.avro.SchemaConstants;
 
@@ -117,4 +118,40 @@ public class JDBCSQLBuilderTest {
                 JDBCSQLBuilder.getInstance().generateQuerySQL4InsertOrUpdate("TEST", advancedColumnList));
     }
 
+    @Test
+    public void testGenerateSQL4UpsertOnDuplicateKey() {
+        Assert.assertEquals(
+                "INSERT INTO TEST (ID1,ID2,NAME,ADDRESS) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE NAME = VALUES(NAME),ADDRESS = VALUES(ADDRESS)",
+                JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.MYSQL, "TEST", basicColumnList));
+    }
+
+    @Test
+    public void testGenerateSQL4UpsertOnConflict() {
+        Assert.assertEquals(
+                "INSERT INTO TEST (ID1,ID2,NAME,ADDRESS) VALUES (?,?,?,?) ON CONFLICT (ID1,ID2) DO UPDATE SET NAME = EXCLUDED.NAME,ADDRESS = EXCLUDED.ADDRESS",
+                JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.PSQL, "TEST", basicColumnList));
+    }
+
+    @Test
+    public void testGenerateSQL4UpsertMerge() {
+        Assert.assertEquals(
+                "MERGE INTO TEST T USING (SELECT ? ID1,? ID2,? NAME,? ADDRESS FROM DUAL) S ON (T.ID1 = S.ID1 AND T.ID2 = S.ID2)"
+                        + " WHEN MATCHED THEN UPDATE SET T.NAME = S.NAME,T.ADDRESS = S.ADDRESS"
+                        + " WHEN NOT MATCHED THEN INSERT (ID1,ID2,NAME,ADDRESS) VALUES (S.ID1,S.ID2,S.NAME,S.ADDRESS)",
+                JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.ORACLE_OCI, "TEST", basicColumnList));
+        Assert.assertEquals(
+                "MERGE INTO TEST AS T USING (SELECT ? AS ID1,? AS ID2,? AS NAME,? AS ADDRESS) AS S ON (T.ID1 = S.ID1 AND T.ID2 = S.ID2)"
+                        + " WHEN MATCHED THEN UPDATE SET T.NAME = S.NAME,T.ADDRESS = S.ADDRESS"
+                        + " WHEN NOT MATCHED THEN INSERT (ID1,ID2,NAME,ADDRESS) VALUES (S.ID1,S.ID2,S.NAME,S.ADDRESS);",
+                JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.MSSQL05_08, "TEST", basicColumnList));
+    }
+
+    @Test
+    public void testGenerateSQL4UpsertNotSupported() {
+        Assert.assertNull(JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.JAVADB_EMBEDED, "TEST",
+                basicColumnList));
+        Assert.assertNull(JDBCSQLBuilder.getInstance().generateSQL4Upsert(EDatabaseTypeName.MYSQL, "TEST",
+                advancedColumnList));
+    }
+
 }
@@ -12,6 +12,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.talend.components.api.component.PropertyPathConnector;
 import org.talend.components.api.exception.ComponentException;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.components.jdbc.runtime.setting.AllSetting;
 import org.talend.components.jdbc.tjdbcconnection.TJDBCConnectionDefinition;
 import org.talend.daikon.avro.AvroUtils;
@@ -126,6 +127,28 @@ public class TJDBCInputPropertiesTest {
         Assert.assertTrue(!advanced.getWidget(fixture.cursor.getName()).isVisible());
     }
 
+    @Test
+    public void testAfterEnablePartition() throws Exception {
+        TJDBCInputProperties fixture = new TJDBCInputProperties("input");
+        fixture.init();
+
+        Form advanced = fixture.getForm(Form.ADVANCED);
+        Assert.assertTrue(!advanced.getWidget(fixture.partitionColumn.getName()).isVisible());
+
+        fixture.enablePartition.setValue(true);
+        fixture.partitionColumn.setValue("ID");
+        fixture.afterEnablePartition();
+        Assert.assertTrue(advanced.getWidget(fixture.partitionColumn.getName()).isVisible());
+        Assert.assertTrue(advanced.getWidget(fixture.partitionMode.getName()).isVisible());
+        Assert.assertTrue(advanced.getWidget(fixture.numPartitions.getName()).isVisible());
+
+        AllSetting setting = fixture.getRuntimeSetting();
+        Assert.assertTrue(setting.getEnablePartition());
+        Assert.assertEquals("ID", setting.getPartitionColumn());
+        Assert.assertEquals(PartitionMode.RANGE, setting.getPartitionMode());
+        Assert.assertEquals(4, setting.getNumPartitions());
+    }
+
     /**
      * Run the void afterUseDataSource() method test.
      *
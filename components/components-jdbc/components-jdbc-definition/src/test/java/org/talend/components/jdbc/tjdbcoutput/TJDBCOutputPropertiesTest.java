@@ -124,6 +124,31 @@ public class TJDBCOutputPropertiesTest {
         Assert.assertTrue(!advanced.getWidget(fixture.batchSize.getName()).isVisible());
     }
 
+    @Test
+    public void testAfterBatchUpsert() {
+        TJDBCOutputProperties fixture = new TJDBCOutputProperties("output");
+        fixture.init();
+
+        Form advanced = fixture.getForm(Form.ADVANCED);
+
+        fixture.dataAction.setValue(DataAction.INSERT_OR_UPDATE);
+        fixture.afterDataAction();
+        Assert.assertTrue(advanced.getWidget(fixture.batchUpsert.getName()).isVisible());
+
+        fixture.batchUpsert.setValue(true);
+        fixture.afterBatchUpsert();
+        Assert.assertTrue(advanced.getWidget(fixture.batchSize.getName()).isVisible());
+        Assert.assertTrue(fixture.getRuntimeSetting().getBatchUpsert());
+
+        fixture.batchUpsert.setValue(false);
+        fixture.afterBatchUpsert();
+        Assert.assertFalse(advanced.getWidget(fixture.batchSize.getName()).isVisible());
+
+        fixture.dataAction.setValue(DataAction.INSERT);
+        fixture.afterDataAction();
+        Assert.assertFalse(advanced.getWidget(fixture.batchUpsert.getName()).isVisible());
+    }
+
     /**
      * Run the void afterUseDataSource() method test.
      *
@@ -183,6 +208,7 @@ public class TJDBCOutputPropertiesTest {
         fixture.afterDataAction();
         Assert.assertFalse(advanced.getWidget(fixture.useBatch.getName()).isVisible());
         Assert.assertFalse(advanced.getWidget(fixture.batchSize.getName()).isVisible());
+        Assert.assertTrue(advanced.getWidget(fixture.batchUpsert.getName()).isVisible());
     }
 
     /**
@@ -13,21 +13,30 @@
 
 package org.talend.components.jdbc.runtime;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.beam.sdk.coders.AvroCoder;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.io.jdbc.JdbcIO;
+import org.apache.beam.sdk.transforms.Flatten;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionList;
 import org.talend.components.api.component.runtime.RuntimableRuntime;
 import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.jdbc.CommonUtils;
+import org.talend.components.jdbc.JdbcComponentErrorsCode;
 import org.talend.components.jdbc.avro.ResultSetStringRecordConverter;
 import org.talend.components.jdbc.dataprep.JDBCInputProperties;
 import org.talend.components.jdbc.runtime.dataprep.JDBCDatasetRuntime;
+import org.talend.components.jdbc.runtime.setting.AllSetting;
 import org.talend.daikon.avro.AvroUtils;
 import org.talend.daikon.avro.converter.IndexedRecordConverter;
 import org.talend.daikon.properties.ValidationResult;
@@ -44,7 +53,38 @@ public class JDBCInputPTransformRuntime extends PTransform<PBegin, PCollection<I
 
     @Override
     public PCollection<IndexedRecord> expand(PBegin pBegin) {
-        return (PCollection<IndexedRecord>) pBegin.apply(JdbcIO
+        String sql = properties.getDatasetProperties().getSql();
+        List<String> conditions = getPartitionConditions(sql);
+        if (conditions.isEmpty()) {
+            return pBegin.apply(read(sql));
+        }
+
+        // each partition is read by its own JdbcIO transform, so that the runner can read them in parallel
+        PCollectionList<IndexedRecord> partitions = PCollectionList.empty(pBegin.getPipeline());
+        for (int i = 0; i < conditions.size(); i++) {
+            partitions = partitions.and(pBegin.apply("Partition" + i,
+                    read(JdbcPartitionUtils.getPartitionQuery(sql, conditions.get(i)))));
+        }
+        return partitions.apply(Flatten.<IndexedRecord> pCollections()).setCoder(getDefaultOutputCoder());
+    }
+
+    private List<String> getPartitionConditions(String sql) {
+        AllSetting setting = properties.getRuntimeSetting();
+        if (!setting.getEnablePartition()) {
+            return Collections.emptyList();
+        }
+        try (Connection conn = JdbcRuntimeUtils.createConnection(setting)) {
+            return JdbcPartitionUtils.getPartitionConditions(conn, sql, setting.getPartitionColumn(),
+                    setting.getPartitionMode(), setting.getNumPartitions());
+        } catch (ClassNotFoundException e) {
+            throw CommonUtils.newComponentException(JdbcComponentErrorsCode.DRIVER_NOT_PRESENT_ERROR, e);
+        } catch (SQLException e) {
+            throw CommonUtils.newComponentException(JdbcComponentErrorsCode.SQL_ERROR, e);
+        }
+    }
+
+    private JdbcIO.Read<IndexedRecord> read(String query) {
+        return JdbcIO
                 .<IndexedRecord> read()
                 .withDataSourceConfiguration(
                         JdbcIO.DataSourceConfiguration
@@ -53,7 +93,7 @@ public class JDBCInputPTransformRuntime extends PTransform<PBegin, PCollection<I
                                 .withUsername(properties.getDatasetProperties().getDatastoreProperties().userId.getValue())
                                 .withPassword(properties.getDatasetProperties().getDatastoreProperties().password.getValue()))
                 .withFetchSize(FETCH_SIZE)
-                .withQuery(properties.getDatasetProperties().getSql()).withRowMapper(new JdbcIO.RowMapper<IndexedRecord>() {
+                .withQuery(query).withRowMapper(new JdbcIO.RowMapper<IndexedRecord>() {
 
                     @Override
                     public IndexedRecord mapRow(ResultSet resultSet) throws Exception {
@@ -63,7 +103,7 @@ public class JDBCInputPTransformRuntime extends PTransform<PBegin, PCollection<I
                         }
                         return factory.convertToAvro(resultSet);
                     }
-                }).withCoder(getDefaultOutputCoder()));
+                }).withCoder(getDefaultOutputCoder());
     }
 
     @Override
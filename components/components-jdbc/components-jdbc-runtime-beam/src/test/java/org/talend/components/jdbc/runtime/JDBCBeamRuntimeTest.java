@@ -42,6 +42,7 @@ import org.talend.components.jdbc.dataprep.JDBCInputProperties;
 import org.talend.components.jdbc.dataset.JDBCDatasetProperties;
 import org.talend.components.jdbc.datastore.JDBCDatastoreProperties;
 import org.talend.components.jdbc.datastream.JDBCOutputProperties;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.daikon.avro.SchemaConstants;
 
 public class JDBCBeamRuntimeTest implements Serializable {
@@ -138,6 +139,15 @@ public class JDBCBeamRuntimeTest implements Serializable {
 
     @Test
     public void testPipeline() throws Exception {
+        runPipeline(false);
+    }
+
+    @Test
+    public void testPartitionedPipeline() throws Exception {
+        runPipeline(true);
+    }
+
+    private void runPipeline(boolean partitioned) throws Exception {
         JDBCDatastoreProperties jdbcDatastoreProperties;
         jdbcDatastoreProperties = new JDBCDatastoreProperties("datastore");
         jdbcDatastoreProperties.init();
@@ -156,6 +166,12 @@ public class JDBCBeamRuntimeTest implements Serializable {
         JDBCInputProperties inputProperties = new JDBCInputProperties("input");
         inputProperties.init();
         inputProperties.setDatasetProperties(inputDatasetProperties);
+        if (partitioned) {
+            inputProperties.enablePartition.setValue(true);
+            inputProperties.partitionColumn.setValue("ID");
+            inputProperties.partitionMode.setValue(PartitionMode.RANGE);
+            inputProperties.numPartitions.setValue(2);
+        }
 
         JDBCDatasetProperties outputDatasetProperties = new JDBCDatasetProperties("outputDataset");
         outputDatasetProperties.init();
@@ -22,6 +22,7 @@ import org.talend.components.jdbc.runtime.writer.JDBCOutputInsertOrUpdateWriter;
 import org.talend.components.jdbc.runtime.writer.JDBCOutputInsertWriter;
 import org.talend.components.jdbc.runtime.writer.JDBCOutputUpdateOrInsertWriter;
 import org.talend.components.jdbc.runtime.writer.JDBCOutputUpdateWriter;
+import org.talend.components.jdbc.runtime.writer.JDBCOutputUpsertWriter;
 import org.talend.components.jdbc.tjdbcoutput.TJDBCOutputProperties.DataAction;
 
 /**
@@ -50,8 +51,14 @@ public class JDBCOutputWriteOperation extends DefaultWriteOperation {
         case DELETE:
             return new JDBCOutputDeleteWriter(this, runtimeContainer);
         case INSERT_OR_UPDATE:
+            if (JDBCOutputUpsertWriter.isSupported(properties)) {
+                return new JDBCOutputUpsertWriter(this, runtimeContainer);
+            }
             return new JDBCOutputInsertOrUpdateWriter(this, runtimeContainer);
         case UPDATE_OR_INSERT:
+            if (JDBCOutputUpsertWriter.isSupported(properties)) {
+                return new JDBCOutputUpsertWriter(this, runtimeContainer);
+            }
             return new JDBCOutputUpdateOrInsertWriter(this, runtimeContainer);
         default:
             return null;
@@ -20,6 +20,7 @@ import java.util.List;
 import org.talend.components.api.component.runtime.BoundedReader;
 import org.talend.components.api.component.runtime.BoundedSource;
 import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.api.properties.ComponentProperties;
 import org.talend.components.jdbc.runtime.reader.JDBCInputReader;
 
 /**
@@ -30,6 +31,11 @@ public class JDBCSource extends JDBCSourceOrSink implements BoundedSource {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The condition restricting the query to the rows of this source, or null if the source reads the whole query.
+     */
+    private String partitionCondition;
+
     @SuppressWarnings("rawtypes")
     @Override
     public BoundedReader createReader(RuntimeContainer container) {
@@ -44,10 +50,45 @@ public class JDBCSource extends JDBCSourceOrSink implements BoundedSource {
     public List<? extends BoundedSource> splitIntoBundles(long desiredBundleSizeBytes, RuntimeContainer adaptor)
             throws Exception {
         List<BoundedSource> list = new ArrayList<>();
-        list.add(this);
+        if (partitionCondition != null || !setting.getEnablePartition()) {
+            list.add(this);
+            return list;
+        }
+
+        List<String> conditions;
+        Connection conn = connect(adaptor);
+        try {
+            conditions = JdbcPartitionUtils.getPartitionConditions(conn, setting.getSql(), setting.getPartitionColumn(),
+                    setting.getPartitionMode(), setting.getNumPartitions());
+        } finally {
+            if (setting.getReferencedComponentId() == null) {
+                conn.close();
+            }
+        }
+
+        if (conditions.isEmpty()) {
+            list.add(this);
+            return list;
+        }
+        for (String condition : conditions) {
+            JDBCSource partition = new JDBCSource();
+            partition.initialize(adaptor, (ComponentProperties) properties);
+            partition.partitionCondition = condition;
+            list.add(partition);
+        }
         return list;
     }
 
+    /**
+     * @return the query to execute to read the rows of this source.
+     */
+    public String getQuery() {
+        if (partitionCondition == null) {
+            return setting.getSql();
+        }
+        return JdbcPartitionUtils.getPartitionQuery(setting.getSql(), partitionCondition);
+    }
+
     @Override
     public long getEstimatedSizeBytes(RuntimeContainer adaptor) {
         return 0;
@@ -0,0 +1,174 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.jdbc.runtime;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.talend.components.jdbc.module.PartitionMode;
+import org.talend.daikon.exception.TalendRuntimeException;
+
+/**
+ * Split a query in several partitions that can be read in parallel, each one with its own connection.
+ *
+ * Each partition is the original query restricted by a condition on the partition column, so any database can run it:
+ * <ul>
+ * <li>{@link PartitionMode#RANGE}: the min and max values of the column are fetched once, and the partitions read
+ * contiguous ranges between them. The first partition also reads the null values, and the first and last ones are
+ * not bounded, so that the rows written after the min/max query are still read once.</li>
+ * <li>{@link PartitionMode#MODULO}: the partition <code>i</code> reads the rows where
+ * <code>ABS(MOD(column, n)) = i</code>. The column can also be an integer expression supported by the database, for
+ * example <code>ORA_HASH(ROWID)</code> on Oracle.</li>
+ * </ul>
+ */
+public class JdbcPartitionUtils {
+
+    private static final String ALIAS = "TALEND_PARTITION";
+
+    /**
+     * @param conn the connection used to fetch the bounds of the partition column.
+     * @param sql the query to split.
+     * @param column the name of the partition column in the query result, or an expression on these columns.
+     * @param mode how to split the rows.
+     * @param numPartitions the number of partitions wanted.
+     * @return the condition of each partition, or an empty list if the query can't be split, for example when the
+     * partition column has no value.
+     */
+    public static List<String> getPartitionConditions(Connection conn, String sql, String column, PartitionMode mode,
+            int numPartitions) throws SQLException {
+        if (column == null || column.trim().isEmpty() || numPartitions <= 1) {
+            return Collections.emptyList();
+        }
+
+        if (mode == PartitionMode.MODULO) {
+            List<String> conditions = new ArrayList<>();
+            for (int i = 0; i < numPartitions; i++) {
+                String condition = "ABS(MOD(" + column + ", " + numPartitions + ")) = " + i;
+                conditions.add(i == 0 ? condition + " OR " + column + " IS NULL" : condition);
+            }
+            return conditions;
+        }
+
+        Object min;
+        Object max;
+        try (Statement statement = conn.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT MIN(" + column + "), MAX(" + column + ") FROM (" + trimQuery(sql) + ") " + ALIAS)) {
+            if (!resultSet.next()) {
+                return Collections.emptyList();
+            }
+            min = resultSet.getObject(1);
+            max = resultSet.getObject(2);
+        }
+        if (min == null || max == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> bounds = getRangeBounds(min, max, numPartitions);
+        if (bounds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> conditions = new ArrayList<>();
+        conditions.add(column + " < " + bounds.get(0) + " OR " + column + " IS NULL");
+        for (int i = 1; i < bounds.size(); i++) {
+            conditions.add(column + " >= " + bounds.get(i - 1) + " AND " + column + " < " + bounds.get(i));
+        }
+        conditions.add(column + " >= " + bounds.get(bounds.size() - 1));
+        return conditions;
+    }
+
+    /**
+     * @return the query reading only the rows of a partition.
+     */
+    public static String getPartitionQuery(String sql, String condition) {
+        return "SELECT * FROM (" + trimQuery(sql) + ") " + ALIAS + " WHERE " + condition;
+    }
+
+    private static String trimQuery(String sql) {
+        String query = sql.trim();
+        while (query.endsWith(";")) {
+            query = query.substring(0, query.length() - 1).trim();
+        }
+        return query;
+    }
+
+    /**
+     * @return the SQL literals of the distinct values splitting [min, max] in numPartitions ranges, min excluded.
+     */
+    private static List<String> getRangeBounds(Object min, Object max, int numPartitions) {
+        List<String> bounds = new ArrayList<>();
+        if (min instanceof Number && max instanceof Number) {
+            boolean integral = isIntegral((Number) min) && isIntegral((Number) max);
+            BigDecimal low = new BigDecimal(min.toString());
+            BigDecimal step = new BigDecimal(max.toString()).subtract(low).divide(BigDecimal.valueOf(numPartitions),
+                    MathContext.DECIMAL64);
+            BigDecimal previous = low;
+            for (int i = 1; i < numPartitions; i++) {
+                BigDecimal bound = low.add(step.multiply(BigDecimal.valueOf(i)));
+                if (integral) {
+                    bound = bound.setScale(0, RoundingMode.FLOOR);
+                }
+                if (bound.compareTo(previous) > 0) {
+                    bounds.add(bound.toPlainString());
+                    previous = bound;
+                }
+            }
+        } else if (min instanceof Date && max instanceof Date) {
+            long low = ((Date) min).getTime();
+            long step = (((Date) max).getTime() - low) / numPartitions;
+            String previous = toDateLiteral((Date) min, low);
+            for (int i = 1; i < numPartitions && step > 0; i++) {
+                String bound = toDateLiteral((Date) min, low + step * i);
+                if (!bound.equals(previous)) {
+                    bounds.add(bound);
+                    previous = bound;
+                }
+            }
+        } else {
+            throw TalendRuntimeException.createUnexpectedException("The partition column must be a number or a date to "
+                    + "be split in ranges, but its values are " + min.getClass().getName());
+        }
+        return bounds;
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger || (value instanceof BigDecimal && ((BigDecimal) value).scale() <= 0);
+    }
+
+    /**
+     * Use the JDBC escape syntax, as the date literals are specific to each database.
+     */
+    private static String toDateLiteral(Date type, long millis) {
+        if (type instanceof java.sql.Date) {
+            return "{d '" + new java.sql.Date(millis) + "'}";
+        } else if (type instanceof Time) {
+            return "{t '" + new Time(millis) + "'}";
+        } else {
+            return "{ts '" + new Timestamp(millis) + "'}";
+        }
+    }
+}
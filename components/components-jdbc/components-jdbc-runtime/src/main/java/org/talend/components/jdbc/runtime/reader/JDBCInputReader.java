@@ -206,7 +206,12 @@ public class JDBCInputReader extends AbstractBoundedReader<IndexedRecord> {
                 statement.setFetchSize(setting.getCursor());
             }
 
-            resultSet = statement.executeQuery(setting.getSql());
+            if (readLimit > 0) {
+                // let the driver stop fetching the rows once the limit is reached
+                statement.setMaxRows(readLimit);
+            }
+
+            resultSet = statement.executeQuery(source.getQuery());
 
             return haveNext();
         } catch (SQLException e) {
@@ -217,6 +222,10 @@ public class JDBCInputReader extends AbstractBoundedReader<IndexedRecord> {
     }
 
     private boolean haveNext() throws SQLException, IOException {
+        // some drivers ignore the max rows of the statement
+        if (readLimit > 0 && result.totalCount >= readLimit) {
+            return false;
+        }
         boolean haveNext = resultSet.next();
 
         if (haveNext) {
@@ -0,0 +1,249 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.jdbc.runtime.writer;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.talend.components.api.component.runtime.Result;
+import org.talend.components.api.component.runtime.WriteOperation;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.api.properties.ComponentProperties;
+import org.talend.components.jdbc.CommonUtils;
+import org.talend.components.jdbc.RuntimeSettingProvider;
+import org.talend.components.jdbc.query.EDatabase4DriverClassName;
+import org.talend.components.jdbc.query.EDatabaseTypeName;
+import org.talend.components.jdbc.runtime.setting.AllSetting;
+import org.talend.components.jdbc.runtime.setting.JDBCSQLBuilder;
+import org.talend.components.jdbc.runtime.type.RowWriter;
+
+/**
+ * the writer for the insert or update and update or insert actions, which sends the records by batch with the upsert
+ * statement of the database (MERGE, ON DUPLICATE KEY UPDATE, ON CONFLICT DO UPDATE) instead of trying one statement then
+ * the other for each record.
+ *
+ * The records are only counted as successful once their batch is executed. When a batch fails, the update counts of the
+ * driver tell which records are rejected: the ones which failed, and the ones after the failure when the driver stops at
+ * the first one. As the database doesn't tell if a record was inserted or updated, all the records are counted as
+ * updated. MySQL returns 2 for a row which is updated, it is counted as one row.
+ */
+public class JDBCOutputUpsertWriter extends JDBCOutputWriter {
+
+    private transient static final Logger LOG = LoggerFactory.getLogger(JDBCOutputUpsertWriter.class);
+
+    private String sql;
+
+    private boolean onDuplicateKey;
+
+    /** the records of the current batch, in the order of the batch */
+    private final List<IndexedRecord> batchRecords = new ArrayList<>();
+
+    /** the number of each record of the current batch, for the error message of the rejects */
+    private final List<Integer> batchLines = new ArrayList<>();
+
+    public JDBCOutputUpsertWriter(WriteOperation<Result> writeOperation, RuntimeContainer runtime) {
+        super(writeOperation, runtime);
+
+        useBatch = true;
+        batchSize = setting.getBatchSize() == null ? 10000 : setting.getBatchSize();
+    }
+
+    /**
+     * @return true if the batch upsert is asked and the database and the columns of the component allow to write the records
+     * with a single upsert statement, false if the records have to be written with the row by row writers.
+     */
+    public static boolean isSupported(RuntimeSettingProvider properties) {
+        AllSetting setting = properties.getRuntimeSetting();
+        if (!setting.getBatchUpsert()) {
+            return false;
+        }
+
+        Schema componentSchema = CommonUtils.getMainSchemaFromInputConnector((ComponentProperties) properties);
+        List<JDBCSQLBuilder.Column> columnList = JDBCSQLBuilder.getInstance().createColumnList(setting, componentSchema);
+        return generateSQL(setting, columnList) != null;
+    }
+
+    private static EDatabaseTypeName getDbType(AllSetting setting) {
+        List<EDatabase4DriverClassName> dbTypes = EDatabase4DriverClassName.indexOfByDriverClass(setting.getDriverClass());
+        return dbTypes.isEmpty() ? null : dbTypes.get(0).getDbType();
+    }
+
+    private static String generateSQL(AllSetting setting, List<JDBCSQLBuilder.Column> columnList) {
+        return JDBCSQLBuilder.getInstance().generateSQL4Upsert(getDbType(setting), setting.getTablename(), columnList);
+    }
+
+    @Override
+    public void open(String uId) throws IOException {
+        super.open(uId);
+        try {
+            conn = sink.getConnection(runtime);
+            sql = generateSQL(setting, columnList);
+            EDatabaseTypeName dbType = getDbType(setting);
+            onDuplicateKey = dbType == EDatabaseTypeName.MYSQL || dbType == EDatabaseTypeName.AMAZON_AURORA;
+            statement = conn.prepareStatement(sql);
+        } catch (SQLException | ClassNotFoundException e) {
+            throw CommonUtils.newComponentException(e);
+        }
+    }
+
+    private RowWriter rowWriter = null;
+
+    private void initRowWriterIfNot(Schema inputSchema) {
+        if (rowWriter == null) {
+            // the upsert statement binds all the columns once, in the order of the schema
+            rowWriter = new RowWriter(columnList, inputSchema, componentSchema, statement, setting.getDebug(), sql);
+        }
+    }
+
+    @Override
+    public void write(Object datum) throws IOException {
+        super.write(datum);
+
+        IndexedRecord input = this.getFactory(datum).convertToAvro(datum);
+
+        initRowWriterIfNot(input.getSchema());
+
+        try {
+            String sql_fact = rowWriter.write(input);
+            if (sql_fact != null) {
+                runtime.setComponentData(runtime.getCurrentComponentId(), QUERY_KEY, sql_fact);
+            }
+        } catch (SQLException e) {
+            throw CommonUtils.newComponentException(e);
+        }
+
+        result.totalCount++;
+
+        try {
+            statement.addBatch();
+            batchRecords.add(input);
+            batchLines.add(result.totalCount);
+
+            batchCount++;
+            if (batchCount >= batchSize) {
+                batchCount = 0;
+                updateCount += executeBatchAndGetCount(statement);
+            }
+        } catch (SQLException e) {
+            if (dieOnError) {
+                throw CommonUtils.newComponentException(e);
+            } else {
+                LOG.warn(e.getMessage());
+            }
+
+            // the failures of the batch are handled with its records, only the record which can't be added is left
+            addReject(input, e, result.totalCount);
+        }
+
+        try {
+            updateCount += executeCommit(statement);
+        } catch (SQLException e) {
+            if (dieOnError) {
+                throw CommonUtils.newComponentException(e);
+            } else {
+                LOG.warn(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * execute the current batch, and handle its records as successful or rejected from the update counts of the driver
+     */
+    @Override
+    protected int executeBatchAndGetCount(PreparedStatement statement) throws SQLException {
+        int count = 0;
+
+        try {
+            int[] updateCounts = statement.executeBatch();
+            for (int i = 0; i < batchRecords.size(); i++) {
+                count += getRecordCount(i < updateCounts.length ? updateCounts[i] : Statement.SUCCESS_NO_INFO);
+                handleSuccess(batchRecords.get(i));
+            }
+        } catch (BatchUpdateException e) {
+            if (dieOnError) {
+                throw e;
+            } else {
+                LOG.warn(e.getMessage());
+            }
+
+            // the driver either stops at the first failure, so the records after it have no count, or goes on and marks
+            // the failed records with EXECUTE_FAILED
+            int[] updateCounts = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+            for (int i = 0; i < batchRecords.size(); i++) {
+                if (i < updateCounts.length && updateCounts[i] != Statement.EXECUTE_FAILED) {
+                    count += getRecordCount(updateCounts[i]);
+                    handleSuccess(batchRecords.get(i));
+                } else {
+                    addReject(batchRecords.get(i), e, batchLines.get(i));
+                }
+            }
+        } catch (SQLException e) {
+            if (dieOnError) {
+                throw e;
+            } else {
+                LOG.warn(e.getMessage());
+            }
+
+            for (int i = 0; i < batchRecords.size(); i++) {
+                addReject(batchRecords.get(i), e, batchLines.get(i));
+            }
+        } finally {
+            batchRecords.clear();
+            batchLines.clear();
+        }
+
+        return count;
+    }
+
+    private int getRecordCount(int updateCount) {
+        // some drivers (Oracle) don't tell the count of each record of a batch
+        if (updateCount == Statement.SUCCESS_NO_INFO) {
+            return 1;
+        }
+        return getRowCount(updateCount);
+    }
+
+    @Override
+    protected int getRowCount(int updateCount) {
+        // ON DUPLICATE KEY UPDATE returns 1 for an inserted row and 2 for an updated row
+        if (onDuplicateKey && updateCount == 2) {
+            return 1;
+        }
+        return super.getRowCount(updateCount);
+    }
+
+    @Override
+    public Result close() throws IOException {
+        // execute the batch to make everything is passed to the server side before release the resource
+        updateCount += executeBatchAtLast();
+
+        closeStatementQuietly(statement);
+        statement = null;
+
+        commitAndCloseAtLast();
+
+        constructResult();
+
+        return result;
+    }
+
+}
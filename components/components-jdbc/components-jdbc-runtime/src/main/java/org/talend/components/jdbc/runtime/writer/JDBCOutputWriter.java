@@ -255,6 +255,15 @@ abstract public class JDBCOutputWriter implements WriterWithFeedback<Result, Ind
             return;
         }
 
+        addReject(input, e, result.totalCount);
+    }
+
+    /**
+     * add the reject record of an input record which failed
+     * 
+     * @param line the number of the input record, for the error message
+     */
+    protected void addReject(IndexedRecord input, SQLException e, int line) {
         rejectCount++;
         IndexedRecord reject = new GenericData.Record(rejectSchema);
         for (Schema.Field rejectField : rejectSchema.getFields()) {
@@ -267,7 +276,7 @@ abstract public class JDBCOutputWriter implements WriterWithFeedback<Result, Ind
             } else if ("errorCode".equals(rejectField.name())) {
                 rejectValue = e.getSQLState();
             } else if ("errorMessage".equals(rejectField.name())) {
-                rejectValue = e.getMessage() + " - Line: " + result.totalCount;
+                rejectValue = e.getMessage() + " - Line: " + line;
             }
 
             reject.put(rejectField.pos(), rejectValue);
@@ -345,7 +354,7 @@ abstract public class JDBCOutputWriter implements WriterWithFeedback<Result, Ind
             }
         }
 
-        int count = statement.getUpdateCount();
+        int count = getRowCount(statement.getUpdateCount());
 
         result = Math.max(result, count);
 
@@ -355,11 +364,18 @@ abstract public class JDBCOutputWriter implements WriterWithFeedback<Result, Ind
     private int sum(int[] batchResult) {
         int result = 0;
         for (int count : batchResult) {
-            result += Math.max(count, 0);
+            result += getRowCount(count);
         }
         return result;
     }
 
+    /**
+     * @return the number of rows written for the update count of a statement, which is negative when it is unknown.
+     */
+    protected int getRowCount(int updateCount) {
+        return Math.max(updateCount, 0);
+    }
+
     protected void closeStatementQuietly(Statement statement) {
         if (statement != null) {
             try {
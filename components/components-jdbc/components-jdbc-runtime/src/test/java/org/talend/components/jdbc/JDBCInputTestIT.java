@@ -20,6 +20,9 @@ import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -33,11 +36,13 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.talend.components.api.component.ComponentDefinition;
+import org.talend.components.api.component.runtime.BoundedSource;
 import org.talend.components.api.component.runtime.Reader;
 import org.talend.components.api.container.DefaultComponentRuntimeContainerImpl;
 import org.talend.components.api.container.RuntimeContainer;
 import org.talend.components.api.exception.ComponentException;
 import org.talend.components.jdbc.common.DBTestUtils;
+import org.talend.components.jdbc.module.PartitionMode;
 import org.talend.components.jdbc.runtime.JDBCSource;
 import org.talend.components.jdbc.runtime.JdbcRuntimeUtils;
 import org.talend.components.jdbc.runtime.reader.JDBCInputReader;
@@ -377,4 +382,48 @@ public class JDBCInputTestIT {
         }
     }
 
+    @Test
+    public void testPartitionedReaderByRange() throws Exception {
+        List<Integer> ids = readPartitions(PartitionMode.RANGE, 2);
+        assertEquals(Arrays.asList(1, 2, 3), ids);
+    }
+
+    @Test
+    public void testPartitionedReaderByModulo() throws Exception {
+        List<Integer> ids = readPartitions(PartitionMode.MODULO, 2);
+        assertEquals(Arrays.asList(1, 2, 3), ids);
+    }
+
+    @SuppressWarnings({ "rawtypes" })
+    private List<Integer> readPartitions(PartitionMode mode, int numPartitions) throws Exception {
+        TJDBCInputDefinition definition = new TJDBCInputDefinition();
+        TJDBCInputProperties properties = DBTestUtils.createCommonJDBCInputProperties(allSetting, definition);
+
+        properties.main.schema.setValue(DBTestUtils.createTestSchema(tablename));
+        properties.tableSelection.tablename.setValue(tablename);
+        properties.sql.setValue(DBTestUtils.getSQL(tablename));
+        properties.enablePartition.setValue(true);
+        properties.partitionColumn.setValue("ID");
+        properties.partitionMode.setValue(mode);
+        properties.numPartitions.setValue(numPartitions);
+
+        JDBCSource source = DBTestUtils.createCommonJDBCSource(properties);
+        List<? extends BoundedSource> partitions = source.splitIntoBundles(0, null);
+        assertEquals(numPartitions, partitions.size());
+
+        List<Integer> ids = new ArrayList<>();
+        for (BoundedSource partition : partitions) {
+            Reader reader = partition.createReader(null);
+            try {
+                for (boolean available = reader.start(); available; available = reader.advance()) {
+                    ids.add((Integer) ((IndexedRecord) reader.getCurrent()).get(0));
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
 }
@@ -0,0 +1,185 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.jdbc.runtime.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.talend.components.api.component.runtime.Result;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.jdbc.common.DBTestUtils;
+import org.talend.components.jdbc.runtime.JDBCSink;
+import org.talend.components.jdbc.tjdbcoutput.TJDBCOutputDefinition;
+import org.talend.components.jdbc.tjdbcoutput.TJDBCOutputProperties;
+import org.talend.components.jdbc.tjdbcoutput.TJDBCOutputProperties.DataAction;
+
+/**
+ * Unit-tests for {@link JDBCOutputUpsertWriter} class, on a mocked connection.
+ */
+public class JDBCOutputUpsertWriterTest {
+
+    private static final String tablename = "JDBCOUTPUT";
+
+    private TJDBCOutputProperties properties;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    @Before
+    public void setUp() throws Exception {
+        TJDBCOutputDefinition definition = new TJDBCOutputDefinition();
+        properties = (TJDBCOutputProperties) definition.createRuntimeProperties();
+        properties.connection.driverClass.setValue("org.postgresql.Driver");
+        properties.connection.jdbcUrl.setValue("jdbc:postgresql://localhost:5432/test");
+
+        properties.main.schema.setValue(DBTestUtils.createTestSchema2(tablename));
+        properties.updateOutputSchemas();
+
+        properties.tableSelection.tablename.setValue(tablename);
+        properties.dataAction.setValue(DataAction.INSERT_OR_UPDATE);
+        properties.batchUpsert.setValue(true);
+        properties.batchSize.setValue(3);
+        properties.dieOnError.setValue(false);
+
+        statement = Mockito.mock(PreparedStatement.class);
+        connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+    }
+
+    private JDBCOutputUpsertWriter createWriter() {
+        JDBCSink sink = new JDBCSink() {
+
+            @Override
+            public Connection connect(RuntimeContainer runtime) throws ClassNotFoundException, SQLException {
+                return connection;
+            }
+        };
+        sink.initialize(null, properties);
+        return (JDBCOutputUpsertWriter) sink.createWriteOperation().createWriter(null);
+    }
+
+    private IndexedRecord createRecord(int id) {
+        IndexedRecord record = new GenericData.Record(properties.main.schema.getValue());
+        record.put(0, id);
+        record.put(1, "name" + id);
+        return record;
+    }
+
+    private static List<Object> getIds(List<IndexedRecord> records) {
+        List<Object> ids = new ArrayList<>();
+        for (IndexedRecord record : records) {
+            ids.add(record.get(record.getSchema().getField("ID").pos()));
+        }
+        return ids;
+    }
+
+    /**
+     * Checks the records are only successful once their batch is executed.
+     */
+    @Test
+    public void testSuccessAfterBatch() throws Exception {
+        Mockito.when(statement.executeBatch()).thenReturn(new int[] { 1, 1, 1 }, new int[] { 1 });
+
+        JDBCOutputUpsertWriter writer = createWriter();
+        writer.open("wid");
+        writer.write(createRecord(1));
+        writer.write(createRecord(2));
+        assertTrue(writer.getSuccessfulWrites().isEmpty());
+
+        writer.write(createRecord(3));
+        assertEquals(3, writer.getSuccessfulWrites().size());
+
+        writer.write(createRecord(4));
+        assertTrue(writer.getSuccessfulWrites().isEmpty());
+        Result result = writer.close();
+
+        Mockito.verify(statement, Mockito.times(4)).addBatch();
+        Mockito.verify(statement, Mockito.times(2)).executeBatch();
+        assertEquals(4, result.getTotalCount());
+        assertEquals(4, result.getSuccessCount());
+        assertEquals(0, result.getRejectCount());
+    }
+
+    /**
+     * Checks the records marked as failed by a driver which goes on after a failure are rejected, with their own line.
+     */
+    @Test
+    public void testRejectFailedRecords() throws Exception {
+        Mockito.when(statement.executeBatch())
+                .thenThrow(new BatchUpdateException("duplicate key", "23505", new int[] { 1, Statement.EXECUTE_FAILED, 1 }))
+                .thenReturn(new int[] { 1 });
+
+        JDBCOutputUpsertWriter writer = createWriter();
+        writer.open("wid");
+        writer.write(createRecord(1));
+        writer.write(createRecord(2));
+        writer.write(createRecord(3));
+
+        List<Object> expected = new ArrayList<>();
+        expected.add(1);
+        expected.add(3);
+        assertEquals(expected, getIds(writer.getSuccessfulWrites()));
+        assertEquals(1, writer.getRejectedWrites().size());
+        IndexedRecord reject = writer.getRejectedWrites().get(0);
+        assertEquals(2, reject.get(reject.getSchema().getField("ID").pos()));
+        assertEquals("23505", reject.get(reject.getSchema().getField("errorCode").pos()));
+        assertEquals("duplicate key - Line: 2", reject.get(reject.getSchema().getField("errorMessage").pos()));
+
+        writer.write(createRecord(4));
+        Result result = writer.close();
+
+        assertEquals(4, result.getTotalCount());
+        assertEquals(3, result.getSuccessCount());
+        assertEquals(1, result.getRejectCount());
+    }
+
+    /**
+     * Checks the records after the failure are rejected when the driver stops at the first failure.
+     */
+    @Test
+    public void testRejectRecordsAfterFailure() throws Exception {
+        Mockito.when(statement.executeBatch())
+                .thenThrow(new BatchUpdateException("duplicate key", "23505", new int[] { 1 }));
+
+        JDBCOutputUpsertWriter writer = createWriter();
+        writer.open("wid");
+        writer.write(createRecord(1));
+        writer.write(createRecord(2));
+        writer.write(createRecord(3));
+
+        assertEquals(1, writer.getSuccessfulWrites().size());
+        List<Object> expected = new ArrayList<>();
+        expected.add(2);
+        expected.add(3);
+        assertEquals(expected, getIds(writer.getRejectedWrites()));
+
+        Result result = writer.close();
+        assertEquals(3, result.getTotalCount());
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(2, result.getRejectCount());
+    }
+}
@@ -56,6 +56,9 @@ public class KafkaDatasetProperties extends PropertiesImpl implements DatasetPro
 
     public Property<String> avroSchema = PropertyFactory.newString("avroSchema");
 
+    // Values in the Confluent wire format, their writer schema is fetched from the schema registry of the datastore
+    public Property<Boolean> useSchemaRegistry = PropertyFactory.newBoolean("useSchemaRegistry", false);
+
     public KafkaDatasetProperties(String name) {
         super(name);
     }
@@ -69,6 +72,7 @@ public class KafkaDatasetProperties extends PropertiesImpl implements DatasetPro
         mainForm.addRow(valueFormat);
         mainForm.addRow(fieldDelimiter);
         mainForm.addRow(specificFieldDelimiter);
+        mainForm.addRow(useSchemaRegistry);
         mainForm.addRow(isHierarchy);
         mainForm.addRow(widget(avroSchema).setWidgetType(Widget.CODE_WIDGET_TYPE)
                 .setConfigurationValue(Widget.CODE_SYNTAX_WIDGET_CONF, "json"));
@@ -90,6 +94,10 @@ public class KafkaDatasetProperties extends PropertiesImpl implements DatasetPro
         refreshLayout(getForm(Form.MAIN));
     }
 
+    public void afterUseSchemaRegistry() {
+        refreshLayout(getForm(Form.MAIN));
+    }
+
     public void afterFieldDelimiter() {
         refreshLayout(getForm(Form.MAIN));
     }
@@ -112,10 +120,35 @@ public class KafkaDatasetProperties extends PropertiesImpl implements DatasetPro
                     && fieldDelimiter.getValue().equals(FieldDelimiterType.OTHER));
             specificFieldDelimiter.setRequired(ValueFormat.CSV.equals(valueFormat.getValue())
                     && fieldDelimiter.getValue().equals(FieldDelimiterType.OTHER));
+            form.getWidget(useSchemaRegistry).setVisible(valueFormat.getValue() == ValueFormat.AVRO);
             form.getWidget(isHierarchy).setVisible(valueFormat.getValue() == ValueFormat.AVRO);
             form.getWidget(avroSchema).setVisible(valueFormat.getValue() == ValueFormat.AVRO && isHierarchy.getValue());
-            avroSchema.setRequired(ValueFormat.AVRO.equals(valueFormat.getValue()));
+            // With the schema registry, the avro schema is only the optional reader schema
+            avroSchema.setRequired(ValueFormat.AVRO.equals(valueFormat.getValue()) && !useSchemaRegistry.getValue());
+            KafkaDatastoreProperties datastoreProperties = getDatastoreProperties();
+            if (datastoreProperties != null) {
+                datastoreProperties.schemaRegistryUrl.setRequired(isSchemaRegistryUsed());
+            }
+        }
+    }
+
+    /**
+     * @return true if the values are read in the Confluent wire format, with the schema registry of the datastore.
+     */
+    public boolean isSchemaRegistryUsed() {
+        return ValueFormat.AVRO.equals(valueFormat.getValue()) && useSchemaRegistry.getValue();
+    }
+
+    public ValidationResult validateUseSchemaRegistry() {
+        if (isSchemaRegistryUsed()) {
+            KafkaDatastoreProperties datastoreProperties = getDatastoreProperties();
+            String url = datastoreProperties == null ? null : datastoreProperties.schemaRegistryUrl.getValue();
+            if (url == null || url.trim().isEmpty()) {
+                return new ValidationResult(ValidationResult.Result.ERROR,
+                        "The schema registry URL of the datastore is required to use the schema registry");
+            }
         }
+        return ValidationResult.OK;
     }
 
     public ValidationResult beforeTopic() {
@@ -29,6 +29,8 @@ public class KafkaDatastoreProperties extends PropertiesImpl implements Datastor
 
     public Property<String> brokers = PropertyFactory.newString("brokers").setRequired();
 
+    public Property<String> schemaRegistryUrl = PropertyFactory.newString("schemaRegistryUrl");
+
     public Property<Boolean> useSsl = PropertyFactory.newBoolean("useSsl", false);
 
     public EnumProperty<StoreType> trustStoreType = PropertyFactory.newEnum("trustStoreType", StoreType.class);
@@ -65,6 +67,7 @@ public class KafkaDatastoreProperties extends PropertiesImpl implements Datastor
         Form mainForm = new Form(this, Form.MAIN);
         mainForm.addRow(version);
         mainForm.addRow(brokers);
+        mainForm.addRow(schemaRegistryUrl);
         mainForm.addRow(useSsl);
         mainForm.addRow(trustStoreType);
         mainForm.addRow(trustStorePath);
@@ -26,7 +26,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.talend.components.api.test.ComponentTestUtils;
+import org.talend.components.kafka.datastore.KafkaDatastoreProperties;
 import org.talend.daikon.properties.PropertiesDynamicMethodHelper;
+import org.talend.daikon.properties.ValidationResult;
 import org.talend.daikon.properties.presentation.Form;
 
 public class KafkaDatasetPropertiesTest {
@@ -57,6 +59,7 @@ public class KafkaDatasetPropertiesTest {
         assertTrue(main.getWidget(dataset.specificFieldDelimiter).isHidden());
         assertTrue(main.getWidget(dataset.isHierarchy).isHidden());
         assertTrue(main.getWidget(dataset.avroSchema).isHidden());
+        assertTrue(main.getWidget(dataset.useSchemaRegistry).isHidden());
 
         dataset.valueFormat.setValue(KafkaDatasetProperties.ValueFormat.CSV);
         PropertiesDynamicMethodHelper.afterProperty(dataset, dataset.valueFormat.getName());
@@ -89,6 +92,13 @@ public class KafkaDatasetPropertiesTest {
         assertTrue(main.getWidget(dataset.specificFieldDelimiter).isHidden());
         assertTrue(main.getWidget(dataset.isHierarchy).isVisible());
         assertTrue(main.getWidget(dataset.avroSchema).isVisible());
+        assertTrue(main.getWidget(dataset.useSchemaRegistry).isVisible());
+        assertTrue(dataset.avroSchema.isRequired());
+
+        dataset.useSchemaRegistry.setValue(true);
+        PropertiesDynamicMethodHelper.afterProperty(dataset, dataset.useSchemaRegistry.getName());
+        assertTrue(main.getWidget(dataset.avroSchema).isVisible());
+        assertFalse(dataset.avroSchema.isRequired());
 
     }
 
@@ -102,6 +112,7 @@ public class KafkaDatasetPropertiesTest {
         assertEquals(";", dataset.specificFieldDelimiter.getValue());
         assertTrue(dataset.isHierarchy.getValue());
         assertNull(dataset.avroSchema.getValue());
+        assertFalse(dataset.useSchemaRegistry.getValue());
     }
 
     @Test
@@ -111,5 +122,28 @@ public class KafkaDatasetPropertiesTest {
         assertTrue(main.getWidget(dataset.valueFormat).isCallAfter());
         assertTrue(main.getWidget(dataset.isHierarchy).isCallAfter());
         assertTrue(main.getWidget(dataset.fieldDelimiter).isCallAfter());
+        assertTrue(main.getWidget(dataset.useSchemaRegistry).isCallAfter());
+        assertTrue(main.getWidget(dataset.useSchemaRegistry).isCallValidate());
+    }
+
+    @Test
+    public void testSchemaRegistryUrl() {
+        KafkaDatastoreProperties datastore = new KafkaDatastoreProperties("datastore");
+        datastore.init();
+        dataset.setDatastoreProperties(datastore);
+        assertEquals(ValidationResult.Result.OK, dataset.validateUseSchemaRegistry().getStatus());
+
+        dataset.valueFormat.setValue(KafkaDatasetProperties.ValueFormat.AVRO);
+        dataset.useSchemaRegistry.setValue(true);
+        PropertiesDynamicMethodHelper.afterProperty(dataset, dataset.useSchemaRegistry.getName());
+        assertTrue(datastore.schemaRegistryUrl.isRequired());
+        assertEquals(ValidationResult.Result.ERROR, dataset.validateUseSchemaRegistry().getStatus());
+
+        datastore.schemaRegistryUrl.setValue("http://localhost:8081");
+        assertEquals(ValidationResult.Result.OK, dataset.validateUseSchemaRegistry().getStatus());
+
+        dataset.useSchemaRegistry.setValue(false);
+        PropertiesDynamicMethodHelper.afterProperty(dataset, dataset.useSchemaRegistry.getName());
+        assertFalse(datastore.schemaRegistryUrl.isRequired());
     }
 }
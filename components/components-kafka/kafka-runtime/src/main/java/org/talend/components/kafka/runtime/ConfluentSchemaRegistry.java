@@ -0,0 +1,102 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kafka.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Resolve the writer schemas of the values in the Confluent wire format: a magic byte 0, the id of the schema in the
+ * schema registry as a 4 bytes big endian int, then the avro binary data.
+ *
+ * The schemas of the registry are immutable, so they are fetched once by id and kept for the life of the JVM, shared by
+ * all the instances of the runtime.
+ */
+public class ConfluentSchemaRegistry {
+
+    public static final byte MAGIC_BYTE = 0;
+
+    /** The size of the magic byte and of the schema id before the avro data. */
+    public static final int HEADER_SIZE = 5;
+
+    private static final ConcurrentMap<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String url;
+
+    public ConfluentSchemaRegistry(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("The schema registry URL is required");
+        }
+        String trimmed = url.trim();
+        this.url = trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * @return the id of the writer schema of the value.
+     * @throws IOException if the value is not in the Confluent wire format.
+     */
+    public static int getSchemaId(byte[] value) throws IOException {
+        if (value == null || value.length < HEADER_SIZE || value[0] != MAGIC_BYTE) {
+            throw new IOException("The value is not in the schema registry format");
+        }
+        return ByteBuffer.wrap(value, 1, 4).getInt();
+    }
+
+    /**
+     * @return the schema registered with the id, fetched from the registry the first time only.
+     */
+    public Schema getSchema(int id) throws IOException {
+        String key = url + "#" + id;
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            schema = fetchSchema(id);
+            Schema previous = SCHEMAS.putIfAbsent(key, schema);
+            if (previous != null) {
+                schema = previous;
+            }
+        }
+        return schema;
+    }
+
+    private Schema fetchSchema(int id) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + "/schemas/ids/" + id).openConnection();
+        connection.setRequestProperty("Accept", "application/vnd.schemaregistry.v1+json");
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unable to get the schema " + id + " from " + url + ": "
+                        + connection.getResponseCode() + " " + connection.getResponseMessage());
+            }
+            try (InputStream in = connection.getInputStream()) {
+                JsonNode schema = MAPPER.readTree(in).get("schema");
+                if (schema == null) {
+                    throw new IOException("No schema in the response of " + url + " for the id " + id);
+                }
+                return new Schema.Parser().parse(schema.asText());
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -59,21 +59,14 @@ public class KafkaDatasetRuntime implements IKafkaDatasetRuntime {
     public Schema getSchema() {
         switch (dataset.valueFormat.getValue()) {
         case CSV: {
-            // Simple schema container.
-            final Schema[] s = new Schema[1];
-            s[0] = AvroUtils.createEmptySchema();
-            // Try to get one record and determine its schema in a callback.
-            getSample(1, new Consumer<IndexedRecord>() {
-
-                @Override
-                public void accept(IndexedRecord in) {
-                    s[0] = in.getSchema();
-                }
-            });
-            // Return the discovered schema.
-            return s[0];
+            return getSchemaOfFirstRecord();
         }
         case AVRO: {
+            if (dataset.useSchemaRegistry.getValue()
+                    && KafkaInputPTransformRuntime.getReaderSchema(dataset) == null) {
+                // The values are read with their writer schema, take it from the first record
+                return getSchemaOfFirstRecord();
+            }
             if (!dataset.isHierarchy.getValue()) { // no avro schema provided, let user edit schema directly
                 // nothing to do, keep original
             } else { // use {@link KafkaDatasetProperties#avroSchema} generate schema
@@ -91,6 +84,22 @@ public class KafkaDatasetRuntime implements IKafkaDatasetRuntime {
 
     }
 
+    private Schema getSchemaOfFirstRecord() {
+        // Simple schema container.
+        final Schema[] s = new Schema[1];
+        s[0] = AvroUtils.createEmptySchema();
+        // Try to get one record and determine its schema in a callback.
+        getSample(1, new Consumer<IndexedRecord>() {
+
+            @Override
+            public void accept(IndexedRecord in) {
+                s[0] = in.getSchema();
+            }
+        });
+        // Return the discovered schema.
+        return s[0];
+    }
+
     /**
      * @param limit the maximum number of records to return.
      * @param consumer a callback that will be applied to each sampled record. This callback should throw a
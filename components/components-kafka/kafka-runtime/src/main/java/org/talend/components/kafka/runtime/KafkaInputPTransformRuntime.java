@@ -14,6 +14,8 @@ package org.talend.components.kafka.runtime;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumReader;
@@ -24,6 +26,8 @@ import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.beam.sdk.io.kafka.KafkaIO;
 import org.apache.beam.sdk.io.kafka.KafkaRecord;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
@@ -36,6 +40,7 @@ import org.joda.time.Duration;
 import org.talend.components.adapter.beam.transform.ConvertToIndexedRecord;
 import org.talend.components.api.component.runtime.RuntimableRuntime;
 import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.kafka.dataset.KafkaDatasetProperties;
 import org.talend.components.kafka.input.KafkaInputProperties;
 import org.talend.daikon.properties.ValidationResult;
 
@@ -68,6 +73,12 @@ public class KafkaInputPTransformRuntime extends PTransform<PBegin, PCollection<
                 .apply(Values.<byte[]> create());
         switch (properties.getDatasetProperties().valueFormat.getValue()) {
         case AVRO: {
+            if (properties.getDatasetProperties().useSchemaRegistry.getValue()) {
+                Schema readerSchema = getReaderSchema(properties.getDatasetProperties());
+                return kafkaRecords.apply(ParDo.of(new ConvertConfluentAvro(
+                        properties.getDatasetProperties().getDatastoreProperties().schemaRegistryUrl.getValue(),
+                        readerSchema == null ? null : readerSchema.toString())));
+            }
             Schema schema = null;
             if (properties.getDatasetProperties().isHierarchy.getValue()) {
                 // use component's schema directly? should be done on design time, no?
@@ -92,17 +103,59 @@ public class KafkaInputPTransformRuntime extends PTransform<PBegin, PCollection<
 
     }
 
+    /**
+     * @return the custom avro schema to read the values of the schema registry with, or null to read each value with
+     * its writer schema, when the topic has several schemas. The dataset schema is not a reader schema: it can be the
+     * schema inferred from the first record.
+     */
+    static Schema getReaderSchema(KafkaDatasetProperties dataset) {
+        if (dataset.isHierarchy.getValue()) {
+            String avroSchemaStr = dataset.avroSchema.getValue();
+            if (avroSchemaStr != null && !"".equals(avroSchemaStr.trim())) {
+                return new Schema.Parser().parse(avroSchemaStr);
+            }
+        }
+        return null;
+    }
+
     @Override
     public ValidationResult initialize(RuntimeContainer container, KafkaInputProperties properties) {
         this.properties = properties;
-        return ValidationResult.OK;
+        return properties.getDatasetProperties().validateUseSchemaRegistry();
     }
 
+    /**
+     * Extract the key and the value of the records, and count the records and the bytes of the values read from each
+     * partition of the topic.
+     */
     public static class ExtractRecord extends DoFn<KafkaRecord<byte[], byte[]>, KV<byte[], byte[]>> {
 
+        private transient Map<String, Counter[]> partitionCounters;
+
         @DoFn.ProcessElement
         public void processElement(ProcessContext c) {
-            c.output(c.element().getKV());
+            KafkaRecord<byte[], byte[]> record = c.element();
+            Counter[] counters = getPartitionCounters(record.getTopic(), record.getPartition());
+            counters[0].inc();
+            byte[] value = record.getKV().getValue();
+            if (value != null) {
+                counters[1].inc(value.length);
+            }
+            c.output(record.getKV());
+        }
+
+        private Counter[] getPartitionCounters(String topic, int partition) {
+            if (partitionCounters == null) {
+                partitionCounters = new HashMap<>();
+            }
+            String key = topic + "-" + partition;
+            Counter[] counters = partitionCounters.get(key);
+            if (counters == null) {
+                counters = new Counter[] { Metrics.counter(ExtractRecord.class, "records-" + key),
+                        Metrics.counter(ExtractRecord.class, "bytes-" + key) };
+                partitionCounters.put(key, counters);
+            }
+            return counters;
         }
     }
 
@@ -132,4 +185,55 @@ public class KafkaInputPTransformRuntime extends PTransform<PBegin, PCollection<
         }
     }
 
+    /**
+     * Decode the values in the Confluent wire format. The writer schema of each value is resolved by its id in the
+     * schema registry, and the value is read with the reader schema if there is one, or with its writer schema
+     * otherwise. The datum readers are kept by schema id, and the decoder is reused for all the values.
+     */
+    public static class ConvertConfluentAvro extends DoFn<byte[], IndexedRecord> {
+
+        private final String registryUrl;
+
+        private final String readerSchemaStr;
+
+        private transient ConfluentSchemaRegistry registry;
+
+        private transient Schema readerSchema;
+
+        private transient Map<Integer, DatumReader<GenericRecord>> datumReaders;
+
+        private transient BinaryDecoder decoder;
+
+        ConvertConfluentAvro(String registryUrl, String readerSchemaStr) {
+            this.registryUrl = registryUrl;
+            this.readerSchemaStr = readerSchemaStr;
+        }
+
+        @DoFn.Setup
+        public void setup() {
+            registry = new ConfluentSchemaRegistry(registryUrl);
+            if (readerSchemaStr != null) {
+                readerSchema = new Schema.Parser().parse(readerSchemaStr);
+            }
+            datumReaders = new HashMap<>();
+        }
+
+        @DoFn.ProcessElement
+        public void processElement(ProcessContext c) throws IOException {
+            byte[] value = c.element();
+            int schemaId = ConfluentSchemaRegistry.getSchemaId(value);
+            DatumReader<GenericRecord> datumReader = datumReaders.get(schemaId);
+            if (datumReader == null) {
+                Schema writerSchema = registry.getSchema(schemaId);
+                datumReader = new GenericDatumReader<GenericRecord>(writerSchema,
+                        readerSchema == null ? writerSchema : readerSchema);
+                datumReaders.put(schemaId, datumReader);
+            }
+            decoder = DecoderFactory.get().binaryDecoder(value, ConfluentSchemaRegistry.HEADER_SIZE,
+                    value.length - ConfluentSchemaRegistry.HEADER_SIZE, decoder);
+            // The output records must not be modified afterwards, so they are not reused
+            c.output(datumReader.read(null, decoder));
+        }
+    }
+
 }
@@ -0,0 +1,198 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kafka.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.beam.sdk.transforms.DoFnTester;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.talend.components.kafka.dataset.KafkaDatasetProperties;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class ConvertConfluentAvroTest {
+
+    private final Schema personV1 = SchemaBuilder.record("person").fields() //
+            .name("name").type().stringType().noDefault() //
+            .endRecord();
+
+    private final Schema personV2 = SchemaBuilder.record("person").fields() //
+            .name("name").type().stringType().noDefault() //
+            .name("age").type().optional().intType() //
+            .endRecord();
+
+    private final Schema order = SchemaBuilder.record("order").fields() //
+            .name("id").type().longType().noDefault() //
+            .endRecord();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+
+    private String registryUrl;
+
+    @Before
+    public void startRegistry() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/schemas/ids/", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                String path = exchange.getRequestURI().getPath();
+                Schema schema = getRegisteredSchema(Integer.parseInt(path.substring(path.lastIndexOf('/') + 1)));
+                if (schema == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+                ObjectNode response = new ObjectMapper().createObjectNode();
+                response.put("schema", schema.toString());
+                byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        registryUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @After
+    public void stopRegistry() {
+        server.stop(0);
+    }
+
+    private Schema getRegisteredSchema(int id) {
+        switch (id) {
+        case 1:
+            return personV1;
+        case 2:
+            return personV2;
+        case 3:
+            return order;
+        default:
+            return null;
+        }
+    }
+
+    private static byte[] serialize(int schemaId, GenericRecord record) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ConfluentSchemaRegistry.MAGIC_BYTE);
+        out.write(ByteBuffer.allocate(4).putInt(schemaId).array());
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testWriterSchemas() throws Exception {
+        DoFnTester<byte[], IndexedRecord> fnTester = DoFnTester
+                .of(new KafkaInputPTransformRuntime.ConvertConfluentAvro(registryUrl, null));
+        List<IndexedRecord> outputs = fnTester.processBundle( //
+                serialize(1, new GenericRecordBuilder(personV1).set("name", "a").build()), //
+                serialize(3, new GenericRecordBuilder(order).set("id", 12L).build()), //
+                serialize(1, new GenericRecordBuilder(personV1).set("name", "b").build()));
+
+        assertEquals(3, outputs.size());
+        assertEquals(personV1, outputs.get(0).getSchema());
+        assertEquals("a", outputs.get(0).get(0).toString());
+        assertEquals(order, outputs.get(1).getSchema());
+        assertEquals(12L, outputs.get(1).get(0));
+        assertEquals("b", outputs.get(2).get(0).toString());
+    }
+
+    @Test
+    public void testReaderSchema() throws Exception {
+        DoFnTester<byte[], IndexedRecord> fnTester = DoFnTester
+                .of(new KafkaInputPTransformRuntime.ConvertConfluentAvro(registryUrl, personV2.toString()));
+        List<IndexedRecord> outputs = fnTester.processBundle( //
+                serialize(1, new GenericRecordBuilder(personV1).set("name", "a").build()), //
+                serialize(2, new GenericRecordBuilder(personV2).set("name", "b").set("age", 20).build()));
+
+        assertEquals(2, outputs.size());
+        assertEquals(personV2, outputs.get(0).getSchema());
+        assertEquals("a", outputs.get(0).get(0).toString());
+        assertNull(outputs.get(0).get(1));
+        assertEquals(personV2, outputs.get(1).getSchema());
+        assertEquals(20, outputs.get(1).get(1));
+    }
+
+    @Test
+    public void testSchemaCache() throws Exception {
+        ConfluentSchemaRegistry registry = new ConfluentSchemaRegistry(registryUrl);
+        assertEquals(order, registry.getSchema(3));
+        int fetched = requests.get();
+        assertEquals(order, registry.getSchema(3));
+        assertEquals(order, new ConfluentSchemaRegistry(registryUrl).getSchema(3));
+        assertEquals(fetched, requests.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownSchema() throws Exception {
+        new ConfluentSchemaRegistry(registryUrl).getSchema(42);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRegistryUrl() {
+        new ConfluentSchemaRegistry("");
+    }
+
+    @Test
+    public void testReaderSchemaOnlyCustom() {
+        KafkaDatasetProperties dataset = new KafkaDatasetProperties("dataset");
+        dataset.init();
+        dataset.valueFormat.setValue(KafkaDatasetProperties.ValueFormat.AVRO);
+        dataset.useSchemaRegistry.setValue(true);
+        // The dataset schema can be the schema of the first record, it is not a reader schema
+        dataset.isHierarchy.setValue(false);
+        dataset.main.schema.setValue(personV1);
+        assertNull(KafkaInputPTransformRuntime.getReaderSchema(dataset));
+
+        dataset.isHierarchy.setValue(true);
+        assertNull(KafkaInputPTransformRuntime.getReaderSchema(dataset));
+        dataset.avroSchema.setValue(personV2.toString());
+        assertEquals(personV2, KafkaInputPTransformRuntime.getReaderSchema(dataset));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotRegistryFormat() throws Exception {
+        ConfluentSchemaRegistry.getSchemaId("plain value".getBytes(StandardCharsets.UTF_8));
+    }
+}
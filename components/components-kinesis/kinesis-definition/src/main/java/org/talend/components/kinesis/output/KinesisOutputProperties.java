@@ -26,12 +26,23 @@ import org.talend.components.kinesis.KinesisDatasetDefinition;
 import org.talend.components.kinesis.KinesisDatasetProperties;
 import org.talend.daikon.properties.ReferenceProperties;
 import org.talend.daikon.properties.presentation.Form;
+import org.talend.daikon.properties.property.Property;
+import org.talend.daikon.properties.property.PropertyFactory;
 
 public class KinesisOutputProperties extends FixedConnectorsComponentProperties implements IOProperties {
 
     public ReferenceProperties<KinesisDatasetProperties> datasetRef =
             new ReferenceProperties<>("datasetRef", KinesisDatasetDefinition.NAME);
 
+    // The records are spread randomly on the shards when they have no partition key
+    public Property<Boolean> usePartitionKeyField = PropertyFactory.newBoolean("usePartitionKeyField", false);
+
+    public Property<String> partitionKeyField = PropertyFactory.newString("partitionKeyField");
+
+    // Pack the records in the aggregated records of the Kinesis Producer Library, unpacked by the Kinesis Client
+    // Library
+    public Property<Boolean> useAggregation = PropertyFactory.newBoolean("useAggregation", false);
+
     protected transient PropertyPathConnector MAIN_CONNECTOR =
             new PropertyPathConnector(Connector.MAIN_NAME, "dataset.main");
 
@@ -43,6 +54,21 @@ public class KinesisOutputProperties extends FixedConnectorsComponentProperties
     public void setupLayout() {
         super.setupLayout();
         Form mainForm = new Form(this, Form.MAIN);
+        mainForm.addRow(usePartitionKeyField).addColumn(partitionKeyField);
+        mainForm.addRow(useAggregation);
+    }
+
+    public void afterUsePartitionKeyField() {
+        refreshLayout(getForm(Form.MAIN));
+    }
+
+    @Override
+    public void refreshLayout(Form form) {
+        super.refreshLayout(form);
+        if (form.getName().equals(Form.MAIN)) {
+            form.getWidget(partitionKeyField).setVisible(usePartitionKeyField);
+            partitionKeyField.setRequired(usePartitionKeyField.getValue());
+        }
     }
 
     @Override
@@ -13,19 +13,31 @@
 
 package org.talend.components.kinesis.output;
 
-import java.util.Collection;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.talend.components.api.test.ComponentTestUtils;
-import org.talend.components.kinesis.KinesisDatastoreProperties;
 import org.talend.daikon.properties.presentation.Form;
 import org.talend.daikon.properties.presentation.Widget;
 
 public class KinesisOutputPropertiesTest {
 
+    /**
+     * Useful constant listing all of the fields in the properties.
+     */
+    public static final List<String> ALL = Arrays.asList("usePartitionKeyField", "partitionKeyField", "useAggregation");
+
     @Rule
     public ErrorCollector errorCollector = new ErrorCollector();
 
@@ -48,6 +60,8 @@ public class KinesisOutputPropertiesTest {
      */
     @Test
     public void testDefaultProperties() {
+        assertEquals(false, properties.usePartitionKeyField.getValue());
+        assertEquals(false, properties.useAggregation.getValue());
     }
 
     /**
@@ -57,15 +71,34 @@ public class KinesisOutputPropertiesTest {
     @Test
     public void testSetupLayout() {
         Form main = properties.getForm(Form.MAIN);
-        Collection<Widget> mainWidgets = main.getWidgets();
+        assertThat(main, notNullValue());
+        assertThat(main.getWidgets(), Matchers.<Widget> hasSize(ALL.size()));
+
+        for (String field : ALL) {
+            assertThat(main.getWidget(field), notNullValue());
+        }
+
+        assertTrue(main.getWidget("usePartitionKeyField").isVisible());
+        assertFalse(main.getWidget("partitionKeyField").isVisible());
+        assertFalse(properties.partitionKeyField.isRequired());
+        assertTrue(main.getWidget("useAggregation").isVisible());
     }
 
     /**
-     * Checks {@link KinesisDatastoreProperties} sets correctly layout after refresh
+     * Checks {@link KinesisOutputProperties} sets correctly layout after refresh
      * properties
      */
     @Test
     public void testRefreshLayout() {
-        properties.refreshLayout(properties.getForm(Form.MAIN));
+        Form main = properties.getForm(Form.MAIN);
+
+        properties.usePartitionKeyField.setValue(true);
+        properties.afterUsePartitionKeyField();
+        assertTrue(main.getWidget("partitionKeyField").isVisible());
+        assertTrue(properties.partitionKeyField.isRequired());
+
+        properties.usePartitionKeyField.setValue(false);
+        properties.afterUsePartitionKeyField();
+        testSetupLayout();
     }
 }
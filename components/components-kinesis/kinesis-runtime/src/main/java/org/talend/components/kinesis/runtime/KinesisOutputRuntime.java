@@ -12,15 +12,32 @@
 // ============================================================================
 package org.talend.components.kinesis.runtime;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.beam.sdk.io.kinesis.TalendKinesisProvider;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PDone;
 import org.talend.components.api.component.runtime.RuntimableRuntime;
 import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.kinesis.KinesisDatasetProperties;
 import org.talend.components.kinesis.output.KinesisOutputProperties;
+import org.talend.daikon.exception.TalendRuntimeException;
+import org.talend.daikon.exception.error.CommonErrorCodes;
 import org.talend.daikon.properties.ValidationResult;
 
+import com.amazonaws.services.kinesis.AmazonKinesis;
+
 public class KinesisOutputRuntime extends PTransform<PCollection<IndexedRecord>, PDone>
         implements RuntimableRuntime<KinesisOutputProperties> {
 
@@ -37,6 +54,130 @@ public class KinesisOutputRuntime extends PTransform<PCollection<IndexedRecord>,
 
     @Override
     public PDone expand(PCollection<IndexedRecord> in) {
-        return null;
+        KinesisDatasetProperties dataset = properties.getDatasetProperties();
+        String partitionKeyField =
+                properties.usePartitionKeyField.getValue() ? properties.partitionKeyField.getValue() : null;
+        in.apply(ParDo.of(new KinesisOutputFn(KinesisClient.getProvider(dataset), dataset.streamName.getValue(),
+                dataset.valueFormat.getValue(), dataset.getFieldDelimiter(), partitionKeyField,
+                properties.useAggregation.getValue())));
+        return PDone.in(in.getPipeline());
+    }
+
+    public static class KinesisOutputFn extends DoFn<IndexedRecord, Void> {
+
+        private final TalendKinesisProvider provider;
+
+        private final String streamName;
+
+        private final KinesisDatasetProperties.ValueFormat valueFormat;
+
+        private final String fieldDelimiter;
+
+        private final String partitionKeyField;
+
+        private final boolean useAggregation;
+
+        private transient AmazonKinesis client;
+
+        private transient KinesisRecordWriter writer;
+
+        private transient ByteArrayOutputStream out;
+
+        private transient BinaryEncoder encoder;
+
+        private transient Schema schema;
+
+        private transient DatumWriter<IndexedRecord> datumWriter;
+
+        KinesisOutputFn(TalendKinesisProvider provider, String streamName,
+                KinesisDatasetProperties.ValueFormat valueFormat, String fieldDelimiter, String partitionKeyField,
+                boolean useAggregation) {
+            this.provider = provider;
+            this.streamName = streamName;
+            this.valueFormat = valueFormat;
+            this.fieldDelimiter = fieldDelimiter;
+            this.partitionKeyField = partitionKeyField;
+            this.useAggregation = useAggregation;
+        }
+
+        @DoFn.Setup
+        public void setup() {
+            client = provider.getKinesisClient();
+            out = new ByteArrayOutputStream();
+        }
+
+        @DoFn.StartBundle
+        public void startBundle() {
+            writer = new KinesisRecordWriter(client, streamName, useAggregation ? new KinesisRecordAggregator() : null);
+        }
+
+        @DoFn.ProcessElement
+        public void processElement(ProcessContext c) throws IOException {
+            IndexedRecord record = c.element();
+            writer.write(getPartitionKey(record), encode(record));
+        }
+
+        @DoFn.FinishBundle
+        public void finishBundle() throws IOException {
+            writer.flush();
+        }
+
+        @DoFn.Teardown
+        public void teardown() {
+            if (client != null) {
+                client.shutdown();
+            }
+        }
+
+        /**
+         * @return the partition key of the record, or null if it can be written to any shard.
+         */
+        private String getPartitionKey(IndexedRecord record) {
+            if (partitionKeyField != null) {
+                Schema.Field field = record.getSchema().getField(partitionKeyField);
+                if (field == null) {
+                    TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).setAndThrow(
+                            String.format("The partition key field %s is not in the schema", partitionKeyField));
+                }
+                Object value = record.get(field.pos());
+                if (value != null && value.toString().length() > 0) {
+                    return value.toString();
+                }
+            }
+            return null;
+        }
+
+        byte[] encode(IndexedRecord record) throws IOException {
+            switch (valueFormat) {
+            case AVRO: {
+                if (record.getSchema() != schema) {
+                    schema = record.getSchema();
+                    datumWriter = new GenericDatumWriter<IndexedRecord>(schema);
+                }
+                out.reset();
+                encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+                datumWriter.write(record, encoder);
+                encoder.flush();
+                return out.toByteArray();
+            }
+            case CSV: {
+                // The format read by the CsvConverter of the input
+                StringBuilder sb = new StringBuilder();
+                int size = record.getSchema().getFields().size();
+                for (int i = 0; i < size; i++) {
+                    if (i > 0) {
+                        sb.append(fieldDelimiter);
+                    }
+                    Object value = record.get(i);
+                    if (value != null) {
+                        sb.append(value);
+                    }
+                }
+                return sb.toString().getBytes(StandardCharsets.UTF_8);
+            }
+            default:
+                throw new RuntimeException("To be implemented: " + valueFormat);
+            }
+        }
     }
 }
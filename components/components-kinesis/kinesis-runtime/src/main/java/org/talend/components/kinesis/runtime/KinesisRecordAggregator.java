@@ -0,0 +1,189 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kinesis.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Pack several records in one Kinesis record, in the aggregated format of the Kinesis Producer Library: the magic
+ * bytes, then the AggregatedRecord protobuf message, then the MD5 of the message. The Kinesis Client Library, and so
+ * the Kinesis input, unpacks them.
+ *
+ * All the records of an aggregated record have its partition key: the Kinesis Client Library drops the records whose
+ * partition key maps to another shard than the one of the aggregated record.
+ */
+public class KinesisRecordAggregator {
+
+    public static final byte[] MAGIC = new byte[] { (byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2 };
+
+    /** The default maximum size of an aggregated record of the Kinesis Producer Library. */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 51200;
+
+    private static final int DIGEST_SIZE = 16;
+
+    // The keys of the fields of the protobuf messages: (field number << 3) | wire type
+    private static final int PARTITION_KEY_TABLE_KEY = (1 << 3) | 2;
+
+    private static final int RECORDS_KEY = (3 << 3) | 2;
+
+    private static final int PARTITION_KEY_INDEX_KEY = 1 << 3;
+
+    private static final int DATA_KEY = (3 << 3) | 2;
+
+    private final int maxSizeBytes;
+
+    private final MessageDigest digest;
+
+    private final ByteArrayOutputStream partitionKeyTable = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+    private int count;
+
+    private String partitionKey;
+
+    private byte[] firstData;
+
+    public KinesisRecordAggregator() {
+        this(DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    public KinesisRecordAggregator(int maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return false if the record has another partition key than the aggregated record, or doesn't fit in it.
+     */
+    public boolean add(String partitionKey, byte[] data) {
+        byte[] partitionKeyBytes = null;
+        int sizeBytes = 0;
+        if (count == 0) {
+            partitionKeyBytes = partitionKey.getBytes(StandardCharsets.UTF_8);
+            sizeBytes += fieldSize(partitionKeyBytes.length);
+        } else if (!this.partitionKey.equals(partitionKey)) {
+            return false;
+        }
+        // All the records have the index of the only partition key of the table
+        int partitionKeyIndex = 0;
+        int recordSize = 1 + varintSize(partitionKeyIndex) + fieldSize(data.length);
+        sizeBytes += fieldSize(recordSize);
+        if (getSizeBytes() + sizeBytes > maxSizeBytes) {
+            return false;
+        }
+
+        if (partitionKeyBytes != null) {
+            writeVarint(partitionKeyTable, PARTITION_KEY_TABLE_KEY);
+            writeVarint(partitionKeyTable, partitionKeyBytes.length);
+            partitionKeyTable.write(partitionKeyBytes, 0, partitionKeyBytes.length);
+        }
+        writeVarint(records, RECORDS_KEY);
+        writeVarint(records, recordSize);
+        writeVarint(records, PARTITION_KEY_INDEX_KEY);
+        writeVarint(records, partitionKeyIndex);
+        writeVarint(records, DATA_KEY);
+        writeVarint(records, data.length);
+        records.write(data, 0, data.length);
+
+        if (count == 0) {
+            this.partitionKey = partitionKey;
+            firstData = data;
+        }
+        count++;
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the size of the aggregated record.
+     */
+    public int getSizeBytes() {
+        return MAGIC.length + partitionKeyTable.size() + records.size() + DIGEST_SIZE;
+    }
+
+    /**
+     * @return the partition key of the aggregated record.
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * @return the data of the aggregated record, or the data of the record alone as the Kinesis Producer Library does.
+     */
+    public ByteBuffer build() {
+        if (count == 1) {
+            return ByteBuffer.wrap(firstData);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(getSizeBytes());
+        out.write(MAGIC, 0, MAGIC.length);
+        // The fields of the message can be in any order, the partition key table is written first like the library
+        byte[] partitionKeyTableBytes = partitionKeyTable.toByteArray();
+        byte[] recordsBytes = records.toByteArray();
+        out.write(partitionKeyTableBytes, 0, partitionKeyTableBytes.length);
+        out.write(recordsBytes, 0, recordsBytes.length);
+        digest.update(partitionKeyTableBytes);
+        digest.update(recordsBytes);
+        byte[] md5 = digest.digest();
+        out.write(md5, 0, md5.length);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    public void clear() {
+        partitionKeyTable.reset();
+        records.reset();
+        count = 0;
+        partitionKey = null;
+        firstData = null;
+    }
+
+    /**
+     * @return the size of a length delimited field of a single byte key.
+     */
+    private static int fieldSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
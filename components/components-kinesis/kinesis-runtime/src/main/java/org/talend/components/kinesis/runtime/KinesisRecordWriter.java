@@ -0,0 +1,183 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kinesis.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.kinesis.AmazonKinesis;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+
+/**
+ * Write records to a stream in batches of PutRecords requests, optionally aggregated with a
+ * {@link KinesisRecordAggregator}.
+ *
+ * The entries of a request can fail independently, when a shard is over its throughput for example: only the failed
+ * entries are sent again, after an exponential backoff.
+ */
+public class KinesisRecordWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KinesisRecordWriter.class);
+
+    /** The limits of a PutRecords request. */
+    public static final int MAX_RECORDS_PER_REQUEST = 500;
+
+    public static final int MAX_BYTES_PER_REQUEST = 5 * 1024 * 1024;
+
+    public static final int MAX_ATTEMPTS = 10;
+
+    private static final long INITIAL_BACKOFF_MS = 100;
+
+    private static final long MAX_BACKOFF_MS = 10000;
+
+    private final AmazonKinesis client;
+
+    private final String streamName;
+
+    private final KinesisRecordAggregator aggregator;
+
+    private final Random random = new Random();
+
+    private final List<PutRecordsRequestEntry> entries = new ArrayList<>();
+
+    private long entriesBytes;
+
+    private long recordCount;
+
+    /**
+     * @param aggregator the aggregator of the records, or null to write each record in its own Kinesis record.
+     */
+    public KinesisRecordWriter(AmazonKinesis client, String streamName, KinesisRecordAggregator aggregator) {
+        this.client = client;
+        this.streamName = streamName;
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * @param partitionKey the partition key of the record, or null to write it to any shard.
+     */
+    public void write(String partitionKey, byte[] data) throws IOException {
+        if (aggregator != null) {
+            // A record without key goes with the records already aggregated
+            if (!aggregator.isEmpty()
+                    && aggregator.add(partitionKey == null ? aggregator.getPartitionKey() : partitionKey, data)) {
+                return;
+            }
+            flushAggregator();
+        }
+        if (partitionKey == null) {
+            // Spread the records without key on all the shards
+            partitionKey = Long.toHexString(random.nextLong());
+        }
+        // A record too big to be aggregated is written alone
+        if (aggregator == null || !aggregator.add(partitionKey, data)) {
+            addEntry(partitionKey, ByteBuffer.wrap(data));
+        }
+    }
+
+    /**
+     * Write all the pending records.
+     */
+    public void flush() throws IOException {
+        if (aggregator != null) {
+            flushAggregator();
+        }
+        if (!entries.isEmpty()) {
+            putRecords();
+        }
+    }
+
+    /**
+     * @return the number of Kinesis records written.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    private void flushAggregator() throws IOException {
+        if (!aggregator.isEmpty()) {
+            addEntry(aggregator.getPartitionKey(), aggregator.build());
+            aggregator.clear();
+        }
+    }
+
+    private void addEntry(String partitionKey, ByteBuffer data) throws IOException {
+        long sizeBytes = data.remaining() + partitionKey.getBytes(StandardCharsets.UTF_8).length;
+        if (entries.size() >= MAX_RECORDS_PER_REQUEST || entriesBytes + sizeBytes > MAX_BYTES_PER_REQUEST) {
+            putRecords();
+        }
+        entries.add(new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+        entriesBytes += sizeBytes;
+    }
+
+    private void putRecords() throws IOException {
+        List<PutRecordsRequestEntry> pending = new ArrayList<>(entries);
+        entries.clear();
+        entriesBytes = 0;
+        long backoff = INITIAL_BACKOFF_MS;
+        for (int attempt = 1;; attempt++) {
+            PutRecordsResult result =
+                    client.putRecords(new PutRecordsRequest().withStreamName(streamName).withRecords(pending));
+            Integer failedRecordCount = result.getFailedRecordCount();
+            if (failedRecordCount == null || failedRecordCount == 0) {
+                recordCount += pending.size();
+                return;
+            }
+
+            // The result entries are in the order of the request entries
+            List<PutRecordsRequestEntry> failed = new ArrayList<>(failedRecordCount);
+            PutRecordsResultEntry firstError = null;
+            List<PutRecordsResultEntry> resultEntries = result.getRecords();
+            for (int i = 0; i < resultEntries.size(); i++) {
+                PutRecordsResultEntry resultEntry = resultEntries.get(i);
+                if (resultEntry.getErrorCode() != null) {
+                    PutRecordsRequestEntry entry = pending.get(i);
+                    entry.getData().rewind();
+                    failed.add(entry);
+                    if (firstError == null) {
+                        firstError = resultEntry;
+                    }
+                }
+            }
+            recordCount += pending.size() - failed.size();
+            if (failed.isEmpty()) {
+                return;
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new IOException(String.format(
+                        "Unable to write %d records to the stream %s after %d attempts: %s %s", failed.size(),
+                        streamName, attempt, firstError.getErrorCode(), firstError.getErrorMessage()));
+            }
+            LOG.debug("{} records failed to be written to the stream {}, retrying in {}ms: {}", failed.size(),
+                    streamName, backoff, firstError.getErrorCode());
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing to the stream " + streamName, e);
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            pending = failed;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+
+package org.talend.components.kinesis.runtime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.talend.components.kinesis.runtime.KinesisTestConstants.getDatasetForAvro;
+import static org.talend.components.kinesis.runtime.KinesisTestConstants.getDatasetForCsv;
+import static org.talend.components.kinesis.runtime.KinesisTestConstants.getLocalDatastore;
+import static org.talend.components.kinesis.runtime.KinesisTestConstants.getOutput;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.values.PCollection;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.talend.components.kinesis.KinesisDatasetProperties;
+
+import com.amazonaws.services.kinesis.AmazonKinesis;
+import com.amazonaws.services.kinesis.model.GetRecordsRequest;
+import com.amazonaws.services.kinesis.model.GetRecordsResult;
+import com.amazonaws.services.kinesis.model.Record;
+
+public class KinesisOutputRuntimeTestIT {
+
+    final static String csvStream = "outputCsvStream";
+
+    final static String avroStream = "outputAvroStream";
+
+    final static Set<String> streamsName = new HashSet<>(Arrays.asList(csvStream, avroStream));
+
+    final static AmazonKinesis amazonKinesis = KinesisClient.create(getLocalDatastore());
+
+    final Integer maxRecords = 10;
+
+    @BeforeClass
+    public static void initStreams() throws InterruptedException {
+        for (String streamName : streamsName) {
+            amazonKinesis.createStream(streamName, 1);
+            Thread.sleep(500);
+        }
+    }
+
+    @AfterClass
+    public static void cleanStreams() {
+        for (String streamName : streamsName) {
+            amazonKinesis.deleteStream(streamName);
+        }
+    }
+
+    @Rule
+    public final TestPipeline pipeline = TestPipeline.create();
+
+    /**
+     * @return the data of the records of the stream, unpacked from the aggregated records.
+     */
+    private List<byte[]> readStream(String streamName) throws Exception {
+        List<byte[]> records = new ArrayList<>();
+        String shardIterator = amazonKinesis
+                .getShardIterator(streamName, "shardId-000000000000", "TRIM_HORIZON")
+                .getShardIterator();
+        for (int i = 0; i < 10 && records.size() < maxRecords; i++) {
+            GetRecordsResult result =
+                    amazonKinesis.getRecords(new GetRecordsRequest().withShardIterator(shardIterator));
+            for (Record record : result.getRecords()) {
+                ByteBuffer data = record.getData();
+                byte[] bytes = new byte[data.remaining()];
+                data.duplicate().get(bytes);
+                if (bytes.length > 4 && Arrays.equals(KinesisRecordAggregator.MAGIC, Arrays.copyOf(bytes, 4))) {
+                    for (String[] userRecord : KinesisRecordAggregatorTest.deaggregate(data)) {
+                        records.add(userRecord[1].getBytes(StandardCharsets.ISO_8859_1));
+                    }
+                } else {
+                    records.add(bytes);
+                }
+            }
+            shardIterator = result.getNextShardIterator();
+        }
+        return records;
+    }
+
+    @Test
+    public void outputCsv_Local() throws Exception {
+        String testID = "csvBasicTest" + new Random().nextInt();
+        final String fieldDelimited = ";";
+
+        List<Person> persons = Person.genRandomList(testID, maxRecords);
+        List<IndexedRecord> sendRecords = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (Person person : persons) {
+            sendRecords.add(person.toAvroRecord());
+            expected.add(person.toCSV(fieldDelimited));
+        }
+
+        KinesisOutputRuntime outputRuntime = new KinesisOutputRuntime();
+        outputRuntime.initialize(null, getOutput(getDatasetForCsv(getLocalDatastore(), csvStream,
+                KinesisDatasetProperties.FieldDelimiterType.SEMICOLON), "name", false));
+
+        PCollection<IndexedRecord> output = (PCollection<IndexedRecord>) pipeline.apply(Create.of(sendRecords));
+        output.apply(outputRuntime);
+
+        pipeline.run().waitUntilFinish();
+
+        List<String> actual = new ArrayList<>();
+        for (byte[] record : readStream(csvStream)) {
+            actual.add(new String(record, StandardCharsets.UTF_8));
+        }
+        assertThat(actual, containsInAnyOrder(expected.toArray()));
+    }
+
+    @Test
+    public void outputAvroAggregated_Local() throws Exception {
+        String testID = "avroBasicTest" + new Random().nextInt();
+
+        List<Person> persons = Person.genRandomList(testID, maxRecords);
+        List<IndexedRecord> sendRecords = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (Person person : persons) {
+            sendRecords.add(person.toAvroRecord());
+            expected.add(person.toAvroRecord().toString());
+        }
+
+        KinesisOutputRuntime outputRuntime = new KinesisOutputRuntime();
+        outputRuntime.initialize(null,
+                getOutput(getDatasetForAvro(getLocalDatastore(), avroStream, Person.schema.toString()), null, true));
+
+        PCollection<IndexedRecord> output = (PCollection<IndexedRecord>) pipeline.apply(Create.of(sendRecords));
+        output.apply(outputRuntime);
+
+        pipeline.run().waitUntilFinish();
+
+        List<String> actual = new ArrayList<>();
+        for (byte[] record : readStream(avroStream)) {
+            actual.add(Person.desFromAvroBytes(record).toAvroRecord().toString());
+        }
+        assertThat(actual, containsInAnyOrder(expected.toArray()));
+    }
+}
@@ -0,0 +1,139 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kinesis.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class KinesisRecordAggregatorTest {
+
+    /**
+     * Unpack an aggregated record like the Kinesis Client Library.
+     *
+     * @return the partition key and the data of each record, the data in ISO-8859-1 to keep its bytes.
+     */
+    static List<String[]> deaggregate(ByteBuffer buffer) throws Exception {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertArrayEquals(KinesisRecordAggregator.MAGIC, Arrays.copyOf(bytes, 4));
+        byte[] message = Arrays.copyOfRange(bytes, 4, bytes.length - 16);
+        assertArrayEquals(MessageDigest.getInstance("MD5").digest(message),
+                Arrays.copyOfRange(bytes, bytes.length - 16, bytes.length));
+
+        List<String> partitionKeys = new ArrayList<>();
+        List<String[]> records = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(message);
+        while (in.hasRemaining()) {
+            int key = readVarint(in);
+            byte[] value = new byte[readVarint(in)];
+            in.get(value);
+            if (key == ((1 << 3) | 2)) {
+                partitionKeys.add(new String(value, StandardCharsets.UTF_8));
+            } else if (key == ((3 << 3) | 2)) {
+                ByteBuffer record = ByteBuffer.wrap(value);
+                assertEquals(1 << 3, readVarint(record));
+                int partitionKeyIndex = readVarint(record);
+                assertEquals((3 << 3) | 2, readVarint(record));
+                byte[] data = new byte[readVarint(record)];
+                record.get(data);
+                records.add(new String[] { partitionKeys.get(partitionKeyIndex),
+                        new String(data, StandardCharsets.ISO_8859_1) });
+            }
+        }
+        return records;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static byte[] bytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAggregate() throws Exception {
+        KinesisRecordAggregator aggregator = new KinesisRecordAggregator();
+        assertTrue(aggregator.isEmpty());
+        assertTrue(aggregator.add("a", bytes("1")));
+        assertTrue(aggregator.add("a", bytes("2")));
+        // A record bigger than 127 bytes has a longer length
+        char[] big = new char[300];
+        Arrays.fill(big, 'x');
+        assertTrue(aggregator.add("a", bytes(new String(big))));
+        assertEquals(3, aggregator.getCount());
+        assertEquals("a", aggregator.getPartitionKey());
+
+        ByteBuffer data = aggregator.build();
+        assertEquals(aggregator.getSizeBytes(), data.remaining());
+        List<String[]> records = deaggregate(data);
+        assertEquals(3, records.size());
+        assertArrayEquals(new String[] { "a", "1" }, records.get(0));
+        assertArrayEquals(new String[] { "a", "2" }, records.get(1));
+        assertArrayEquals(new String[] { "a", new String(big) }, records.get(2));
+
+        aggregator.clear();
+        assertTrue(aggregator.isEmpty());
+    }
+
+    @Test
+    public void testOtherPartitionKey() {
+        KinesisRecordAggregator aggregator = new KinesisRecordAggregator();
+        assertTrue(aggregator.add("a", bytes("1")));
+        // The record could be on another shard than the aggregated record
+        assertFalse(aggregator.add("b", bytes("2")));
+        assertEquals(1, aggregator.getCount());
+        assertEquals("a", aggregator.getPartitionKey());
+
+        aggregator.clear();
+        assertTrue(aggregator.add("b", bytes("2")));
+        assertEquals("b", aggregator.getPartitionKey());
+    }
+
+    @Test
+    public void testSingleRecord() {
+        KinesisRecordAggregator aggregator = new KinesisRecordAggregator();
+        aggregator.add("a", bytes("1"));
+        // A record alone isn't aggregated
+        assertEquals(ByteBuffer.wrap(bytes("1")), aggregator.build());
+    }
+
+    @Test
+    public void testMaxSize() {
+        KinesisRecordAggregator aggregator = new KinesisRecordAggregator(40);
+        assertFalse(aggregator.add("a", new byte[40]));
+        assertTrue(aggregator.isEmpty());
+        assertTrue(aggregator.add("a", new byte[10]));
+        assertFalse(aggregator.add("a", new byte[10]));
+        assertEquals(1, aggregator.getCount());
+    }
+}
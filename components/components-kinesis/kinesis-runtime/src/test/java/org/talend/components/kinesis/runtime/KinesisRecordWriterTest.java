@@ -0,0 +1,151 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.kinesis.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.services.kinesis.AbstractAmazonKinesis;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+
+public class KinesisRecordWriterTest {
+
+    /**
+     * A stream which fails the first entries of the first requests, like a shard over its throughput.
+     */
+    private static class FailingKinesis extends AbstractAmazonKinesis {
+
+        private final List<Integer> requestSizes = new ArrayList<>();
+
+        private final List<byte[]> written = new ArrayList<>();
+
+        private final List<String> writtenPartitionKeys = new ArrayList<>();
+
+        private int failures;
+
+        FailingKinesis(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public PutRecordsResult putRecords(PutRecordsRequest request) {
+            requestSizes.add(request.getRecords().size());
+            List<PutRecordsResultEntry> entries = new ArrayList<>();
+            int failed = 0;
+            for (PutRecordsRequestEntry entry : request.getRecords()) {
+                if (failures > 0) {
+                    failures--;
+                    failed++;
+                    entries.add(new PutRecordsResultEntry().withErrorCode("ProvisionedThroughputExceededException"));
+                } else {
+                    ByteBuffer data = entry.getData();
+                    byte[] bytes = new byte[data.remaining()];
+                    data.get(bytes);
+                    written.add(bytes);
+                    writtenPartitionKeys.add(entry.getPartitionKey());
+                    entries.add(new PutRecordsResultEntry()
+                            .withShardId("shardId-000000000000")
+                            .withSequenceNumber("1"));
+                }
+            }
+            return new PutRecordsResult().withFailedRecordCount(failed).withRecords(entries);
+        }
+    }
+
+    @Test
+    public void testBatches() throws IOException {
+        FailingKinesis kinesis = new FailingKinesis(0);
+        KinesisRecordWriter writer = new KinesisRecordWriter(kinesis, "stream", null);
+        for (int i = 0; i < 1200; i++) {
+            writer.write("key" + i, String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.flush();
+
+        assertEquals(1200, writer.getRecordCount());
+        assertEquals(3, kinesis.requestSizes.size());
+        assertEquals(KinesisRecordWriter.MAX_RECORDS_PER_REQUEST, (int) kinesis.requestSizes.get(0));
+        assertEquals(200, (int) kinesis.requestSizes.get(2));
+    }
+
+    @Test
+    public void testRetryFailedEntries() throws IOException {
+        FailingKinesis kinesis = new FailingKinesis(2);
+        KinesisRecordWriter writer = new KinesisRecordWriter(kinesis, "stream", null);
+        for (int i = 0; i < 5; i++) {
+            writer.write("key", String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.flush();
+
+        // Only the 2 failed entries are sent again
+        assertEquals(2, kinesis.requestSizes.size());
+        assertEquals(2, (int) kinesis.requestSizes.get(1));
+        assertEquals(5, writer.getRecordCount());
+        assertEquals("0", new String(kinesis.written.get(3), StandardCharsets.UTF_8));
+        assertEquals("1", new String(kinesis.written.get(4), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAggregation() throws Exception {
+        FailingKinesis kinesis = new FailingKinesis(0);
+        KinesisRecordWriter writer = new KinesisRecordWriter(kinesis, "stream", new KinesisRecordAggregator(1024));
+        for (int i = 0; i < 100; i++) {
+            writer.write(null, String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.flush();
+
+        // The records without key are packed in a few Kinesis records of at most 1024 bytes, with a key each
+        assertEquals(1, kinesis.requestSizes.size());
+        assertEquals(2, kinesis.written.size());
+        assertNotEquals(kinesis.writtenPartitionKeys.get(0), kinesis.writtenPartitionKeys.get(1));
+        int count = 0;
+        for (int i = 0; i < kinesis.written.size(); i++) {
+            for (String[] record : KinesisRecordAggregatorTest.deaggregate(ByteBuffer.wrap(kinesis.written.get(i)))) {
+                assertEquals(kinesis.writtenPartitionKeys.get(i), record[0]);
+                count++;
+            }
+        }
+        assertEquals(100, count);
+    }
+
+    @Test
+    public void testAggregationPartitionKeys() throws Exception {
+        FailingKinesis kinesis = new FailingKinesis(0);
+        KinesisRecordWriter writer = new KinesisRecordWriter(kinesis, "stream", new KinesisRecordAggregator(1024));
+        for (int i = 0; i < 20; i++) {
+            writer.write("key" + (i / 10), String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.flush();
+
+        // The records of each key are packed together, and only with the records of this key
+        assertEquals(2, kinesis.written.size());
+        for (int i = 0; i < kinesis.written.size(); i++) {
+            assertEquals("key" + i, kinesis.writtenPartitionKeys.get(i));
+            List<String[]> records = KinesisRecordAggregatorTest.deaggregate(ByteBuffer.wrap(kinesis.written.get(i)));
+            assertEquals(10, records.size());
+            for (String[] record : records) {
+                assertEquals("key" + i, record[0]);
+            }
+        }
+    }
+}
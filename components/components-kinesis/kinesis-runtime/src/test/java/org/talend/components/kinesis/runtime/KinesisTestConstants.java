@@ -18,6 +18,7 @@ import org.talend.components.kinesis.KinesisDatasetProperties;
 import org.talend.components.kinesis.KinesisDatastoreProperties;
 import org.talend.components.kinesis.KinesisRegion;
 import org.talend.components.kinesis.input.KinesisInputProperties;
+import org.talend.components.kinesis.output.KinesisOutputProperties;
 
 public class KinesisTestConstants {
 
@@ -130,4 +131,17 @@ public class KinesisTestConstants {
         return input;
     }
 
+    public static KinesisOutputProperties getOutput(KinesisDatasetProperties dataset, String partitionKeyField,
+            boolean useAggregation) {
+        KinesisOutputProperties output = new KinesisOutputProperties("kinesisOutput");
+        output.init();
+        output.setDatasetProperties(dataset);
+        if (partitionKeyField != null) {
+            output.usePartitionKeyField.setValue(true);
+            output.partitionKeyField.setValue(partitionKeyField);
+        }
+        output.useAggregation.setValue(useAggregation);
+        return output;
+    }
+
 }
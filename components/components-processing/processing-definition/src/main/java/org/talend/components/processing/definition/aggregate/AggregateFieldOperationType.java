@@ -18,6 +18,21 @@ public enum AggregateFieldOperationType {
     MIN,
     // Output the max value of the elements in one group
     // the output type will be the same of input type
-    MAX
-    // For Sum/Avg/Min/Max if all the incoming value is null, the output will be null
+    MAX,
+    // Estimate the number of distinct non null elements in one group with a HyperLogLog sketch, the error is around 2%
+    // the output type will be Long
+    DISTINCT_COUNT,
+    // Estimate the median of the elements in one group with a quantiles sketch, the rank error is around 1%
+    // the output type will be the same of input type
+    MEDIAN,
+    // Estimate the 95th percentile of the elements in one group with a quantiles sketch
+    // the output type will be the same of input type
+    PERCENTILE_95,
+    // Estimate the 99th percentile of the elements in one group with a quantiles sketch
+    // the output type will be the same of input type
+    PERCENTILE_99,
+    // Estimate the 10 most frequent non null elements in one group with a space-saving sketch, most frequent first
+    // the output type will be List<InputType>
+    TOP_VALUES
+    // For Sum/Avg/Min/Max/Median/Percentile_95/Percentile_99 if all the incoming value is null, the output will be null
 }
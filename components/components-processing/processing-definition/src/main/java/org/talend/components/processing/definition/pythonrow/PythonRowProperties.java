@@ -42,6 +42,20 @@ public class PythonRowProperties extends FixedConnectorsComponentProperties {
 
     public Property<String> pythonCode = PropertyFactory.newString("pythonCode");
 
+    /** If true, the output records use the schemaFlow schema instead of a schema inferred from the first output. */
+    public Property<Boolean> changeOutputSchema = PropertyFactory.newBoolean("changeOutputSchema", false);
+
+    public SchemaProperties schemaFlow = new SchemaProperties("schemaFlow");
+
+    /**
+     * If true, the records are passed to the Python code as dict and list objects built directly from the Avro data, and
+     * several records are processed for each call to the interpreter, instead of going through JSON for every record.
+     */
+    public Property<Boolean> nativeRecords = PropertyFactory.newBoolean("nativeRecords", false);
+
+    /** The maximum number of records processed for each call to the interpreter when using nativeRecords. */
+    public Property<Integer> batchSize = PropertyFactory.newInteger("batchSize", 100);
+
     @Override
     public void setupLayout() {
         super.setupLayout();
@@ -50,6 +64,10 @@ public class PythonRowProperties extends FixedConnectorsComponentProperties {
         mainForm.addRow(mapType);
         mainForm.addRow(widget(pythonCode).setWidgetType(Widget.CODE_WIDGET_TYPE)
                 .setConfigurationValue(Widget.CODE_SYNTAX_WIDGET_CONF, "python"));
+        mainForm.addRow(changeOutputSchema);
+        mainForm.addRow(schemaFlow.getForm(Form.REFERENCE));
+        mainForm.addRow(nativeRecords);
+        mainForm.addRow(batchSize);
     }
 
     @Override
@@ -62,12 +80,24 @@ public class PythonRowProperties extends FixedConnectorsComponentProperties {
     @Override
     public void refreshLayout(Form form) {
         super.refreshLayout(form);
+        if (form.getName().equals(Form.MAIN)) {
+            form.getWidget(schemaFlow.getName()).setVisible(changeOutputSchema);
+            form.getWidget(batchSize.getName()).setVisible(nativeRecords);
+        }
     }
 
     public void afterChangeSchema() {
         refreshLayout(getForm(Form.MAIN));
     }
 
+    public void afterChangeOutputSchema() {
+        refreshLayout(getForm(Form.MAIN));
+    }
+
+    public void afterNativeRecords() {
+        refreshLayout(getForm(Form.MAIN));
+    }
+
     public void afterMapType() {
         if (MapType.MAP.equals(mapType.getValue())) {
             StringBuilder sb = new StringBuilder();
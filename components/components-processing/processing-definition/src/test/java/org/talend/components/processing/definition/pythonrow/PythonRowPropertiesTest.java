@@ -102,6 +102,26 @@ public class PythonRowPropertiesTest {
         properties.refreshLayout(form);
         assertTrue(form.getWidget(properties.mapType).isVisible());
         assertTrue(form.getWidget(properties.pythonCode).isVisible());
+        assertTrue(form.getWidget(properties.changeOutputSchema).isVisible());
+        assertFalse(form.getWidget(properties.schemaFlow.getName()).isVisible());
+        assertTrue(form.getWidget(properties.nativeRecords).isVisible());
+        assertFalse(form.getWidget(properties.batchSize).isVisible());
+    }
+
+    @Test
+    public void testRefreshLayoutMainNativeRecords() {
+
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+
+        properties.changeOutputSchema.setValue(true);
+        properties.afterChangeOutputSchema();
+        properties.nativeRecords.setValue(true);
+        properties.afterNativeRecords();
+
+        Form form = properties.getForm(Form.MAIN);
+        assertTrue(form.getWidget(properties.schemaFlow.getName()).isVisible());
+        assertTrue(form.getWidget(properties.batchSize).isVisible());
     }
 
     @Test
@@ -133,7 +153,7 @@ public class PythonRowPropertiesTest {
     /**
      * Checks {@link PythonRowProperties#setupLayout()} creates a main form:
      * 
-     * Checks {@link PythonRowProperties#setupLayout()} creates Main form, which contains 5 widgets and checks widgets
+     * Checks {@link PythonRowProperties#setupLayout()} creates Main form, which contains 7 widgets and checks widgets
      * names
      */
     @Test
@@ -147,13 +167,17 @@ public class PythonRowPropertiesTest {
         assertThat(main, notNullValue());
 
         Collection<Widget> mainWidgets = main.getWidgets();
-        assertThat(mainWidgets, hasSize(3));
+        assertThat(mainWidgets, hasSize(7));
         Widget mainWidget = main.getWidget("main");
         assertThat(mainWidget, notNullValue());
         Widget columnNameWidget = main.getWidget("mapType");
         assertThat(columnNameWidget, notNullValue());
         Widget function = main.getWidget("pythonCode");
         assertThat(function, notNullValue());
+        assertThat(main.getWidget("changeOutputSchema"), notNullValue());
+        assertThat(main.getWidget("schemaFlow"), notNullValue());
+        assertThat(main.getWidget("nativeRecords"), notNullValue());
+        assertThat(main.getWidget("batchSize"), notNullValue());
     }
 
     /**
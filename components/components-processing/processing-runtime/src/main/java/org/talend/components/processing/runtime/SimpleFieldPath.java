@@ -0,0 +1,87 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime;
+
+import java.io.Serializable;
+import java.util.regex.Pattern;
+
+import org.apache.avro.Schema;
+import org.apache.commons.lang3.StringUtils;
+import org.talend.daikon.avro.AvroUtils;
+
+/**
+ * A simple path (i.e. <code>.a</code> or <code>.a.b.c</code> without any predicate, wildcard or array access), which
+ * only selects nested record fields by name.
+ *
+ * Such a path can be resolved once against a schema to the field positions to follow from the root record, so that its
+ * value is read directly from every record of this schema instead of being evaluated with avpath.
+ */
+public final class SimpleFieldPath implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(\\.[A-Za-z_][A-Za-z0-9_]*)+");
+
+    private final String[] fieldNames;
+
+    private SimpleFieldPath(String[] fieldNames) {
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * @param path an avpath expression, starting with a dot.
+     * @return the simple path, or null if the expression is not a simple path and must be evaluated with avpath.
+     */
+    public static SimpleFieldPath parse(String path) {
+        if (path == null || !SIMPLE_PATH.matcher(path).matches()) {
+            return null;
+        }
+        return new SimpleFieldPath(StringUtils.split(path, '.'));
+    }
+
+    /**
+     * @param schema the schema of the root record.
+     * @return the field positions to follow from the root record to the value, or null if the path doesn't lead to a
+     * field of this schema.
+     */
+    public int[] resolve(Schema schema) {
+        int[] resolved = new int[fieldNames.length];
+        Schema current = schema;
+        for (int i = 0; i < fieldNames.length; i++) {
+            current = AvroUtils.unwrapIfNullable(current);
+            if (current.getType() != Schema.Type.RECORD) {
+                return null;
+            }
+            Schema.Field field = current.getField(fieldNames[i]);
+            if (field == null) {
+                return null;
+            }
+            resolved[i] = field.pos();
+            current = field.schema();
+        }
+        return resolved;
+    }
+
+    /**
+     * @param schema the schema of the root record.
+     * @param positions the field positions returned by {@link #resolve(Schema)} for this schema.
+     * @return the schema of the field the positions lead to.
+     */
+    public static Schema getFieldSchema(Schema schema, int[] positions) {
+        Schema current = schema;
+        for (int pos : positions) {
+            current = AvroUtils.unwrapIfNullable(current).getFields().get(pos).schema();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,364 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.aggregate;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.util.VarInt;
+import org.talend.components.adapter.beam.coders.AvroSchemaCache;
+import org.talend.components.adapter.beam.coders.AvroSchemaRegistry;
+import org.talend.components.adapter.beam.coders.LazyAvroCoder;
+import org.talend.components.processing.definition.aggregate.AggregateProperties;
+import org.talend.components.processing.runtime.aggregate.AggregateCombineFn.AccumulatorElement;
+import org.talend.components.processing.runtime.aggregate.AggregateCombineFn.AccumulatorFn;
+import org.talend.components.processing.runtime.aggregate.AggregateCombineFn.AggregateAccumulator;
+
+/**
+ * Encode the {@link AggregateAccumulator} when it is shuffled between the partial and the final combine.
+ *
+ * Instead of relying on Java serialization, the state of the numeric accumulators is written as primitive values and the
+ * operation properties are not written at all: they are the same for every accumulator and are rebuilt from the
+ * {@link AggregateProperties} known by the coder. The schemas are written with their fingerprint, so that they are only
+ * parsed once per JVM when decoding (see {@link AvroSchemaCache}). When the job shares its schemas between the nodes
+ * with an {@link AvroSchemaRegistry}, the schemas are stored once in the registry and only their fingerprint is written.
+ */
+public class AggregateAccumulatorCoder extends CustomCoder<AggregateAccumulator> {
+
+    private static final byte NULL = 0;
+
+    private static final byte COUNT = 1;
+
+    private static final byte AVG = 2;
+
+    private static final byte LIST = 3;
+
+    private static final byte SUM_LONG = 4;
+
+    private static final byte SUM_DOUBLE = 5;
+
+    private static final byte MIN_INTEGER = 6;
+
+    private static final byte MIN_LONG = 7;
+
+    private static final byte MIN_FLOAT = 8;
+
+    private static final byte MIN_DOUBLE = 9;
+
+    private static final byte MAX_INTEGER = 10;
+
+    private static final byte MAX_LONG = 11;
+
+    private static final byte MAX_FLOAT = 12;
+
+    private static final byte MAX_DOUBLE = 13;
+
+    private static final byte DISTINCT_COUNT = 14;
+
+    private static final byte QUANTILE = 15;
+
+    private static final byte TOP_VALUES = 16;
+
+    /** The length written instead of the JSON of a schema stored in the registry. */
+    private static final int FINGERPRINT_ONLY = -2;
+
+    private static final NullableCoder<String> SCHEMA_STR_CODER = NullableCoder.of(StringUtf8Coder.of());
+
+    private final AggregateProperties properties;
+
+    /** The registry shared by all of the nodes, or null if the schemas are written with each accumulator. */
+    private final AvroSchemaRegistry schemaRegistry;
+
+    /** The fingerprints of the schemas already stored in the registry by this coder. */
+    private transient Set<Long> registeredFingerprints;
+
+    public AggregateAccumulatorCoder(AggregateProperties properties) {
+        this.properties = properties;
+        this.schemaRegistry = LazyAvroCoder.getSchemaRegistry();
+    }
+
+    @Override
+    public void encode(AggregateAccumulator value, OutputStream outStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outStream);
+        encodeSchema(value.outputRecordSchema, value.outputRecordSchemaFingerprint, out);
+        for (AccumulatorElement element : value.accumulatorElements) {
+            encodeSchema(element.outputFieldSchema, element.outputFieldSchemaFingerprint, out);
+            encodeAccumulatorFn(element.accumulatorFn, out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public AggregateAccumulator decode(InputStream inStream) throws IOException {
+        DataInputStream in = new DataInputStream(inStream);
+        AggregateAccumulator accumulator = new AggregateAccumulator(properties);
+        accumulator.outputRecordSchemaFingerprint = in.readLong();
+        accumulator.outputRecordSchema = decodeSchema(accumulator.outputRecordSchemaFingerprint, in);
+        for (AccumulatorElement element : accumulator.accumulatorElements) {
+            element.outputFieldSchemaFingerprint = in.readLong();
+            element.outputFieldSchema = decodeSchema(element.outputFieldSchemaFingerprint, in);
+            element.accumulatorFn = decodeAccumulatorFn(in);
+        }
+        return accumulator;
+    }
+
+    private void encodeSchema(Schema schema, long fingerprint, DataOutputStream out) throws IOException {
+        if (schema == null) {
+            out.writeLong(0L);
+            VarInt.encode(-1, out);
+            return;
+        }
+        byte[] json = AvroSchemaCache.getJson(fingerprint);
+        if (json == null) {
+            fingerprint = AvroSchemaCache.register(schema);
+            json = AvroSchemaCache.getJson(fingerprint);
+        }
+        out.writeLong(fingerprint);
+        if (schemaRegistry != null) {
+            Set<Long> registered = getRegisteredFingerprints();
+            if (!registered.contains(fingerprint)) {
+                schemaRegistry.put(fingerprint, json);
+                registered.add(fingerprint);
+            }
+            VarInt.encode(FINGERPRINT_ONLY, out);
+            return;
+        }
+        VarInt.encode(json.length, out);
+        out.write(json);
+    }
+
+    private synchronized Set<Long> getRegisteredFingerprints() {
+        if (registeredFingerprints == null) {
+            registeredFingerprints = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        }
+        return registeredFingerprints;
+    }
+
+    private Schema decodeSchema(long fingerprint, DataInputStream in) throws IOException {
+        int length = VarInt.decodeInt(in);
+        if (length == FINGERPRINT_ONLY) {
+            return getRegisteredSchema(fingerprint);
+        }
+        if (length < 0) {
+            return null;
+        }
+        Schema schema = AvroSchemaCache.getSchema(fingerprint);
+        if (schema != null) {
+            skipFully(in, length);
+            return schema;
+        }
+        byte[] json = new byte[length];
+        in.readFully(json);
+        return AvroSchemaCache.getOrParse(fingerprint, json);
+    }
+
+    private Schema getRegisteredSchema(long fingerprint) throws IOException {
+        Schema schema = AvroSchemaCache.getSchema(fingerprint);
+        if (schema == null && schemaRegistry != null) {
+            byte[] json = schemaRegistry.get(fingerprint);
+            if (json != null) {
+                schema = AvroSchemaCache.getOrParse(fingerprint, json);
+            }
+        }
+        if (schema == null) {
+            throw new CoderException("No schema found with the fingerprint " + Long.toHexString(fingerprint));
+        }
+        return schema;
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        while (length > 0) {
+            int skipped = in.skipBytes(length);
+            if (skipped == 0) {
+                // skipBytes doesn't tell the end of the stream from a stream which can't skip, readByte does
+                in.readByte();
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    private void encodeAccumulatorFn(AccumulatorFn accumulatorFn, DataOutputStream out) throws IOException {
+        if (accumulatorFn == null) {
+            out.writeByte(NULL);
+        } else if (accumulatorFn instanceof AggregateCombineFn.CountAccumulatorFn) {
+            out.writeByte(COUNT);
+            VarInt.encode(((AggregateCombineFn.CountAccumulatorFn) accumulatorFn).accs, out);
+        } else if (accumulatorFn instanceof AggregateCombineFn.AvgAccumulatorFn) {
+            AggregateCombineFn.AvgAcc acc = ((AggregateCombineFn.AvgAccumulatorFn) accumulatorFn).accs;
+            out.writeByte(AVG);
+            out.writeBoolean(acc.hasSum);
+            out.writeDouble(acc.sum);
+            VarInt.encode(acc.count, out);
+        } else if (accumulatorFn instanceof AggregateCombineFn.ListAccumulatorFn) {
+            AggregateCombineFn.ListAccumulatorFn listFn = (AggregateCombineFn.ListAccumulatorFn) accumulatorFn;
+            out.writeByte(LIST);
+            SCHEMA_STR_CODER.encode(listFn.avroSchemaStr, out);
+            listFn.getAccumulatorCoder().encode(listFn.accs, out);
+        } else if (accumulatorFn instanceof AggregateCombineFn.DistinctCountAccumulatorFn) {
+            out.writeByte(DISTINCT_COUNT);
+            ((AggregateCombineFn.DistinctCountAccumulatorFn) accumulatorFn).accs.encode(out);
+        } else if (accumulatorFn instanceof AggregateCombineFn.QuantileAccumulatorFn) {
+            AggregateCombineFn.QuantileAccumulatorFn quantileFn =
+                    (AggregateCombineFn.QuantileAccumulatorFn) accumulatorFn;
+            out.writeByte(QUANTILE);
+            out.writeUTF(quantileFn.inputType.name());
+            out.writeByte(quantileFn.percentile);
+            quantileFn.getAccumulatorCoder().encode(quantileFn.accs, out);
+        } else if (accumulatorFn instanceof AggregateCombineFn.TopValuesAccumulatorFn) {
+            AggregateCombineFn.TopValuesAccumulatorFn topFn = (AggregateCombineFn.TopValuesAccumulatorFn) accumulatorFn;
+            out.writeByte(TOP_VALUES);
+            encodeSchema(topFn.valueSchema, topFn.valueSchemaFingerprint, out);
+            topFn.accs.encode(out, topFn.valueSchema);
+        } else if (accumulatorFn instanceof AggregateCombineFn.PrimitiveAccumulatorFn) {
+            out.writeByte(getPrimitiveType(accumulatorFn));
+            out.writeBoolean(((AggregateCombineFn.PrimitiveAccumulatorFn) accumulatorFn).isEmpty);
+            if (accumulatorFn instanceof AggregateCombineFn.IntegerAccumulatorFn) {
+                out.writeInt(((AggregateCombineFn.IntegerAccumulatorFn) accumulatorFn).accs);
+            } else if (accumulatorFn instanceof AggregateCombineFn.LongAccumulatorFn) {
+                out.writeLong(((AggregateCombineFn.LongAccumulatorFn) accumulatorFn).accs);
+            } else if (accumulatorFn instanceof AggregateCombineFn.FloatAccumulatorFn) {
+                out.writeFloat(((AggregateCombineFn.FloatAccumulatorFn) accumulatorFn).accs);
+            } else {
+                out.writeDouble(((AggregateCombineFn.DoubleAccumulatorFn) accumulatorFn).accs);
+            }
+        } else {
+            throw new CoderException("Unsupported accumulator " + accumulatorFn.getClass().getName());
+        }
+    }
+
+    private AccumulatorFn decodeAccumulatorFn(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case NULL:
+            return null;
+        case COUNT: {
+            AggregateCombineFn.CountAccumulatorFn fn = new AggregateCombineFn.CountAccumulatorFn();
+            fn.accs = VarInt.decodeLong(in);
+            return fn;
+        }
+        case AVG: {
+            AggregateCombineFn.AvgAccumulatorFn fn = new AggregateCombineFn.AvgAccumulatorFn();
+            fn.createAccumulator();
+            fn.accs.hasSum = in.readBoolean();
+            fn.accs.sum = in.readDouble();
+            fn.accs.count = VarInt.decodeLong(in);
+            return fn;
+        }
+        case LIST: {
+            AggregateCombineFn.ListAccumulatorFn fn = new AggregateCombineFn.ListAccumulatorFn();
+            fn.avroSchemaStr = SCHEMA_STR_CODER.decode(in);
+            fn.accs = (List) fn.getAccumulatorCoder().decode(in);
+            return fn;
+        }
+        case DISTINCT_COUNT: {
+            AggregateCombineFn.DistinctCountAccumulatorFn fn = new AggregateCombineFn.DistinctCountAccumulatorFn();
+            fn.accs = HyperLogLogSketch.decode(in);
+            return fn;
+        }
+        case QUANTILE: {
+            Schema.Type inputType = Schema.Type.valueOf(in.readUTF());
+            AggregateCombineFn.QuantileAccumulatorFn fn =
+                    new AggregateCombineFn.QuantileAccumulatorFn(inputType, in.readByte());
+            fn.accs = fn.getAccumulatorCoder().decode(in);
+            return fn;
+        }
+        case TOP_VALUES: {
+            long fingerprint = in.readLong();
+            Schema valueSchema = decodeSchema(fingerprint, in);
+            AggregateCombineFn.TopValuesAccumulatorFn fn =
+                    new AggregateCombineFn.TopValuesAccumulatorFn(valueSchema, fingerprint);
+            fn.accs = SpaceSavingSketch.decode(in, AggregateCombineFn.TopValuesAccumulatorFn.CAPACITY, valueSchema);
+            return fn;
+        }
+        default:
+            AggregateCombineFn.PrimitiveAccumulatorFn fn = createPrimitiveAccumulatorFn(type);
+            fn.isEmpty = in.readBoolean();
+            if (fn instanceof AggregateCombineFn.IntegerAccumulatorFn) {
+                ((AggregateCombineFn.IntegerAccumulatorFn) fn).accs = in.readInt();
+            } else if (fn instanceof AggregateCombineFn.LongAccumulatorFn) {
+                ((AggregateCombineFn.LongAccumulatorFn) fn).accs = in.readLong();
+            } else if (fn instanceof AggregateCombineFn.FloatAccumulatorFn) {
+                ((AggregateCombineFn.FloatAccumulatorFn) fn).accs = in.readFloat();
+            } else {
+                ((AggregateCombineFn.DoubleAccumulatorFn) fn).accs = in.readDouble();
+            }
+            return fn;
+        }
+    }
+
+    private static byte getPrimitiveType(AccumulatorFn accumulatorFn) throws CoderException {
+        if (accumulatorFn instanceof AggregateCombineFn.SumLongAccumulatorFn) {
+            return SUM_LONG;
+        } else if (accumulatorFn instanceof AggregateCombineFn.SumDoubleAccumulatorFn) {
+            return SUM_DOUBLE;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MinIntegerAccumulatorFn) {
+            return MIN_INTEGER;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MinLongAccumulatorFn) {
+            return MIN_LONG;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MinFloatAccumulatorFn) {
+            return MIN_FLOAT;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MinDoubleAccumulatorFn) {
+            return MIN_DOUBLE;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MaxIntegerAccumulatorFn) {
+            return MAX_INTEGER;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MaxLongAccumulatorFn) {
+            return MAX_LONG;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MaxFloatAccumulatorFn) {
+            return MAX_FLOAT;
+        } else if (accumulatorFn instanceof AggregateCombineFn.MaxDoubleAccumulatorFn) {
+            return MAX_DOUBLE;
+        }
+        throw new CoderException("Unsupported accumulator " + accumulatorFn.getClass().getName());
+    }
+
+    private static AggregateCombineFn.PrimitiveAccumulatorFn createPrimitiveAccumulatorFn(byte type)
+            throws CoderException {
+        switch (type) {
+        case SUM_LONG:
+            return new AggregateCombineFn.SumLongAccumulatorFn();
+        case SUM_DOUBLE:
+            return new AggregateCombineFn.SumDoubleAccumulatorFn();
+        case MIN_INTEGER:
+            return new AggregateCombineFn.MinIntegerAccumulatorFn();
+        case MIN_LONG:
+            return new AggregateCombineFn.MinLongAccumulatorFn();
+        case MIN_FLOAT:
+            return new AggregateCombineFn.MinFloatAccumulatorFn();
+        case MIN_DOUBLE:
+            return new AggregateCombineFn.MinDoubleAccumulatorFn();
+        case MAX_INTEGER:
+            return new AggregateCombineFn.MaxIntegerAccumulatorFn();
+        case MAX_LONG:
+            return new AggregateCombineFn.MaxLongAccumulatorFn();
+        case MAX_FLOAT:
+            return new AggregateCombineFn.MaxFloatAccumulatorFn();
+        case MAX_DOUBLE:
+            return new AggregateCombineFn.MaxDoubleAccumulatorFn();
+        default:
+            throw new CoderException("Unknown accumulator type " + type);
+        }
+    }
+}
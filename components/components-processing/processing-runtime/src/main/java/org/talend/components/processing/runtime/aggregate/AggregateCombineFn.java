@@ -13,10 +13,15 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.beam.sdk.coders.AvroCoder;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderRegistry;
+import org.apache.beam.sdk.coders.DoubleCoder;
 import org.apache.beam.sdk.coders.ListCoder;
 import org.apache.beam.sdk.coders.NullableCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.transforms.ApproximateQuantiles.ApproximateQuantilesCombineFn;
 import org.apache.beam.sdk.transforms.Combine;
+import org.talend.components.adapter.beam.coders.AvroSchemaCache;
 import org.talend.components.adapter.beam.kv.KeyValueUtils;
 import org.talend.components.adapter.beam.kv.SchemaGeneratorUtils;
 import org.talend.components.processing.definition.aggregate.AggregateFieldOperationType;
@@ -31,6 +36,9 @@ public class AggregateCombineFn
 
     private AggregateProperties properties;
 
+    // the schemas generated for the last input schema, shared by all the accumulators created by this function
+    private transient OutputSchemas outputSchemas;
+
     public AggregateCombineFn(AggregateProperties properties) {
         this.properties = properties;
     }
@@ -40,26 +48,45 @@ public class AggregateCombineFn
         return new AggregateAccumulator(properties);
     }
 
+    @Override
+    public Coder<AggregateAccumulator> getAccumulatorCoder(CoderRegistry registry, Coder<IndexedRecord> inputCoder) {
+        return new AggregateAccumulatorCoder(properties);
+    }
+
     @Override
     public AggregateAccumulator addInput(AggregateAccumulator accumulator, IndexedRecord inputRecord) {
-        if (accumulator.outputRecordSchemaStr == null) {
-            accumulator.outputRecordSchemaStr =
-                    AggregateUtils.genOutputRecordSchema(inputRecord.getSchema(), properties).toString();
+        OutputSchemas schemas = getOutputSchemas(inputRecord.getSchema());
+        if (accumulator.outputRecordSchema == null) {
+            accumulator.outputRecordSchema = schemas.outputRecordSchema;
+            accumulator.outputRecordSchemaFingerprint = schemas.outputRecordSchemaFingerprint;
         }
-        for (AccumulatorElement accumulatorElement : accumulator.accumulatorElements) {
-            accumulatorElement.addInput(inputRecord);
+        for (int idx = 0; idx < accumulator.accumulatorElements.size(); idx++) {
+            accumulator.accumulatorElements.get(idx).addInput(inputRecord, schemas.outputFieldSchemas[idx],
+                    schemas.outputFieldSchemaFingerprints[idx], schemas.inputFieldSchemas[idx]);
         }
         return accumulator;
     }
 
+    /**
+     * Generating the output schemas is expensive, and all the keys of a group by usually share the same input schema, so
+     * they are only generated again when the input schema changes.
+     */
+    private OutputSchemas getOutputSchemas(Schema inputRecordSchema) {
+        if (outputSchemas == null || !outputSchemas.inputRecordSchema.equals(inputRecordSchema)) {
+            outputSchemas = new OutputSchemas(inputRecordSchema, properties);
+        }
+        return outputSchemas;
+    }
+
     @Override
     public AggregateAccumulator mergeAccumulators(Iterable<AggregateAccumulator> accumulators) {
         AggregateAccumulator deltaAcc = createAccumulator();
         for (int idx = 0; idx < properties.filteredOperations().size(); idx++) {
             List accs = new ArrayList();
             for (AggregateAccumulator accumulator : accumulators) {
-                if (deltaAcc.outputRecordSchemaStr == null) {
-                    deltaAcc.outputRecordSchemaStr = accumulator.outputRecordSchemaStr;
+                if (deltaAcc.outputRecordSchema == null) {
+                    deltaAcc.outputRecordSchema = accumulator.outputRecordSchema;
+                    deltaAcc.outputRecordSchemaFingerprint = accumulator.outputRecordSchemaFingerprint;
                 }
                 accs.add(accumulator.accumulatorElements.get(idx));
             }
@@ -71,11 +98,10 @@ public class AggregateCombineFn
     @Override
     public IndexedRecord extractOutput(AggregateAccumulator accumulator) {
         // this method can be invoked even addInput not, return null, and filter null value in next PTransform
-        if (accumulator.outputRecordSchemaStr == null) {
+        if (accumulator.outputRecordSchema == null) {
             return null;
         }
-        Schema.Parser parser = new Schema.Parser();
-        Schema outputRecordSchema = parser.parse(accumulator.outputRecordSchemaStr);
+        Schema outputRecordSchema = accumulator.outputRecordSchema;
         IndexedRecord outputRecord = new GenericData.Record(outputRecordSchema);
         for (AccumulatorElement accumulatorElement : accumulator.accumulatorElements) {
             IndexedRecord outputFieldRecord = accumulatorElement.extractOutput();
@@ -86,14 +112,55 @@ public class AggregateCombineFn
         return outputRecord;
     }
 
-    // Implements Serializable to make sure use SerializableCoder
-    public static class AggregateAccumulator implements Serializable {
+    /**
+     * The schemas generated from one input schema.
+     */
+    private static class OutputSchemas {
+
+        private final Schema inputRecordSchema;
+
+        private final Schema outputRecordSchema;
+
+        private final long outputRecordSchemaFingerprint;
+
+        private final Schema[] outputFieldSchemas;
+
+        private final long[] outputFieldSchemaFingerprints;
+
+        private final Schema[] inputFieldSchemas;
+
+        private OutputSchemas(Schema inputRecordSchema, AggregateProperties properties) {
+            List<AggregateOperationProperties> operations = properties.filteredOperations();
+            this.inputRecordSchema = inputRecordSchema;
+            this.outputRecordSchema = AggregateUtils.genOutputRecordSchema(inputRecordSchema, properties);
+            this.outputRecordSchemaFingerprint = AvroSchemaCache.register(outputRecordSchema);
+            this.outputFieldSchemas = new Schema[operations.size()];
+            this.outputFieldSchemaFingerprints = new long[operations.size()];
+            this.inputFieldSchemas = new Schema[operations.size()];
+            for (int idx = 0; idx < operations.size(); idx++) {
+                AggregateOperationProperties optProps = operations.get(idx);
+                outputFieldSchemas[idx] = AggregateUtils.genOutputFieldSchema(inputRecordSchema, optProps);
+                outputFieldSchemaFingerprints[idx] = AvroSchemaCache.register(outputFieldSchemas[idx]);
+                inputFieldSchemas[idx] = SchemaGeneratorUtils
+                        .retrieveFieldFromJsonPath(inputRecordSchema, optProps.fieldPath.getValue())
+                        .schema();
+            }
+        }
+    }
+
+    /**
+     * The accumulator is encoded by the {@link AggregateAccumulatorCoder} when it is shuffled.
+     */
+    public static class AggregateAccumulator {
 
         // for merge the final output record, init by first coming record
-        private String outputRecordSchemaStr;
+        Schema outputRecordSchema;
+
+        // the fingerprint of outputRecordSchema in the AvroSchemaCache
+        long outputRecordSchemaFingerprint;
 
         // based on the defined operationType group
-        private List<AccumulatorElement> accumulatorElements;
+        List<AccumulatorElement> accumulatorElements;
 
         public AggregateAccumulator(AggregateProperties properties) {
             List<AccumulatorElement> accs = new ArrayList();
@@ -104,7 +171,7 @@ public class AggregateCombineFn
         }
     }
 
-    public static class AccumulatorElement implements Serializable {
+    public static class AccumulatorElement {
 
         AggregateOperationProperties optProps;
 
@@ -117,7 +184,10 @@ public class AggregateCombineFn
         // init by first coming record
         AccumulatorFn accumulatorFn;
 
-        String outputFieldSchemaStr;
+        Schema outputFieldSchema;
+
+        // the fingerprint of outputFieldSchema in the AvroSchemaCache
+        long outputFieldSchemaFingerprint;
 
         public AccumulatorElement(AggregateOperationProperties optProps) {
             this.optProps = optProps;
@@ -127,15 +197,30 @@ public class AggregateCombineFn
         }
 
         public void addInput(IndexedRecord inputRecord) {
-            if (this.outputFieldSchemaStr == null) {
-                this.outputFieldSchemaStr =
-                        AggregateUtils.genOutputFieldSchema(inputRecord.getSchema(), optProps).toString();
+            Schema outputFieldSchema = this.outputFieldSchema;
+            if (outputFieldSchema == null) {
+                outputFieldSchema = AggregateUtils.genOutputFieldSchema(inputRecord.getSchema(), optProps);
             }
-            GenericData.Record inputField = KeyValueUtils.getField(inputFieldPath, inputRecord);
+            Schema inputFieldSchema = null;
             if (accumulatorFn == null) {
-                Schema inputFieldSchema = SchemaGeneratorUtils
+                inputFieldSchema = SchemaGeneratorUtils
                         .retrieveFieldFromJsonPath(inputRecord.getSchema(), this.inputFieldPath)
                         .schema();
+            }
+            addInput(inputRecord, outputFieldSchema, AvroSchemaCache.register(outputFieldSchema), inputFieldSchema);
+        }
+
+        /**
+         * Add the input record with schemas that were already generated for the schema of the record.
+         */
+        void addInput(IndexedRecord inputRecord, Schema outputFieldSchema, long outputFieldSchemaFingerprint,
+                Schema inputFieldSchema) {
+            if (this.outputFieldSchema == null) {
+                this.outputFieldSchema = outputFieldSchema;
+                this.outputFieldSchemaFingerprint = outputFieldSchemaFingerprint;
+            }
+            GenericData.Record inputField = KeyValueUtils.getField(inputFieldPath, inputRecord);
+            if (accumulatorFn == null) {
                 accumulatorFn = getProperCombineFn(inputFieldSchema, operationType);
                 accumulatorFn.createAccumulator();
             }
@@ -148,8 +233,9 @@ public class AggregateCombineFn
                 List accs = new ArrayList();
                 while (iterator.hasNext()) {
                     AccumulatorElement next = iterator.next();
-                    if (this.outputFieldSchemaStr == null) {
-                        this.outputFieldSchemaStr = next.outputFieldSchemaStr;
+                    if (this.outputFieldSchema == null) {
+                        this.outputFieldSchema = next.outputFieldSchema;
+                        this.outputFieldSchemaFingerprint = next.outputFieldSchemaFingerprint;
                     }
                     if (this.accumulatorFn == null) {
                         this.accumulatorFn = next.accumulatorFn;
@@ -164,8 +250,6 @@ public class AggregateCombineFn
         }
 
         public IndexedRecord extractOutput() {
-            Schema.Parser parser = new Schema.Parser();
-            Schema outputFieldSchema = parser.parse(outputFieldSchemaStr);
             GenericData.Record outputFieldRecord = new GenericData.Record(outputFieldSchema);
             AggregateUtils.setField(outputFieldPath, this.accumulatorFn.extractOutput(), outputFieldRecord);
             return outputFieldRecord;
@@ -199,6 +283,8 @@ public class AggregateCombineFn
                 } else if (AvroUtils.isSameType(inputFieldSchema, AvroUtils._double())) {
                     return new MinDoubleAccumulatorFn();
                 }
+                TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).throwIt();
+                return null;
             case MAX:
                 if (AvroUtils.isSameType(inputFieldSchema, AvroUtils._int())) {
                     return new MaxIntegerAccumulatorFn();
@@ -209,10 +295,38 @@ public class AggregateCombineFn
                 } else if (AvroUtils.isSameType(inputFieldSchema, AvroUtils._double())) {
                     return new MaxDoubleAccumulatorFn();
                 }
+                TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).throwIt();
+                return null;
+            case DISTINCT_COUNT:
+                return new DistinctCountAccumulatorFn();
+            case MEDIAN:
+                return new QuantileAccumulatorFn(getNumericType(inputFieldSchema), 50);
+            case PERCENTILE_95:
+                return new QuantileAccumulatorFn(getNumericType(inputFieldSchema), 95);
+            case PERCENTILE_99:
+                return new QuantileAccumulatorFn(getNumericType(inputFieldSchema), 99);
+            case TOP_VALUES:
+                return new TopValuesAccumulatorFn(inputFieldSchema);
             }
             TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).throwIt();
             return null;
         }
+
+        /**
+         * @return the type of a numeric field, the percentiles can't be computed on the other fields.
+         */
+        private Schema.Type getNumericType(Schema inputFieldSchema) {
+            switch (inputFieldSchema.getType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return inputFieldSchema.getType();
+            default:
+                TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).throwIt();
+                return null;
+            }
+        }
     }
 
     public interface AccumulatorFn<AccumT, OutputT> extends Serializable {
@@ -231,9 +345,12 @@ public class AggregateCombineFn
 
     public static class AvgAcc implements Serializable {
 
-        Double sum;
+        double sum;
 
-        Long count = 0l;
+        // false until a non null value is added, the average of only null values is null
+        boolean hasSum;
+
+        long count;
     }
 
     public static class AvgAccumulatorFn implements AccumulatorFn<AvgAcc, Double> {
@@ -248,8 +365,8 @@ public class AggregateCombineFn
         @Override
         public void addInput(GenericData.Record inputValue) {
             if (inputValue != null && inputValue.get(0) != null) {
-                Double value = Double.valueOf(String.valueOf(inputValue.get(0)));
-                accs.sum = accs.sum == null ? value : accs.sum + value;
+                accs.sum += toDouble(inputValue.get(0));
+                accs.hasSum = true;
             }
             accs.count += 1;
         }
@@ -257,8 +374,9 @@ public class AggregateCombineFn
         @Override
         public void mergeAccumulators(Iterable<AvgAcc> accsList) {
             for (AvgAcc acc : accsList) {
-                if (acc.sum != null) {
-                    accs.sum = accs.sum == null ? acc.sum : accs.sum + acc.sum;
+                if (acc.hasSum) {
+                    accs.sum += acc.sum;
+                    accs.hasSum = true;
                 }
                 this.accs.count += acc.count;
             }
@@ -271,14 +389,53 @@ public class AggregateCombineFn
 
         @Override
         public Double extractOutput() {
-            return accs.sum == null ? null : (accs.count == 0l ? 0.0 : accs.sum / accs.count);
+            return !accs.hasSum ? null : (accs.count == 0l ? 0.0 : accs.sum / accs.count);
+        }
+
+    }
+
+    /**
+     * Convert an input value to a double, with the same result as parsing its string representation.
+     */
+    static double toDouble(Object inputValue) {
+        if (inputValue instanceof Double || inputValue instanceof Integer || inputValue instanceof Long) {
+            return ((Number) inputValue).doubleValue();
+        }
+        // keep the decimal representation of floats, i.e. 1.1f is added as 1.1
+        return Double.parseDouble(String.valueOf(inputValue));
+    }
+
+    static long toLong(Object inputValue) {
+        if (inputValue instanceof Long || inputValue instanceof Integer) {
+            return ((Number) inputValue).longValue();
+        }
+        return Long.parseLong(String.valueOf(inputValue));
+    }
+
+    static int toInt(Object inputValue) {
+        if (inputValue instanceof Integer) {
+            return (Integer) inputValue;
         }
+        return Integer.parseInt(String.valueOf(inputValue));
+    }
 
+    static float toFloat(Object inputValue) {
+        if (inputValue instanceof Float) {
+            return (Float) inputValue;
+        }
+        return Float.parseFloat(String.valueOf(inputValue));
     }
 
-    public static abstract class AccumulatorFnAbstract<T> implements AccumulatorFn<T, T> {
+    /**
+     * Base class for the accumulators that combine non null values into one primitive value, without boxing them for every
+     * input.
+     *
+     * The subclasses store the current value in a primitive field, and {@link #isEmpty} is true until the first non null
+     * value is added.
+     */
+    public static abstract class PrimitiveAccumulatorFn<T> implements AccumulatorFn<T, T> {
 
-        T accs;
+        boolean isEmpty = true;
 
         @Override
         public void createAccumulator() {
@@ -287,8 +444,8 @@ public class AggregateCombineFn
         @Override
         public void addInput(GenericData.Record inputValue) {
             if (inputValue != null && inputValue.get(0) != null) {
-                T value = convertFromObject(inputValue.get(0));
-                accs = accs == null ? value : apply(value, accs);
+                addValue(inputValue.get(0));
+                isEmpty = false;
             }
         }
 
@@ -298,49 +455,117 @@ public class AggregateCombineFn
                 if (acc == null) {
                     continue;
                 }
-                accs = accs == null ? acc : apply(acc, accs);
+                addValue(acc);
+                isEmpty = false;
             }
         }
 
         @Override
         public T getAccumulators() {
-            return accs;
+            return isEmpty ? null : getValue();
         }
 
         @Override
         public T extractOutput() {
+            return getAccumulators();
+        }
+
+        /**
+         * Combine the non null value with the current state, or use it as the initial state if {@link #isEmpty}.
+         */
+        protected abstract void addValue(Object value);
+
+        /**
+         * @return the current state, only called when the accumulator is not empty.
+         */
+        protected abstract T getValue();
+    }
+
+    public static abstract class IntegerAccumulatorFn extends PrimitiveAccumulatorFn<Integer> {
+
+        int accs;
+
+        @Override
+        protected void addValue(Object value) {
+            int v = toInt(value);
+            accs = isEmpty ? v : apply(v, accs);
+        }
+
+        @Override
+        protected Integer getValue() {
+            return accs;
+        }
+
+        public abstract int apply(int left, int right);
+    }
+
+    public static abstract class LongAccumulatorFn extends PrimitiveAccumulatorFn<Long> {
+
+        long accs;
+
+        @Override
+        protected void addValue(Object value) {
+            long v = toLong(value);
+            accs = isEmpty ? v : apply(v, accs);
+        }
+
+        @Override
+        protected Long getValue() {
             return accs;
         }
 
-        public abstract T convertFromObject(Object inputValue);
+        public abstract long apply(long left, long right);
+    }
 
-        public abstract T apply(T left, T right);
+    public static abstract class FloatAccumulatorFn extends PrimitiveAccumulatorFn<Float> {
 
+        float accs;
+
+        @Override
+        protected void addValue(Object value) {
+            float v = toFloat(value);
+            accs = isEmpty ? v : apply(v, accs);
+        }
+
+        @Override
+        protected Float getValue() {
+            return accs;
+        }
+
+        public abstract float apply(float left, float right);
     }
 
-    public static class SumDoubleAccumulatorFn extends AccumulatorFnAbstract<Double> {
+    public static abstract class DoubleAccumulatorFn extends PrimitiveAccumulatorFn<Double> {
+
+        double accs;
 
         @Override
-        public Double convertFromObject(Object inputValue) {
-            return Double.valueOf(String.valueOf(inputValue));
+        protected void addValue(Object value) {
+            double v = toDouble(value);
+            accs = isEmpty ? v : apply(v, accs);
         }
 
         @Override
-        public Double apply(Double left, Double right) {
-            return left + right;
+        protected Double getValue() {
+            return accs;
         }
 
+        public abstract double apply(double left, double right);
     }
 
-    public static class SumLongAccumulatorFn extends AccumulatorFnAbstract<Long> {
+    public static class SumDoubleAccumulatorFn extends DoubleAccumulatorFn {
 
         @Override
-        public Long convertFromObject(Object inputValue) {
-            return Long.valueOf(String.valueOf(inputValue));
+        public double apply(double left, double right) {
+            return left + right;
         }
 
+    }
+
+    public static class SumLongAccumulatorFn extends LongAccumulatorFn {
+
         @Override
-        public Long apply(Long left, Long right) {
+        public long apply(long left, long right) {
             return left + right;
         }
 
@@ -348,7 +573,7 @@ public class AggregateCombineFn
 
     public static class CountAccumulatorFn implements AccumulatorFn<Long, Long> {
 
-        Long accs;
+        long accs;
 
         @Override
         public void createAccumulator() {
@@ -440,113 +665,248 @@ public class AggregateCombineFn
         }
     }
 
-    public static class MinIntegerAccumulatorFn extends AccumulatorFnAbstract<Integer> {
+    /**
+     * Estimate the number of distinct non null values with a {@link HyperLogLogSketch}.
+     */
+    public static class DistinctCountAccumulatorFn implements AccumulatorFn<HyperLogLogSketch, Long> {
+
+        HyperLogLogSketch accs;
 
         @Override
-        public Integer convertFromObject(Object inputValue) {
-            return Integer.valueOf(String.valueOf(inputValue));
+        public void createAccumulator() {
+            accs = new HyperLogLogSketch();
         }
 
         @Override
-        public Integer apply(Integer left, Integer right) {
-            return left < right ? left : right;
+        public void addInput(GenericData.Record inputValue) {
+            if (inputValue != null) {
+                accs.add(inputValue.get(0));
+            }
         }
 
-    }
+        @Override
+        public void mergeAccumulators(Iterable<HyperLogLogSketch> accsList) {
+            for (HyperLogLogSketch acc : accsList) {
+                accs.merge(acc);
+            }
+        }
 
-    public static class MinLongAccumulatorFn extends AccumulatorFnAbstract<Long> {
+        @Override
+        public HyperLogLogSketch getAccumulators() {
+            return accs;
+        }
 
         @Override
-        public Long convertFromObject(Object inputValue) {
-            return Long.valueOf(String.valueOf(inputValue));
+        public Long extractOutput() {
+            return accs.estimate();
+        }
+    }
+
+    /**
+     * Estimate one of the percentiles of the non null values with the quantiles sketch of Beam, which only keeps a bounded
+     * number of values per group.
+     *
+     * The int and long values are accumulated as longs and the float and double values as doubles, the estimated
+     * percentile is converted back to the input type.
+     */
+    public static class QuantileAccumulatorFn implements AccumulatorFn<Object, Object> {
+
+        // the sketch computes the min, the max and the 99 percentiles in between
+        static final ApproximateQuantilesCombineFn QUANTILES_FN = ApproximateQuantilesCombineFn.create(101);
+
+        final Schema.Type inputType;
+
+        // the percentile to output, between 0 and 100
+        final int percentile;
+
+        // the state of the QUANTILES_FN
+        Object accs;
+
+        public QuantileAccumulatorFn(Schema.Type inputType, int percentile) {
+            this.inputType = inputType;
+            this.percentile = percentile;
         }
 
         @Override
-        public Long apply(Long left, Long right) {
-            return left < right ? left : right;
+        public void createAccumulator() {
+            accs = QUANTILES_FN.createAccumulator();
         }
 
-    }
+        @Override
+        public void addInput(GenericData.Record inputValue) {
+            if (inputValue != null && inputValue.get(0) != null) {
+                Object value = inputValue.get(0);
+                QUANTILES_FN.addInput(accs, isIntegral() ? (Object) toLong(value) : (Object) toDouble(value));
+            }
+        }
 
-    public static class MinFloatAccumulatorFn extends AccumulatorFnAbstract<Float> {
+        @Override
+        public void mergeAccumulators(Iterable<Object> accsList) {
+            List<Object> states = new ArrayList<>();
+            states.add(accs);
+            for (Object acc : accsList) {
+                states.add(acc);
+            }
+            accs = QUANTILES_FN.mergeAccumulators(states);
+        }
 
         @Override
-        public Float convertFromObject(Object inputValue) {
-            return Float.valueOf(String.valueOf(inputValue));
+        public Object getAccumulators() {
+            return accs;
         }
 
         @Override
-        public Float apply(Float left, Float right) {
-            return left < right ? left : right;
+        public Object extractOutput() {
+            List<Number> quantiles = (List<Number>) QUANTILES_FN.extractOutput(accs);
+            if (quantiles.isEmpty()) {
+                return null;
+            }
+            Number value = quantiles.get(percentile);
+            switch (inputType) {
+            case INT:
+                return value.intValue();
+            case LONG:
+                return value.longValue();
+            case FLOAT:
+                return value.floatValue();
+            default:
+                return value.doubleValue();
+            }
+        }
+
+        boolean isIntegral() {
+            return inputType == Schema.Type.INT || inputType == Schema.Type.LONG;
         }
 
+        Coder<Object> getAccumulatorCoder() {
+            Coder valueCoder = isIntegral() ? VarLongCoder.of() : DoubleCoder.of();
+            return QUANTILES_FN.getAccumulatorCoder(null, valueCoder);
+        }
     }
 
-    public static class MinDoubleAccumulatorFn extends AccumulatorFnAbstract<Double> {
+    /**
+     * Estimate the {@link #SIZE} most frequent non null values with a {@link SpaceSavingSketch}.
+     */
+    public static class TopValuesAccumulatorFn implements AccumulatorFn<SpaceSavingSketch, List> {
+
+        static final int SIZE = 10;
+
+        // more counters than the returned values, so that the least frequent of them are accurate enough
+        static final int CAPACITY = SIZE * 10;
+
+        // the non nullable schema of the values, encoded with its fingerprint by the AggregateAccumulatorCoder
+        transient Schema valueSchema;
+
+        long valueSchemaFingerprint;
+
+        SpaceSavingSketch accs;
+
+        public TopValuesAccumulatorFn(Schema valueSchema) {
+            this(valueSchema, AvroSchemaCache.register(valueSchema));
+        }
+
+        TopValuesAccumulatorFn(Schema valueSchema, long valueSchemaFingerprint) {
+            this.valueSchema = valueSchema;
+            this.valueSchemaFingerprint = valueSchemaFingerprint;
+        }
 
         @Override
-        public Double convertFromObject(Object inputValue) {
-            return Double.valueOf(String.valueOf(inputValue));
+        public void createAccumulator() {
+            accs = new SpaceSavingSketch(CAPACITY);
         }
 
         @Override
-        public Double apply(Double left, Double right) {
-            return left < right ? left : right;
+        public void addInput(GenericData.Record inputValue) {
+            if (inputValue != null) {
+                accs.add(inputValue.get(0));
+            }
         }
 
+        @Override
+        public void mergeAccumulators(Iterable<SpaceSavingSketch> accsList) {
+            for (SpaceSavingSketch acc : accsList) {
+                accs.merge(acc);
+            }
+        }
+
+        @Override
+        public SpaceSavingSketch getAccumulators() {
+            return accs;
+        }
+
+        @Override
+        public List extractOutput() {
+            return accs.getTopValues(SIZE);
+        }
     }
 
-    public static class MaxIntegerAccumulatorFn extends AccumulatorFnAbstract<Integer> {
+    public static class MinIntegerAccumulatorFn extends IntegerAccumulatorFn {
 
         @Override
-        public Integer convertFromObject(Object inputValue) {
-            return Integer.valueOf(String.valueOf(inputValue));
+        public int apply(int left, int right) {
+            return left < right ? left : right;
         }
 
+    }
+
+    public static class MinLongAccumulatorFn extends LongAccumulatorFn {
+
         @Override
-        public Integer apply(Integer left, Integer right) {
-            return left > right ? left : right;
+        public long apply(long left, long right) {
+            return left < right ? left : right;
         }
 
     }
 
-    public static class MaxLongAccumulatorFn extends AccumulatorFnAbstract<Long> {
+    public static class MinFloatAccumulatorFn extends FloatAccumulatorFn {
 
         @Override
-        public Long convertFromObject(Object inputValue) {
-            return Long.valueOf(String.valueOf(inputValue));
+        public float apply(float left, float right) {
+            return left < right ? left : right;
         }
 
+    }
+
+    public static class MinDoubleAccumulatorFn extends DoubleAccumulatorFn {
+
         @Override
-        public Long apply(Long left, Long right) {
-            return left > right ? left : right;
+        public double apply(double left, double right) {
+            return left < right ? left : right;
         }
 
     }
 
-    public static class MaxFloatAccumulatorFn extends AccumulatorFnAbstract<Float> {
+    public static class MaxIntegerAccumulatorFn extends IntegerAccumulatorFn {
 
         @Override
-        public Float convertFromObject(Object inputValue) {
-            return Float.valueOf(String.valueOf(inputValue));
+        public int apply(int left, int right) {
+            return left > right ? left : right;
         }
 
+    }
+
+    public static class MaxLongAccumulatorFn extends LongAccumulatorFn {
+
         @Override
-        public Float apply(Float left, Float right) {
+        public long apply(long left, long right) {
             return left > right ? left : right;
         }
 
     }
 
-    public static class MaxDoubleAccumulatorFn extends AccumulatorFnAbstract<Double> {
+    public static class MaxFloatAccumulatorFn extends FloatAccumulatorFn {
 
         @Override
-        public Double convertFromObject(Object inputValue) {
-            return Double.valueOf(String.valueOf(inputValue));
+        public float apply(float left, float right) {
+            return left > right ? left : right;
         }
 
+    }
+
+    public static class MaxDoubleAccumulatorFn extends DoubleAccumulatorFn {
+
         @Override
-        public Double apply(Double left, Double right) {
+        public double apply(double left, double right) {
             return left > right ? left : right;
         }
 
@@ -139,10 +139,12 @@ public class AggregateUtils {
      */
     public static Schema genFieldType(Schema fieldType, AggregateFieldOperationType operationType) {
         switch (operationType) {
-        case LIST: {
+        case LIST:
+        case TOP_VALUES: {
             return Schema.createArray(fieldType);
         }
-        case COUNT: {
+        case COUNT:
+        case DISTINCT_COUNT: {
             return AvroUtils._long();
         }
         default:
@@ -164,6 +166,9 @@ public class AggregateUtils {
                 return AvroUtils._double();
             case MIN:
             case MAX:
+            case MEDIAN:
+            case PERCENTILE_95:
+            case PERCENTILE_99:
                 return fieldType;
             }
             TalendRuntimeException.build(CommonErrorCodes.UNEXPECTED_ARGUMENT).throwIt();
@@ -0,0 +1,234 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.aggregate;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.util.Utf8;
+import org.apache.beam.sdk.util.VarInt;
+
+/**
+ * A HyperLogLog sketch estimating the number of distinct values added to it in a bounded amount of memory.
+ *
+ * Small sets are counted exactly: the hashes of the values are kept as they are until there are more than
+ * {@link #SPARSE_LIMIT} of them. The sketch then switches to 2^{@link #PRECISION} one byte registers (4kB), for a
+ * standard error of about 1.6%. Two sketches are merged without losing precision.
+ */
+public class HyperLogLogSketch implements Serializable {
+
+    static final int PRECISION = 12;
+
+    static final int REGISTER_COUNT = 1 << PRECISION;
+
+    static final int SPARSE_LIMIT = 256;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // an open addressing set of the hashes, 0 is used for the empty slots. null when the registers are used.
+    private long[] hashes;
+
+    private int hashCount;
+
+    private byte[] registers;
+
+    public HyperLogLogSketch() {
+        hashes = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Add a value to the sketch, null values are ignored.
+     */
+    public void add(Object value) {
+        if (value != null) {
+            addHash(hash(value));
+        }
+    }
+
+    /**
+     * Add all the values of the other sketch to this one.
+     */
+    public void merge(HyperLogLogSketch other) {
+        if (other.registers == null) {
+            for (long hash : other.hashes) {
+                if (hash != 0L) {
+                    addHash(hash);
+                }
+            }
+            return;
+        }
+        if (registers == null) {
+            toRegisters();
+        }
+        for (int idx = 0; idx < REGISTER_COUNT; idx++) {
+            if (other.registers[idx] > registers[idx]) {
+                registers[idx] = other.registers[idx];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added to the sketch.
+     */
+    public long estimate() {
+        if (registers == null) {
+            return hashCount;
+        }
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+        double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // linear counting is more accurate for the small cardinalities
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void encode(DataOutputStream out) throws IOException {
+        if (registers == null) {
+            out.writeBoolean(false);
+            VarInt.encode(hashCount, out);
+            for (long hash : hashes) {
+                if (hash != 0L) {
+                    out.writeLong(hash);
+                }
+            }
+        } else {
+            out.writeBoolean(true);
+            out.write(registers);
+        }
+    }
+
+    public static HyperLogLogSketch decode(DataInputStream in) throws IOException {
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+        if (in.readBoolean()) {
+            sketch.hashes = null;
+            sketch.registers = new byte[REGISTER_COUNT];
+            in.readFully(sketch.registers);
+        } else {
+            int count = VarInt.decodeInt(in);
+            for (int idx = 0; idx < count; idx++) {
+                sketch.addHash(in.readLong());
+            }
+        }
+        return sketch;
+    }
+
+    private void addHash(long hash) {
+        if (registers != null) {
+            updateRegister(hash);
+            return;
+        }
+        if (hash == 0L) {
+            hash = 1L;
+        }
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != 0L) {
+            if (hashes[slot] == hash) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        hashCount++;
+        if (hashCount > SPARSE_LIMIT) {
+            toRegisters();
+        } else if (hashCount * 2 > hashes.length) {
+            long[] previous = hashes;
+            hashes = new long[previous.length * 2];
+            hashCount = 0;
+            for (long previousHash : previous) {
+                if (previousHash != 0L) {
+                    addHash(previousHash);
+                }
+            }
+        }
+    }
+
+    private void toRegisters() {
+        long[] previous = hashes;
+        registers = new byte[REGISTER_COUNT];
+        hashes = null;
+        hashCount = 0;
+        for (long hash : previous) {
+            if (hash != 0L) {
+                updateRegister(hash);
+            }
+        }
+    }
+
+    private void updateRegister(long hash) {
+        int idx = (int) (hash >>> (64 - PRECISION));
+        // the position of the first 1 bit after the index bits, bounded by the number of remaining bits
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[idx]) {
+            registers[idx] = rank;
+        }
+    }
+
+    /**
+     * Hash an Avro value on 64 bits. Equal values have the same hash whether a string is a {@link String} or an
+     * {@link Utf8}.
+     */
+    static long hash(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return mix(((Number) value).longValue());
+        } else if (value instanceof Float || value instanceof Double) {
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Utf8) {
+            Utf8 utf8 = (Utf8) value;
+            return hash(utf8.getBytes(), utf8.getByteLength());
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return hash(bytes, bytes.length);
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        return hash(bytes, bytes.length);
+    }
+
+    private static long hash(byte[] bytes, int length) {
+        // FNV-1a, the bits are then mixed to spread the short values over the whole hash
+        long hash = 0xcbf29ce484222325L;
+        for (int idx = 0; idx < length; idx++) {
+            hash ^= bytes[idx] & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash ^ length);
+    }
+
+    /**
+     * The finalization step of MurmurHash3.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
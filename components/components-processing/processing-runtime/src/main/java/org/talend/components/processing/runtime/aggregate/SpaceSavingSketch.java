@@ -0,0 +1,205 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.aggregate;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.beam.sdk.util.VarInt;
+
+/**
+ * A space-saving sketch keeping track of the most frequent values added to it with at most {@link #capacity} counters.
+ *
+ * When a new value comes and all the counters are used, the least frequent value is replaced by the new one, which
+ * inherits its count. The counts can therefore be over estimated, but every value seen more than
+ * <code>total / capacity</code> times is guaranteed to be kept.
+ *
+ * The counters are also kept in a min-heap of their counts, so that the least frequent value is found and replaced in
+ * O(log capacity).
+ */
+public class SpaceSavingSketch implements Serializable {
+
+    private static final Comparator<Counter> BY_COUNT_DESC = new Comparator<Counter>() {
+
+        @Override
+        public int compare(Counter o1, Counter o2) {
+            return Long.compare(o2.count, o1.count);
+        }
+    };
+
+    private final int capacity;
+
+    // the value to its counter, strings are always stored as String so that Utf8 and String values are counted together
+    private final Map<Object, Counter> counters = new HashMap<>();
+
+    // the counters in a min-heap of their counts, the least frequent at the root
+    private final List<Counter> heap = new ArrayList<>();
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add a value to the sketch, null values are ignored.
+     */
+    public void add(Object value) {
+        if (value != null) {
+            add(normalize(value), 1L);
+        }
+    }
+
+    /**
+     * Add all the counted values of the other sketch to this one.
+     */
+    public void merge(SpaceSavingSketch other) {
+        for (Counter counter : other.heap) {
+            add(counter.value, counter.count);
+        }
+    }
+
+    /**
+     * @param size the maximum number of values to return.
+     * @return the most frequent values, the most frequent first.
+     */
+    public List<Object> getTopValues(int size) {
+        List<Counter> sorted = new ArrayList<>(heap);
+        Collections.sort(sorted, BY_COUNT_DESC);
+        List<Object> result = new ArrayList<>();
+        for (int idx = 0; idx < sorted.size() && idx < size; idx++) {
+            result.add(sorted.get(idx).value);
+        }
+        return result;
+    }
+
+    /**
+     * @param valueSchema the non nullable schema of the values.
+     */
+    public void encode(DataOutputStream out, Schema valueSchema) throws IOException {
+        GenericDatumWriter<Object> writer = new GenericDatumWriter<>(valueSchema);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        VarInt.encode(heap.size(), out);
+        for (Counter counter : heap) {
+            writer.write(counter.value, encoder);
+            VarInt.encode(counter.count, out);
+        }
+    }
+
+    /**
+     * @param valueSchema the non nullable schema of the values.
+     */
+    public static SpaceSavingSketch decode(DataInputStream in, int capacity, Schema valueSchema) throws IOException {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        GenericDatumReader<Object> reader = new GenericDatumReader<>(valueSchema);
+        BinaryDecoder decoder = DecoderFactory.get().directBinaryDecoder(in, null);
+        int size = VarInt.decodeInt(in);
+        for (int idx = 0; idx < size; idx++) {
+            Object value = normalize(reader.read(null, decoder));
+            sketch.add(value, VarInt.decodeLong(in));
+        }
+        return sketch;
+    }
+
+    private void add(Object value, long count) {
+        Counter counter = counters.get(value);
+        if (counter != null) {
+            counter.count += count;
+            siftDown(counter.index);
+        } else if (heap.size() < capacity) {
+            counter = new Counter(value, count, heap.size());
+            counters.put(value, counter);
+            heap.add(counter);
+            siftUp(counter.index);
+        } else {
+            // the new value replaces the least frequent one and inherits its count
+            counter = heap.get(0);
+            counters.remove(counter.value);
+            counter.value = value;
+            counter.count += count;
+            counters.put(value, counter);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap.get(index);
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap.get(parent).count <= counter.count) {
+                break;
+            }
+            set(index, heap.get(parent));
+            index = parent;
+        }
+        set(index, counter);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap.get(index);
+        int size = heap.size();
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap.get(child + 1).count < heap.get(child).count) {
+                child++;
+            }
+            if (counter.count <= heap.get(child).count) {
+                break;
+            }
+            set(index, heap.get(child));
+            index = child;
+        }
+        set(index, counter);
+    }
+
+    private void set(int index, Counter counter) {
+        heap.set(index, counter);
+        counter.index = index;
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof CharSequence ? value.toString() : value;
+    }
+
+    private static class Counter implements Serializable {
+
+        Object value;
+
+        long count;
+
+        // the position of the counter in the heap
+        int index;
+
+        Counter(Object value, long count, int index) {
+            this.value = value;
+            this.count = count;
+            this.index = index;
+        }
+    }
+}
@@ -36,19 +36,32 @@ public class FieldSelectorDoFn extends DoFn<IndexedRecord, IndexedRecord> {
 
     private transient Schema outputSchema = null;
 
+    /** The selection compiled from the first output, null until the output schema is known. */
+    private transient FieldSelectorPlan plan = null;
+
     @Setup
     public void setup() throws Exception {
     }
 
     @ProcessElement
     public void processElement(ProcessContext context) {
+        if (plan != null) {
+            IndexedRecord output = plan.select(context.element());
+            if (output != null) {
+                context.output(output);
+                return;
+            }
+        }
+
         Map<String, Object> selectedFields = new HashMap<>();
         List<Schema.Field> fieldSchemas = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
 
         for (SelectorProperties selector : properties.selectors.subProperties) {
             String path = selector.path.getValue();
             String field = selector.field.getValue();
             if (StringUtils.isNotEmpty(field) && StringUtils.isNotEmpty(path)) {
+                paths.add(path);
                 // Extract field from the input
                 List<Evaluator.Ctx> avPathContexts = FieldSelectorUtil.getInputFields(context.element(), path);
 
@@ -69,6 +82,7 @@ public class FieldSelectorDoFn extends DoFn<IndexedRecord, IndexedRecord> {
             if (outputSchema == null) {
                 outputSchema = Schema.createRecord("output_" + context.element().getSchema().getName(), "", "", false,
                         fieldSchemas);
+                plan = new FieldSelectorPlan(paths, outputSchema);
             }
             context.output(FieldSelectorUtil.generateIndexedRecord(selectedFields, outputSchema));
         }
@@ -0,0 +1,104 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.fieldselector;
+
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.IndexedRecord;
+import org.talend.components.processing.runtime.SimpleFieldPath;
+
+import wandou.avpath.Evaluator;
+
+/**
+ * The selection of the output fields, compiled once the output schema is known.
+ *
+ * The {@link SimpleFieldPath simple paths} are resolved to field positions the first time a record with a given schema
+ * is seen, so that their values are read directly from the input record. Any other path is still evaluated with avpath.
+ * The output record is then filled by position.
+ */
+class FieldSelectorPlan {
+
+    private final Schema outputSchema;
+
+    /** The path of each output field, in the order of the output schema. */
+    private final String[] paths;
+
+    /** Each simple path, or null if the path must always be evaluated with avpath. */
+    private final SimpleFieldPath[] simplePaths;
+
+    /** The schema used to compile {@link #positions}. */
+    private Schema compiledSchema;
+
+    /** The field positions to follow from the root record to each value, or null if the path must be evaluated. */
+    private int[][] positions;
+
+    /**
+     * @param paths the path of each output field, in the order of the output schema.
+     * @param outputSchema the schema of the output records.
+     */
+    FieldSelectorPlan(List<String> paths, Schema outputSchema) {
+        this.outputSchema = outputSchema;
+        this.paths = paths.toArray(new String[paths.size()]);
+        this.simplePaths = new SimpleFieldPath[this.paths.length];
+        for (int i = 0; i < this.paths.length; i++) {
+            simplePaths[i] = SimpleFieldPath.parse(this.paths[i].startsWith(".") ? this.paths[i] : "." + this.paths[i]);
+        }
+    }
+
+    /**
+     * @param input the input record.
+     * @return the output record, or null if one of the paths does not lead to any value for this input. In this case
+     * the record must be processed dynamically, so that the missing fields get their default values.
+     */
+    IndexedRecord select(IndexedRecord input) {
+        if (input.getSchema() != compiledSchema) {
+            compile(input.getSchema());
+        }
+        GenericData.Record output = new GenericData.Record(outputSchema);
+        for (int i = 0; i < paths.length; i++) {
+            if (positions[i] != null) {
+                Object value = input;
+                for (int pos : positions[i]) {
+                    if (!(value instanceof IndexedRecord)) {
+                        // a parent record is null, avpath would not return anything for this path
+                        return null;
+                    }
+                    value = ((IndexedRecord) value).get(pos);
+                }
+                output.put(i, value);
+            } else {
+                List<Evaluator.Ctx> avPathContexts = FieldSelectorUtil.getInputFields(input, paths[i]);
+                if (avPathContexts.isEmpty()) {
+                    return null;
+                }
+                output.put(i, FieldSelectorUtil.extractValuesFromContext(avPathContexts, paths[i]));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Resolve the simple paths against the input schema. The paths that can't be resolved are evaluated with avpath.
+     */
+    private void compile(Schema schema) {
+        compiledSchema = schema;
+        positions = new int[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            if (simplePaths[i] != null) {
+                positions[i] = simplePaths[i].resolve(schema);
+            }
+        }
+    }
+}
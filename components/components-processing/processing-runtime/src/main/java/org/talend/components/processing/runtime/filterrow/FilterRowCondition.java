@@ -0,0 +1,533 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.filterrow;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.talend.components.processing.definition.ProcessingErrorCode;
+import org.talend.components.processing.definition.filterrow.ConditionsRowConstant;
+import org.talend.components.processing.definition.filterrow.FilterRowCriteriaProperties;
+import org.talend.components.processing.definition.filterrow.LogicalOpType;
+import org.talend.components.processing.runtime.SimpleFieldPath;
+import org.talend.daikon.avro.AvroUtils;
+
+import scala.collection.JavaConversions;
+import scala.util.Try;
+import wandou.avpath.Evaluator;
+
+/**
+ * One filter criteria, compiled once from its {@link FilterRowCriteriaProperties}.
+ *
+ * When the column is a {@link SimpleFieldPath simple path}, the path is resolved to field positions the first time a
+ * record with a given schema is seen, and the reference value is converted once to the type of the field. Every
+ * following record with the same schema is evaluated with direct positional access and a primitive comparison.
+ *
+ * Any other expression, as well as any record that doesn't fit the compiled plan (null values, schema changes to an
+ * incompatible type), is evaluated dynamically with avpath.
+ */
+class FilterRowCondition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The avpath expression used to access the input values. */
+    private final String accessor;
+
+    private final String function;
+
+    private final String operator;
+
+    private final String referenceValue;
+
+    private final boolean isCount;
+
+    /** The simple path, or null if the accessor must always be evaluated with avpath. */
+    private final SimpleFieldPath simplePath;
+
+    /** The schema used to compile {@link #positions} and {@link #comparator}. */
+    private transient Schema compiledSchema;
+
+    /** The field positions to follow from the root record to the value, or null if the schema can't be compiled. */
+    private transient int[] positions;
+
+    /** The primitive comparison to apply to the value, or null if the schema can't be compiled. */
+    private transient ValueComparator comparator;
+
+    /** The class of the last input value evaluated dynamically, used as a key for {@link #dynamicReferenceValue}. */
+    private transient Class<?> dynamicReferenceClass;
+
+    /** The reference value converted for the last input value class evaluated dynamically. */
+    private transient Object dynamicReferenceValue;
+
+    FilterRowCondition(FilterRowCriteriaProperties criteria) {
+        String columnName = criteria.columnName.getStringValue();
+        // Adapt non-avpath syntax to avpath.
+        // TODO: This should probably not be automatic, use the actual syntax.
+        if (StringUtils.isEmpty(columnName)) {
+            this.accessor = null;
+        } else if (!columnName.startsWith(".")) {
+            this.accessor = "." + columnName;
+        } else {
+            this.accessor = columnName;
+        }
+        this.function = criteria.function.getValue();
+        this.operator = criteria.operator.getValue();
+        this.referenceValue = criteria.value.getValue();
+        this.isCount = ConditionsRowConstant.Function.COUNT.equals(function);
+
+        this.simplePath = isCount || referenceValue == null ? null : SimpleFieldPath.parse(accessor);
+    }
+
+    /**
+     * Evaluate this criteria against the given indexed record.
+     *
+     * @param record the value to evaluate against the criteria.
+     * @return whether the record should be selected for this specific criteria.
+     */
+    boolean evaluate(IndexedRecord record) {
+        if (accessor == null) {
+            return false;
+        }
+        if (simplePath != null) {
+            Schema schema = record.getSchema();
+            if (schema != compiledSchema) {
+                compile(schema);
+            }
+            if (comparator != null) {
+                Object value = record;
+                for (int i = 0; i < positions.length && value != null; i++) {
+                    value = value instanceof IndexedRecord ? ((IndexedRecord) value).get(positions[i]) : null;
+                }
+                if (value != null && comparator.accepts(value)) {
+                    return comparator.test(value);
+                }
+            }
+        }
+        return evaluateDynamic(record);
+    }
+
+    /**
+     * Resolve the simple path against the schema and create the type-specialized comparator for the value it points to.
+     *
+     * If the path can't be resolved, or leads to a type that has no primitive comparator, the compiled plan is left empty
+     * and every record of this schema will be evaluated dynamically.
+     */
+    private void compile(Schema schema) {
+        compiledSchema = schema;
+        positions = null;
+        comparator = null;
+
+        int[] resolved = simplePath.resolve(schema);
+        if (resolved == null) {
+            return;
+        }
+
+        Schema fieldSchema = SimpleFieldPath.getFieldSchema(schema, resolved);
+        Class<?> inputClass = getInputClass(AvroUtils.unwrapIfNullable(fieldSchema));
+        if (inputClass == null) {
+            return;
+        }
+        try {
+            comparator = ValueComparator.create(inputClass, getFunctionResultClass(inputClass), function, operator,
+                    referenceValue);
+        } catch (RuntimeException e) {
+            // The reference value can't be converted to the type of the field, let the dynamic evaluation report it.
+            comparator = null;
+        }
+        if (comparator != null) {
+            positions = resolved;
+        }
+    }
+
+    /**
+     * @return the class of the values stored in a field with the given schema, or null if it isn't supported by a
+     * primitive comparator.
+     */
+    private static Class<?> getInputClass(Schema fieldSchema) {
+        switch (fieldSchema.getType()) {
+        case STRING:
+            return CharSequence.class;
+        case INT:
+            return Integer.class;
+        case LONG:
+            return Long.class;
+        case FLOAT:
+            return Float.class;
+        case DOUBLE:
+            return Double.class;
+        case BOOLEAN:
+            return Boolean.class;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * @return the class of the value returned by {@link FilterRowUtils#applyFunction(Object, String)} for an input of the
+     * given class.
+     */
+    private Class<?> getFunctionResultClass(Class<?> inputClass) {
+        if (ConditionsRowConstant.Function.LOWER_CASE.equals(function)
+                || ConditionsRowConstant.Function.UPPER_CASE.equals(function)
+                || ConditionsRowConstant.Function.FIRST_CHARACTER_LOWER_CASE.equals(function)
+                || ConditionsRowConstant.Function.FIRST_CHARACTER_UPPER_CASE.equals(function)) {
+            return String.class;
+        } else if (ConditionsRowConstant.Function.LENGTH.equals(function)) {
+            return Integer.class;
+        }
+        return inputClass;
+    }
+
+    /**
+     * Evaluate the criteria with a full avpath query, for expressions that can't be compiled.
+     */
+    private boolean evaluateDynamic(IndexedRecord record) {
+        // This is the logical operation applied to multiple values applied inside ONE specific filter criteria.
+        // When using a complex av expression, one accessor can read multiple values.
+        // (i.e. ALL means that all values must evaluate to true.)
+        LogicalOpType fieldOp = LogicalOpType.ALL;
+
+        // Starting point for aggregating the logical operations.
+        boolean aggregate = fieldOp.createAggregate();
+
+        List<Object> values = getInputFields(record, accessor);
+
+        if (isCount) {
+            values = Arrays.asList((Object) values.size());
+        } else if (values.size() == 0) {
+            // If the function is not COUNT and no values are returned, then consider the criteria not matched.
+            return false;
+        }
+
+        // Apply all of the criteria.
+        for (Object value : values) {
+            aggregate = fieldOp.combineAggregate(aggregate, checkCondition(value));
+            if (fieldOp.canShortCircuit(aggregate))
+                break;
+        }
+
+        return aggregate;
+    }
+
+    private <T extends Comparable<T>> Boolean checkCondition(Object inputValue) {
+        // Apply the transformation function on the input value
+        inputValue = FilterRowUtils.applyFunction(inputValue, function);
+
+        if (referenceValue != null) {
+            Class<T> inputValueClass = TypeConverterUtils.getComparableClass(inputValue);
+            if (inputValueClass != null) {
+                if (inputValueClass != dynamicReferenceClass) {
+                    dynamicReferenceValue = TypeConverterUtils.parseTo(referenceValue, inputValueClass);
+                    dynamicReferenceClass = inputValueClass;
+                }
+                return FilterRowUtils.compare(inputValueClass.cast(inputValue), operator,
+                        inputValueClass.cast(dynamicReferenceValue));
+            } else {
+                return FilterRowUtils.compare(inputValue.toString(), operator, referenceValue);
+            }
+        } else {
+            if (ConditionsRowConstant.Operator.EQUAL.equals(operator)) {
+                return inputValue == null;
+            } else { // Not Equals
+                return inputValue != null;
+            }
+        }
+    }
+
+    private static List<Object> getInputFields(IndexedRecord inputRecord, String columnName) {
+        Try<scala.collection.immutable.List<Evaluator.Ctx>> result = wandou.avpath.package$.MODULE$.select(inputRecord,
+                columnName);
+        List<Object> values = new ArrayList<Object>();
+        if (result.isSuccess()) {
+            for (Evaluator.Ctx ctx : JavaConversions.asJavaCollection(result.get())) {
+                values.add(ctx.value());
+            }
+        } else {
+            // Evaluating the expression failed, and we can handle the exception.
+            Throwable t = result.failed().get();
+            throw ProcessingErrorCode.createAvpathSyntaxError(t, columnName, -1);
+        }
+        return values;
+    }
+
+    /**
+     * The comparison operators, resolved once from their {@link ConditionsRowConstant.Operator} names.
+     */
+    enum CompareOperator {
+        EQUAL,
+        NOT_EQUAL,
+        LOWER,
+        LOWER_OR_EQUAL,
+        GREATER,
+        GREATER_OR_EQUAL,
+        MATCH,
+        NOT_MATCH,
+        CONTAINS,
+        NOT_CONTAINS,
+        UNKNOWN;
+
+        static CompareOperator of(String operator) {
+            if (ConditionsRowConstant.Operator.EQUAL.equals(operator)) {
+                return EQUAL;
+            } else if (ConditionsRowConstant.Operator.NOT_EQUAL.equals(operator)) {
+                return NOT_EQUAL;
+            } else if (ConditionsRowConstant.Operator.LOWER.equals(operator)) {
+                return LOWER;
+            } else if (ConditionsRowConstant.Operator.LOWER_OR_EQUAL.equals(operator)) {
+                return LOWER_OR_EQUAL;
+            } else if (ConditionsRowConstant.Operator.GREATER.equals(operator)) {
+                return GREATER;
+            } else if (ConditionsRowConstant.Operator.GREATER_OR_EQUAL.equals(operator)) {
+                return GREATER_OR_EQUAL;
+            } else if (ConditionsRowConstant.Operator.MATCH.equals(operator)) {
+                return MATCH;
+            } else if (ConditionsRowConstant.Operator.NOT_MATCH.equals(operator)) {
+                return NOT_MATCH;
+            } else if (ConditionsRowConstant.Operator.CONTAINS.equals(operator)) {
+                return CONTAINS;
+            } else if (ConditionsRowConstant.Operator.NOT_CONTAINS.equals(operator)) {
+                return NOT_CONTAINS;
+            }
+            return UNKNOWN;
+        }
+
+        /**
+         * @return whether this operator is based on the string representation of the values instead of their order.
+         */
+        boolean isStringOperator() {
+            return this == MATCH || this == NOT_MATCH || this == CONTAINS || this == NOT_CONTAINS;
+        }
+
+        /**
+         * @param comparison the result of comparing the input value to the reference value.
+         * @return whether the comparison is accepted by this (ordering) operator.
+         */
+        boolean accepts(int comparison) {
+            switch (this) {
+            case EQUAL:
+                return comparison == 0;
+            case NOT_EQUAL:
+                return comparison != 0;
+            case LOWER:
+                return comparison < 0;
+            case LOWER_OR_EQUAL:
+                return comparison <= 0;
+            case GREATER:
+                return comparison > 0;
+            case GREATER_OR_EQUAL:
+                return comparison >= 0;
+            default:
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A comparison of one input value against a reference value that was already converted to the type of the input.
+     */
+    abstract static class ValueComparator {
+
+        private final Class<?> inputClass;
+
+        private final String function;
+
+        ValueComparator(Class<?> inputClass, String function) {
+            this.inputClass = inputClass;
+            this.function = ConditionsRowConstant.Function.EMPTY.equals(function) ? null : function;
+        }
+
+        /**
+         * Create the comparator for input values of the given class.
+         *
+         * @param inputClass the class of the values read from the record.
+         * @param valueClass the class of the values once the function has been applied.
+         * @param function the function applied to the input before comparing.
+         * @param operator the comparison operator.
+         * @param referenceValue the unconverted reference value, never null.
+         * @return the comparator.
+         */
+        static ValueComparator create(Class<?> inputClass, Class<?> valueClass, String function, String operator,
+                String referenceValue) {
+            CompareOperator op = CompareOperator.of(operator);
+            if (valueClass == CharSequence.class || valueClass == String.class) {
+                return new StringComparator(inputClass, function, op, referenceValue);
+            }
+
+            Object reference = TypeConverterUtils.parseTo(referenceValue, valueClass);
+            if (reference == null) {
+                // Only possible for blank booleans, which can't be compared.
+                return null;
+            }
+            if (op.isStringOperator()) {
+                return new StringComparator(inputClass, function, op, TypeConverterUtils.parseToString(reference));
+            } else if (valueClass == Integer.class) {
+                return new IntComparator(inputClass, function, op, (Integer) reference);
+            } else if (valueClass == Long.class) {
+                return new LongComparator(inputClass, function, op, (Long) reference);
+            } else if (valueClass == Float.class) {
+                return new FloatComparator(inputClass, function, op, (Float) reference);
+            } else if (valueClass == Double.class) {
+                return new DoubleComparator(inputClass, function, op, (Double) reference);
+            } else if (valueClass == Boolean.class) {
+                return new BooleanComparator(inputClass, function, op, (Boolean) reference);
+            }
+            return null;
+        }
+
+        /**
+         * @return whether the value is of the type this comparator was compiled for.
+         */
+        boolean accepts(Object inputValue) {
+            return inputClass.isInstance(inputValue);
+        }
+
+        /**
+         * @param inputValue a non-null value from the record, accepted by {@link #accepts(Object)}.
+         * @return whether the value passes the comparison.
+         */
+        boolean test(Object inputValue) {
+            return compare(function == null ? inputValue : FilterRowUtils.applyFunction(inputValue, function));
+        }
+
+        protected abstract boolean compare(Object value);
+    }
+
+    static class StringComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final String reference;
+
+        private final Pattern pattern;
+
+        StringComparator(Class<?> inputClass, String function, CompareOperator op, String reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+            this.pattern = op == CompareOperator.MATCH || op == CompareOperator.NOT_MATCH ? Pattern.compile(reference) : null;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            String string = value.toString();
+            switch (op) {
+            case MATCH:
+                return pattern.matcher(string).matches();
+            case NOT_MATCH:
+                return !pattern.matcher(string).matches();
+            case CONTAINS:
+                return string.contains(reference);
+            case NOT_CONTAINS:
+                return !string.contains(reference);
+            default:
+                return op.accepts(string.compareTo(reference));
+            }
+        }
+    }
+
+    static class IntComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final int reference;
+
+        IntComparator(Class<?> inputClass, String function, CompareOperator op, int reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            return op.accepts(Integer.compare((Integer) value, reference));
+        }
+    }
+
+    static class LongComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final long reference;
+
+        LongComparator(Class<?> inputClass, String function, CompareOperator op, long reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            return op.accepts(Long.compare((Long) value, reference));
+        }
+    }
+
+    static class FloatComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final float reference;
+
+        FloatComparator(Class<?> inputClass, String function, CompareOperator op, float reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            return op.accepts(Float.compare((Float) value, reference));
+        }
+    }
+
+    static class DoubleComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final double reference;
+
+        DoubleComparator(Class<?> inputClass, String function, CompareOperator op, double reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            return op.accepts(Double.compare((Double) value, reference));
+        }
+    }
+
+    static class BooleanComparator extends ValueComparator {
+
+        private final CompareOperator op;
+
+        private final boolean reference;
+
+        BooleanComparator(Class<?> inputClass, String function, CompareOperator op, boolean reference) {
+            super(inputClass, function);
+            this.op = op;
+            this.reference = reference;
+        }
+
+        @Override
+        protected boolean compare(Object value) {
+            return op.accepts(Boolean.compare((Boolean) value, reference));
+        }
+    }
+}
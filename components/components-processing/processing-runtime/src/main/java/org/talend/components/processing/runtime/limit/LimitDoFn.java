@@ -17,18 +17,29 @@ import org.apache.beam.sdk.transforms.DoFn;
 import org.talend.components.processing.definition.limit.LimitProperties;
 
 /**
- * Limit {@link DoFn} used to limit the number of records processed from the source
- * {@link org.apache.beam.sdk.values.PCollection}. At the time of writing, this {@link DoFn} uses a static counter
- * defined at the {@link LimitRuntime} {@link org.apache.beam.sdk.transforms.PTransform} level, which makes it unusable
- * in a distributed mode. Consequently, it can be used only with local runners.
+ * Limit {@link DoFn} used to stop processing the records of a bundle once the limit is reached.
+ *
+ * The count is only kept for the current bundle, which makes this {@link DoFn} safe in a distributed mode, but every
+ * bundle can output up to the limit. The {@link LimitRuntime} applies the global limit on its output.
  */
 public class LimitDoFn extends DoFn<IndexedRecord, IndexedRecord> {
 
     private LimitProperties properties = null;
 
+    private transient long limit;
+
+    private transient long count;
+
+    @StartBundle
+    public void startBundle() {
+        limit = properties.limit.getValue();
+        count = 0L;
+    }
+
     @ProcessElement
     public void processElement(ProcessContext context) {
-        if (LimitRuntime.counter.getAndIncrement() < properties.limit.getValue()) {
+        if (count < limit) {
+            count++;
             context.output(context.element());
         }
     }
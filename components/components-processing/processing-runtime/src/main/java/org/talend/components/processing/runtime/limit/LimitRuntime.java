@@ -13,21 +13,35 @@
 package org.talend.components.processing.runtime.limit;
 
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.state.StateSpec;
+import org.apache.beam.sdk.state.StateSpecs;
+import org.apache.beam.sdk.state.ValueState;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Sample;
+import org.apache.beam.sdk.transforms.WithKeys;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.talend.components.api.component.runtime.RuntimableRuntime;
 import org.talend.components.api.container.RuntimeContainer;
 import org.talend.components.processing.definition.limit.LimitProperties;
 import org.talend.daikon.properties.ValidationResult;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
  * Limit {@link PTransform} used to limit the number of records processed from the source
- * {@link org.apache.beam.sdk.values.PCollection}. At the time of writing, the underlying
- * {@link org.apache.beam.sdk.transforms.DoFn} uses a static counter defined here, which makes it unusable in a
- * distributed mode. Consequently, it can be used only with local runners.
+ * {@link org.apache.beam.sdk.values.PCollection}.
+ *
+ * The {@link LimitDoFn} first drops the records exceeding the limit in each bundle, then the limit is applied globally:
+ * with {@link Sample#any(long)} for a bounded input, or with a stateful {@link DoFn} counting the records of each window
+ * for an unbounded input. In both cases, up to limit records are gathered on a single worker.
+ *
+ * This transform can't prevent the upstream source from reading more records than the limit: the limit must also be set
+ * on the input itself when it supports one, such as the limit of the simple file input or the read limit of the JDBC
+ * reader.
  */
 public class LimitRuntime extends PTransform<PCollection<IndexedRecord>, PCollection>
         implements RuntimableRuntime<LimitProperties> {
@@ -38,17 +52,57 @@ public class LimitRuntime extends PTransform<PCollection<IndexedRecord>, PCollec
 
     private LimitProperties properties;
 
-    public static AtomicLong counter = new AtomicLong(0L);
-
     @Override
     public ValidationResult initialize(RuntimeContainer container, LimitProperties componentProperties) {
         this.properties = componentProperties;
         return ValidationResult.OK;
     }
 
+    /**
+     * @return the maximum number of records output by this transform. The input can still read more records, see the
+     * class documentation.
+     */
+    public long getLimit() {
+        return properties.limit.getValue();
+    }
+
     @Override
     public PCollection expand(PCollection<IndexedRecord> inputPCollection) {
         LimitDoFn doFn = new LimitDoFn().withProperties(properties);
-        return inputPCollection.apply(ParDo.of(doFn));
+        PCollection<IndexedRecord> limitedPerBundle = inputPCollection.apply("LimitPerBundle", ParDo.of(doFn));
+
+        if (inputPCollection.isBounded() == PCollection.IsBounded.BOUNDED) {
+            return limitedPerBundle.apply("LimitGlobally", Sample.<IndexedRecord> any(getLimit()));
+        }
+
+        PCollection<KV<Integer, IndexedRecord>> keyed = limitedPerBundle.apply(WithKeys.<Integer, IndexedRecord> of(0))
+                .setCoder(KvCoder.of(VarIntCoder.of(), inputPCollection.getCoder()));
+        return keyed.apply("LimitGlobally", ParDo.of(new LimitStatefulDoFn(getLimit())))
+                .setCoder(inputPCollection.getCoder());
+    }
+
+    /**
+     * Output the first records of each window, all the records must have the same key.
+     */
+    static class LimitStatefulDoFn extends DoFn<KV<Integer, IndexedRecord>, IndexedRecord> {
+
+        private final long limit;
+
+        @StateId("count")
+        private final StateSpec<ValueState<Long>> countSpec = StateSpecs.value(VarLongCoder.of());
+
+        LimitStatefulDoFn(long limit) {
+            this.limit = limit;
+        }
+
+        @ProcessElement
+        public void processElement(ProcessContext context, @StateId("count") ValueState<Long> countState) {
+            Long count = countState.read();
+            long current = count == null ? 0L : count;
+            if (current < limit) {
+                countState.write(current + 1);
+                context.output(context.element().getValue());
+            }
+        }
     }
 }
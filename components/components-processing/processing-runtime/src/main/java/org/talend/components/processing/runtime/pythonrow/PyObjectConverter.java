@@ -0,0 +1,221 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.pythonrow;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.python.core.Py;
+import org.python.core.PyBoolean;
+import org.python.core.PyDictionary;
+import org.python.core.PyFloat;
+import org.python.core.PyInteger;
+import org.python.core.PyList;
+import org.python.core.PyLong;
+import org.python.core.PyObject;
+import org.python.core.PyString;
+import org.python.core.PyUnicode;
+
+/**
+ * Convert the Avro data to the Python objects used by the PythonRow code and back, without going through JSON.
+ *
+ * The records and maps are converted to dict, the arrays to list, the strings to unicode and the numbers to int, long
+ * or float, which is what the user code would get from <code>json.loads</code>.
+ */
+class PyObjectConverter {
+
+    /** The Python type used to create the dict, so that the order of the fields is kept. */
+    private final PyObject dictType;
+
+    /**
+     * @param dictType the Python type used to create the dict, usually <code>collections.OrderedDict</code>.
+     */
+    PyObjectConverter(PyObject dictType) {
+        this.dictType = dictType;
+    }
+
+    /**
+     * @param value an Avro value.
+     * @return the Python representation of the value.
+     */
+    PyObject toPython(Object value) {
+        if (value == null) {
+            return Py.None;
+        } else if (value instanceof CharSequence) {
+            return new PyUnicode(value.toString());
+        } else if (value instanceof Integer) {
+            return Py.newInteger((Integer) value);
+        } else if (value instanceof Long) {
+            return Py.newLong((Long) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            return Py.newFloat(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            return Py.newBoolean((Boolean) value);
+        } else if (value instanceof IndexedRecord) {
+            IndexedRecord record = (IndexedRecord) value;
+            PyObject dict = dictType.__call__();
+            for (Schema.Field field : record.getSchema().getFields()) {
+                dict.__setitem__(new PyUnicode(field.name()), toPython(record.get(field.pos())));
+            }
+            return dict;
+        } else if (value instanceof Map) {
+            PyObject dict = dictType.__call__();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                dict.__setitem__(new PyUnicode(entry.getKey().toString()), toPython(entry.getValue()));
+            }
+            return dict;
+        } else if (value instanceof Collection) {
+            PyList list = new PyList();
+            for (Object element : (Collection<?>) value) {
+                list.append(toPython(element));
+            }
+            return list;
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new PyString(new String(bytes, StandardCharsets.ISO_8859_1));
+        } else if (value instanceof GenericFixed) {
+            return new PyString(new String(((GenericFixed) value).bytes(), StandardCharsets.ISO_8859_1));
+        }
+        // enum symbols
+        return new PyUnicode(value.toString());
+    }
+
+    /**
+     * @param value a Python object created by the user code.
+     * @param schema the expected schema of the value.
+     * @return the Avro representation of the value.
+     */
+    Object toAvro(PyObject value, Schema schema) {
+        if (value == null || value == Py.None) {
+            return null;
+        }
+        switch (schema.getType()) {
+        case UNION:
+            return toAvro(value, getUnionBranch(value, schema));
+        case RECORD: {
+            GenericData.Record record = new GenericData.Record(schema);
+            for (Schema.Field field : schema.getFields()) {
+                record.put(field.pos(), toAvro(value.__finditem__(field.name()), field.schema()));
+            }
+            return record;
+        }
+        case MAP: {
+            Map<String, Object> map = new HashMap<>();
+            for (PyObject key : value.asIterable()) {
+                map.put(toJavaString(key), toAvro(value.__getitem__(key), schema.getValueType()));
+            }
+            return map;
+        }
+        case ARRAY: {
+            List<Object> list = new ArrayList<>();
+            for (PyObject element : value.asIterable()) {
+                list.add(toAvro(element, schema.getElementType()));
+            }
+            return list;
+        }
+        case STRING:
+            return toJavaString(value);
+        case ENUM:
+            return new GenericData.EnumSymbol(schema, toJavaString(value));
+        case BYTES:
+            return ByteBuffer.wrap(toBytes(value));
+        case FIXED:
+            return new GenericData.Fixed(schema, toBytes(value));
+        case INT:
+            return value.asInt();
+        case LONG:
+            return value.asLong();
+        case FLOAT:
+            return (float) value.asDouble();
+        case DOUBLE:
+            return value.asDouble();
+        case BOOLEAN:
+            return value.__nonzero__();
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * @return the first branch of the union that can hold the value, or the first non null branch.
+     */
+    private static Schema getUnionBranch(PyObject value, Schema union) {
+        Schema candidate = null;
+        for (Schema branch : union.getTypes()) {
+            if (branch.getType() == Schema.Type.NULL) {
+                continue;
+            }
+            if (candidate == null) {
+                candidate = branch;
+            }
+            if (isInstance(value, branch.getType())) {
+                return branch;
+            }
+        }
+        return candidate;
+    }
+
+    private static boolean isInstance(PyObject value, Schema.Type type) {
+        switch (type) {
+        case RECORD:
+        case MAP:
+            return value instanceof PyDictionary;
+        case ARRAY:
+            return value instanceof PyList;
+        case STRING:
+        case ENUM:
+            return value instanceof PyString;
+        case INT:
+            return value instanceof PyInteger && !(value instanceof PyBoolean);
+        case LONG:
+            return value instanceof PyLong || (value instanceof PyInteger && !(value instanceof PyBoolean));
+        case FLOAT:
+        case DOUBLE:
+            return value instanceof PyFloat;
+        case BOOLEAN:
+            return value instanceof PyBoolean;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * The str of Python 2 are bytes, which are decoded as UTF-8 like <code>json.dumps</code> would.
+     */
+    private static String toJavaString(PyObject value) {
+        if (value instanceof PyUnicode) {
+            return ((PyUnicode) value).getString();
+        } else if (value instanceof PyString) {
+            return new String(toBytes(value), StandardCharsets.UTF_8);
+        }
+        return value.__unicode__().getString();
+    }
+
+    private static byte[] toBytes(PyObject value) {
+        if (value instanceof PyUnicode) {
+            return ((PyUnicode) value).getString().getBytes(StandardCharsets.UTF_8);
+        }
+        return value.__str__().getString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
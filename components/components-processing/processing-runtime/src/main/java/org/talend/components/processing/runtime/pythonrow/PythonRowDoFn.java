@@ -13,13 +13,19 @@
 package org.talend.components.processing.runtime.pythonrow;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.joda.time.Instant;
 import org.python.antlr.AnalyzingParser;
 import org.python.antlr.PythonTree;
 import org.python.antlr.Visitor;
@@ -28,6 +34,7 @@ import org.python.antlr.ast.ImportFrom;
 import org.python.antlr.ast.alias;
 import org.python.antlr.base.mod;
 import org.python.antlr.runtime.ANTLRStringStream;
+import org.python.core.Py;
 import org.python.core.PyList;
 import org.python.core.PyObject;
 import org.python.core.PyUnicode;
@@ -54,6 +61,23 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
 
     private JsonGenericRecordConverter jsonGenericRecordConverter = null;
 
+    private PyObjectConverter pyObjectConverter = null;
+
+    /** The schema of the output records when the records are passed as Python objects. */
+    private Schema outputSchema = null;
+
+    /** The number of records processed for each call to the interpreter with native records. */
+    private int batchSize = 1;
+
+    /** The input records waiting for the next call to the interpreter when the records are passed as Python objects. */
+    private transient List<BufferedElement<IndexedRecord>> buffer;
+
+    /** The output records that can't be emitted before the end of the bundle, because of their window or timestamp. */
+    private transient List<BufferedElement<IndexedRecord>> pendingOutputs;
+
+    /** The number of None outputs, which are not emitted, when the records are passed as Python objects. */
+    private transient Counter droppedOutputs;
+
     private List<String> moduleBlacklist = Arrays.asList("os", "signal", "java.security",
             // This is absolutely crucial for these two to be in the blacklist
             "java.security.SecureClassLoader", "java.security.Permission");
@@ -66,8 +90,19 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
 
     @Setup
     public void setup() throws Exception {
+        buffer = new ArrayList<>();
+        pendingOutputs = new ArrayList<>();
+        droppedOutputs = Metrics.counter(PythonRowDoFn.class, "droppedOutputs");
         interpreter = new PythonInterpreter();
-        if (MapType.MAP.equals(properties.mapType.getValue())) {
+        if (isNativeRecords()) {
+            String userData = MapType.MAP.equals(properties.mapType.getValue()) ? setUpBatchMap() : setUpBatchFlatMap();
+            checkImportBlacklist(userData);
+            interpreter.exec(userData);
+            pyObjectConverter = new PyObjectConverter(interpreter.get("collections").__getattr__("OrderedDict"));
+            if (properties.batchSize.getValue() != null) {
+                batchSize = Math.max(1, properties.batchSize.getValue());
+            }
+        } else if (MapType.MAP.equals(properties.mapType.getValue())) {
             String userData = setUpMap();
             checkImportBlacklist(userData);
             interpreter.exec(userData);
@@ -77,12 +112,22 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
             interpreter.exec(userData);
         }
         pyFn = interpreter.get("userFunction");
+        if (properties.changeOutputSchema.getValue() != null && properties.changeOutputSchema.getValue()) {
+            outputSchema = properties.schemaFlow.schema.getValue();
+            jsonGenericRecordConverter = new JsonGenericRecordConverter(outputSchema);
+        }
     }
 
     @ProcessElement
-    public void processElement(ProcessContext context) throws IOException {
+    public void processElement(ProcessContext context, BoundedWindow window) throws IOException {
         if (context.element() != null) {
-            if (MapType.MAP.equals(properties.mapType.getValue())) {
+            if (isNativeRecords()) {
+                buffer.add(new BufferedElement<>(context.element(), context.timestamp(), window));
+                if (buffer.size() >= batchSize) {
+                    processBuffer();
+                    emitPendingOutputs(context, window);
+                }
+            } else if (MapType.MAP.equals(properties.mapType.getValue())) {
                 map(context.element(), context);
             } else { // flatmap
                 flatMap(context.element(), context);
@@ -90,6 +135,21 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
         }
     }
 
+    @FinishBundle
+    public void finishBundle(FinishBundleContext context) {
+        if (!buffer.isEmpty()) {
+            processBuffer();
+        }
+        for (BufferedElement<IndexedRecord> output : pendingOutputs) {
+            context.output(output.value, output.timestamp, output.window);
+        }
+        pendingOutputs.clear();
+    }
+
+    private boolean isNativeRecords() {
+        return properties.nativeRecords.getValue() != null && properties.nativeRecords.getValue();
+    }
+
     private void checkImportBlacklist(String userData) throws Exception {
         mod tree = new AnalyzingParser(new ANTLRStringStream(userData), "", "UTF-8").parseModule();
         Visitor vis = new Visitor() {
@@ -175,6 +235,101 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
                 + "  pass";
     }
 
+    private String setUpBatchMap() {
+        return "import json\n" //
+                + "import collections\n" //
+                + "def userFunction(inputs):\n" //
+                + "  outputs = []\n" //
+                + "  for input in inputs:\n" //
+                + "    output = collections.OrderedDict()\n" //
+                + "    try:\n" //
+                + "      emptyFunction()\n" //
+                + "      " + properties.pythonCode.getValue().replaceAll("\n", "\n      ").trim() + "\n"//
+                + "    except SystemExit:\n" //
+                + "      pass\n" //
+                + "    outputs.append(output)\n" //
+                + "  return outputs\n" //
+                + "def emptyFunction():\n" // to avoid compile error when empty user code block
+                + "  pass";
+    }
+
+    private String setUpBatchFlatMap() {
+        return "import json\n" //
+                + "import collections\n" //
+                + "def userFunction(inputs):\n" //
+                + "  outputs = []\n" //
+                + "  for input in inputs:\n" //
+                + "    outputList = []\n" //
+                + "    try:\n" //
+                + "      emptyFunction()\n" //
+                + "      " + properties.pythonCode.getValue().replaceAll("\n", "\n      ").trim() + "\n"//
+                + "    except SystemExit:\n" //
+                + "      pass\n" //
+                + "    outputs.append(outputList)\n" //
+                + "  return outputs\n" //
+                + "def emptyFunction():\n" // to avoid compile error when empty user code block
+                + "  pass";
+    }
+
+    /**
+     * Call the interpreter once for all the buffered records, the outputs are added to the pending outputs.
+     */
+    private void processBuffer() {
+        PyList inputs = new PyList();
+        for (BufferedElement<IndexedRecord> input : buffer) {
+            inputs.append(pyObjectConverter.toPython(input.value));
+        }
+        PyObject outputs = pyFn.__call__(inputs);
+
+        int idx = 0;
+        for (PyObject output : outputs.asIterable()) {
+            BufferedElement<IndexedRecord> input = buffer.get(idx++);
+            if (MapType.MAP.equals(properties.mapType.getValue())) {
+                addPendingOutput(output, input);
+            } else { // flatmap
+                for (PyObject outputElement : output.asIterable()) {
+                    addPendingOutput(outputElement, input);
+                }
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Convert an output of the user code to a record. When the records are passed as Python objects, an output set to
+     * None, in map mode or in the output list of the flatmap mode, filters the input record out: nothing is emitted and
+     * only the droppedOutputs counter is incremented.
+     */
+    private void addPendingOutput(PyObject output, BufferedElement<IndexedRecord> input) {
+        if (output == null || output == Py.None) {
+            droppedOutputs.inc();
+            return;
+        }
+        if (outputSchema == null) {
+            // infer the schema from the first output, only once
+            PyObject json = interpreter.get("json").__getattr__("dumps").__call__(output);
+            outputSchema = new JsonSchemaInferrer(new ObjectMapper()).inferSchema(json.toString());
+        }
+        IndexedRecord outputRecord = (IndexedRecord) pyObjectConverter.toAvro(output, outputSchema);
+        pendingOutputs.add(new BufferedElement<>(outputRecord, input.timestamp, input.window));
+    }
+
+    /**
+     * Emit the pending outputs that are in the same window and have the same timestamp than the current element. This
+     * is always the case for a bounded input in the global window. The other outputs are emitted at the end of the
+     * bundle.
+     */
+    private void emitPendingOutputs(ProcessContext context, BoundedWindow window) {
+        Iterator<BufferedElement<IndexedRecord>> outputs = pendingOutputs.iterator();
+        while (outputs.hasNext()) {
+            BufferedElement<IndexedRecord> output = outputs.next();
+            if (output.window.equals(window) && output.timestamp.equals(context.timestamp())) {
+                context.output(output.value);
+                outputs.remove();
+            }
+        }
+    }
+
     private void map(IndexedRecord input, ProcessContext context) throws IOException {
         PyObject output = pyFn.__call__(new PyUnicode(input.toString()));
 
@@ -211,4 +366,22 @@ public class PythonRowDoFn extends DoFn<IndexedRecord, IndexedRecord>
         interpreter.close();
     }
 
+    /**
+     * A value with the timestamp and window of the input element it comes from.
+     */
+    private static class BufferedElement<T> {
+
+        private final T value;
+
+        private final Instant timestamp;
+
+        private final BoundedWindow window;
+
+        private BufferedElement(T value, Instant timestamp, BoundedWindow window) {
+            this.value = value;
+            this.timestamp = timestamp;
+            this.window = window;
+        }
+    }
+
 }
@@ -0,0 +1,61 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.Test;
+
+public class SimpleFieldPathTest {
+
+    private static final Schema INNER = SchemaBuilder.record("inner").fields() //
+            .requiredString("x") //
+            .requiredInt("y") //
+            .endRecord();
+
+    private static final Schema ROOT = SchemaBuilder.record("root").fields() //
+            .requiredString("a") //
+            .name("b").type().optional().type(INNER) //
+            .endRecord();
+
+    @Test
+    public void testParse() {
+        assertNotNull(SimpleFieldPath.parse(".a"));
+        assertNotNull(SimpleFieldPath.parse(".a.b_1.C"));
+        assertNull(SimpleFieldPath.parse(null));
+        assertNull(SimpleFieldPath.parse("a"));
+        assertNull(SimpleFieldPath.parse(".a[0]"));
+        assertNull(SimpleFieldPath.parse(".a.*"));
+        assertNull(SimpleFieldPath.parse(".a{.x == 1}"));
+        assertNull(SimpleFieldPath.parse("..a"));
+    }
+
+    @Test
+    public void testResolve() {
+        assertArrayEquals(new int[] { 0 }, SimpleFieldPath.parse(".a").resolve(ROOT));
+        int[] positions = SimpleFieldPath.parse(".b.y").resolve(ROOT);
+        assertArrayEquals(new int[] { 1, 1 }, positions);
+        assertEquals(Schema.Type.INT, SimpleFieldPath.getFieldSchema(ROOT, positions).getType());
+        assertEquals(Schema.Type.UNION, SimpleFieldPath.getFieldSchema(ROOT, new int[] { 1 }).getType());
+
+        // missing field, or field of a value which is not a record
+        assertNull(SimpleFieldPath.parse(".c").resolve(ROOT));
+        assertNull(SimpleFieldPath.parse(".b.z").resolve(ROOT));
+        assertNull(SimpleFieldPath.parse(".a.x").resolve(ROOT));
+    }
+}
@@ -0,0 +1,183 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.aggregate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.util.SerializableUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.talend.components.adapter.beam.coders.AvroSchemaCache;
+import org.talend.components.adapter.beam.coders.FileSystemAvroSchemaRegistry;
+import org.talend.components.adapter.beam.coders.LazyAvroCoder;
+import org.talend.components.processing.definition.aggregate.AggregateFieldOperationType;
+import org.talend.components.processing.definition.aggregate.AggregateOperationProperties;
+import org.talend.components.processing.definition.aggregate.AggregateProperties;
+
+public class AggregateAccumulatorCoderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Schema inputSchema = SchemaBuilder
+            .record("basic")
+            .fields()
+            .name("g1")
+            .type()
+            .stringType()
+            .noDefault()
+            .name("int1")
+            .type()
+            .nullable()
+            .intType()
+            .noDefault()
+            .name("long1")
+            .type()
+            .nullable()
+            .longType()
+            .noDefault()
+            .name("float1")
+            .type()
+            .nullable()
+            .floatType()
+            .noDefault()
+            .name("double1")
+            .type()
+            .nullable()
+            .doubleType()
+            .noDefault()
+            .endRecord();
+
+    private IndexedRecord createRecord(String g1, Integer int1, Long long1, Float float1, Double double1) {
+        return new GenericRecordBuilder(inputSchema)
+                .set("g1", g1)
+                .set("int1", int1)
+                .set("long1", long1)
+                .set("float1", float1)
+                .set("double1", double1)
+                .build();
+    }
+
+    private void addOperation(AggregateProperties props, String fieldPath, AggregateFieldOperationType func) {
+        AggregateOperationProperties operationProps = new AggregateOperationProperties("operation");
+        operationProps.init();
+        operationProps.fieldPath.setValue(fieldPath);
+        operationProps.operation.setValue(func);
+        props.operations.addRow(operationProps);
+    }
+
+    @Before
+    @After
+    public void teardown() {
+        // The schemas cached or registered by a test must not be seen by the others.
+        AvroSchemaCache.reset();
+        LazyAvroCoder.resetSchemaSupplier();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        AggregateProperties props = new AggregateProperties("aggregate");
+        props.init();
+        addOperation(props, "int1", AggregateFieldOperationType.MIN);
+        addOperation(props, "long1", AggregateFieldOperationType.SUM);
+        addOperation(props, "float1", AggregateFieldOperationType.MAX);
+        addOperation(props, "double1", AggregateFieldOperationType.AVG);
+        addOperation(props, "int1", AggregateFieldOperationType.COUNT);
+        addOperation(props, "g1", AggregateFieldOperationType.LIST);
+        addOperation(props, "g1", AggregateFieldOperationType.DISTINCT_COUNT);
+        addOperation(props, "long1", AggregateFieldOperationType.MEDIAN);
+        addOperation(props, "float1", AggregateFieldOperationType.PERCENTILE_95);
+        addOperation(props, "g1", AggregateFieldOperationType.TOP_VALUES);
+
+        AggregateCombineFn fn = new AggregateCombineFn(props);
+        Coder<AggregateCombineFn.AggregateAccumulator> coder = fn.getAccumulatorCoder(null, null);
+
+        // An empty accumulator can be encoded.
+        AggregateCombineFn.AggregateAccumulator empty = CoderUtils.clone(coder, fn.createAccumulator());
+        Assert.assertNull(fn.extractOutput(empty));
+
+        AggregateCombineFn.AggregateAccumulator acc1 = fn.createAccumulator();
+        fn.addInput(acc1, createRecord("a", 3, 10L, 1.5f, 1.0));
+        fn.addInput(acc1, createRecord("b", 1, null, 2.5f, null));
+        AggregateCombineFn.AggregateAccumulator acc2 = fn.createAccumulator();
+        fn.addInput(acc2, createRecord("c", 2, 5L, 0.5f, 5.0));
+        fn.addInput(acc2, createRecord("b", 2, 7L, 0.5f, 5.0));
+
+        byte[] encoded1 = CoderUtils.encodeToByteArray(coder, acc1);
+        byte[] encoded2 = CoderUtils.encodeToByteArray(coder, acc2);
+        IndexedRecord expected = fn.extractOutput(fn.mergeAccumulators(Arrays.asList(acc1, acc2)));
+
+        // Decoding in a "new" JVM must parse the schemas again.
+        AvroSchemaCache.reset();
+        AggregateCombineFn.AggregateAccumulator decoded1 = CoderUtils.decodeFromByteArray(coder, encoded1);
+        AggregateCombineFn.AggregateAccumulator decoded2 = CoderUtils.decodeFromByteArray(coder, encoded2);
+        IndexedRecord actual = fn.extractOutput(fn.mergeAccumulators(Arrays.asList(decoded1, decoded2)));
+
+        Assert.assertEquals(expected.toString(), actual.toString());
+        Assert.assertEquals(1, actual.get(actual.getSchema().getField("int1_MIN").pos()));
+        Assert.assertEquals(22L, actual.get(actual.getSchema().getField("long1_SUM").pos()));
+        Assert.assertEquals(2.5f, actual.get(actual.getSchema().getField("float1_MAX").pos()));
+        Assert.assertEquals(11.0 / 4, actual.get(actual.getSchema().getField("double1_AVG").pos()));
+        Assert.assertEquals(4L, actual.get(actual.getSchema().getField("int1_COUNT").pos()));
+        Assert.assertEquals("[a, b, c, b]", String.valueOf(actual.get(actual.getSchema().getField("g1_LIST").pos())));
+        Assert.assertEquals(3L, actual.get(actual.getSchema().getField("g1_DISTINCT_COUNT").pos()));
+        Assert.assertEquals(7L, actual.get(actual.getSchema().getField("long1_MEDIAN").pos()));
+        Assert.assertEquals(2.5f, actual.get(actual.getSchema().getField("float1_PERCENTILE_95").pos()));
+        Assert.assertEquals("b",
+                ((List) actual.get(actual.getSchema().getField("g1_TOP_VALUES").pos())).get(0).toString());
+
+        // The decoded schemas are shared by all the accumulators.
+        Assert.assertSame(decoded1.outputRecordSchema, decoded2.outputRecordSchema);
+    }
+
+    /**
+     * With a schema registry, only the fingerprints of the schemas are written, and a node that has never seen the
+     * schemas gets them from the registry.
+     */
+    @Test
+    public void testSchemaRegistry() throws Exception {
+        AggregateProperties props = new AggregateProperties("aggregate");
+        props.init();
+        addOperation(props, "int1", AggregateFieldOperationType.MIN);
+        addOperation(props, "g1", AggregateFieldOperationType.TOP_VALUES);
+
+        AggregateCombineFn fn = new AggregateCombineFn(props);
+        Coder<AggregateCombineFn.AggregateAccumulator> withoutRegistry = fn.getAccumulatorCoder(null, null);
+        LazyAvroCoder.setSchemaRegistry(new FileSystemAvroSchemaRegistry(folder.getRoot().getAbsolutePath()));
+        Coder<AggregateCombineFn.AggregateAccumulator> coder = fn.getAccumulatorCoder(null, null);
+
+        AggregateCombineFn.AggregateAccumulator acc = fn.createAccumulator();
+        fn.addInput(acc, createRecord("a", 3, 10L, 1.5f, 1.0));
+        fn.addInput(acc, createRecord("b", 1, null, 2.5f, null));
+        IndexedRecord expected = fn.extractOutput(acc);
+
+        byte[] encoded = CoderUtils.encodeToByteArray(coder, acc);
+        Assert.assertTrue(encoded.length < CoderUtils.encodeToByteArray(withoutRegistry, acc).length);
+
+        Coder<AggregateCombineFn.AggregateAccumulator> remoteCoder = SerializableUtils.clone(coder);
+        AvroSchemaCache.reset();
+        IndexedRecord actual = fn.extractOutput(CoderUtils.decodeFromByteArray(remoteCoder, encoded));
+        Assert.assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -2,13 +2,19 @@ package org.talend.components.processing.runtime.aggregate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericData;
 import org.junit.Assert;
 import org.junit.Test;
+import org.talend.components.processing.definition.aggregate.AggregateFieldOperationType;
+import org.talend.components.processing.definition.aggregate.AggregateOperationProperties;
 import org.talend.daikon.avro.AvroUtils;
+import org.talend.daikon.exception.TalendRuntimeException;
 
 public class AggregateCombineFnTest {
 
@@ -386,4 +392,132 @@ public class AggregateCombineFnTest {
         fn1.mergeAccumulators(Arrays.asList(fn2.getAccumulators(), fn3.getAccumulators()));
         Assert.assertEquals(10.10, fn1.extractOutput(), delta);
     }
+
+    @Test
+    public void DistinctCountAccumulatorFnTest() {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            values.add("value" + (i % 20000));
+        }
+        values.add(null);
+        List<GenericData.Record> testData = genRecords(values, AvroUtils._string());
+
+        AggregateCombineFn.DistinctCountAccumulatorFn fn1 = new AggregateCombineFn.DistinctCountAccumulatorFn();
+        fn1.createAccumulator();
+        AggregateCombineFn.DistinctCountAccumulatorFn fn2 = new AggregateCombineFn.DistinctCountAccumulatorFn();
+        fn2.createAccumulator();
+        Assert.assertEquals(0L, (long) fn1.extractOutput());
+
+        // small sets are counted exactly, null values are ignored
+        fn1.addInput(testData.get(0));
+        fn1.addInput(testData.get(1));
+        fn1.addInput(testData.get(0));
+        fn1.addInput(testData.get(values.size() - 1));
+        Assert.assertEquals(2L, (long) fn1.extractOutput());
+
+        for (int i = 0; i < values.size() / 2; i++) {
+            fn1.addInput(testData.get(i));
+        }
+        for (int i = values.size() / 2; i < values.size(); i++) {
+            fn2.addInput(testData.get(i));
+        }
+        fn1.mergeAccumulators(Arrays.asList(fn2.getAccumulators()));
+        Assert.assertEquals(20000, fn1.extractOutput(), 20000 * 0.05);
+    }
+
+    @Test
+    public void QuantileAccumulatorFnTest() {
+        List<Object> values = new ArrayList<>();
+        for (int i = 1000; i > 0; i--) {
+            values.add(i);
+        }
+        values.add(null);
+        List<GenericData.Record> testData = genRecords(values, AvroUtils._int());
+
+        AggregateCombineFn.QuantileAccumulatorFn fn1 =
+                new AggregateCombineFn.QuantileAccumulatorFn(Schema.Type.INT, 50);
+        fn1.createAccumulator();
+        AggregateCombineFn.QuantileAccumulatorFn fn2 =
+                new AggregateCombineFn.QuantileAccumulatorFn(Schema.Type.INT, 50);
+        fn2.createAccumulator();
+        Assert.assertNull(fn1.extractOutput());
+
+        for (int i = 0; i < 500; i++) {
+            fn1.addInput(testData.get(i));
+        }
+        for (int i = 500; i < testData.size(); i++) {
+            fn2.addInput(testData.get(i));
+        }
+        fn1.mergeAccumulators(Arrays.asList(fn2.getAccumulators()));
+        Assert.assertEquals(500, (int) (Integer) fn1.extractOutput(), 10);
+
+        AggregateCombineFn.QuantileAccumulatorFn fn3 =
+                new AggregateCombineFn.QuantileAccumulatorFn(Schema.Type.DOUBLE, 95);
+        fn3.createAccumulator();
+        for (Object value : values) {
+            fn3.addInput(genRecords(Arrays.asList(value == null ? null : ((Integer) value) / 10.0), AvroUtils._double())
+                    .get(0));
+        }
+        Assert.assertEquals(95.0, (Double) fn3.extractOutput(), 1.0);
+    }
+
+    @Test
+    public void TopValuesAccumulatorFnTest() {
+        List<Object> values = new ArrayList<>();
+        // "a0" is the most frequent, then "a1"... and a long tail of unique values
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 100 - i * 5; j++) {
+                values.add("a" + i);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            values.add("unique" + i);
+        }
+        values.add(null);
+        Collections.shuffle(values, new Random(0));
+        List<GenericData.Record> testData = genRecords(values, AvroUtils._string());
+
+        AggregateCombineFn.TopValuesAccumulatorFn fn1 =
+                new AggregateCombineFn.TopValuesAccumulatorFn(AvroUtils._string());
+        fn1.createAccumulator();
+        AggregateCombineFn.TopValuesAccumulatorFn fn2 =
+                new AggregateCombineFn.TopValuesAccumulatorFn(AvroUtils._string());
+        fn2.createAccumulator();
+        Assert.assertEquals(0, fn1.extractOutput().size());
+
+        for (int i = 0; i < testData.size() / 2; i++) {
+            fn1.addInput(testData.get(i));
+        }
+        for (int i = testData.size() / 2; i < testData.size(); i++) {
+            fn2.addInput(testData.get(i));
+        }
+        fn1.mergeAccumulators(Arrays.asList(fn2.getAccumulators()));
+        Assert.assertEquals(Arrays.asList("a0", "a1", "a2", "a3", "a4", "a5", "a6", "a7", "a8", "a9"),
+                fn1.extractOutput());
+    }
+
+    private static void addStringInput(AggregateFieldOperationType operation) {
+        Schema schema = SchemaBuilder.record("input").fields().name("name").type().stringType().noDefault().endRecord();
+        GenericData.Record record = new GenericData.Record(schema);
+        record.put(0, "a");
+        AggregateOperationProperties funcProps = new AggregateOperationProperties("");
+        funcProps.operation.setValue(operation);
+        funcProps.fieldPath.setValue("name");
+        new AggregateCombineFn.AccumulatorElement(funcProps).addInput(record);
+    }
+
+    @Test(expected = TalendRuntimeException.class)
+    public void MaxStringAccumulatorFnTest() {
+        addStringInput(AggregateFieldOperationType.MAX);
+    }
+
+    @Test(expected = TalendRuntimeException.class)
+    public void MinStringAccumulatorFnTest() {
+        addStringInput(AggregateFieldOperationType.MIN);
+    }
+
+    @Test(expected = TalendRuntimeException.class)
+    public void MedianStringAccumulatorFnTest() {
+        addStringInput(AggregateFieldOperationType.MEDIAN);
+    }
 }
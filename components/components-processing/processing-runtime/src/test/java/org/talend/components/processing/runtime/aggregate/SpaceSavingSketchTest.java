@@ -0,0 +1,64 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.processing.runtime.aggregate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.util.Utf8;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void testEviction() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        for (int i = 0; i < 3; i++) {
+            sketch.add("a");
+        }
+        sketch.add(new Utf8("b"));
+        // "c" replaces the least frequent "b" and inherits its count: 2
+        sketch.add("c");
+        Assert.assertEquals(Arrays.<Object> asList("a", "c"), sketch.getTopValues(10));
+        // "d" replaces "c": 3, then "a" is the most frequent
+        sketch.add("d");
+        sketch.add("a");
+        Assert.assertEquals(Arrays.<Object> asList("a", "d"), sketch.getTopValues(10));
+        Assert.assertEquals(Arrays.<Object> asList("a"), sketch.getTopValues(1));
+    }
+
+    @Test
+    public void testMergeAndEncode() throws Exception {
+        SpaceSavingSketch sketch1 = new SpaceSavingSketch(3);
+        SpaceSavingSketch sketch2 = new SpaceSavingSketch(3);
+        for (int i = 0; i < 5; i++) {
+            sketch1.add("a");
+            sketch2.add("b");
+            sketch2.add("b");
+        }
+        sketch1.add("c");
+        sketch1.merge(sketch2);
+        Assert.assertEquals(Arrays.<Object> asList("b", "a", "c"), sketch1.getTopValues(10));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sketch1.encode(new DataOutputStream(out), Schema.create(Schema.Type.STRING));
+        SpaceSavingSketch decoded = SpaceSavingSketch.decode(
+                new DataInputStream(new ByteArrayInputStream(out.toByteArray())), 3, Schema.create(Schema.Type.STRING));
+        Assert.assertEquals(sketch1.getTopValues(10), decoded.getTopValues(10));
+    }
+}
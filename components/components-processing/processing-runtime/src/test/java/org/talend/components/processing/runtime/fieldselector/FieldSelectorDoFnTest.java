@@ -334,6 +334,31 @@ public class FieldSelectorDoFnTest {
         }
     }
 
+    /**
+     * The records following the first one are selected with the compiled plan, and must have the same values than with
+     * avpath.
+     */
+    @Test
+    public void testSimpleAndPredicatePathsOnManyRecords() throws Exception {
+        FieldSelectorProperties properties = addSelector(null, "id", ".id");
+        properties = addSelector(properties, "name", "name");
+        properties = addSelector(properties, "value", ".b1{.id > 0}.value");
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of( //
+                new FieldSelectorDoFn().withProperties(properties));
+
+        List<IndexedRecord> output = fnTester.processBundle(inputB);
+        assertEquals(inputB.length, output.size());
+        for (int i = 0; i < inputB.length; i++) {
+            IndexedRecord main = output.get(i);
+            assertEquals(3, main.getSchema().getFields().size());
+            assertEquals(inputB[i].get(inputB[i].getSchema().getField("id").pos()), main.get(0));
+            assertEquals(inputB[i].get(inputB[i].getSchema().getField("name").pos()), main.get(1));
+            assertEquals(FieldSelectorUtil.extractValuesFromContext(
+                    FieldSelectorUtil.getInputFields(inputB[i], ".b1{.id > 0}.value"), ".b1{.id > 0}.value"),
+                    main.get(2));
+        }
+    }
+
     @Test
     public void testHierarchicalSubRecordHasValueGt10() throws Exception {
         FieldSelectorProperties properties = addSelector(null, "value", ".b1{.value > 10}");
@@ -9,6 +9,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
 import org.apache.avro.util.Utf8;
 import org.junit.Test;
+import org.talend.components.processing.definition.filterrow.ConditionsRowConstant;
 import org.talend.components.processing.definition.filterrow.FilterRowCriteriaProperties;
 import org.talend.components.processing.definition.filterrow.FilterRowProperties;
 
@@ -44,4 +45,87 @@ public class FilterRowPredicateTest {
         predicate = new FilterRowPredicate.Negate(properties);
         assertThat(predicate.apply(inputSimpleRecord), is(Boolean.FALSE));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_FilterNestedPath_schemaChange() throws Exception {
+        FilterRowProperties properties = new FilterRowProperties("test");
+        properties.init();
+        FilterRowCriteriaProperties filterProp = new FilterRowCriteriaProperties("filter");
+        filterProp.init();
+        properties.schemaListener.afterSchema();
+        filterProp.columnName.setValue("b.id");
+        filterProp.operator.setValue(ConditionsRowConstant.Operator.GREATER);
+        filterProp.value.setValue("10");
+        properties.filters.addRow(filterProp);
+
+        Schema intSubSchema = SchemaBuilder.record("sub").fields().requiredInt("id").endRecord();
+        Schema intSchema = SchemaBuilder.record("inputRow").fields() //
+                .name("a").type().optional().stringType() //
+                .name("b").type().optional().type(intSubSchema) //
+                .endRecord();
+        Schema stringSubSchema = SchemaBuilder.record("sub").fields().requiredString("id").endRecord();
+        Schema stringSchema = SchemaBuilder.record("inputRow").fields() //
+                .name("b").type(stringSubSchema).noDefault() //
+                .endRecord();
+
+        FilterRowPredicate predicate = new FilterRowPredicate(properties);
+        assertThat(predicate.apply(new GenericRecordBuilder(intSchema) //
+                .set("b", new GenericRecordBuilder(intSubSchema).set("id", 11).build()) //
+                .build()), is(Boolean.TRUE));
+        assertThat(predicate.apply(new GenericRecordBuilder(intSchema) //
+                .set("b", new GenericRecordBuilder(intSubSchema).set("id", 9).build()) //
+                .build()), is(Boolean.FALSE));
+
+        // The same predicate must follow a change of the input schema, "9" > "10" in string order.
+        assertThat(predicate.apply(new GenericRecordBuilder(stringSchema) //
+                .set("b", new GenericRecordBuilder(stringSubSchema).set("id", new Utf8("9")).build()) //
+                .build()), is(Boolean.TRUE));
+        assertThat(predicate.apply(new GenericRecordBuilder(stringSchema) //
+                .set("b", new GenericRecordBuilder(stringSubSchema).set("id", new Utf8("0")).build()) //
+                .build()), is(Boolean.FALSE));
+    }
+
+    @Test
+    public void test_FilterNumeric_functionsAndOperators() throws Exception {
+        Schema inputSchema = SchemaBuilder.record("inputRow").fields() //
+                .requiredLong("l") //
+                .requiredDouble("d") //
+                .requiredString("s") //
+                .endRecord();
+        GenericRecord input = new GenericRecordBuilder(inputSchema) //
+                .set("l", -42L) //
+                .set("d", 1.5d) //
+                .set("s", new Utf8("Talend")) //
+                .build();
+
+        assertThat(apply(input, "l", ConditionsRowConstant.Function.ABS_VALUE, ConditionsRowConstant.Operator.EQUAL, "42"),
+                is(Boolean.TRUE));
+        assertThat(apply(input, "l", ConditionsRowConstant.Function.EMPTY, ConditionsRowConstant.Operator.CONTAINS, "42"),
+                is(Boolean.TRUE));
+        assertThat(apply(input, "d", ConditionsRowConstant.Function.EMPTY, ConditionsRowConstant.Operator.LOWER_OR_EQUAL,
+                "1.5"), is(Boolean.TRUE));
+        assertThat(apply(input, "s", ConditionsRowConstant.Function.LENGTH, ConditionsRowConstant.Operator.GREATER, "6"),
+                is(Boolean.FALSE));
+        assertThat(apply(input, "s", ConditionsRowConstant.Function.UPPER_CASE, ConditionsRowConstant.Operator.MATCH,
+                "TAL.*"), is(Boolean.TRUE));
+        assertThat(apply(input, "s", ConditionsRowConstant.Function.COUNT, ConditionsRowConstant.Operator.EQUAL, "1"),
+                is(Boolean.TRUE));
+    }
+
+    private static Boolean apply(GenericRecord input, String columnName, String function, String operator, String value) {
+        FilterRowProperties properties = new FilterRowProperties("test");
+        properties.init();
+        FilterRowCriteriaProperties filterProp = new FilterRowCriteriaProperties("filter");
+        filterProp.init();
+        properties.schemaListener.afterSchema();
+        filterProp.columnName.setValue(columnName);
+        filterProp.function.setValue(function);
+        filterProp.operator.setValue(operator);
+        filterProp.value.setValue(value);
+        properties.filters.addRow(filterProp);
+        // Evaluate twice to use the compiled criteria as well as the first resolution.
+        FilterRowPredicate predicate = new FilterRowPredicate(properties);
+        predicate.apply(input);
+        return predicate.apply(input);
+    }
+}
@@ -17,24 +17,27 @@ import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.testing.TestStream;
 import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.Create;
 import org.apache.beam.sdk.transforms.DoFnTester;
+import org.apache.beam.sdk.transforms.Reshuffle;
 import org.apache.beam.sdk.values.PCollection;
 import org.junit.Rule;
 import org.junit.Test;
 import org.talend.components.processing.definition.limit.LimitProperties;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
 
 /**
- * Unit tests for {@link LimitRuntime} and {@link LimitDoFn}. Tests are in the same class because they share a common
- * static state, which is re-initialized throughout the test cases. We don't want these tests to be ran concurrently.
+ * Unit tests for {@link LimitRuntime} and {@link LimitDoFn}.
  */
 public class LimitRuntimeTest {
 
@@ -72,7 +75,54 @@ public class LimitRuntimeTest {
     }
 
     /**
-     * Test the {@link LimitDoFn}.
+     * The limit is applied globally to an input split in several bundles.
+     */
+    @Test
+    public void testManyBundles() {
+        List<IndexedRecord> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(new GenericRecordBuilder(inputSimpleSchema).set("a", "a" + i).build());
+        }
+        Coder<IndexedRecord> coder = (Coder) AvroCoder.of(inputSimpleSchema);
+        PCollection<IndexedRecord> input = pipeline.apply(Create.of(records).withCoder(coder))
+                .apply(Reshuffle.<IndexedRecord> viaRandomKey());
+
+        LimitRuntime runtime = LimitRuntime.of();
+        LimitProperties properties = new LimitProperties("propertiesForTest");
+        properties.limit.setValue(10L);
+        runtime.initialize(null, properties);
+
+        PCollection<IndexedRecord> afterLimit = input.apply(runtime);
+        PCollection<Long> output = afterLimit.apply(Count.<IndexedRecord>globally());
+
+        PAssert.that(output).containsInAnyOrder(10L);
+        pipeline.run().waitUntilFinish();
+    }
+
+    /**
+     * The limit is applied to an unbounded input.
+     */
+    @Test
+    public void testUnbounded() {
+        Coder<IndexedRecord> coder = (Coder) AvroCoder.of(inputSimpleSchema);
+        TestStream<IndexedRecord> stream = TestStream.create(coder)
+                .addElements(inputSimpleRecord, inputSimpleRecord)
+                .addElements(inputSimpleRecord, inputSimpleRecord)
+                .advanceWatermarkToInfinity();
+        PCollection<IndexedRecord> input = pipeline.apply(stream);
+
+        LimitRuntime runtime = LimitRuntime.of();
+        LimitProperties properties = new LimitProperties("propertiesForTest");
+        properties.limit.setValue(3L);
+        runtime.initialize(null, properties);
+
+        PCollection<IndexedRecord> afterLimit = input.apply(runtime);
+        PAssert.that(afterLimit).containsInAnyOrder(inputSimpleRecord, inputSimpleRecord, inputSimpleRecord);
+        pipeline.run().waitUntilFinish();
+    }
+
+    /**
+     * Test the {@link LimitDoFn}, which applies the limit to each bundle.
      */
     @Test
     public void testDoFn() throws Exception {
@@ -91,14 +141,16 @@ public class LimitRuntimeTest {
         DoFnTester<IndexedRecord, IndexedRecord> fnTester3 = DoFnTester.of(createLimitFunction(4L));
         List<IndexedRecord> outputs3 = fnTester3.processBundle(inputSimpleRecord, inputSimpleRecord, inputSimpleRecord);
         assertEquals(3, outputs3.size());
+
+        // The count is reset for each bundle
+        List<IndexedRecord> outputs4 = fnTester2.processBundle(inputSimpleRecord, inputSimpleRecord, inputSimpleRecord);
+        assertEquals(2, outputs4.size());
     }
 
     private LimitDoFn createLimitFunction(Long limit) {
         LimitProperties props = new LimitProperties("limit");
         props.init();
         props.limit.setValue(limit);
-        // Reset the static counter between each execution
-        LimitRuntime.counter = new AtomicLong(0L);
         return new LimitDoFn().withProperties(props);
     }
 }
@@ -245,6 +245,116 @@ public class PythonRowDoFnTest {
         assertEquals(utf8Sample, outputs.get(0).get(0));
     }
 
+    @Test
+    public void test_NativeRecords_Map_ApplyATransformation() throws Exception {
+
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+        properties.mapType.setValue(MapType.MAP);
+        properties.nativeRecords.setValue(true);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("output = input\n");
+        sb.append("output['a1'] = \"rootdata2\"\n");
+        sb.append("output['B']['b1'] = \"subdatabefore\"\n");
+        sb.append("output['B']['C']['c1'] = \"subsubdatabefore\"\n");
+        sb.append("output['B']['C']['c2'] = 33\n");
+        sb.append("output['B']['C']['c3'] = 55l\n");
+        sb.append("output['B']['b2'] = \"subdataend\"\n");
+        properties.pythonCode.setValue(sb.toString());
+        PythonRowDoFn function = new PythonRowDoFn();
+        assertEquals(ValidationResult.OK, function.initialize(null, properties));
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of(function);
+        List<IndexedRecord> outputs = fnTester.processBundle(inputIndexedRecord);
+        assertEquals(1, outputs.size());
+
+        GenericRecord outputRecord = (GenericRecord) outputs.get(0);
+        compareRecords(outputIndexedRecord, outputRecord);
+    }
+
+    @Test
+    public void test_NativeRecords_Map_DeclaredSchema() throws Exception {
+
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+        properties.mapType.setValue(MapType.MAP);
+        properties.nativeRecords.setValue(true);
+        properties.changeOutputSchema.setValue(true);
+        properties.schemaFlow.schema.setValue(inputIndexedRecord.getSchema());
+        properties.pythonCode.setValue("output = input");
+        PythonRowDoFn function = new PythonRowDoFn();
+        assertEquals(ValidationResult.OK, function.initialize(null, properties));
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of(function);
+        List<IndexedRecord> outputs = fnTester.processBundle(inputIndexedRecord);
+        assertEquals(1, outputs.size());
+
+        GenericRecord outputRecord = (GenericRecord) outputs.get(0);
+        assertEquals(inputIndexedRecord.getSchema(), outputRecord.getSchema());
+        compareRecords(inputIndexedRecord, outputRecord);
+    }
+
+    /**
+     * Checks that the records are all processed when the last batch is not full.
+     */
+    @Test
+    public void test_NativeRecords_FlatMap_MultipleBatches() throws Exception {
+
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+        properties.mapType.setValue(MapType.FLATMAP);
+        properties.nativeRecords.setValue(true);
+        properties.batchSize.setValue(2);
+        StringBuilder sb = new StringBuilder();
+        sb.append("import copy\n");
+        sb.append("outputList.append(input)\n");
+        sb.append("outputList.append(copy.deepcopy(input))\n");
+        properties.pythonCode.setValue(sb.toString());
+        PythonRowDoFn function = new PythonRowDoFn();
+        assertEquals(ValidationResult.OK, function.initialize(null, properties));
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of(function);
+        List<IndexedRecord> outputs = fnTester.processBundle(inputIndexedRecord, inputIndexedRecord, inputIndexedRecord);
+        assertEquals(6, outputs.size());
+
+        for (int i = 0; i < 6; i++) {
+            GenericRecord outputRecord = (GenericRecord) outputs.get(i);
+            compareRecords(inputIndexedRecord, outputRecord);
+        }
+    }
+
+    /**
+     * Checks that a None output filters the input record out.
+     */
+    @Test
+    public void test_NativeRecords_Map_NoneOutput() throws Exception {
+
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+        properties.mapType.setValue(MapType.MAP);
+        properties.nativeRecords.setValue(true);
+        properties.pythonCode.setValue("output = None if input['a1'] == 'drop' else input");
+        PythonRowDoFn function = new PythonRowDoFn();
+        assertEquals(ValidationResult.OK, function.initialize(null, properties));
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of(function);
+        List<IndexedRecord> outputs = fnTester.processBundle(GenericDataRecordHelper.createRecord(new Object[] { "drop" }),
+                GenericDataRecordHelper.createRecord(new Object[] { "keep" }));
+        assertEquals(1, outputs.size());
+        assertEquals("keep", outputs.get(0).get(0).toString());
+    }
+
+    @Test
+    public void test_NativeRecords_utf8() throws Exception {
+        PythonRowProperties properties = new PythonRowProperties("test");
+        properties.init();
+        properties.mapType.setValue(MapType.MAP);
+        properties.nativeRecords.setValue(true);
+        properties.pythonCode.setValue("output['a1'] = input['a1']");
+        PythonRowDoFn function = new PythonRowDoFn();
+        assertEquals(ValidationResult.OK, function.initialize(null, properties));
+        DoFnTester<IndexedRecord, IndexedRecord> fnTester = DoFnTester.of(function);
+        List<IndexedRecord> outputs = fnTester.processBundle(GenericDataRecordHelper.createRecord(new Object[] { utf8Sample }));
+        assertEquals(utf8Sample, outputs.get(0).get(0));
+    }
+
     /**
      * Compare Avro record field values.
      */
@@ -57,6 +57,8 @@ public abstract class SalesforceDefinition extends AbstractComponentDefinition {
 
     public static final String BULK_FILE_SINK_CLASS = "org.talend.components.salesforce.runtime.SalesforceBulkFileSink";
 
+    public static final String BULK_STREAM_SINK_CLASS = "org.talend.components.salesforce.runtime.SalesforceBulkStreamSink";
+
     /** Provides {@link SandboxedInstance}s. */
     private static SandboxedInstanceProvider sandboxedInstanceProvider = SandboxedInstanceProvider.INSTANCE;
 
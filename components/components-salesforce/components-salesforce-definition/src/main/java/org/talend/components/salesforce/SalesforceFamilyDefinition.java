@@ -28,6 +28,7 @@ import org.talend.components.salesforce.tsalesforceinput.TSalesforceInputDefinit
 import org.talend.components.salesforce.tsalesforceoutput.TSalesforceOutputDefinition;
 import org.talend.components.salesforce.tsalesforceoutputbulk.TSalesforceOutputBulkDefinition;
 import org.talend.components.salesforce.tsalesforceoutputbulkexec.TSalesforceOutputBulkExecDefinition;
+import org.talend.components.salesforce.tsalesforceoutputbulkstream.TSalesforceOutputBulkStreamDefinition;
 
 import com.google.auto.service.AutoService;
 
@@ -47,6 +48,7 @@ public class SalesforceFamilyDefinition extends AbstractComponentFamilyDefinitio
                 new TSalesforceGetServerTimestampDefinition(), new TSalesforceGetUpdatedDefinition(),
                 new TSalesforceInputDefinition(), new TSalesforceOutputDefinition(), new TSalesforceOutputBulkDefinition(),
                 new TSalesforceOutputBulkExecDefinition(),
+                new TSalesforceOutputBulkStreamDefinition(),
                 // Component wizards
                 new SalesforceConnectionWizardDefinition(),
                 //TODO remove the edit one as it's duplicated
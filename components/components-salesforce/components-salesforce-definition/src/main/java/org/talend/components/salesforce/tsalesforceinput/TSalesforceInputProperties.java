@@ -82,6 +82,8 @@ public class TSalesforceInputProperties extends SalesforceConnectionModuleProper
 
     public static final int DEFAULT_CHUNK_SLEEP_TIME = 15;
 
+    public static final int DEFAULT_CHUNK_DOWNLOAD_THREADS = 4;
+
     public static final int DEFAULT_JOB_TIME_OUT = 0; // Default : no timeout to wait until the job fails or is in success
 
     public Property<Boolean> safetySwitch = newBoolean("safetySwitch", true);
@@ -96,6 +98,12 @@ public class TSalesforceInputProperties extends SalesforceConnectionModuleProper
 
     public Property<Integer> chunkSleepTime = newInteger("chunkSleepTime", DEFAULT_CHUNK_SLEEP_TIME);
 
+    public Property<Boolean> parallelChunkDownload = newBoolean("parallelChunkDownload", false);
+
+    public Property<Integer> chunkDownloadThreads = newInteger("chunkDownloadThreads", DEFAULT_CHUNK_DOWNLOAD_THREADS);
+
+    public Property<Boolean> keepChunkOrder = newBoolean("keepChunkOrder", false);
+
     public TSalesforceInputProperties(@JsonProperty("name") String name) {
         super(name);
     }
@@ -151,6 +159,9 @@ public class TSalesforceInputProperties extends SalesforceConnectionModuleProper
         advancedForm.addRow(pkChunking);
         advancedForm.addRow(chunkSize);
         advancedForm.addRow(chunkSleepTime);
+        advancedForm.addRow(parallelChunkDownload);
+        advancedForm.addColumn(chunkDownloadThreads);
+        advancedForm.addColumn(keepChunkOrder);
         advancedForm.addRow(batchSize);
         advancedForm.addRow(normalizeDelimiter);
         advancedForm.addRow(columnNameDelimiter);
@@ -237,6 +248,10 @@ public class TSalesforceInputProperties extends SalesforceConnectionModuleProper
         refreshLayout(getForm(Form.ADVANCED));
     }
 
+    public void afterParallelChunkDownload() {
+        refreshLayout(getForm(Form.ADVANCED));
+    }
+
     @Override
     public void refreshLayout(Form form) {
         super.refreshLayout(form);
@@ -257,6 +272,10 @@ public class TSalesforceInputProperties extends SalesforceConnectionModuleProper
             form.getWidget(pkChunking.getName()).setVisible(isBulkQuery);
             form.getWidget(chunkSize.getName()).setVisible(isBulkQuery && pkChunking.getValue());
             form.getWidget(chunkSleepTime.getName()).setVisible(isBulkQuery && pkChunking.getValue());
+            form.getWidget(parallelChunkDownload.getName()).setVisible(isBulkQuery && pkChunking.getValue());
+            boolean isParallelDownload = isBulkQuery && pkChunking.getValue() && parallelChunkDownload.getValue();
+            form.getWidget(chunkDownloadThreads.getName()).setVisible(isParallelDownload);
+            form.getWidget(keepChunkOrder.getName()).setVisible(isParallelDownload);
             form.getWidget(normalizeDelimiter.getName()).setHidden(isBulkQuery);
             form.getWidget(columnNameDelimiter.getName()).setHidden(isBulkQuery);
             form.getWidget(batchSize.getName()).setHidden(isBulkQuery);
@@ -61,6 +61,11 @@ public class TSalesforceOutputProperties extends SalesforceOutputProperties {
 
     public Property<Integer> commitLevel = newInteger("commitLevel", 200); //$NON-NLS-1$
 
+    /**
+     * The number of calls which can be in flight at the same time when the records are written in batches.
+     */
+    public Property<Integer> concurrentCalls = newInteger("concurrentCalls", 1); //$NON-NLS-1$
+
     // FIXME - should be file
     public Property<String> logFileName = newString("logFileName"); //$NON-NLS-1$
 
@@ -187,6 +192,7 @@ public class TSalesforceOutputProperties extends SalesforceOutputProperties {
         advancedForm.addRow(ignoreNull);
         advancedForm.addRow(retrieveInsertId);
         advancedForm.addRow(commitLevel);
+        advancedForm.addColumn(concurrentCalls);
         advancedForm.addRow(widget(logFileName).setWidgetType(Widget.FILE_WIDGET_TYPE));
     }
 
@@ -215,6 +221,7 @@ public class TSalesforceOutputProperties extends SalesforceOutputProperties {
             form.getChildForm(connection.getName()).getWidget(connection.bulkConnection.getName()).setHidden(true);
             form.getChildForm(connection.getName()).getWidget(connection.httpTraceMessage.getName()).setHidden(true);
             form.getWidget("commitLevel").setHidden(!extendInsert.getValue());
+            form.getWidget("concurrentCalls").setHidden(!extendInsert.getValue());
             form.getWidget("retrieveInsertId")
                     .setHidden(extendInsert.getValue() || !(OutputAction.INSERT.equals(outputAction.getValue())
                             || OutputAction.UPSERT.equals(outputAction.getValue())));
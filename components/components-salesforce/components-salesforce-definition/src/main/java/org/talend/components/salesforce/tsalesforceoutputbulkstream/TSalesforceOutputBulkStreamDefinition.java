@@ -0,0 +1,85 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.tsalesforceoutputbulkstream;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.talend.components.api.component.ConnectorTopology;
+import org.talend.components.api.component.runtime.ExecutionEngine;
+import org.talend.components.api.properties.ComponentProperties;
+import org.talend.components.salesforce.SalesforceDefinition;
+import org.talend.components.salesforce.SalesforceModuleProperties;
+import org.talend.daikon.properties.property.Property;
+import org.talend.daikon.runtime.RuntimeInfo;
+
+/**
+ * Uploads the incoming records to Salesforce in bulk batches, without writing them to an intermediate bulk file as
+ * tSalesforceOutputBulkExec does.
+ */
+public class TSalesforceOutputBulkStreamDefinition extends SalesforceDefinition {
+
+    public static final String COMPONENT_NAME = "tSalesforceOutputBulkStream"; //$NON-NLS-1$
+
+    public TSalesforceOutputBulkStreamDefinition() {
+        super(COMPONENT_NAME, ExecutionEngine.DI);
+    }
+
+    @Override
+    public boolean isSchemaAutoPropagate() {
+        return false;
+    }
+
+    @Override
+    public boolean isConditionalInputs() {
+        return true;
+    }
+
+    @Override
+    public String getPartitioning() {
+        return NONE;
+    }
+
+    @Override
+    public Class<? extends ComponentProperties> getPropertyClass() {
+        return TSalesforceOutputBulkStreamProperties.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<? extends ComponentProperties>[] getNestedCompatibleComponentPropertiesClass() {
+        return concatPropertiesClasses(super.getNestedCompatibleComponentPropertiesClass(),
+                new Class[] { SalesforceModuleProperties.class });
+    }
+
+    @Override
+    public Property[] getReturnProperties() {
+        return new Property[] { RETURN_ERROR_MESSAGE_PROP, RETURN_TOTAL_RECORD_COUNT_PROP, RETURN_SUCCESS_RECORD_COUNT_PROP,
+                RETURN_REJECT_RECORD_COUNT_PROP };
+    }
+
+    @Override
+    public RuntimeInfo getRuntimeInfo(ExecutionEngine engine, ComponentProperties properties, ConnectorTopology connectorTopology) {
+        assertEngineCompatibility(engine);
+        if (connectorTopology == ConnectorTopology.INCOMING || connectorTopology == ConnectorTopology.INCOMING_AND_OUTGOING) {
+            return getCommonRuntimeInfo(BULK_STREAM_SINK_CLASS);
+        }
+        return null;
+    }
+
+    @Override
+    public Set<ConnectorTopology> getSupportedConnectorTopologies() {
+        return EnumSet.of(ConnectorTopology.INCOMING, ConnectorTopology.INCOMING_AND_OUTGOING);
+    }
+
+}
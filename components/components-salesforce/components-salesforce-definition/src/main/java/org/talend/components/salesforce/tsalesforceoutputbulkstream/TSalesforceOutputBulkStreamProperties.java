@@ -0,0 +1,86 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.tsalesforceoutputbulkstream;
+
+import static org.talend.daikon.properties.property.PropertyFactory.newBoolean;
+import static org.talend.daikon.properties.property.PropertyFactory.newInteger;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.talend.components.api.component.PropertyPathConnector;
+import org.talend.components.salesforce.tsalesforcebulkexec.TSalesforceBulkExecProperties;
+import org.talend.components.salesforce.tsalesforceoutputbulk.TSalesforceOutputBulkProperties;
+import org.talend.daikon.properties.presentation.Form;
+import org.talend.daikon.properties.property.Property;
+
+public class TSalesforceOutputBulkStreamProperties extends TSalesforceBulkExecProperties {
+
+    public static final int DEFAULT_UPLOAD_THREADS = 4;
+
+    public Property<Boolean> ignoreNull = newBoolean("ignoreNull");
+
+    public Property<Integer> uploadThreads = newInteger("uploadThreads", DEFAULT_UPLOAD_THREADS);
+
+    public TSalesforceOutputBulkStreamProperties(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setupLayout() {
+        super.setupLayout();
+        Form mainForm = getForm(Form.MAIN);
+        mainForm.addRow(ignoreNull);
+
+        Form advancedForm = getForm(Form.ADVANCED);
+        advancedForm.addRow(uploadThreads);
+    }
+
+    @Override
+    public void refreshLayout(Form form) {
+        super.refreshLayout(form);
+        if (Form.MAIN.equals(form.getName())) {
+            // the records are uploaded without any bulk file
+            form.getWidget(bulkFilePath.getName()).setHidden(true);
+        }
+        if (Form.ADVANCED.equals(form.getName())) {
+            boolean isUpsert = OutputAction.UPSERT.equals(outputAction.getValue());
+            form.getWidget(upsertRelationTable.getName()).setHidden(!isUpsert);
+        }
+    }
+
+    /**
+     * @return the properties used to format the records as the lines of a bulk file.
+     */
+    public TSalesforceOutputBulkProperties getBulkFileProperties() {
+        TSalesforceOutputBulkProperties bulkFileProperties = new TSalesforceOutputBulkProperties("bulkFileProperties");
+        bulkFileProperties.init();
+        bulkFileProperties.schema.schema.setValue(module.main.schema.getValue());
+        bulkFileProperties.outputAction.setValue(outputAction.getValue());
+        bulkFileProperties.ignoreNull.setValue(ignoreNull.getValue());
+        bulkFileProperties.upsertRelationTable.copyValuesFrom(upsertRelationTable);
+        return bulkFileProperties;
+    }
+
+    @Override
+    protected Set<PropertyPathConnector> getAllSchemaPropertiesConnectors(boolean isOutputConnection) {
+        HashSet<PropertyPathConnector> connectors = new HashSet<>();
+        if (isOutputConnection) {
+            connectors.add(FLOW_CONNECTOR);
+            connectors.add(REJECT_CONNECTOR);
+        } else {
+            connectors.add(MAIN_CONNECTOR);
+        }
+        return connectors;
+    }
+}
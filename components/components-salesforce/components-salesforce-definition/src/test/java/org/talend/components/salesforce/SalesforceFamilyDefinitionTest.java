@@ -42,6 +42,7 @@ import org.talend.components.salesforce.tsalesforceinput.TSalesforceInputDefinit
 import org.talend.components.salesforce.tsalesforceoutput.TSalesforceOutputDefinition;
 import org.talend.components.salesforce.tsalesforceoutputbulk.TSalesforceOutputBulkDefinition;
 import org.talend.components.salesforce.tsalesforceoutputbulkexec.TSalesforceOutputBulkExecDefinition;
+import org.talend.components.salesforce.tsalesforceoutputbulkstream.TSalesforceOutputBulkStreamDefinition;
 import org.talend.daikon.definition.Definition;
 import org.talend.daikon.i18n.tag.TagImpl;
 
@@ -74,6 +75,7 @@ public class SalesforceFamilyDefinitionTest {
                 Matchers.isA(TSalesforceOutputBulkDefinition.class),
                 Matchers.isA(TSalesforceBulkExecDefinition.class),
                 Matchers.isA(TSalesforceOutputBulkExecDefinition.class),
+                Matchers.isA(TSalesforceOutputBulkStreamDefinition.class),
                 Matchers.isA(TSalesforceGetServerTimestampDefinition.class),
                 Matchers.isA(TSalesforceGetUpdatedDefinition.class),
                 Matchers.isA(TSalesforceGetDeletedDefinition.class),
@@ -110,6 +110,8 @@ public class TSalesforceOutputPropertiesTest extends SalesforceTestBase {
         assertTrue(properties.ceaseForError.getValue());
         assertTrue(advancedForm.getWidget(properties.commitLevel.getName()).isVisible());
         assertEquals(200, properties.commitLevel.getValue().intValue());
+        assertTrue(advancedForm.getWidget(properties.concurrentCalls.getName()).isVisible());
+        assertEquals(1, properties.concurrentCalls.getValue().intValue());
         assertTrue(advancedForm.getWidget(properties.logFileName.getName()).isVisible());
         assertNull(properties.logFileName.getValue());
 
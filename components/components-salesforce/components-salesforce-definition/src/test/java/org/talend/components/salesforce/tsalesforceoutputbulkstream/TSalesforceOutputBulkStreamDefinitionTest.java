@@ -0,0 +1,103 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.tsalesforceoutputbulkstream;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.talend.components.api.component.AbstractComponentDefinition;
+import org.talend.components.api.component.ConnectorTopology;
+import org.talend.components.api.component.runtime.ExecutionEngine;
+import org.talend.components.salesforce.SalesforceOutputProperties.OutputAction;
+import org.talend.components.salesforce.SalesforceTestBase;
+import org.talend.components.salesforce.tsalesforceoutputbulk.TSalesforceOutputBulkProperties;
+import org.talend.daikon.properties.presentation.Form;
+import org.talend.daikon.runtime.RuntimeInfo;
+
+/**
+ *
+ */
+public class TSalesforceOutputBulkStreamDefinitionTest extends SalesforceTestBase {
+
+    private TSalesforceOutputBulkStreamDefinition definition;
+
+    private TSalesforceOutputBulkStreamProperties properties;
+
+    @Before
+    public void setUp() {
+        definition = new TSalesforceOutputBulkStreamDefinition();
+
+        properties = new TSalesforceOutputBulkStreamProperties("root");
+        properties.init();
+    }
+
+    @Test
+    public void testRuntimeInfo() {
+        RuntimeInfo runtimeInfo = definition.getRuntimeInfo(
+                ExecutionEngine.DI, properties, ConnectorTopology.INCOMING_AND_OUTGOING);
+        assertEquals(TSalesforceOutputBulkStreamDefinition.BULK_STREAM_SINK_CLASS, runtimeInfo.getRuntimeClassName());
+
+        runtimeInfo = definition.getRuntimeInfo(ExecutionEngine.DI, properties, ConnectorTopology.INCOMING);
+        assertEquals(TSalesforceOutputBulkStreamDefinition.BULK_STREAM_SINK_CLASS, runtimeInfo.getRuntimeClassName());
+
+        runtimeInfo = definition.getRuntimeInfo(ExecutionEngine.DI, properties, ConnectorTopology.OUTGOING);
+        assertThat(runtimeInfo, nullValue(RuntimeInfo.class));
+    }
+
+    @Test
+    public void testSupportedConnectorTopologies() {
+        Set<ConnectorTopology> topologySet = definition.getSupportedConnectorTopologies();
+        assertThat(topologySet, hasItems(ConnectorTopology.INCOMING, ConnectorTopology.INCOMING_AND_OUTGOING));
+    }
+
+    @Test
+    public void testNotStartable() {
+        assertFalse(definition.isStartable());
+    }
+
+    @Test
+    public void testConditionsInputs() {
+        assertTrue(definition.isConditionalInputs());
+    }
+
+    @Test
+    public void testPartitioning() {
+        assertEquals(AbstractComponentDefinition.NONE, definition.getPartitioning());
+    }
+
+    @Test
+    public void testBulkFilePathHidden() {
+        properties.refreshLayout(properties.getForm(Form.MAIN));
+        assertTrue(properties.getForm(Form.MAIN).getWidget(properties.bulkFilePath.getName()).isHidden());
+        assertFalse(properties.getForm(Form.MAIN).getWidget(properties.ignoreNull.getName()).isHidden());
+        assertFalse(properties.getForm(Form.ADVANCED).getWidget(properties.uploadThreads.getName()).isHidden());
+    }
+
+    @Test
+    public void testBulkFileProperties() {
+        properties.outputAction.setValue(OutputAction.UPSERT);
+        properties.ignoreNull.setValue(true);
+
+        TSalesforceOutputBulkProperties bulkFileProperties = properties.getBulkFileProperties();
+        assertEquals(OutputAction.UPSERT, bulkFileProperties.outputAction.getValue());
+        assertTrue(bulkFileProperties.ignoreNull.getValue());
+    }
+}
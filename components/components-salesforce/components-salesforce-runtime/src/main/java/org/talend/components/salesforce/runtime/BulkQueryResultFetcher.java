@@ -0,0 +1,303 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.talend.components.salesforce.common.SalesforceErrorCodes;
+import org.talend.daikon.exception.ExceptionContext;
+import org.talend.daikon.exception.TalendRuntimeException;
+
+import com.sforce.async.BatchInfo;
+import com.sforce.async.BatchInfoList;
+
+/**
+ * Download the results of a primary key chunking bulk query in parallel.
+ *
+ * A polling thread checks the state of the chunk batches of the job, and as soon as a batch is completed, the download
+ * of each of its results in a temporary file is submitted to a bounded pool. The results are then read one after the
+ * other by {@link #nextResultSet()}, in the order of the batches or as soon as they are downloaded. The number of
+ * downloaded results which are not read yet is limited, so that the disk usage doesn't depend on the size of the job.
+ */
+public class BulkQueryResultFetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkQueryResultFetcher.class);
+
+    private static final String FILE_ENCODING = "UTF-8";
+
+    /** Marks the end of the results. */
+    private static final FutureTask<File> END = new FutureTask<>(new Callable<File>() {
+
+        @Override
+        public File call() {
+            return null;
+        }
+    });
+
+    private final SalesforceBulkRuntime runtime;
+
+    private final String jobId;
+
+    private final String queryBatchId;
+
+    private final boolean ordered;
+
+    private final ExecutorService downloadExecutor;
+
+    private final Thread pollingThread;
+
+    private final BlockingQueue<Future<File>> results = new LinkedBlockingQueue<>();
+
+    /** The number of results which can be downloaded and not read yet. */
+    private final Semaphore pendingResults;
+
+    private volatile Exception error;
+
+    private File currentFile;
+
+    private volatile boolean closed;
+
+    /**
+     * @param runtime the runtime which created the job.
+     * @param jobId the id of the job.
+     * @param queryBatchId the id of the batch of the query, which is not processed when the chunking is enabled.
+     * @param threads the number of results downloaded at the same time.
+     * @param ordered true to read the results in the order of the batches, false to read them as soon as they are
+     * downloaded.
+     */
+    public BulkQueryResultFetcher(SalesforceBulkRuntime runtime, String jobId, String queryBatchId, int threads,
+            boolean ordered) {
+        this.runtime = runtime;
+        this.jobId = jobId;
+        this.queryBatchId = queryBatchId;
+        this.ordered = ordered;
+        this.pendingResults = new Semaphore(threads * 2);
+        this.downloadExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "BulkQueryResultFetcher-" + jobId + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.pollingThread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                pollBatches();
+            }
+        }, "BulkQueryResultFetcher-" + jobId);
+        pollingThread.setDaemon(true);
+    }
+
+    public void start() {
+        pollingThread.start();
+    }
+
+    private void pollBatches() {
+        try {
+            Set<String> submittedBatches = new HashSet<>();
+            submittedBatches.add(queryBatchId);
+            boolean isInProgress = true;
+            while (isInProgress && !closed) {
+                BatchInfoList batchInfoList = runtime.getBatchInfoList(jobId);
+                isInProgress = false;
+                for (BatchInfo batch : batchInfoList.getBatchInfo()) {
+                    if (submittedBatches.contains(batch.getId())) {
+                        continue;
+                    }
+                    switch (batch.getState()) {
+                    case Completed:
+                        submittedBatches.add(batch.getId());
+                        submitDownloads(batch.getId());
+                        break;
+                    case NotProcessed:
+                    case Failed:
+                        TalendRuntimeException.build(SalesforceErrorCodes.ERROR_IN_BULK_QUERY_PROCESSING)
+                                .put(ExceptionContext.KEY_MESSAGE, batch.getStateMessage()).throwIt();
+                    case Queued:
+                    case InProgress:
+                        isInProgress = true;
+                        break;
+                    }
+                }
+                if (isInProgress) {
+                    Thread.sleep(runtime.getChunkSleepTime());
+                    if (runtime.isJobTimedOut()) {
+                        // Stop and return the data of the batches which were processed.
+                        LOGGER.warn("Bulk query job {} did not complete in time, only the completed chunks are read", jobId);
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            // The end is only known once all the downloads are done when the results are not ordered
+            downloadExecutor.shutdown();
+            try {
+                downloadExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            results.add(END);
+        }
+    }
+
+    private void submitDownloads(String batchId) throws Exception {
+        String[] resultIds = runtime.getQueryResultList(jobId, batchId).getResult();
+        for (final String resultId : new HashSet<>(Arrays.asList(resultIds))) {
+            final String downloadBatchId = batchId;
+            Callable<File> download = new Callable<File>() {
+
+                @Override
+                public File call() throws Exception {
+                    pendingResults.acquire();
+                    try {
+                        return download(downloadBatchId, resultId);
+                    } catch (Exception e) {
+                        pendingResults.release();
+                        throw e;
+                    }
+                }
+            };
+            FutureTask<File> task;
+            if (ordered) {
+                task = new FutureTask<>(download);
+                results.add(task);
+            } else {
+                task = new FutureTask<File>(download) {
+
+                    @Override
+                    protected void done() {
+                        results.add(this);
+                    }
+                };
+            }
+            downloadExecutor.execute(task);
+        }
+    }
+
+    private File download(String batchId, String resultId) throws Exception {
+        File file = File.createTempFile("bulk-" + resultId + "-", ".csv");
+        try (InputStream in = runtime.getQueryResultStream(jobId, batchId, resultId)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            file.delete();
+            throw e;
+        }
+        if (closed) {
+            file.delete();
+            return null;
+        }
+        LOGGER.debug("Downloaded result {} of batch {}", resultId, batchId);
+        return file;
+    }
+
+    /**
+     * @return the next downloaded result, or null if all the results were read.
+     */
+    public BulkResultSet nextResultSet() throws IOException {
+        releaseCurrentFile();
+        Future<File> result;
+        try {
+            result = results.take();
+            if (result == END) {
+                // Let the other calls see the end too
+                results.add(END);
+                if (error != null) {
+                    throw new IOException(error);
+                }
+                return null;
+            }
+            currentFile = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+
+        com.csvreader.CsvReader reader = new com.csvreader.CsvReader(
+                new BufferedReader(new InputStreamReader(new FileInputStream(currentFile), FILE_ENCODING)), ',');
+        reader.setSafetySwitch(runtime.isSafetySwitch());
+        List<String> header = null;
+        if (reader.readRecord()) {
+            header = Arrays.asList(reader.getValues());
+        }
+        return new BulkResultSet(reader, header);
+    }
+
+    private void releaseCurrentFile() {
+        if (currentFile != null) {
+            currentFile.delete();
+            currentFile = null;
+            pendingResults.release();
+        }
+    }
+
+    /**
+     * Stops the polling and the downloads, and deletes the downloaded files.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseCurrentFile();
+        pollingThread.interrupt();
+        downloadExecutor.shutdownNow();
+        Future<File> result;
+        while ((result = results.poll()) != null) {
+            if (result != END && result.isDone() && !result.isCancelled()) {
+                try {
+                    File file = result.get();
+                    if (file != null) {
+                        file.delete();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    // The download failed, there is no file
+                }
+            }
+        }
+    }
+}
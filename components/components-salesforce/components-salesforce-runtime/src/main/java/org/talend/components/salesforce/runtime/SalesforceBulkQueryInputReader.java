@@ -13,6 +13,7 @@
 package org.talend.components.salesforce.runtime;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.apache.avro.Schema;
@@ -54,9 +55,18 @@ public class SalesforceBulkQueryInputReader extends SalesforceReader<IndexedReco
             bulkRuntime.setSafetySwitch(((TSalesforceInputProperties) properties).safetySwitch.getValue());
             bulkRuntime.setJobTimeout((TSalesforceInputProperties) properties);
         }
+        SalesforceSource source = (SalesforceSource) getCurrentSource();
         try {
-            executeSalesforceBulkQuery();
-        } catch (ConnectionException e) {
+            if (source.getBulkBatchId() != null) {
+                // The job was created when the source was split, only read the results of the chunk of this source
+                bulkRuntime.setQueryBatch(source.getBulkJobId(), source.getBulkBatchId());
+            } else {
+                if (((TSalesforceInputProperties) properties).pkChunking.getValue()) {
+                    bulkRuntime.setChunkDownloadProperties((TSalesforceInputProperties) properties);
+                }
+                executeSalesforceBulkQuery();
+            }
+        } catch (AsyncApiException | ConnectionException e) {
             // Wrap the exception in an IOException.
             throw new IOException(e);
         }
@@ -75,35 +85,62 @@ public class SalesforceBulkQueryInputReader extends SalesforceReader<IndexedReco
     }
 
     private boolean retrieveNextResultSet() throws IOException {
-        while (bulkRuntime.hasNextResultId()) {
-            String resultId = bulkRuntime.nextResultId();
-            if (null != resultId) {
-                try {
-                    // Get a new result set
-                    bulkResultSet = bulkRuntime.getQueryResultSet(resultId);
-                } catch (AsyncApiException | ConnectionException e) {
-                    throw new IOException(e);
-                }
+        while (true) {
+            try {
+                // Get a new result set
+                bulkResultSet = bulkRuntime.nextQueryResultSet();
+            } catch (AsyncApiException | ConnectionException e) {
+                throw new IOException(e);
+            }
+            if (null == bulkResultSet) {
+                return false;
+            }
 
-                currentRecord = bulkResultSet.next();
-                // If currentRecord is null, we need to check if resultId set has more entries.
-                if (null != currentRecord) {
-                    // New result set available to retrieve
-                    dataCount++;
-                    return true;
-                }
+            currentRecord = bulkResultSet.next();
+            // If currentRecord is null, we need to check if there are more result sets.
+            if (null != currentRecord) {
+                // New result set available to retrieve
+                dataCount++;
+                return true;
             }
         }
-        return false;
     }
 
     @Override
     public void close() throws IOException {
         try {
+            // The job of a split source is closed when the source is split
+            if (((SalesforceSource) getCurrentSource()).getBulkBatchId() == null) {
+                bulkRuntime.closeJob();
+            }
+        } catch (AsyncApiException | ConnectionException e) {
+            throw new IOException(e);
+        } finally {
+            bulkRuntime.close();
+        }
+    }
+
+    /**
+     * Runs the bulk query, waits for all its chunks to be processed, and closes the job.
+     *
+     * @return the ids of the batches with results, in the job returned by {@link SalesforceBulkRuntime#getJobId()}.
+     */
+    List<String> executeChunkedQuery() throws IOException {
+        bulkRuntime = new SalesforceBulkRuntime(((SalesforceSource) getCurrentSource()).connect(container).bulkConnection);
+        bulkRuntime.setChunkProperties((TSalesforceInputProperties) properties);
+        bulkRuntime.setSafetySwitch(((TSalesforceInputProperties) properties).safetySwitch.getValue());
+        bulkRuntime.setJobTimeout((TSalesforceInputProperties) properties);
+        try {
+            executeSalesforceBulkQuery();
             bulkRuntime.closeJob();
         } catch (AsyncApiException | ConnectionException e) {
             throw new IOException(e);
         }
+        return bulkRuntime.getResultBatchIds();
+    }
+
+    String getBulkJobId() {
+        return bulkRuntime.getJobId();
     }
 
     public BulkResult getCurrentRecord() throws NoSuchElementException {
@@ -113,6 +113,12 @@ public class SalesforceBulkRuntime {
 
     private long jobTimeOut;
 
+    private int chunkDownloadThreads;
+
+    private boolean keepChunkOrder;
+
+    private BulkQueryResultFetcher resultFetcher;
+
     private static final String PK_CHUNKING_HEADER_NAME = "Sforce-Enable-PKChunking";
 
     private static final String CHUNK_SIZE_PROPERTY_NAME = "chunkSize=";
@@ -153,10 +159,34 @@ public class SalesforceBulkRuntime {
         return chunkSleepTime;
     }
 
+    /**
+     * Sets up the parallel download of the results of the chunks.
+     *
+     * @param properties - Salesforce input properties.
+     */
+    public void setChunkDownloadProperties(TSalesforceInputProperties properties) {
+        if (properties.parallelChunkDownload.getValue()) {
+            Integer threads = properties.chunkDownloadThreads.getValue();
+            this.chunkDownloadThreads = threads == null || threads <= 0
+                    ? TSalesforceInputProperties.DEFAULT_CHUNK_DOWNLOAD_THREADS : threads;
+            this.keepChunkOrder = properties.keepChunkOrder.getValue();
+        } else {
+            this.chunkDownloadThreads = 0;
+        }
+    }
+
+    public int getChunkDownloadThreads() {
+        return chunkDownloadThreads;
+    }
+
     public void setSafetySwitch(boolean safetySwitch) {
         this.safetySwitch = safetySwitch;
     }
 
+    boolean isSafetySwitch() {
+        return safetySwitch;
+    }
+
     /**
      * Set the global timeout of the job.
      *
@@ -216,6 +246,58 @@ public class SalesforceBulkRuntime {
         prepareLog();
     }
 
+    /**
+     * Creates the job of a bulk operation, whose batches are then uploaded by {@link #createBatch(byte[])} while the
+     * data is produced, instead of being read from a bulk file.
+     */
+    public void startBulk(String sObjectType, OutputAction userOperation, String externalIdFieldName, int maxBytes,
+            int maxRows) throws AsyncApiException, ConnectionException {
+        setBulkOperation(sObjectType, userOperation, externalIdFieldName, "csv", null, maxBytes, maxRows);
+        job = createJob();
+    }
+
+    public int getMaxBytesPerBatch() {
+        return maxBytesPerBatch;
+    }
+
+    public int getMaxRowsPerBatch() {
+        return maxRowsPerBatch;
+    }
+
+    /**
+     * Uploads a batch of the job created by {@link #startBulk}.
+     *
+     * @param csv the CSV data of the batch, with its header row.
+     * @return the batch info of the new batch.
+     */
+    public BatchInfo createBatch(byte[] csv) throws AsyncApiException, ConnectionException {
+        try {
+            return bulkConnection.createBatchFromStream(job, new ByteArrayInputStream(csv));
+        } catch (AsyncApiException sfException) {
+            if (AsyncExceptionCode.InvalidSessionId.equals(sfException.getExceptionCode())) {
+                SalesforceRuntimeCommon.renewSession(bulkConnection.getConfig());
+                // The stream of the failed upload may have been read, upload the data again from the beginning
+                return createBatch(csv);
+            }
+            throw sfException;
+        }
+    }
+
+    /**
+     * Waits until a batch is processed by polling the Bulk API.
+     *
+     * @return the batch info of the processed batch.
+     */
+    public BatchInfo awaitBatch(BatchInfo batch) throws AsyncApiException, ConnectionException, InterruptedException {
+        BatchInfo info = batch;
+        while (info.getState() != BatchStateEnum.Completed && info.getState() != BatchStateEnum.Failed
+                && info.getState() != BatchStateEnum.NotProcessed) {
+            Thread.sleep(awaitTime);
+            info = getBatchInfo(job.getId(), batch.getId());
+        }
+        return info;
+    }
+
     private void prepareLog() throws IOException {
         br = new BufferedReader(new InputStreamReader(new FileInputStream(bulkFileName), FILE_ENCODING));
         baseFileReader = new com.csvreader.CsvReader(br, ',');
@@ -440,12 +522,17 @@ public class SalesforceBulkRuntime {
      * @throws IOException
      */
     private BulkResult getBaseFileRow() throws IOException {
-        BulkResult dataInfo = new BulkResult();
         if (baseFileReader.readRecord()) {
-            List<String> row = Arrays.asList(baseFileReader.getValues());
-            for (int i = 0; i < row.size(); i++) {
-                dataInfo.setValue(baseFileHeader.get(i), row.get(i));
-            }
+            return getCurrentBaseFileRow();
+        }
+        return new BulkResult();
+    }
+
+    private BulkResult getCurrentBaseFileRow() throws IOException {
+        BulkResult dataInfo = new BulkResult();
+        List<String> row = Arrays.asList(baseFileReader.getValues());
+        for (int i = 0; i < row.size(); i++) {
+            dataInfo.setValue(baseFileHeader.get(i), row.get(i));
         }
         return dataInfo;
     }
@@ -461,9 +548,43 @@ public class SalesforceBulkRuntime {
      */
     public List<BulkResult> getBatchLog(int batchNum) throws AsyncApiException, IOException, ConnectionException {
         // batchInfoList was populated when batches were created and submitted
+        return getBatchLog(batchInfoList.get(batchNum));
+    }
+
+    /**
+     * Gets the results of a batch uploaded by {@link #createBatch(byte[])}, joined with the rows of the batch.
+     *
+     * @param b - the processed batch.
+     * @param csv - the CSV data of the batch.
+     */
+    public List<BulkResult> getBatchLog(BatchInfo b, byte[] csv) throws AsyncApiException, IOException, ConnectionException {
+        baseFileReader = new com.csvreader.CsvReader(
+                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(csv), FILE_ENCODING)), ',');
+        try {
+            if (baseFileReader.readRecord()) {
+                baseFileHeader = Arrays.asList(baseFileReader.getValues());
+            }
+            if (BatchStateEnum.Completed != b.getState()) {
+                // The whole batch is rejected
+                List<BulkResult> resultInfoList = new ArrayList<BulkResult>();
+                while (baseFileReader.readRecord()) {
+                    BulkResult resultInfo = new BulkResult();
+                    resultInfo.copyValues(getCurrentBaseFileRow());
+                    resultInfo.setValue("Success", "false");
+                    resultInfo.setValue("Error", b.getStateMessage());
+                    resultInfoList.add(resultInfo);
+                }
+                return resultInfoList;
+            }
+            return getBatchLog(b);
+        } finally {
+            baseFileReader.close();
+        }
+    }
+
+    private List<BulkResult> getBatchLog(BatchInfo b) throws AsyncApiException, IOException, ConnectionException {
         List<BulkResult> resultInfoList = new ArrayList<BulkResult>();
         BulkResult resultInfo;
-        BatchInfo b = batchInfoList.get(batchNum);
         CSVReader rdr = new CSVReader(getBatchResultStream(job.getId(), b.getId()));
 
         List<String> resultHeader = rdr.nextRecord();
@@ -555,7 +676,68 @@ public class SalesforceBulkRuntime {
             }
         }
 
-        retrieveResultsOfQuery(info);
+        if (BatchStateEnum.NotProcessed == info.getState() && 0 < chunkDownloadThreads) {
+            // Read the chunks as soon as they are processed, while the other ones are downloaded.
+            this.batchInfoList = Collections.singletonList(info);
+            resultFetcher = new BulkQueryResultFetcher(this, job.getId(), info.getId(), chunkDownloadThreads, keepChunkOrder);
+            resultFetcher.start();
+        } else {
+            retrieveResultsOfQuery(info);
+        }
+    }
+
+    /**
+     * Returns the next result set of the bulk query, whether the results are downloaded in parallel or not.
+     *
+     * @return the next result set, or null if all of them were read.
+     */
+    public BulkResultSet nextQueryResultSet() throws AsyncApiException, IOException, ConnectionException {
+        if (resultFetcher != null) {
+            return resultFetcher.nextResultSet();
+        }
+        while (hasNextResultId()) {
+            String resultId = nextResultId();
+            if (null != resultId) {
+                return getQueryResultSet(resultId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the job and the batch to read the results of, when the job was created by another runtime.
+     *
+     * @param jobId - the id of the bulk query job.
+     * @param batchId - the id of one of its completed batches.
+     */
+    public void setQueryBatch(String jobId, String batchId) throws AsyncApiException, ConnectionException {
+        job = new JobInfo();
+        job.setId(jobId);
+        BatchInfo info = new BatchInfo();
+        info.setId(batchId);
+        info.setJobId(jobId);
+        this.batchInfoList = Collections.singletonList(info);
+        queryResultIDs = new HashSet<String>(Arrays.asList(getQueryResultList(jobId, batchId).getResult())).iterator();
+    }
+
+    public String getJobId() {
+        return job == null ? null : job.getId();
+    }
+
+    /**
+     * @return the ids of the batches which have results: the chunks when the primary key chunking is enabled, or the
+     * query batch.
+     */
+    public List<String> getResultBatchIds() {
+        List<String> batchIds = new ArrayList<>();
+        if (batchInfoList != null) {
+            for (BatchInfo info : batchInfoList) {
+                if (BatchStateEnum.Completed == info.getState()) {
+                    batchIds.add(info.getId());
+                }
+            }
+        }
+        return batchIds;
     }
 
     public BulkResultSet getQueryResultSet(String resultId) throws AsyncApiException, IOException, ConnectionException {
@@ -664,6 +846,10 @@ public class SalesforceBulkRuntime {
     }
 
     public void close() throws IOException {
+        if (resultFetcher != null) {
+            resultFetcher.close();
+            resultFetcher = null;
+        }
         if (br != null) {
             br.close();
         }
@@ -728,8 +914,7 @@ public class SalesforceBulkRuntime {
             isInProgress = isJobBatchesInProgress(batchInfoList, info);
             if (isInProgress) {
                 Thread.sleep(chunkSleepTime);
-                long processingTime = System.currentTimeMillis() - job.getCreatedDate().getTimeInMillis();
-                if (processingTime > MAX_BATCH_EXECUTION_TIME) {
+                if (isJobTimedOut()) {
                     // Break processing and return processed data if any batch was processed.
                     LOGGER.warn(MESSAGES.getMessage("warn.batch.timeout"));
                     break;
@@ -747,6 +932,14 @@ public class SalesforceBulkRuntime {
         this.batchInfoList = Arrays.asList(batchInfoList.getBatchInfo());
     }
 
+    /**
+     * @return true if the batches of the job were processed for too long, so that only the processed ones are read.
+     */
+    boolean isJobTimedOut() {
+        long processingTime = System.currentTimeMillis() - job.getCreatedDate().getTimeInMillis();
+        return processingTime > MAX_BATCH_EXECUTION_TIME;
+    }
+
     /**
      * Checks if job batch infos were processed correctly. Only if all batches were {@link BatchStateEnum#Completed} are acceptable.<br/>
      * If any of batches returns {@link BatchStateEnum#Failed} or {@link BatchStateEnum#NotProcessed} - throws an exception.
@@ -0,0 +1,53 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import org.talend.components.api.component.runtime.Sink;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.salesforce.tsalesforceoutputbulkstream.TSalesforceOutputBulkStreamProperties;
+import org.talend.daikon.properties.ValidationResult;
+import org.talend.daikon.properties.ValidationResult.Result;
+
+/**
+ * Sink of tSalesforceOutputBulkStream, which uploads the records without an intermediate bulk file.
+ */
+public class SalesforceBulkStreamSink extends SalesforceSourceOrSink implements Sink {
+
+    /** Default serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    public SalesforceBulkStreamSink() {
+    }
+
+    @Override
+    public ValidationResult validate(RuntimeContainer container) {
+        ValidationResult validate = super.validate(container);
+        // also check that the properties is the right type
+        if (validate.getStatus() != Result.ERROR) {
+            if (!(properties instanceof TSalesforceOutputBulkStreamProperties)) {
+                return new ValidationResult(Result.ERROR,
+                        "properties should be of type :" + TSalesforceOutputBulkStreamProperties.class.getCanonicalName());
+            }
+        }
+        return validate;
+    }
+
+    @Override
+    public SalesforceBulkStreamWriteOperation createWriteOperation() {
+        return new SalesforceBulkStreamWriteOperation(this);
+    }
+
+    public TSalesforceOutputBulkStreamProperties getSalesforceBulkStreamProperties() {
+        return (TSalesforceOutputBulkStreamProperties) properties;
+    }
+}
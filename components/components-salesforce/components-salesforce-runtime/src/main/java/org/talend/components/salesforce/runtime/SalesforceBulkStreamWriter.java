@@ -0,0 +1,295 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.talend.components.api.component.runtime.Result;
+import org.talend.components.api.component.runtime.WriteOperation;
+import org.talend.components.api.component.runtime.WriterWithFeedback;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.salesforce.tsalesforceoutputbulkstream.TSalesforceOutputBulkStreamProperties;
+import org.talend.daikon.avro.AvroUtils;
+
+import com.csvreader.CsvWriter;
+import com.sforce.async.AsyncApiException;
+import com.sforce.async.BatchInfo;
+import com.sforce.ws.ConnectionException;
+
+/**
+ * Upload the records with the Bulk API without an intermediate bulk file.
+ *
+ * The records are written in CSV in an in-memory batch, which is uploaded by a pool of threads when it reaches the size
+ * or the number of rows of a batch, while the next records are written. The data of the uploaded batches is kept until
+ * they are processed, to join it with their results, and the number of such batches is limited.
+ */
+final class SalesforceBulkStreamWriter implements WriterWithFeedback<Result, IndexedRecord, IndexedRecord> {
+
+    private transient static final Logger LOGGER = LoggerFactory.getLogger(SalesforceBulkStreamWriter.class);
+
+    private final SalesforceBulkStreamWriteOperation writeOperation;
+
+    private final RuntimeContainer container;
+
+    private final TSalesforceOutputBulkStreamProperties sprops;
+
+    private final int uploadThreads;
+
+    /** The number of batches which can be uploaded and not joined with their results yet. */
+    private final int maxPendingBatches;
+
+    private String uId;
+
+    private SalesforceBulkRuntime bulkRuntime;
+
+    /** Formats the header and the values of the records like the bulk file. */
+    private SalesforceBulkFileWriter formatter;
+
+    private ExecutorService uploadExecutor;
+
+    private final Deque<PendingBatch> pendingBatches = new ArrayDeque<>();
+
+    /** The CSV line of the header, written at the beginning of each batch. */
+    private byte[] header;
+
+    private ByteArrayOutputStream batch;
+
+    private int batchRows;
+
+    private final ByteArrayOutputStream row = new ByteArrayOutputStream();
+
+    private CsvWriter rowWriter;
+
+    private int dataCount;
+
+    private int successCount;
+
+    private int rejectCount;
+
+    private transient BulkResultAdapterFactory flowFactory;
+
+    private transient BulkResultAdapterFactory rejectFactory;
+
+    private final List<IndexedRecord> successfulWrites = new ArrayList<>();
+
+    private final List<IndexedRecord> rejectedWrites = new ArrayList<>();
+
+    public SalesforceBulkStreamWriter(SalesforceBulkStreamWriteOperation writeOperation, RuntimeContainer container) {
+        this.writeOperation = writeOperation;
+        this.container = container;
+        this.sprops = writeOperation.getSink().getSalesforceBulkStreamProperties();
+        Integer threads = sprops.uploadThreads.getValue();
+        this.uploadThreads = threads == null || threads <= 0
+                ? TSalesforceOutputBulkStreamProperties.DEFAULT_UPLOAD_THREADS : threads;
+        this.maxPendingBatches = uploadThreads * 2;
+    }
+
+    @Override
+    public void open(String uId) throws IOException {
+        this.uId = uId;
+        bulkRuntime = new SalesforceBulkRuntime(writeOperation.getSink().connect(container).bulkConnection);
+        bulkRuntime.setConcurrencyMode(sprops.bulkProperties.concurrencyMode.getValue());
+        bulkRuntime.setAwaitTime(sprops.bulkProperties.waitTimeCheckBatchState.getValue());
+        try {
+            bulkRuntime.startBulk(sprops.module.moduleName.getStringValue(), sprops.outputAction.getValue(),
+                    sprops.upsertKeyColumn.getStringValue(), sprops.bulkProperties.bytesToCommit.getValue(),
+                    sprops.bulkProperties.rowsToCommit.getValue());
+        } catch (AsyncApiException | ConnectionException e) {
+            throw new IOException(e);
+        }
+        formatter = new SalesforceBulkFileWriter(writeOperation, sprops.getBulkFileProperties(), container);
+        rowWriter = new CsvWriter(row, ',', StandardCharsets.UTF_8);
+        rowWriter.setRecordDelimiter('\n');
+        uploadExecutor = Executors.newFixedThreadPool(uploadThreads);
+
+        flowFactory = new BulkResultAdapterFactory();
+        flowFactory.setSchema(sprops.schemaFlow.schema.getValue());
+        rejectFactory = new BulkResultAdapterFactory();
+        rejectFactory.setSchema(sprops.schemaReject.schema.getValue());
+    }
+
+    @Override
+    public void write(Object datum) throws IOException {
+        if (null == datum) {
+            return;
+        }
+        dataCount++;
+        if (header == null) {
+            Schema schema = sprops.module.main.schema.getValue();
+            if (AvroUtils.isIncludeAllFields(schema)) {
+                schema = ((IndexedRecord) datum).getSchema();
+            }
+            header = writeRow(formatter.getHeaders(schema));
+        }
+
+        List<String> values = formatter.getValues(datum);
+        byte[] line = writeRow(values.toArray(new String[values.size()]));
+
+        // Create a new batch when our batch size limit is reached
+        if (batch != null && (batch.size() + line.length > bulkRuntime.getMaxBytesPerBatch()
+                || batchRows >= bulkRuntime.getMaxRowsPerBatch())) {
+            uploadBatch();
+        }
+        if (batch == null) {
+            batch = new ByteArrayOutputStream(Math.min(bulkRuntime.getMaxBytesPerBatch(), 1024 * 1024));
+            batch.write(header);
+        }
+        batch.write(line);
+        batchRows++;
+    }
+
+    /**
+     * @return the CSV line of the values.
+     */
+    private byte[] writeRow(String[] values) throws IOException {
+        rowWriter.writeRecord(values);
+        rowWriter.flush();
+        byte[] line = row.toByteArray();
+        row.reset();
+        return line;
+    }
+
+    /**
+     * Submits the upload of the current batch, and waits for the oldest ones if there are too many pending batches.
+     */
+    private void uploadBatch() throws IOException {
+        final byte[] csv = batch.toByteArray();
+        batch = null;
+        batchRows = 0;
+        Future<BatchInfo> upload = uploadExecutor.submit(new Callable<BatchInfo>() {
+
+            @Override
+            public BatchInfo call() throws Exception {
+                return bulkRuntime.createBatch(csv);
+            }
+        });
+        pendingBatches.add(new PendingBatch(upload, csv));
+        while (pendingBatches.size() > maxPendingBatches) {
+            handleResults(pendingBatches.poll());
+        }
+    }
+
+    /**
+     * Waits for a batch to be processed, and sorts its results in the successful and the rejected writes.
+     */
+    private void handleResults(PendingBatch pending) throws IOException {
+        try {
+            BatchInfo info = bulkRuntime.awaitBatch(pending.upload.get());
+            for (BulkResult result : bulkRuntime.getBatchLog(info, pending.csv)) {
+                if ("true".equalsIgnoreCase(String.valueOf(result.getValue("Success")))) {
+                    successCount++;
+                    successfulWrites.add(flowFactory.convertToAvro(result));
+                } else {
+                    rejectCount++;
+                    result.setValue("error", result.getValue("Error"));
+                    rejectedWrites.add(rejectFactory.convertToAvro(result));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (AsyncApiException | ConnectionException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Result close() throws IOException {
+        try {
+            if (batch != null) {
+                uploadBatch();
+            }
+            // Wait for all the uploads before closing the job
+            for (PendingBatch pending : pendingBatches) {
+                try {
+                    pending.upload.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+            try {
+                bulkRuntime.closeJob();
+            } catch (AsyncApiException | ConnectionException e) {
+                throw new IOException(e);
+            }
+            while (!pendingBatches.isEmpty()) {
+                handleResults(pendingBatches.poll());
+            }
+        } finally {
+            if (uploadExecutor != null) {
+                uploadExecutor.shutdownNow();
+            }
+            if (rowWriter != null) {
+                rowWriter.close();
+            }
+        }
+        LOGGER.debug("Bulk job {} done: {} rows, {} succeeded, {} rejected", bulkRuntime.getJobId(), dataCount,
+                successCount, rejectCount);
+        return new Result(uId, dataCount, successCount, rejectCount);
+    }
+
+    @Override
+    public WriteOperation<Result> getWriteOperation() {
+        return writeOperation;
+    }
+
+    @Override
+    public List<IndexedRecord> getSuccessfulWrites() {
+        return Collections.unmodifiableList(successfulWrites);
+    }
+
+    @Override
+    public List<IndexedRecord> getRejectedWrites() {
+        return Collections.unmodifiableList(rejectedWrites);
+    }
+
+    @Override
+    public void cleanWrites() {
+        successfulWrites.clear();
+        rejectedWrites.clear();
+    }
+
+    private static class PendingBatch {
+
+        private final Future<BatchInfo> upload;
+
+        private final byte[] csv;
+
+        private PendingBatch(Future<BatchInfo> upload, byte[] csv) {
+            this.upload = upload;
+            this.csv = csv;
+        }
+    }
+}
@@ -31,17 +31,59 @@ public class SalesforceSource extends SalesforceSourceOrSink implements BoundedS
 
     private static final Logger LOG = LoggerFactory.getLogger(SalesforceSource.class);
 
+    /** The bulk query job, when the source reads only one of its chunks. */
+    private String bulkJobId;
+
+    /** The chunk batch read by the source. */
+    private String bulkBatchId;
+
     public SalesforceSource() {
     }
 
+    /**
+     * When the chunks of a bulk query are downloaded in parallel, the query is run and each of its chunks is read by a
+     * different source.
+     */
     @Override
     public List<? extends BoundedSource> splitIntoBundles(long desiredBundleSizeBytes, RuntimeContainer adaptor)
             throws Exception {
         List<BoundedSource> list = new ArrayList<>();
+        if (bulkBatchId == null && isChunkedBulkQuery()) {
+            TSalesforceInputProperties sfInProperties = (TSalesforceInputProperties) properties;
+            sfInProperties.connection.bulkConnection.setValue(true);
+            SalesforceBulkQueryInputReader reader = new SalesforceBulkQueryInputReader(adaptor, this, sfInProperties);
+            List<String> batchIds = reader.executeChunkedQuery();
+            LOG.debug("Bulk query job {} split in {} chunks", reader.getBulkJobId(), batchIds.size());
+            for (String batchId : batchIds) {
+                SalesforceSource source = new SalesforceSource();
+                source.initialize(adaptor, sfInProperties);
+                source.bulkJobId = reader.getBulkJobId();
+                source.bulkBatchId = batchId;
+                list.add(source);
+            }
+            return list;
+        }
         list.add(this);
         return list;
     }
 
+    private boolean isChunkedBulkQuery() {
+        if (!(properties instanceof TSalesforceInputProperties)) {
+            return false;
+        }
+        TSalesforceInputProperties sfInProperties = (TSalesforceInputProperties) properties;
+        return TSalesforceInputProperties.QueryMode.Bulk.equals(sfInProperties.queryMode.getValue())
+                && sfInProperties.pkChunking.getValue() && sfInProperties.parallelChunkDownload.getValue();
+    }
+
+    String getBulkJobId() {
+        return bulkJobId;
+    }
+
+    String getBulkBatchId() {
+        return bulkBatchId;
+    }
+
     @Override
     public long getEstimatedSizeBytes(RuntimeContainer adaptor) {
         return 0;
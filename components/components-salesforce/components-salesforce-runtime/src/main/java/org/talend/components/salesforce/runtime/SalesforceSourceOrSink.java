@@ -59,6 +59,7 @@ import org.talend.daikon.sandbox.SandboxedInstance;
 
 import com.sforce.async.AsyncApiException;
 import com.sforce.async.BulkConnection;
+import com.sforce.soap.partner.CallOptions_element;
 import com.sforce.soap.partner.DescribeGlobalResult;
 import com.sforce.soap.partner.DescribeGlobalSObjectResult;
 import com.sforce.soap.partner.DescribeSObjectResult;
@@ -262,17 +263,21 @@ public class SalesforceSourceOrSink implements SalesforceRuntimeSourceOrSink, Sa
 
             @Override
             public SessionRenewalHeader renewSession(ConnectorConfig connectorConfig) throws ConnectionException {
-                LOG.debug("renewing session...");
-                SessionRenewalHeader header = new SessionRenewalHeader();
-                connectorConfig.setSessionId(null);
-                PartnerConnection connection = doConnection(connectorConfig, true);
-                // update the connection session header
-                ch.connection.setSessionHeader(connection.getSessionHeader().getSessionId());
-
-                header.name = new QName("urn:partner.soap.sforce.com", "SessionHeader");
-                header.headerElement = connection.getSessionHeader();
-                LOG.debug("session renewed!");
-                return header;
+                // The connections created by createCallConnection share the configuration, and can renew the session at
+                // the same time
+                synchronized (connectorConfig) {
+                    LOG.debug("renewing session...");
+                    SessionRenewalHeader header = new SessionRenewalHeader();
+                    connectorConfig.setSessionId(null);
+                    PartnerConnection connection = doConnection(connectorConfig, true);
+                    // update the connection session header
+                    ch.connection.setSessionHeader(connection.getSessionHeader().getSessionId());
+
+                    header.name = new QName("urn:partner.soap.sforce.com", "SessionHeader");
+                    header.headerElement = connection.getSessionHeader();
+                    LOG.debug("session renewed!");
+                    return header;
+                }
             }
         });
 
@@ -321,6 +326,44 @@ public class SalesforceSourceOrSink implements SalesforceRuntimeSourceOrSink, Sa
         }
     }
 
+    /**
+     * Create another connection with the session of the given connection, so that several calls can be made at the same
+     * time.
+     *
+     * The new connection shares the configuration of the given connection, so a timed out session is renewed by the
+     * same {@link SessionRenewer}, which updates the session of the given connection. The callers must use this renewed
+     * session for the next calls of the new connection, see {@link #syncSession(PartnerConnection, PartnerConnection)}.
+     */
+    protected PartnerConnection createCallConnection(PartnerConnection connection) throws IOException {
+        try {
+            PartnerConnection callConnection = new PartnerConnection(connection.getConfig());
+            callConnection.setSessionHeader(connection.getSessionHeader().getSessionId());
+            CallOptions_element callOptions = connection.getCallOptions();
+            if (callOptions != null) {
+                callConnection.setCallOptions(callOptions.getClient(), callOptions.getDefaultNamespace());
+            }
+            return callConnection;
+        } catch (ConnectionException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Use the current session of the given connection for a connection created by
+     * {@link #createCallConnection(PartnerConnection)}, after the session has been renewed by any of them.
+     */
+    protected static void syncSession(PartnerConnection connection, PartnerConnection callConnection) {
+        if (callConnection == connection) {
+            return;
+        }
+        synchronized (connection.getConfig()) {
+            String sessionId = connection.getSessionHeader().getSessionId();
+            if (!sessionId.equals(callConnection.getSessionHeader().getSessionId())) {
+                callConnection.setSessionHeader(sessionId);
+            }
+        }
+    }
+
     private static RuntimeInfo getStaticRuntimeInfo() {
         // since the runtime is executed from this class we don't need any dependencies, they should be resolved
         // already.
@@ -17,12 +17,22 @@ import static org.talend.components.salesforce.SalesforceOutputProperties.Output
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -93,6 +103,9 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
 
     protected final int commitLevel;
 
+    /** The number of calls which can be in flight at the same time, 1 to wait for the result of each call. */
+    protected final int concurrentCalls;
+
     protected boolean exceptionForErrors;
 
     private int dataCount;
@@ -121,6 +134,13 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
 
     private BufferedWriter logWriter;
 
+    private ExecutorService callExecutor;
+
+    /** The connections which are not used by a call in flight. */
+    private BlockingQueue<PartnerConnection> callConnections;
+
+    private final Deque<PendingCall> pendingCalls = new ArrayDeque<>();
+
     public SalesforceWriter(SalesforceWriteOperation salesforceWriteOperation, RuntimeContainer container) {
         this.salesforceWriteOperation = salesforceWriteOperation;
         this.container = container;
@@ -131,6 +151,12 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         } else {
             commitLevel = 1;
         }
+        Integer calls = sprops.concurrentCalls.getValue();
+        if (sprops.extendInsert.getValue() && calls != null && calls > 1) {
+            concurrentCalls = calls;
+        } else {
+            concurrentCalls = 1;
+        }
         int arraySize = commitLevel * 2;
         deleteItems = new ArrayList<>(arraySize);
         insertItems = new ArrayList<>(arraySize);
@@ -160,6 +186,15 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         if (!StringUtils.isEmpty(sprops.logFileName.getValue())) {
             logWriter = new BufferedWriter(new FileWriter(sprops.logFileName.getValue()));
         }
+
+        if (concurrentCalls > 1) {
+            callConnections = new ArrayBlockingQueue<>(concurrentCalls);
+            callConnections.add(connection);
+            for (int i = 1; i < concurrentCalls; i++) {
+                callConnections.add(sink.createCallConnection(connection));
+            }
+            callExecutor = Executors.newFixedThreadPool(concurrentCalls);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -334,26 +369,27 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         if (insertItems.size() > 0) {
             // Clean the feedback records at each batch write.
             cleanWrites();
-            SObject[] accs = new SObject[insertItems.size()];
+            final SObject[] accs = new SObject[insertItems.size()];
             for (int i = 0; i < insertItems.size(); i++) {
                 accs[i] = createSObject(insertItems.get(i));
             }
 
             String[] changedItemKeys = new String[accs.length];
+            if (concurrentCalls > 1) {
+                submit(new SalesforceCall() {
+
+                    @Override
+                    public Object[] call(PartnerConnection callConnection) throws ConnectionException {
+                        return callConnection.create(accs);
+                    }
+                }, insertItems, changedItemKeys);
+                insertItems.clear();
+                return null;
+            }
             SaveResult[] saveResults;
             try {
                 saveResults = connection.create(accs);
-                if (saveResults != null && saveResults.length != 0) {
-                    int batch_idx = -1;
-                    for (int i = 0; i < saveResults.length; i++) {
-                        ++batch_idx;
-                        if (saveResults[i].getSuccess()) {
-                            handleSuccess(insertItems.get(i), saveResults[i].getId(), null);
-                        } else {
-                            handleReject(insertItems.get(i), saveResults[i].getErrors(), changedItemKeys, batch_idx);
-                        }
-                    }
-                }
+                handleSaveResults(insertItems, saveResults, changedItemKeys);
                 insertItems.clear();
                 return saveResults;
             } catch (ConnectionException e) {
@@ -363,6 +399,21 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         return null;
     }
 
+    private void handleSaveResults(List<IndexedRecord> items, SaveResult[] saveResults, String[] changedItemKeys)
+            throws IOException {
+        if (saveResults != null && saveResults.length != 0) {
+            int batch_idx = -1;
+            for (int i = 0; i < saveResults.length; i++) {
+                ++batch_idx;
+                if (saveResults[i].getSuccess()) {
+                    handleSuccess(items.get(i), saveResults[i].getId(), null);
+                } else {
+                    handleReject(items.get(i), saveResults[i].getErrors(), changedItemKeys, batch_idx);
+                }
+            }
+        }
+    }
+
     private SaveResult[] update(IndexedRecord input) throws IOException {
         updateItems.add(input);
         if (updateItems.size() >= commitLevel) {
@@ -375,7 +426,7 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         if (updateItems.size() > 0) {
             // Clean the feedback records at each batch write.
             cleanWrites();
-            SObject[] upds = new SObject[updateItems.size()];
+            final SObject[] upds = new SObject[updateItems.size()];
             for (int i = 0; i < updateItems.size(); i++) {
                 upds[i] = createSObject(updateItems.get(i));
             }
@@ -384,21 +435,21 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
             for (int ix = 0; ix < upds.length; ++ix) {
                 changedItemKeys[ix] = upds[ix].getId();
             }
+            if (concurrentCalls > 1) {
+                submit(new SalesforceCall() {
+
+                    @Override
+                    public Object[] call(PartnerConnection callConnection) throws ConnectionException {
+                        return callConnection.update(upds);
+                    }
+                }, updateItems, changedItemKeys);
+                updateItems.clear();
+                return null;
+            }
             SaveResult[] saveResults;
             try {
                 saveResults = connection.update(upds);
-                upds = null;
-                if (saveResults != null && saveResults.length != 0) {
-                    int batch_idx = -1;
-                    for (int i = 0; i < saveResults.length; i++) {
-                        ++batch_idx;
-                        if (saveResults[i].getSuccess()) {
-                            handleSuccess(updateItems.get(i), saveResults[i].getId(), null);
-                        } else {
-                            handleReject(updateItems.get(i), saveResults[i].getErrors(), changedItemKeys, batch_idx);
-                        }
-                    }
-                }
+                handleSaveResults(updateItems, saveResults, changedItemKeys);
                 updateItems.clear();
                 return saveResults;
             } catch (ConnectionException e) {
@@ -420,7 +471,7 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         if (upsertItems.size() > 0) {
             // Clean the feedback records at each batch write.
             cleanWrites();
-            SObject[] upds = new SObject[upsertItems.size()];
+            final SObject[] upds = new SObject[upsertItems.size()];
             for (int i = 0; i < upsertItems.size(); i++) {
                 upds[i] = createSObjectForUpsert(upsertItems.get(i));
             }
@@ -432,25 +483,22 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
                     changedItemKeys[ix] = String.valueOf(value);
                 }
             }
+            if (concurrentCalls > 1) {
+                final String externalIdFieldName = upsertKeyColumn;
+                submit(new SalesforceCall() {
+
+                    @Override
+                    public Object[] call(PartnerConnection callConnection) throws ConnectionException {
+                        return callConnection.upsert(externalIdFieldName, upds);
+                    }
+                }, upsertItems, changedItemKeys);
+                upsertItems.clear();
+                return null;
+            }
             UpsertResult[] upsertResults;
             try {
                 upsertResults = connection.upsert(upsertKeyColumn, upds);
-                upds = null;
-                if (upsertResults != null && upsertResults.length != 0) {
-                    int batch_idx = -1;
-                    for (int i = 0; i < upsertResults.length; i++) {
-                        ++batch_idx;
-                        if (upsertResults[i].getSuccess()) {
-                            if (upsertResults[i].getCreated()) {
-                                handleSuccess(upsertItems.get(i), upsertResults[i].getId(), "created");
-                            } else {
-                                handleSuccess(upsertItems.get(i), upsertResults[i].getId(), "updated");
-                            }
-                        } else {
-                            handleReject(upsertItems.get(i), upsertResults[i].getErrors(), changedItemKeys, batch_idx);
-                        }
-                    }
-                }
+                handleUpsertResults(upsertItems, upsertResults, changedItemKeys);
                 upsertItems.clear();
                 return upsertResults;
             } catch (ConnectionException e) {
@@ -461,6 +509,25 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
 
     }
 
+    private void handleUpsertResults(List<IndexedRecord> items, UpsertResult[] upsertResults, String[] changedItemKeys)
+            throws IOException {
+        if (upsertResults != null && upsertResults.length != 0) {
+            int batch_idx = -1;
+            for (int i = 0; i < upsertResults.length; i++) {
+                ++batch_idx;
+                if (upsertResults[i].getSuccess()) {
+                    if (upsertResults[i].getCreated()) {
+                        handleSuccess(items.get(i), upsertResults[i].getId(), "created");
+                    } else {
+                        handleSuccess(items.get(i), upsertResults[i].getId(), "updated");
+                    }
+                } else {
+                    handleReject(items.get(i), upsertResults[i].getErrors(), changedItemKeys, batch_idx);
+                }
+            }
+        }
+    }
+
     private void handleSuccess(IndexedRecord input, String id, String status) {
         successCount++;
         Schema outSchema = sprops.schemaFlow.schema.getValue();
@@ -628,26 +695,27 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         if (deleteItems.size() > 0) {
             // Clean the feedback records at each batch write.
             cleanWrites();
-            String[] delIDs = new String[deleteItems.size()];
+            final String[] delIDs = new String[deleteItems.size()];
             String[] changedItemKeys = new String[delIDs.length];
             for (int ix = 0; ix < delIDs.length; ++ix) {
                 delIDs[ix] = (String) deleteItems.get(ix).get(deleteFieldId);
                 changedItemKeys[ix] = delIDs[ix];
             }
+            if (concurrentCalls > 1) {
+                submit(new SalesforceCall() {
+
+                    @Override
+                    public Object[] call(PartnerConnection callConnection) throws ConnectionException {
+                        return callConnection.delete(delIDs);
+                    }
+                }, deleteItems, changedItemKeys);
+                deleteItems.clear();
+                return null;
+            }
             DeleteResult[] dr;
             try {
                 dr = connection.delete(delIDs);
-                if (dr != null && dr.length != 0) {
-                    int batch_idx = -1;
-                    for (int i = 0; i < dr.length; i++) {
-                        ++batch_idx;
-                        if (dr[i].getSuccess()) {
-                            handleSuccess(deleteItems.get(i), dr[i].getId(), null);
-                        } else {
-                            handleReject(deleteItems.get(i), dr[i].getErrors(), changedItemKeys, batch_idx);
-                        }
-                    }
-                }
+                handleDeleteResults(deleteItems, dr, changedItemKeys);
                 deleteItems.clear();
                 return dr;
             } catch (ConnectionException e) {
@@ -657,9 +725,86 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
         return null;
     }
 
+    private void handleDeleteResults(List<IndexedRecord> items, DeleteResult[] dr, String[] changedItemKeys)
+            throws IOException {
+        if (dr != null && dr.length != 0) {
+            int batch_idx = -1;
+            for (int i = 0; i < dr.length; i++) {
+                ++batch_idx;
+                if (dr[i].getSuccess()) {
+                    handleSuccess(items.get(i), dr[i].getId(), null);
+                } else {
+                    handleReject(items.get(i), dr[i].getErrors(), changedItemKeys, batch_idx);
+                }
+            }
+        }
+    }
+
+    /**
+     * Make a call with one of the free connections, and handle the results of the oldest calls while the number of
+     * calls in flight is at the limit. The results are handled in the order of the calls.
+     */
+    private void submit(final SalesforceCall call, List<IndexedRecord> items, String[] changedItemKeys)
+            throws IOException {
+        Future<Object[]> results = callExecutor.submit(new Callable<Object[]>() {
+
+            @Override
+            public Object[] call() throws Exception {
+                PartnerConnection callConnection = callConnections.take();
+                try {
+                    SalesforceSourceOrSink.syncSession(connection, callConnection);
+                    return call.call(callConnection);
+                } finally {
+                    callConnections.add(callConnection);
+                }
+            }
+        });
+        pendingCalls.add(new PendingCall(results, new ArrayList<>(items), changedItemKeys));
+        while (pendingCalls.size() > concurrentCalls) {
+            handlePendingCall(pendingCalls.poll());
+        }
+    }
+
+    private void handlePendingCall(PendingCall pendingCall) throws IOException {
+        Object[] results;
+        try {
+            results = pendingCall.results.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        switch (sprops.outputAction.getValue()) {
+        case UPSERT:
+            handleUpsertResults(pendingCall.items, (UpsertResult[]) results, pendingCall.changedItemKeys);
+            break;
+        case DELETE:
+            handleDeleteResults(pendingCall.items, (DeleteResult[]) results, pendingCall.changedItemKeys);
+            break;
+        default:
+            handleSaveResults(pendingCall.items, (SaveResult[]) results, pendingCall.changedItemKeys);
+            break;
+        }
+    }
+
     @Override
     public Result close() throws IOException {
-        logout();
+        try {
+            if (!pendingCalls.isEmpty()) {
+                // Clean the feedback records of the last write before adding the results of the calls in flight.
+                cleanWrites();
+            }
+            logout();
+            // Wait for the calls in flight
+            while (!pendingCalls.isEmpty()) {
+                handlePendingCall(pendingCalls.poll());
+            }
+        } finally {
+            if (callExecutor != null) {
+                callExecutor.shutdownNow();
+            }
+        }
         LOGGER.info(MESSAGES.getMessage("info.seccessfulRecords", getPastForm(sprops.outputAction.getValue()), successCount));
         LOGGER.info(MESSAGES.getMessage("info.rejectedRecords", rejectCount));
         LOGGER.info(MESSAGES.getMessage("info.finishMessage"));
@@ -737,4 +882,27 @@ final class SalesforceWriter implements WriterWithFeedback<Result, IndexedRecord
 
         return MESSAGES.getMessage(String.format("outputAction.%s.pastForm", outputAction.name()));
     }
+
+    /**
+     * A call of the SOAP API for a batch of records.
+     */
+    private interface SalesforceCall {
+
+        Object[] call(PartnerConnection callConnection) throws ConnectionException;
+    }
+
+    private static class PendingCall {
+
+        private final Future<Object[]> results;
+
+        private final List<IndexedRecord> items;
+
+        private final String[] changedItemKeys;
+
+        private PendingCall(Future<Object[]> results, List<IndexedRecord> items, String[] changedItemKeys) {
+            this.results = results;
+            this.items = items;
+            this.changedItemKeys = changedItemKeys;
+        }
+    }
 }
@@ -18,12 +18,17 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.talend.components.salesforce.runtime.BulkResult;
 import org.talend.components.salesforce.runtime.SalesforceBulkRuntime;
 import org.talend.components.salesforce.tsalesforceinput.TSalesforceInputProperties;
 
+import com.sforce.async.BatchInfo;
+import com.sforce.async.BatchStateEnum;
 import com.sforce.async.BulkConnection;
 import com.sforce.async.ConcurrencyMode;
 
@@ -79,6 +84,36 @@ public class SalesforceBulkRuntimeTest {
         assertEquals(TSalesforceInputProperties.MAX_CHUNK_SIZE, runtime.getChunkSize());
     }
 
+    @Test
+    public void testSetChunkDownload() throws IOException {
+        runtime.setChunkDownloadProperties(inputProperties);
+        assertEquals(0, runtime.getChunkDownloadThreads());
+
+        inputProperties.parallelChunkDownload.setValue(true);
+        inputProperties.chunkDownloadThreads.setValue(0);
+        runtime.setChunkDownloadProperties(inputProperties);
+        assertEquals(TSalesforceInputProperties.DEFAULT_CHUNK_DOWNLOAD_THREADS, runtime.getChunkDownloadThreads());
+
+        inputProperties.chunkDownloadThreads.setValue(8);
+        runtime.setChunkDownloadProperties(inputProperties);
+        assertEquals(8, runtime.getChunkDownloadThreads());
+    }
+
+    @Test
+    public void testFailedStreamBatchLog() throws Exception {
+        BatchInfo batch = new BatchInfo();
+        batch.setState(BatchStateEnum.Failed);
+        batch.setStateMessage("InvalidBatch");
+        byte[] csv = "Name,Phone\nfoo,123\nbar,456\n".getBytes(StandardCharsets.UTF_8);
+
+        List<BulkResult> results = runtime.getBatchLog(batch, csv);
+        assertEquals(2, results.size());
+        assertEquals("foo", results.get(0).getValue("Name"));
+        assertEquals("456", results.get(1).getValue("Phone"));
+        assertEquals("false", results.get(1).getValue("Success"));
+        assertEquals("InvalidBatch", results.get(1).getValue("Error"));
+    }
+
     @Test
     public void testSetConcurrencyMode() throws IOException {
         runtime.setConcurrencyMode(SalesforceBulkProperties.Concurrency.Serial);
@@ -0,0 +1,141 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.sforce.async.BatchInfo;
+import com.sforce.async.BatchInfoList;
+import com.sforce.async.BatchStateEnum;
+import com.sforce.async.BulkConnection;
+import com.sforce.async.QueryResultList;
+
+/**
+ * Unit tests for {@link BulkQueryResultFetcher}.
+ */
+public class BulkQueryResultFetcherTest {
+
+    private static final String JOB_ID = "job";
+
+    private BulkConnection conn;
+
+    private SalesforceBulkRuntime runtime;
+
+    @Before
+    public void setUp() throws Exception {
+        conn = mock(BulkConnection.class);
+        runtime = new SalesforceBulkRuntime(conn);
+
+        BatchInfoList batchInfoList = new BatchInfoList();
+        batchInfoList.setBatchInfo(new BatchInfo[] { batch("query", BatchStateEnum.NotProcessed),
+                batch("chunk1", BatchStateEnum.Completed), batch("chunk2", BatchStateEnum.Completed) });
+        when(conn.getBatchInfoList(JOB_ID)).thenReturn(batchInfoList);
+        when(conn.getQueryResultList(JOB_ID, "chunk1")).thenReturn(results("result1", "result2"));
+        when(conn.getQueryResultList(JOB_ID, "chunk2")).thenReturn(results("result3"));
+        when(conn.getQueryResultStream(eq(JOB_ID), anyString(), anyString())).thenAnswer(new Answer<Object>() {
+
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                String resultId = (String) invocation.getArguments()[2];
+                String csv = "\"Id\",\"Name\"\n\"" + resultId + "-1\",\"a\"\n\"" + resultId + "-2\",\"b\"\n";
+                return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private static BatchInfo batch(String id, BatchStateEnum state) {
+        BatchInfo batch = new BatchInfo();
+        batch.setId(id);
+        batch.setJobId(JOB_ID);
+        batch.setState(state);
+        return batch;
+    }
+
+    private static QueryResultList results(String... ids) {
+        QueryResultList list = new QueryResultList();
+        list.setResult(ids);
+        return list;
+    }
+
+    private static List<String> readAll(BulkQueryResultFetcher fetcher) throws IOException {
+        List<String> ids = new ArrayList<>();
+        BulkResultSet resultSet;
+        while ((resultSet = fetcher.nextResultSet()) != null) {
+            BulkResult result;
+            while ((result = resultSet.next()) != null) {
+                ids.add((String) result.getValue("Id"));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void testOrdered() throws Exception {
+        BulkQueryResultFetcher fetcher = new BulkQueryResultFetcher(runtime, JOB_ID, "query", 2, true);
+        fetcher.start();
+        try {
+            List<String> ids = readAll(fetcher);
+            Assert.assertEquals(6, ids.size());
+            // The results of the first chunk come first
+            Assert.assertTrue(ids.indexOf("result3-1") >= 4);
+            Assert.assertTrue(ids.indexOf("result3-1") < ids.indexOf("result3-2"));
+        } finally {
+            fetcher.close();
+        }
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+        BulkQueryResultFetcher fetcher = new BulkQueryResultFetcher(runtime, JOB_ID, "query", 3, false);
+        fetcher.start();
+        try {
+            List<String> ids = readAll(fetcher);
+            Collections.sort(ids);
+            Assert.assertEquals(Arrays.asList("result1-1", "result1-2", "result2-1", "result2-2", "result3-1", "result3-2"),
+                    ids);
+            // The end is returned again
+            Assert.assertNull(fetcher.nextResultSet());
+        } finally {
+            fetcher.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testDownloadError() throws Exception {
+        when(conn.getQueryResultStream(JOB_ID, "chunk2", "result3")).thenThrow(new RuntimeException("download failed"));
+        BulkQueryResultFetcher fetcher = new BulkQueryResultFetcher(runtime, JOB_ID, "query", 2, true);
+        fetcher.start();
+        try {
+            readAll(fetcher);
+        } finally {
+            fetcher.close();
+        }
+    }
+}
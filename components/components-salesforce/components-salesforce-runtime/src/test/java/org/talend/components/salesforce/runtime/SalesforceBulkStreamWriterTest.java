@@ -0,0 +1,238 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2018 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.talend.components.api.component.runtime.Result;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.salesforce.SalesforceOutputProperties.OutputAction;
+import org.talend.components.salesforce.runtime.common.ConnectionHolder;
+import org.talend.components.salesforce.tsalesforceoutputbulkstream.TSalesforceOutputBulkStreamProperties;
+
+import com.sforce.async.AsyncApiException;
+import com.sforce.async.AsyncExceptionCode;
+import com.sforce.async.BatchInfo;
+import com.sforce.async.BatchStateEnum;
+import com.sforce.async.BulkConnection;
+import com.sforce.async.JobInfo;
+import com.sforce.ws.ConnectorConfig;
+import com.sforce.ws.SessionRenewer;
+
+/**
+ * Unit-tests for {@link SalesforceBulkStreamWriter} class, on a mocked bulk connection.
+ */
+public class SalesforceBulkStreamWriterTest {
+
+    private Schema schema = SchemaBuilder.record("record").fields().requiredString("Name").endRecord();
+
+    private TSalesforceOutputBulkStreamProperties properties;
+
+    private BulkConnection bulkConnection;
+
+    private final AtomicInteger renewals = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new TSalesforceOutputBulkStreamProperties("foo");
+        properties.init();
+        properties.module.moduleName.setValue("Account");
+        properties.module.main.schema.setValue(schema);
+        properties.schemaFlow.schema.setValue(schema);
+        properties.schemaReject.schema.setValue(schema);
+        properties.outputAction.setValue(OutputAction.INSERT);
+        properties.uploadThreads.setValue(1);
+
+        ConnectorConfig config = new ConnectorConfig();
+        config.setSessionRenewer(new SessionRenewer() {
+
+            @Override
+            public SessionRenewalHeader renewSession(ConnectorConfig connectorConfig) {
+                renewals.incrementAndGet();
+                return null;
+            }
+        });
+        bulkConnection = Mockito.mock(BulkConnection.class);
+        Mockito.when(bulkConnection.getConfig()).thenReturn(config);
+        JobInfo job = new JobInfo();
+        job.setId("job");
+        Mockito.when(bulkConnection.createJob(Mockito.any(JobInfo.class))).thenReturn(job);
+    }
+
+    private SalesforceBulkStreamWriter createWriter() {
+        SalesforceBulkStreamSink sink = new SalesforceBulkStreamSink() {
+
+            @Override
+            protected ConnectionHolder connect(RuntimeContainer container) {
+                ConnectionHolder connectionHolder = new ConnectionHolder();
+                connectionHolder.bulkConnection = bulkConnection;
+                return connectionHolder;
+            }
+        };
+        sink.initialize(null, properties);
+        return sink.createWriteOperation().createWriter(null);
+    }
+
+    private static byte[] readFully(InputStream input) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<String> getNames(List<IndexedRecord> records) {
+        List<String> names = new ArrayList<>();
+        for (IndexedRecord record : records) {
+            names.add(String.valueOf(record.get(0)));
+        }
+        return names;
+    }
+
+    /**
+     * Checks the records are uploaded in several batches by several threads, and that the results of all the batches
+     * are joined with their records in the order of the records.
+     */
+    @Test
+    public void testUploadSeveralBatches() throws Exception {
+        properties.bulkProperties.rowsToCommit.setValue(2);
+        properties.uploadThreads.setValue(2);
+
+        // The id of a batch is the name of its first record
+        final Map<String, List<String>> batches = new ConcurrentHashMap<>();
+        Mockito.when(bulkConnection.createBatchFromStream(Mockito.any(JobInfo.class), Mockito.any(InputStream.class)))
+                .thenAnswer(new Answer<BatchInfo>() {
+
+                    @Override
+                    public BatchInfo answer(InvocationOnMock invocation) throws Throwable {
+                        InputStream input = (InputStream) invocation.getArguments()[1];
+                        String[] lines = new String(readFully(input), StandardCharsets.UTF_8).split("\n");
+                        assertEquals("Name", lines[0]);
+                        List<String> names = new ArrayList<>();
+                        for (int i = 1; i < lines.length; i++) {
+                            names.add(lines[i]);
+                        }
+                        batches.put(names.get(0), names);
+                        BatchInfo batch = new BatchInfo();
+                        batch.setId(names.get(0));
+                        batch.setState(BatchStateEnum.Completed);
+                        return batch;
+                    }
+                });
+        Mockito.when(bulkConnection.getBatchResultStream(Mockito.eq("job"), Mockito.anyString()))
+                .thenAnswer(new Answer<InputStream>() {
+
+                    @Override
+                    public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                        StringBuilder results = new StringBuilder("Id,Success,Created,Error\n");
+                        for (String name : batches.get((String) invocation.getArguments()[1])) {
+                            if ("r3".equals(name)) {
+                                results.append(",false,false,REQUIRED_FIELD_MISSING\n");
+                            } else {
+                                results.append("id").append(name).append(",true,true,\n");
+                            }
+                        }
+                        return new ByteArrayInputStream(results.toString().getBytes(StandardCharsets.UTF_8));
+                    }
+                });
+
+        SalesforceBulkStreamWriter writer = createWriter();
+        writer.open("foo");
+        for (int i = 0; i < 5; i++) {
+            writer.write(new GenericRecordBuilder(schema).set("Name", "r" + i).build());
+        }
+        Result result = writer.close();
+
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get("r0").size());
+        assertEquals(2, batches.get("r2").size());
+        assertEquals(1, batches.get("r4").size());
+
+        assertEquals(5, result.getTotalCount());
+        assertEquals(4, result.getSuccessCount());
+        assertEquals(1, result.getRejectCount());
+        List<String> expected = new ArrayList<>();
+        expected.add("r0");
+        expected.add("r1");
+        expected.add("r2");
+        expected.add("r4");
+        assertEquals(expected, getNames(writer.getSuccessfulWrites()));
+        assertEquals("r3", getNames(writer.getRejectedWrites()).get(0));
+    }
+
+    /**
+     * Checks that the whole batch is uploaded again when the session expired during the first upload.
+     */
+    @Test
+    public void testUploadRenewedSession() throws Exception {
+        final List<String> uploads = new ArrayList<>();
+        Mockito.when(bulkConnection.createBatchFromStream(Mockito.any(JobInfo.class), Mockito.any(InputStream.class)))
+                .thenAnswer(new Answer<BatchInfo>() {
+
+                    @Override
+                    public BatchInfo answer(InvocationOnMock invocation) throws Throwable {
+                        InputStream input = (InputStream) invocation.getArguments()[1];
+                        uploads.add(new String(readFully(input), StandardCharsets.UTF_8));
+                        if (uploads.size() == 1) {
+                            throw new AsyncApiException("Session expired", AsyncExceptionCode.InvalidSessionId);
+                        }
+                        BatchInfo batch = new BatchInfo();
+                        batch.setId("batch");
+                        batch.setState(BatchStateEnum.Completed);
+                        return batch;
+                    }
+                });
+        Mockito.when(bulkConnection.getBatchResultStream("job", "batch")).thenReturn(new ByteArrayInputStream(
+                "Id,Success,Created,Error\n001,true,true,\n002,false,false,REQUIRED_FIELD_MISSING\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        SalesforceBulkStreamWriter writer = createWriter();
+        writer.open("foo");
+        writer.write(new GenericRecordBuilder(schema).set("Name", "foo").build());
+        writer.write(new GenericRecordBuilder(schema).set("Name", "bar").build());
+        Result result = writer.close();
+
+        assertEquals(1, renewals.get());
+        assertEquals(2, uploads.size());
+        assertTrue(uploads.get(1).contains("foo"));
+        assertEquals(uploads.get(0), uploads.get(1));
+
+        assertEquals(2, result.getTotalCount());
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(1, result.getRejectCount());
+        assertEquals("foo", String.valueOf(writer.getSuccessfulWrites().get(0).get(0)));
+        assertEquals("bar", String.valueOf(writer.getRejectedWrites().get(0).get(0)));
+    }
+}
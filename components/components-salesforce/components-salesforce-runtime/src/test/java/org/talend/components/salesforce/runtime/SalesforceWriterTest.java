@@ -0,0 +1,263 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.salesforce.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.talend.components.api.component.runtime.Result;
+import org.talend.components.api.container.RuntimeContainer;
+import org.talend.components.salesforce.SalesforceOutputProperties.OutputAction;
+import org.talend.components.salesforce.runtime.common.ConnectionHolder;
+import org.talend.components.salesforce.tsalesforceoutput.TSalesforceOutputProperties;
+
+import com.sforce.soap.partner.Error;
+import com.sforce.soap.partner.PartnerConnection;
+import com.sforce.soap.partner.SaveResult;
+import com.sforce.soap.partner.SessionHeader_element;
+import com.sforce.soap.partner.sobject.SObject;
+import com.sforce.ws.ConnectionException;
+import com.sforce.ws.ConnectorConfig;
+
+/**
+ * Unit-tests for {@link SalesforceWriter} class with several calls in flight, on mocked connections.
+ */
+public class SalesforceWriterTest {
+
+    private static final String MODULE_NAME = "Account";
+
+    private Schema schema = SchemaBuilder.record("record").fields().requiredString("Name").endRecord();
+
+    private TSalesforceOutputProperties properties;
+
+    private PartnerConnection connection;
+
+    private SessionHeader_element sessionHeader;
+
+    private List<PartnerConnection> callConnections;
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new TSalesforceOutputProperties("foo");
+        properties.init();
+        properties.module.moduleName.setValue(MODULE_NAME);
+        properties.module.main.schema.setValue(schema);
+        properties.schemaFlow.schema.setValue(schema);
+        properties.schemaReject.schema.setValue(schema);
+        properties.outputAction.setValue(OutputAction.INSERT);
+        properties.extendInsert.setValue(true);
+        properties.ceaseForError.setValue(false);
+
+        sessionHeader = new SessionHeader_element();
+        sessionHeader.setSessionId("session1");
+        connection = createConnectionMock(sessionHeader);
+        callConnections = new ArrayList<>();
+    }
+
+    private static PartnerConnection createConnectionMock(SessionHeader_element sessionHeader) {
+        PartnerConnection connection = Mockito.mock(PartnerConnection.class);
+        Mockito.when(connection.getConfig()).thenReturn(new ConnectorConfig());
+        Mockito.when(connection.getSessionHeader()).thenReturn(sessionHeader);
+        return connection;
+    }
+
+    private SalesforceWriter createWriter() {
+        SalesforceSink sink = new SalesforceSink() {
+
+            @Override
+            protected ConnectionHolder connect(RuntimeContainer container) {
+                ConnectionHolder connectionHolder = new ConnectionHolder();
+                connectionHolder.connection = connection;
+                return connectionHolder;
+            }
+
+            @Override
+            protected Schema getSchema(PartnerConnection connection, String module) {
+                return schema;
+            }
+
+            @Override
+            protected PartnerConnection createCallConnection(PartnerConnection connection) {
+                SessionHeader_element callSessionHeader = new SessionHeader_element();
+                callSessionHeader.setSessionId(connection.getSessionHeader().getSessionId());
+                PartnerConnection callConnection = createConnectionMock(callSessionHeader);
+                callConnections.add(callConnection);
+                return callConnection;
+            }
+        };
+        sink.initialize(null, properties);
+        return new SalesforceWriter(sink.createWriteOperation(), null);
+    }
+
+    /**
+     * Stub the create calls of all the connections.
+     */
+    private void whenCreate(Answer<SaveResult[]> answer) throws ConnectionException {
+        Mockito.when(connection.create(Mockito.any(SObject[].class))).thenAnswer(answer);
+        for (PartnerConnection callConnection : callConnections) {
+            Mockito.when(callConnection.create(Mockito.any(SObject[].class))).thenAnswer(answer);
+        }
+    }
+
+    private IndexedRecord createRecord(String name) {
+        return new GenericRecordBuilder(schema).set("Name", name).build();
+    }
+
+    private static List<String> getNames(List<IndexedRecord> records) {
+        List<String> names = new ArrayList<>();
+        for (IndexedRecord record : records) {
+            names.add(String.valueOf(record.get(0)));
+        }
+        return names;
+    }
+
+    /**
+     * Checks the results are handled in the order of the calls, even if the first call is the last one to complete, and
+     * that the last batch is sent and all the calls in flight are handled on close.
+     */
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        properties.commitLevel.setValue(2);
+        properties.concurrentCalls.setValue(3);
+        SalesforceWriter writer = createWriter();
+        writer.open("foo");
+        assertEquals(2, callConnections.size());
+
+        final CountDownLatch lastCall = new CountDownLatch(1);
+        whenCreate(new Answer<SaveResult[]>() {
+
+            @Override
+            public SaveResult[] answer(InvocationOnMock invocation) throws Throwable {
+                SObject[] sObjects = (SObject[]) invocation.getArguments()[0];
+                if ("r0".equals(sObjects[0].getField("Name"))) {
+                    // The first call waits for the last one
+                    assertTrue(lastCall.await(10, TimeUnit.SECONDS));
+                } else if ("r4".equals(sObjects[0].getField("Name"))) {
+                    lastCall.countDown();
+                }
+                SaveResult[] saveResults = new SaveResult[sObjects.length];
+                for (int i = 0; i < sObjects.length; i++) {
+                    saveResults[i] = new SaveResult();
+                    if ("r3".equals(sObjects[i].getField("Name"))) {
+                        Error error = new Error();
+                        error.setMessage("rejected");
+                        saveResults[i].setErrors(new Error[] { error });
+                    } else {
+                        saveResults[i].setSuccess(true);
+                        saveResults[i].setId("id" + sObjects[i].getField("Name"));
+                    }
+                }
+                return saveResults;
+            }
+        });
+
+        for (int i = 0; i < 5; i++) {
+            writer.write(createRecord("r" + i));
+        }
+        Result result = writer.close();
+
+        assertEquals(5, result.getTotalCount());
+        assertEquals(4, result.getSuccessCount());
+        assertEquals(1, result.getRejectCount());
+        List<String> expected = new ArrayList<>();
+        expected.add("r0");
+        expected.add("r1");
+        expected.add("r2");
+        expected.add("r4");
+        assertEquals(expected, getNames(writer.getSuccessfulWrites()));
+        assertEquals("r3", getNames(writer.getRejectedWrites()).get(0));
+    }
+
+    /**
+     * Checks the failure of a call in flight is thrown by the writer.
+     */
+    @Test
+    public void testConcurrentCallsError() throws Exception {
+        properties.commitLevel.setValue(1);
+        properties.concurrentCalls.setValue(2);
+        SalesforceWriter writer = createWriter();
+        writer.open("foo");
+
+        final ConnectionException exception = new ConnectionException("call failed");
+        whenCreate(new Answer<SaveResult[]>() {
+
+            @Override
+            public SaveResult[] answer(InvocationOnMock invocation) throws Throwable {
+                throw exception;
+            }
+        });
+
+        writer.write(createRecord("r0"));
+        try {
+            writer.close();
+            fail("The failure of the call should be thrown");
+        } catch (IOException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    /**
+     * Checks the other connections use the session of the main connection once it has been renewed.
+     */
+    @Test
+    public void testConcurrentCallsRenewedSession() throws Exception {
+        properties.commitLevel.setValue(1);
+        properties.concurrentCalls.setValue(2);
+        SalesforceWriter writer = createWriter();
+        writer.open("foo");
+        assertEquals(1, callConnections.size());
+
+        final CountDownLatch firstCall = new CountDownLatch(1);
+        whenCreate(new Answer<SaveResult[]>() {
+
+            @Override
+            public SaveResult[] answer(InvocationOnMock invocation) throws Throwable {
+                SObject[] sObjects = (SObject[]) invocation.getArguments()[0];
+                if ("r0".equals(sObjects[0].getField("Name"))) {
+                    // Keep the main connection busy
+                    assertTrue(firstCall.await(10, TimeUnit.SECONDS));
+                }
+                SaveResult saveResult = new SaveResult();
+                saveResult.setSuccess(true);
+                return new SaveResult[] { saveResult };
+            }
+        });
+
+        // The first call uses the main connection, the second call the other one
+        writer.write(createRecord("r0"));
+        sessionHeader.setSessionId("session2");
+        writer.write(createRecord("r1"));
+        firstCall.countDown();
+        Result result = writer.close();
+
+        assertEquals(2, result.getSuccessCount());
+        Mockito.verify(callConnections.get(0)).setSessionHeader("session2");
+    }
+}
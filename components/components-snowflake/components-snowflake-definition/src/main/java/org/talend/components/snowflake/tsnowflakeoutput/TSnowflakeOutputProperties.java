@@ -14,6 +14,7 @@ package org.talend.components.snowflake.tsnowflakeoutput;
 
 import static org.talend.daikon.properties.presentation.Widget.widget;
 import static org.talend.daikon.properties.property.PropertyFactory.newEnum;
+import static org.talend.daikon.properties.property.PropertyFactory.newInteger;
 import static org.talend.daikon.properties.property.PropertyFactory.newString;
 import static org.talend.daikon.properties.property.PropertyFactory.newBoolean;
 
@@ -71,6 +72,18 @@ public class TSnowflakeOutputProperties extends SnowflakeConnectionTableProperti
 
     public Property<Boolean> convertEmptyStringsToNull = newBoolean("convertEmptyStringsToNull");
 
+    /**
+     * The size in MB of the compressed files written by the loader before they are put in the stage, or empty for the
+     * default of the driver.
+     */
+    public Property<Integer> stageFileSize = newInteger("stageFileSize");
+
+    /**
+     * The number of files of a bucket of the loader, which are put in the stage at the same time, or empty for the
+     * default of the driver.
+     */
+    public Property<Integer> stageFileBucketSize = newInteger("stageFileBucketSize");
+
     // Have to use an explicit class to get the override of afterTableName(), an anonymous
     // class cannot be public and thus cannot be called.
     public class TableSubclass extends SnowflakeTableProperties {
@@ -149,6 +162,8 @@ public class TSnowflakeOutputProperties extends SnowflakeConnectionTableProperti
         Form advancedForm = getForm(Form.ADVANCED);
         advancedForm.addRow(convertColumnsAndTableToUppercase);
         advancedForm.addRow(convertEmptyStringsToNull);
+        advancedForm.addRow(stageFileSize);
+        advancedForm.addColumn(stageFileBucketSize);
 
         advancedForm.addRow(usePersonalDBType);
         widget(usePersonalDBType).setVisible(false);
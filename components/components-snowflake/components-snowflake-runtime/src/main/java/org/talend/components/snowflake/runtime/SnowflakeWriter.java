@@ -97,6 +97,25 @@ public class SnowflakeWriter implements WriterWithFeedback<Result, IndexedRecord
 
     private String emptyStringValue;
 
+    /** The position in the input record of the field of each column, -1 to use the default value of the column. */
+    private transient int[] inputPositions;
+
+    /** The conversion of the values of each column, resolved once with the first record. */
+    private transient ValueType[] valueTypes;
+
+    /**
+     * The conversion of a value before it is given to the loader, which depends on the type of its column.
+     */
+    protected enum ValueType {
+        /** The value is given as it is. */
+        PLAIN,
+        /** The date is given as a number of milliseconds, when the type of the column in the table is unknown. */
+        DATE_MILLIS,
+        TIME,
+        DATE,
+        TIMESTAMP
+    }
+
     @Override
     public Iterable<IndexedRecord> getSuccessfulWrites() {
         return new ArrayList<IndexedRecord>();
@@ -267,26 +286,37 @@ public class SnowflakeWriter implements WriterWithFeedback<Result, IndexedRecord
             
             //fetch the runtime schema after table action is over which make sure the table is create already
             initRuntimeSchemaAndMapIfNecessary();
+            initValueTypes();
 
             isFirst = false;
         }
 
         for (int i = 0; i < row.length; i++) {
-            Field f = collectedFields.get(i);
-            Field remoteTableField = remoteTableFields.get(i);
-            if (f == null) {
-                Object defaultValue = remoteTableField.defaultVal();
+            int pos = inputPositions[i];
+            if (pos < 0) {
+                Object defaultValue = remoteTableFields.get(i).defaultVal();
                 row[i] = StringUtils.EMPTY.equals(defaultValue) ? null : defaultValue;
-                continue;
             } else {
-                Object inputValue = input.get(f.pos());
-                row[i] = getFieldValue(inputValue, remoteTableField);
+                row[i] = convertValue(input.get(pos), valueTypes[i]);
             }
         }
 
         loader.submitRow(row);
     }
 
+    /**
+     * Resolve the position and the conversion of each column, so that the schemas are not read again for each record.
+     */
+    private void initValueTypes() {
+        inputPositions = new int[row.length];
+        valueTypes = new ValueType[row.length];
+        for (int i = 0; i < row.length; i++) {
+            Field f = collectedFields.get(i);
+            inputPositions[i] = f == null ? -1 : f.pos();
+            valueTypes[i] = f == null ? ValueType.PLAIN : getValueType(remoteTableFields.get(i));
+        }
+    }
+
     protected IndexedRecord getInputRecord(Object datum) {
         if (null == factory) {
             factory = (IndexedRecordConverter<Object, ? extends IndexedRecord>) SnowflakeAvroRegistry.get()
@@ -296,12 +326,32 @@ public class SnowflakeWriter implements WriterWithFeedback<Result, IndexedRecord
     }
 
     protected Object getFieldValue(Object inputValue, Field field) {
-        Schema s = AvroUtils.unwrapIfNullable(field.schema());
+        return convertValue(inputValue, getValueType(field));
+    }
+
+    protected Object convertValue(Object inputValue, ValueType valueType) {
         if (inputValue != null && inputValue instanceof String && ((String) inputValue).isEmpty()) {
             return emptyStringValue;
         } else if (null == inputValue || inputValue instanceof String) {
             return inputValue;
-        } else if (AvroUtils.isSameType(s, AvroUtils._date())) {//TODO improve the performance as no need to get the runtimefield object from map every time
+        }
+        switch (valueType) {
+        case DATE_MILLIS:
+            return ((Date) inputValue).getTime();
+        case TIME:
+            return formatter.formatTimeMillis(inputValue);
+        case DATE:
+            return formatter.formatDate(inputValue);
+        case TIMESTAMP:
+            return formatter.formatTimestampMillis(inputValue);
+        default:
+            return inputValue;
+        }
+    }
+
+    protected ValueType getValueType(Field field) {
+        Schema s = AvroUtils.unwrapIfNullable(field.schema());
+        if (AvroUtils.isSameType(s, AvroUtils._date())) {
             //if customer set the schema by self instead of retrieve schema function, 
             //the snowflake date type like : date, time, timestamp with time zone, timestamp with local time zone, timestamp without time zone all may be the column type in database table
             //please see the test : SnowflakeDateTypeTestIT which show the details about terrible snowflake jdbc date type support, all control by client!
@@ -323,24 +373,23 @@ public class SnowflakeWriter implements WriterWithFeedback<Result, IndexedRecord
             } else {
                 //TODO this is the old action, we keep it if can't fetch the type by the schema db column name
                 //consider to adjust it
-                Date date = (Date) inputValue;
-                return date.getTime();
+                return ValueType.DATE_MILLIS;
             }
         }
         
-        return formatIfAnySnowflakeDateType(inputValue, s);
+        return getSnowflakeDateType(s);
     }
     
     //only retrieve schema function or dynamic may support logical types below as it runtime to fetch the schema by SnowflakeAvroRegistry
-    private Object formatIfAnySnowflakeDateType(Object inputValue, Schema s) {
+    private ValueType getSnowflakeDateType(Schema s) {
         if (LogicalTypes.fromSchemaIgnoreInvalid(s) == LogicalTypes.timeMillis()) {
-            return formatter.formatTimeMillis(inputValue);
+            return ValueType.TIME;
         } else if (LogicalTypes.fromSchemaIgnoreInvalid(s) == LogicalTypes.date()) {
-            return formatter.formatDate(inputValue);
+            return ValueType.DATE;
         } else if (LogicalTypes.fromSchemaIgnoreInvalid(s) == LogicalTypes.timestampMillis()) {
-            return formatter.formatTimestampMillis(inputValue);
+            return ValueType.TIMESTAMP;
         } else {
-            return inputValue;
+            return ValueType.PLAIN;
         }
     }
 
@@ -449,6 +498,17 @@ public class SnowflakeWriter implements WriterWithFeedback<Result, IndexedRecord
 
         prop.put(LoaderProperty.remoteStage, "~");
 
+        // The loader writes the rows in compressed files, which are put in the stage by several threads, and then
+        // loaded with one statement
+        Integer stageFileSize = outputProperties.stageFileSize.getValue();
+        if (stageFileSize != null && stageFileSize > 0) {
+            prop.put(LoaderProperty.csvFileSize, stageFileSize * 1024L * 1024L);
+        }
+        Integer stageFileBucketSize = outputProperties.stageFileBucketSize.getValue();
+        if (stageFileBucketSize != null && stageFileBucketSize > 0) {
+            prop.put(LoaderProperty.csvFileBucketSize, stageFileBucketSize.longValue());
+        }
+
         TableActionEnum selectedTableAction = outputProperties.tableAction.getValue();
         if (TableActionEnum.TRUNCATE.equals(selectedTableAction)) {
             prop.put(LoaderProperty.truncateTable, "true");
@@ -20,6 +20,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.apache.avro.Schema;
@@ -131,6 +132,20 @@ public class SnowflakeWriterTest {
         Assert.assertEquals(0, result.rejectCount);
     }
 
+    @Test
+    public void testGetLoaderPropsStageFiles() {
+        Map<LoaderProperty, Object> props = SnowflakeWriter.getLoaderProps(properties,
+                properties.table.main.schema.getValue());
+        Assert.assertFalse(props.containsKey(LoaderProperty.csvFileSize));
+        Assert.assertFalse(props.containsKey(LoaderProperty.csvFileBucketSize));
+
+        properties.stageFileSize.setValue(10);
+        properties.stageFileBucketSize.setValue(8);
+        props = SnowflakeWriter.getLoaderProps(properties, properties.table.main.schema.getValue());
+        Assert.assertEquals(10L * 1024 * 1024, props.get(LoaderProperty.csvFileSize));
+        Assert.assertEquals(8L, props.get(LoaderProperty.csvFileBucketSize));
+    }
+
     @Test
     public void testWrite() throws Exception {
         int daysFrom1970 = 17337;
@@ -58,7 +58,7 @@ public class TCompBoundedSourceAdapter extends BoundedSource<IndexedRecord> {
 
     @Override
     public BoundedReader<IndexedRecord> createReader(PipelineOptions options) throws IOException {
-        return new TCompReaderAdapter(tCompSource.createReader(null), null);
+        return new TCompReaderAdapter(tCompSource.createReader(null), this);
     }
 
     @Override
@@ -0,0 +1,110 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.adapter.beam.coders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * A JVM-wide cache of Avro {@link Schema}s keyed by a 64-bit fingerprint.
+ *
+ * The fingerprint is computed on the full JSON representation of the schema (including logical types and custom
+ * properties), so that two schemas with the same fingerprint can be used interchangeably. This lets coders and functions
+ * that need to move a schema as a string avoid parsing the same schema over and over again.
+ */
+public class AvroSchemaCache {
+
+    private static final ConcurrentMap<Long, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private AvroSchemaCache() {
+    }
+
+    /**
+     * Add the schema to the cache if necessary.
+     *
+     * This requires serializing the schema to compute its fingerprint, so the caller should keep the returned value rather
+     * than calling this method for every record.
+     *
+     * @param schema the schema to cache.
+     * @return the fingerprint of the schema.
+     */
+    public static long register(Schema schema) {
+        byte[] json = schema.toString().getBytes(StandardCharsets.UTF_8);
+        long fingerprint = SchemaNormalization.fingerprint64(json);
+        if (!CACHE.containsKey(fingerprint)) {
+            CACHE.putIfAbsent(fingerprint, new Entry(schema, json));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param fingerprint the fingerprint returned by {@link #register(Schema)}.
+     * @return the cached schema, or null if it isn't known in this JVM.
+     */
+    public static Schema getSchema(long fingerprint) {
+        Entry entry = CACHE.get(fingerprint);
+        return entry == null ? null : entry.schema;
+    }
+
+    /**
+     * @param fingerprint the fingerprint returned by {@link #register(Schema)}.
+     * @return the UTF-8 JSON representation of the cached schema, or null if it isn't known in this JVM.
+     */
+    public static byte[] getJson(long fingerprint) {
+        Entry entry = CACHE.get(fingerprint);
+        return entry == null ? null : entry.json;
+    }
+
+    /**
+     * Get the schema from the cache, only parsing it if it isn't already known.
+     *
+     * @param fingerprint the fingerprint of the schema.
+     * @param json the UTF-8 JSON representation of the schema.
+     * @return the schema.
+     */
+    public static Schema getOrParse(long fingerprint, byte[] json) {
+        Entry entry = CACHE.get(fingerprint);
+        if (entry == null) {
+            Schema schema = new Schema.Parser().parse(new String(json, StandardCharsets.UTF_8));
+            entry = new Entry(schema, json);
+            Entry previous = CACHE.putIfAbsent(fingerprint, entry);
+            if (previous != null) {
+                entry = previous;
+            }
+        }
+        return entry.schema;
+    }
+
+    /**
+     * This must only be called when no running pipeline depends on the cached schemas.
+     */
+    public static void reset() {
+        CACHE.clear();
+    }
+
+    private static class Entry {
+
+        private final Schema schema;
+
+        private final byte[] json;
+
+        private Entry(Schema schema, byte[] json) {
+            this.schema = schema;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.adapter.beam.coders;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A store of Avro schemas shared by all of the nodes running a job, keyed by the 64-bit fingerprint computed by
+ * {@link AvroSchemaCache#register(org.apache.avro.Schema)}.
+ *
+ * This lets the {@link LazyAvroCoder} only write the fingerprint of the schema with each encoded element: a node that
+ * decodes an element with a schema it has never seen gets it from the registry.
+ *
+ * The implementations must be serializable to all of the nodes, and must accept the same schema being stored several
+ * times, possibly concurrently.
+ */
+public interface AvroSchemaRegistry extends Serializable {
+
+    /**
+     * Store a schema, if it isn't already known by the registry.
+     *
+     * @param fingerprint the fingerprint of the schema.
+     * @param json the UTF-8 JSON representation of the schema.
+     */
+    void put(long fingerprint, byte[] json) throws IOException;
+
+    /**
+     * @param fingerprint the fingerprint of the schema.
+     * @return the UTF-8 JSON representation of the schema, or null if it isn't known by the registry.
+     */
+    byte[] get(long fingerprint) throws IOException;
+}
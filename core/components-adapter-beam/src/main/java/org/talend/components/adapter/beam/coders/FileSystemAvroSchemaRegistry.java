@@ -0,0 +1,99 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.adapter.beam.coders;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.io.fs.MoveOptions;
+import org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions;
+import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.util.MimeTypes;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * An {@link AvroSchemaRegistry} storing each schema as a <code>.avsc</code> file in a directory.
+ *
+ * The directory is accessed through the Beam {@link FileSystems}, so it can be on any file system registered for the
+ * job, for example a local directory for tests or an HDFS directory shared by the nodes of a Spark or Flink cluster.
+ * Each file is written under a temporary name and then renamed, so that a node never reads a partial schema.
+ */
+public class FileSystemAvroSchemaRegistry implements AvroSchemaRegistry {
+
+    private static final String EXTENSION = ".avsc";
+
+    private final String directory;
+
+    /**
+     * @param directory the path of the directory where the schemas are stored, for example
+     * <code>hdfs://namenode/tmp/job-1234/schemas</code>.
+     */
+    public FileSystemAvroSchemaRegistry(String directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void put(long fingerprint, byte[] json) throws IOException {
+        ResourceId file = getFile(fingerprint);
+        if (exists(file)) {
+            return;
+        }
+        ResourceId tempFile = FileSystems.matchNewResource(directory, true)
+                .resolve("." + UUID.randomUUID() + EXTENSION, StandardResolveOptions.RESOLVE_FILE);
+        try (OutputStream out = Channels.newOutputStream(FileSystems.create(tempFile, MimeTypes.BINARY))) {
+            out.write(json);
+        }
+        try {
+            FileSystems.rename(Collections.singletonList(tempFile), Collections.singletonList(file));
+        } catch (IOException e) {
+            // Another node may have stored the same schema in the meantime.
+            FileSystems.delete(Collections.singletonList(tempFile),
+                    MoveOptions.StandardMoveOptions.IGNORE_MISSING_FILES);
+            if (!exists(file)) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public byte[] get(long fingerprint) throws IOException {
+        try (InputStream in = Channels.newInputStream(FileSystems.open(getFile(fingerprint)))) {
+            return ByteStreams.toByteArray(in);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    private ResourceId getFile(long fingerprint) {
+        return FileSystems.matchNewResource(directory, true).resolve(Long.toHexString(fingerprint) + EXTENSION,
+                StandardResolveOptions.RESOLVE_FILE);
+    }
+
+    private static boolean exists(ResourceId file) throws IOException {
+        MatchResult match = FileSystems.matchResources(Collections.singletonList(file)).get(0);
+        return match.status() == MatchResult.Status.OK && !match.metadata().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "FileSystemAvroSchemaRegistry[" + directory + "]";
+    }
+}
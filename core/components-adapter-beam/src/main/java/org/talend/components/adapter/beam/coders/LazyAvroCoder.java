@@ -12,30 +12,37 @@
 // ============================================================================
 package org.talend.components.adapter.beam.coders;
 
-import static org.talend.components.adapter.beam.transform.ConvertToIndexedRecord.convertToAvro;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.coders.AtomicCoder;
-import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.BigEndianLongCoder;
 import org.apache.beam.sdk.coders.CannotProvideCoderException;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.coders.CoderException;
 import org.apache.beam.sdk.coders.CoderProvider;
 import org.apache.beam.sdk.coders.DefaultCoder;
 import org.apache.beam.sdk.values.TypeDescriptor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.talend.components.adapter.beam.BeamAdapterErrorCode;
 import org.talend.components.adapter.beam.transform.ConvertToIndexedRecord;
 import org.talend.daikon.avro.converter.IndexedRecordConverter;
@@ -50,24 +57,38 @@ import com.google.common.annotations.VisibleForTesting;
  * Coder uses Avro serialization, but does not know the Avro {@link Schema} used to serialize the data is not known
  * until the pipeline is actually run.
  *
- * This is accomplished by adding a "distributed state" to the pipeline in the form of the {@link AvroSchemaHolder}.
+ * Each encoded element is prefixed with the 64-bit fingerprint of its schema (see {@link AvroSchemaCache}). The decoder
+ * resolves the schema from the fingerprint, first in the JVM-wide {@link AvroSchemaCache}, then in the
+ * {@link AvroSchemaRegistry} shared by all of the nodes of the job if one was set with
+ * {@link #setSchemaRegistry(AvroSchemaRegistry)}, and finally in the "distributed state" added to the pipeline in the
+ * form of the {@link AvroSchemaHolder}. Without a registry, the schemas are only known by the JVM that encoded them.
  *
  * @param <T> The expected type of object.
  */
 public class LazyAvroCoder<T> extends AtomicCoder<Object> {
 
-    private static final Logger LOG = LoggerFactory.getLogger(LazyAvroCoder.class);
-
     private transient static ThreadLocal<Supplier<AvroSchemaHolder>> threadSchemaSupplierFactory;
 
+    private transient static ThreadLocal<AvroSchemaRegistry> threadSchemaRegistry;
+
     private final AvroSchemaHolder avroSchemaHolder;
 
+    /** The registry shared by all of the nodes, or null if the schemas are only known in the JVM that encoded them. */
+    private final AvroSchemaRegistry schemaRegistry;
+
     private transient IndexedRecordConverter<T, IndexedRecord> converter;
 
-    private transient AvroCoder<IndexedRecord> internalAvroCoder;
+    /** The writer for the schema of the last encoded element. */
+    private transient volatile SchemaWriter writer;
+
+    /** The fingerprints of the schemas already shared by this coder. */
+    private transient Set<Long> registeredFingerprints;
+
+    private transient ConcurrentMap<Long, DatumReader<IndexedRecord>> readers;
 
     protected LazyAvroCoder() {
         this.avroSchemaHolder = getSchemaSupplier().get();
+        this.schemaRegistry = getSchemaRegistry();
     }
 
     public static void resetSchemaSupplier() {
@@ -79,6 +100,9 @@ public class LazyAvroCoder<T> extends AtomicCoder<Object> {
             ((StaticSchemaHolderSupplier) schemaSupplierFactory).reset();
         }
         threadSchemaSupplierFactory.remove();
+        if (threadSchemaRegistry != null) {
+            threadSchemaRegistry.remove();
+        }
     }
 
     public static void setSchemaSupplier(Supplier<AvroSchemaHolder> factory) {
@@ -91,6 +115,27 @@ public class LazyAvroCoder<T> extends AtomicCoder<Object> {
         threadSchemaSupplierFactory.set(factory);
     }
 
+    /**
+     * Set the registry used to share the schemas between the nodes by all of the {@link LazyAvroCoder}s created
+     * afterwards in this thread, until {@link #resetSchemaSupplier()} is called.
+     *
+     * @param registry the registry shared by all of the nodes running the job.
+     */
+    public static void setSchemaRegistry(AvroSchemaRegistry registry) {
+        if (threadSchemaRegistry == null) {
+            threadSchemaRegistry = new ThreadLocal<AvroSchemaRegistry>();
+        }
+        threadSchemaRegistry.set(registry);
+    }
+
+    /**
+     * @return the registry set with {@link #setSchemaRegistry(AvroSchemaRegistry)} in this thread, or null if the
+     * schemas are only known in the JVM that encoded them.
+     */
+    public static AvroSchemaRegistry getSchemaRegistry() {
+        return threadSchemaRegistry == null ? null : threadSchemaRegistry.get();
+    }
+
     public static Supplier<AvroSchemaHolder> getSchemaSupplier() {
         if (threadSchemaSupplierFactory == null) {
             threadSchemaSupplierFactory = new ThreadLocal<Supplier<AvroSchemaHolder>>();
@@ -133,28 +178,96 @@ public class LazyAvroCoder<T> extends AtomicCoder<Object> {
             converter = ConvertToIndexedRecord.getConverter((T) value);
         }
         IndexedRecord ir = converter.convertToAvro((T) value);
-        if (internalAvroCoder == null) {
-            Schema s = converter.getSchema();
-            avroSchemaHolder.put(s);
-            @SuppressWarnings("unchecked")
-            AvroCoder<IndexedRecord> tCoder = (AvroCoder<IndexedRecord>) (AvroCoder<? extends IndexedRecord>) AvroCoder
-                    .of(ir.getSchema());
-            internalAvroCoder = tCoder;
+        SchemaWriter current = writer;
+        if (current == null || current.schema != ir.getSchema()) {
+            current = createWriter(ir.getSchema());
+            writer = current;
         }
-        LOG.debug("Internal AvroCoder's schema is {}", internalAvroCoder.getSchema());
-        LOG.debug("Encode value is {}", value);
-        internalAvroCoder.encode(convertToAvro(value), outputStream);
+        BigEndianLongCoder.of().encode(current.fingerprint, outputStream);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+        current.writer.write(ir, encoder);
+        encoder.flush();
     }
 
     @Override
     public T decode(InputStream inputStream) throws CoderException, IOException {
-        if (internalAvroCoder == null) {
-            @SuppressWarnings("unchecked")
-            AvroCoder<IndexedRecord> tCoder = (AvroCoder<IndexedRecord>) (AvroCoder<? extends IndexedRecord>) AvroCoder
-                    .of(getSchema());
-            internalAvroCoder = tCoder;
+        long fingerprint = BigEndianLongCoder.of().decode(inputStream);
+        DatumReader<IndexedRecord> reader = getReaders().get(fingerprint);
+        if (reader == null) {
+            reader = new GenericDatumReader<>(getSchema(fingerprint));
+            getReaders().put(fingerprint, reader);
+        }
+        BinaryDecoder decoder = DecoderFactory.get().directBinaryDecoder(inputStream, null);
+        return (T) reader.read(null, decoder);
+    }
+
+    /**
+     * Share the schema of the encoded elements, this is only done the first time this coder encodes an element with this
+     * schema.
+     */
+    private SchemaWriter createWriter(Schema schema) throws IOException {
+        long fingerprint = AvroSchemaCache.register(schema);
+        Set<Long> registered = getRegisteredFingerprints();
+        if (!registered.contains(fingerprint)) {
+            if (schemaRegistry != null) {
+                schemaRegistry.put(fingerprint, AvroSchemaCache.getJson(fingerprint));
+            }
+            avroSchemaHolder.put(schema);
+            registered.add(fingerprint);
+        }
+        return new SchemaWriter(schema, fingerprint);
+    }
+
+    private synchronized Set<Long> getRegisteredFingerprints() {
+        if (registeredFingerprints == null) {
+            registeredFingerprints = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        }
+        return registeredFingerprints;
+    }
+
+    private synchronized ConcurrentMap<Long, DatumReader<IndexedRecord>> getReaders() {
+        if (readers == null) {
+            readers = new ConcurrentHashMap<>();
+        }
+        return readers;
+    }
+
+    /**
+     * @param fingerprint the fingerprint written with an encoded element.
+     * @return the schema used to encode the element.
+     */
+    private Schema getSchema(long fingerprint) throws IOException {
+        Schema schema = AvroSchemaCache.getSchema(fingerprint);
+        if (schema == null && schemaRegistry != null) {
+            byte[] json = schemaRegistry.get(fingerprint);
+            if (json != null) {
+                schema = AvroSchemaCache.getOrParse(fingerprint, json);
+            }
+        }
+        if (schema == null) {
+            schema = getSchema();
+            if (AvroSchemaCache.register(schema) != fingerprint) {
+                throw new Pipeline.PipelineExecutionException(new NoSuchElementException(
+                        "No schema found for " + avroSchemaHolder.getAvroSchemaId() + " with the fingerprint "
+                                + Long.toHexString(fingerprint)));
+            }
+        }
+        return schema;
+    }
+
+    private static class SchemaWriter {
+
+        private final Schema schema;
+
+        private final long fingerprint;
+
+        private final GenericDatumWriter<IndexedRecord> writer;
+
+        private SchemaWriter(Schema schema, long fingerprint) {
+            this.schema = schema;
+            this.fingerprint = fingerprint;
+            this.writer = new GenericDatumWriter<>(schema);
         }
-        return (T) internalAvroCoder.decode(inputStream);
     }
 
     /**
@@ -29,6 +29,10 @@ public class ExtractKVFn extends DoFn<IndexedRecord, KV<IndexedRecord, IndexedRe
 
     private transient Schema valueSchema = null;
 
+    private transient IndexedRecordProjection keyProjection = null;
+
+    private transient IndexedRecordProjection valueProjection = null;
+
     public ExtractKVFn(List<String> keyPathList) {
         this.keyPathList = keyPathList;
     }
@@ -55,8 +59,12 @@ public class ExtractKVFn extends DoFn<IndexedRecord, KV<IndexedRecord, IndexedRe
                 valueSchema = SchemaGeneratorUtils.extractKeys(inputRecord.getSchema(), valuePathList);
             }
         }
-        context.output(KV.of(KeyValueUtils.extractIndexedRecord(inputRecord, keySchema),
-                KeyValueUtils.extractIndexedRecord(inputRecord, valueSchema)));
+        if (keyProjection == null || keyProjection.getInputSchema() != inputRecord.getSchema()) {
+            // The schemas of the key and the value are kept, only the position of their fields changes.
+            keyProjection = IndexedRecordProjection.of(inputRecord.getSchema(), keySchema);
+            valueProjection = IndexedRecordProjection.of(inputRecord.getSchema(), valueSchema);
+        }
+        context.output(KV.of(keyProjection.project(inputRecord), valueProjection.project(inputRecord)));
     }
 
 }
@@ -0,0 +1,132 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.adapter.beam.kv;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.IndexedRecord;
+import org.talend.daikon.avro.AvroUtils;
+
+/**
+ * The projection of the records of an input schema to an output schema, compiled once and applied to every record.
+ *
+ * This gives the same result as {@link KeyValueUtils#extractIndexedRecord(IndexedRecord, Schema)}, but the position of
+ * each output field in the input records, including in the nested records, is only looked up once. Each record is then
+ * projected by copying the values by position.
+ */
+public class IndexedRecordProjection {
+
+    /** The output field is not in the input schema, it is filled with an empty value. */
+    private static final int MISSING = -1;
+
+    private final Schema inputSchema;
+
+    private final Schema outputSchema;
+
+    /** For each output field, its position in the input schema or {@link #MISSING}. */
+    private final int[] positions;
+
+    /** For each output field, the projection of the nested record, or null if the field is not a record. */
+    private final IndexedRecordProjection[] children;
+
+    /**
+     * For each output field, whether a null value can be put in the output record, i.e. whether the field is a union with
+     * null. A default value doesn't make the field nullable, the null would only fail when the record is encoded.
+     */
+    private final boolean[] nullables;
+
+    private IndexedRecordProjection(Schema inputSchema, Schema outputSchema) {
+        this.inputSchema = inputSchema;
+        this.outputSchema = outputSchema;
+        Schema unwrappedInputSchema = AvroUtils.unwrapIfNullable(inputSchema);
+        int size = outputSchema.getFields().size();
+        positions = new int[size];
+        children = new IndexedRecordProjection[size];
+        nullables = new boolean[size];
+        for (Field field : outputSchema.getFields()) {
+            int pos = field.pos();
+            nullables[pos] = AvroUtils.isNullable(field.schema()) || field.schema().getType() == Type.NULL;
+            Field inputField = unwrappedInputSchema.getField(field.name());
+            if (inputField == null) {
+                positions[pos] = MISSING;
+                continue;
+            }
+            positions[pos] = inputField.pos();
+            Schema inputChildSchema = KeyValueUtils.getUnwrappedSchema(inputField);
+            Schema outputChildSchema = KeyValueUtils.getUnwrappedSchema(field);
+            if (inputChildSchema.getType() == Type.RECORD && outputChildSchema.getType() == Type.RECORD) {
+                children[pos] = new IndexedRecordProjection(inputChildSchema, outputChildSchema);
+            }
+        }
+    }
+
+    /**
+     * @param inputSchema the schema of the input records.
+     * @param outputSchema the schema of the projected records.
+     * @return the compiled projection.
+     */
+    public static IndexedRecordProjection of(Schema inputSchema, Schema outputSchema) {
+        return new IndexedRecordProjection(inputSchema, outputSchema);
+    }
+
+    /**
+     * @return the schema of the input records this projection was compiled for.
+     */
+    public Schema getInputSchema() {
+        return inputSchema;
+    }
+
+    /**
+     * @param inputRecord a record of the input schema.
+     * @return the projected record.
+     */
+    public IndexedRecord project(IndexedRecord inputRecord) {
+        Record outputRecord = new Record(outputSchema);
+        for (int i = 0; i < positions.length; i++) {
+            Object value;
+            if (positions[i] == MISSING) {
+                // element not found => set to the value and its hierarchy to null
+                value = KeyValueUtils.generateEmptyRecord(outputSchema, outputSchema.getFields().get(i).name());
+            } else {
+                value = inputRecord.get(positions[i]);
+                if (value instanceof Record) {
+                    if (children[i] == null) {
+                        // Not a record in both schemas, let the dynamic extraction handle it
+                        return KeyValueUtils.extractIndexedRecord(inputRecord, outputSchema);
+                    }
+                    value = children[i].projectChild((IndexedRecord) value);
+                }
+            }
+            if (value == null && !nullables[i]) {
+                throw new AvroRuntimeException(
+                        "Field " + outputSchema.getFields().get(i) + " does not accept null values");
+            }
+            outputRecord.put(i, value);
+        }
+        return outputRecord;
+    }
+
+    /**
+     * A nested record may not have the schema this projection was compiled for, when the field is a union of several
+     * records.
+     */
+    private IndexedRecord projectChild(IndexedRecord inputRecord) {
+        if (inputRecord.getSchema() != inputSchema) {
+            return KeyValueUtils.extractIndexedRecord(inputRecord, outputSchema);
+        }
+        return project(inputRecord);
+    }
+}
@@ -3,18 +3,32 @@ package org.talend.components.adapter.beam.coders;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.Keys;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.util.SerializableUtils;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.talend.components.adapter.beam.io.rowgenerator.RowGeneratorIO;
 import org.talend.daikon.avro.SampleSchemas;
 
@@ -26,12 +40,97 @@ public class LazyAvroCoderTest {
     @Rule
     public final TestPipeline p = TestPipeline.create();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Schema schema = SchemaBuilder.record("lazy").fields() //
+            .requiredInt("id") //
+            .optionalString("name") //
+            .endRecord();
+
+    private final IndexedRecord record = new GenericRecordBuilder(schema) //
+            .set("id", 1) //
+            .set("name", "one") //
+            .build();
+
     @Before
     @After
     public void teardown() {
         // Always clean up the LazyAvroCoder static methods.
         LazyAvroCoder.StaticSchemaHolderSupplier.reset();
         LazyAvroCoder.resetSchemaSupplier();
+        AvroSchemaCache.reset();
+    }
+
+    /**
+     * Each element only carries the fingerprint of its schema.
+     */
+    @Test
+    public void testEncodeWithFingerprint() throws Exception {
+        LazyAvroCoder<IndexedRecord> coder = LazyAvroCoder.of();
+        byte[] encoded = CoderUtils.encodeToByteArray(coder, record);
+
+        assertThat(ByteBuffer.wrap(encoded).getLong(), is(AvroSchemaCache.register(schema)));
+        assertThat(CoderUtils.decodeFromByteArray(coder, encoded), is((Object) record));
+    }
+
+    /**
+     * A coder in another JVM that doesn't know the schema gets it from the registry.
+     */
+    @Test
+    public void testFileSystemSchemaRegistry() throws Exception {
+        FileSystemAvroSchemaRegistry registry = new FileSystemAvroSchemaRegistry(folder.getRoot().getAbsolutePath());
+        LazyAvroCoder.setSchemaRegistry(registry);
+        LazyAvroCoder<IndexedRecord> coder = LazyAvroCoder.of();
+        byte[] encoded = CoderUtils.encodeToByteArray(coder, record);
+        long fingerprint = AvroSchemaCache.register(schema);
+        assertThat(registry.get(fingerprint), notNullValue());
+        assertThat(registry.get(fingerprint + 1), nullValue());
+
+        // Simulate a decoding on a node that has never seen the schema.
+        LazyAvroCoder<IndexedRecord> remoteCoder = SerializableUtils.clone(coder);
+        LazyAvroCoder.StaticSchemaHolderSupplier.reset();
+        AvroSchemaCache.reset();
+        assertThat(CoderUtils.decodeFromByteArray(remoteCoder, encoded), is((Object) record));
+
+        // Storing the same schema again is ignored.
+        registry.put(fingerprint, AvroSchemaCache.getJson(fingerprint));
+        assertThat(folder.getRoot().list().length, is(1));
+    }
+
+    /**
+     * Each schema is only shared once by a coder, even when the schema of the elements changes back and forth.
+     */
+    @Test
+    public void testShareSchemaOnce() throws Exception {
+        final List<Long> puts = new ArrayList<>();
+        final FileSystemAvroSchemaRegistry fsRegistry = new FileSystemAvroSchemaRegistry(
+                folder.getRoot().getAbsolutePath());
+        LazyAvroCoder.setSchemaRegistry(new AvroSchemaRegistry() {
+
+            @Override
+            public void put(long fingerprint, byte[] json) throws IOException {
+                puts.add(fingerprint);
+                fsRegistry.put(fingerprint, json);
+            }
+
+            @Override
+            public byte[] get(long fingerprint) throws IOException {
+                return fsRegistry.get(fingerprint);
+            }
+        });
+        Schema otherSchema = SchemaBuilder.record("other").fields().requiredString("key").endRecord();
+        IndexedRecord otherRecord = new GenericRecordBuilder(otherSchema).set("key", "k").build();
+
+        LazyAvroCoder<IndexedRecord> coder = LazyAvroCoder.of();
+        for (int i = 0; i < 3; i++) {
+            byte[] encoded = CoderUtils.encodeToByteArray(coder, record);
+            assertThat(CoderUtils.decodeFromByteArray(coder, encoded), is((Object) record));
+            encoded = CoderUtils.encodeToByteArray(coder, otherRecord);
+            assertThat(CoderUtils.decodeFromByteArray(coder, encoded), is((Object) otherRecord));
+        }
+
+        assertThat(puts, contains(AvroSchemaCache.register(schema), AvroSchemaCache.register(otherSchema)));
     }
 
     /**
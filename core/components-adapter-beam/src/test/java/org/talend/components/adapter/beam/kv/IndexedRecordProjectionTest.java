@@ -0,0 +1,116 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2017 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package org.talend.components.adapter.beam.kv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.Test;
+
+public class IndexedRecordProjectionTest {
+
+    private final Schema inputDataSchema = SchemaBuilder.record("data") //
+            .fields() //
+            .name("a").type().optional().stringType() //
+            .name("b").type().optional().stringType() //
+            .name("c").type().optional().stringType() //
+            .endRecord();
+
+    private final Schema inputHierarchicalSchema = SchemaBuilder.record("inputRow") //
+            .fields() //
+            .name("name").type().optional().stringType() //
+            .name("data").type().optional().type(inputDataSchema) //
+            .name("count").type().intType().noDefault() //
+            .endRecord();
+
+    private GenericRecord createRecord(String name, String a, String b, String c, int count) {
+        return new GenericRecordBuilder(inputHierarchicalSchema) //
+                .set("name", name) //
+                .set("data", new GenericRecordBuilder(inputDataSchema).set("a", a).set("b", b).set("c", c).build()) //
+                .set("count", count) //
+                .build();
+    }
+
+    /**
+     * The projection must give the same records than {@link KeyValueUtils#extractIndexedRecord(IndexedRecord, Schema)}.
+     */
+    @Test
+    public void testSameAsExtractIndexedRecord() {
+        List<String> keyList = Arrays.asList("data.c", "name", "data.a", "unknown");
+        Schema keySchema = SchemaGeneratorUtils.extractKeys(inputHierarchicalSchema, keyList);
+        Schema valueSchema = SchemaGeneratorUtils.extractValues(inputHierarchicalSchema, keyList);
+        IndexedRecordProjection keyProjection = IndexedRecordProjection.of(inputHierarchicalSchema, keySchema);
+        IndexedRecordProjection valueProjection = IndexedRecordProjection.of(inputHierarchicalSchema, valueSchema);
+
+        for (GenericRecord input : Arrays.asList(createRecord("first", "a1", "b1", "c1", 1),
+                createRecord(null, null, "b2", null, 2))) {
+            assertEquals(KeyValueUtils.extractIndexedRecord(input, keySchema), keyProjection.project(input));
+            assertEquals(KeyValueUtils.extractIndexedRecord(input, valueSchema), valueProjection.project(input));
+        }
+    }
+
+    /**
+     * A null nested record is kept as null, like with {@link KeyValueUtils#extractIndexedRecord(IndexedRecord, Schema)}.
+     */
+    @Test
+    public void testNullNestedRecord() {
+        GenericRecord input = createRecord("first", "a1", "b1", "c1", 1);
+        input.put("data", null);
+        Schema keySchema = SchemaGeneratorUtils.extractKeys(inputHierarchicalSchema, Arrays.asList("data.b", "count"));
+
+        IndexedRecord output = IndexedRecordProjection.of(inputHierarchicalSchema, keySchema).project(input);
+        assertEquals(KeyValueUtils.extractIndexedRecord(input, keySchema), output);
+        assertEquals(null, output.get(0));
+        assertEquals(1, output.get(1));
+    }
+
+    /**
+     * A nested record with another schema than the one the projection was compiled for is projected dynamically.
+     */
+    @Test
+    public void testNestedRecordWithAnotherSchema() {
+        Schema otherDataSchema = SchemaBuilder.record("otherData") //
+                .fields() //
+                .name("c").type().optional().stringType() //
+                .name("a").type().optional().stringType() //
+                .endRecord();
+        GenericRecord input = createRecord("first", "a1", "b1", "c1", 1);
+        input.put("data", new GenericRecordBuilder(otherDataSchema).set("a", "a2").set("c", "c2").build());
+        Schema keySchema = SchemaGeneratorUtils.extractKeys(inputHierarchicalSchema, Arrays.asList("data.a"));
+
+        IndexedRecord output = IndexedRecordProjection.of(inputHierarchicalSchema, keySchema).project(input);
+        assertEquals(KeyValueUtils.extractIndexedRecord(input, keySchema), output);
+        assertEquals("a2", ((IndexedRecord) output.get(0)).get(0));
+    }
+
+    /**
+     * A null value can't be put in a field which is not a union with null, even if the field has a default value.
+     */
+    @Test(expected = AvroRuntimeException.class)
+    public void testNullInFieldWithDefault() {
+        Schema outputSchema = SchemaBuilder.record("inputRow") //
+                .fields() //
+                .name("name").type().stringType().stringDefault("default") //
+                .endRecord();
+        GenericRecord input = createRecord(null, "a1", "b1", "c1", 1);
+        IndexedRecordProjection.of(inputHierarchicalSchema, outputSchema).project(input);
+    }
+}